@@ -0,0 +1,46 @@
+package com.garit.study.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주문 요청 1건당 admission control 비용 측정
+ * => ./gradlew jmh
+ *
+ * 1) uncontended : 스레드 1개, 회원 1명
+ * 2) contended   : 스레드 8개가 같은 전체 버킷을 CAS로 경쟁, 회원 1만명
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AdmissionControlBenchmark {
+
+    private static final int MEMBERS = 10_000;
+
+    private AdmissionControl admissionControl;
+
+    @Setup
+    public void setUp() {
+        // 한도에 걸리지 않도록 충분히 크게 잡아서, 허용 경로의 비용만 잰다.
+        admissionControl = new AdmissionControl(1_000_000_000, 1_000_000, 1_000_000_000, 1_000_000,
+                MEMBERS * 2, new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long uncontended() {
+        return admissionControl.tryAdmit(1L);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long contended() {
+        return admissionControl.tryAdmit((long) ThreadLocalRandom.current().nextInt(MEMBERS));
+    }
+}
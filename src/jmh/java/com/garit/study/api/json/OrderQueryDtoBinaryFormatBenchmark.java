@@ -0,0 +1,95 @@
+package com.garit.study.api.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.hibernate5.Hibernate5Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.garit.study.api.json.OrderQueryDtoSerializationBenchmark.ByteCounter;
+import com.garit.study.domain.Address;
+import com.garit.study.domain.OrderStatus;
+import com.garit.study.repository.order.query.OrderItemQueryDto;
+import com.garit.study.repository.order.query.OrderQueryDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * V4 ~ V6 응답(List<OrderQueryDto>) JSON vs Smile 비교
+ * => ./gradlew jmh
+ *
+ * 1) 크기   : @Setup에서 한번 인코딩해서 출력한다. (json bytes / smile bytes)
+ * 2) encode : 서버 응답 비용 (bytes 보조 카운터 => 초당 출력 바이트 수)
+ * 3) decode : 클라이언트 파싱 비용 (readTree, 두 포맷 모두 같은 트리를 만든다)
+ *
+ * 두 mapper 모두 스프링 부트와 같은 모듈 구성으로 만든다. (JavaTimeModule, Hibernate5Module, OrderQueryJsonModule)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderQueryDtoBinaryFormatBenchmark {
+
+    @Param({"1000"})
+    private int orders;
+
+    private List<OrderQueryDto> payload;
+    private ObjectMapper json;
+    private ObjectMapper smile;
+    private byte[] jsonBytes;
+    private byte[] smileBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        payload = new ArrayList<>(orders);
+        LocalDateTime now = LocalDateTime.now();
+        for (long i = 0; i < orders; i++) {
+            List<OrderItemQueryDto> orderItems = new ArrayList<>();
+            for (int j = 0; j < 3; j++) {
+                orderItems.add(new OrderItemQueryDto(i, "JPA" + j + " BOOK", 10000 * (j + 1), j + 1));
+            }
+            payload.add(new OrderQueryDto(i, "user" + i, now.minusMinutes(i), i % 10 == 0 ? OrderStatus.CANCEL : OrderStatus.ORDER,
+                    new Address("서울", "강가", "123-123"), orderItems));
+        }
+
+        json = bootBuilder().build();
+        smile = new OrderQuerySmileHttpMessageConverter(bootBuilder(), TimeZone.getTimeZone("Asia/Seoul")).getObjectMapper();
+
+        jsonBytes = json.writeValueAsBytes(payload);
+        smileBytes = smile.writeValueAsBytes(payload);
+        System.out.printf("%njson bytes=%d, smile bytes=%d (%.1f%%)%n",
+                jsonBytes.length, smileBytes.length, 100.0 * smileBytes.length / jsonBytes.length);
+    }
+
+    private Jackson2ObjectMapperBuilder bootBuilder() {
+        return new Jackson2ObjectMapperBuilder()
+                .modules(new JavaTimeModule(), new Hibernate5Module(), new OrderQueryJsonModule());
+    }
+
+    @Benchmark
+    public void encodeJson(ByteCounter counter) throws IOException {
+        json.writeValue(counter, payload);
+    }
+
+    @Benchmark
+    public void encodeSmile(ByteCounter counter) throws IOException {
+        smile.writeValue(counter, payload);
+    }
+
+    @Benchmark
+    public JsonNode decodeJson() throws IOException {
+        return json.readTree(jsonBytes);
+    }
+
+    @Benchmark
+    public JsonNode decodeSmile() throws IOException {
+        return smile.readTree(smileBytes);
+    }
+}
@@ -0,0 +1,104 @@
+package com.garit.study.api.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.hibernate5.Hibernate5Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.garit.study.domain.Address;
+import com.garit.study.domain.OrderStatus;
+import com.garit.study.repository.order.query.OrderItemQueryDto;
+import com.garit.study.repository.order.query.OrderQueryDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * V4 ~ V6 응답(List<OrderQueryDto>) 직렬화 비용 비교
+ * => ./gradlew jmh
+ *
+ * 1) databind  : 스프링 부트 기본 설정 (JavaTimeModule + Hibernate5Module, 리플렉션)
+ * 2) streaming : OrderQueryJsonModule 등록
+ *
+ * bytes 보조 카운터 => 초당 출력 바이트 수
+ * 할당량은 GC 프로파일러로 확인한다. => jmh { profilers = ['gc'] } (gc.alloc.rate.norm : 1회당 할당 바이트)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderQueryDtoSerializationBenchmark {
+
+    @Param({"1000"})
+    private int orders;
+
+    private List<OrderQueryDto> payload;
+    private ObjectMapper databind;
+    private ObjectMapper streaming;
+
+    @Setup
+    public void setUp() {
+        payload = new ArrayList<>(orders);
+        LocalDateTime now = LocalDateTime.now();
+        for (long i = 0; i < orders; i++) {
+            List<OrderItemQueryDto> orderItems = new ArrayList<>();
+            for (int j = 0; j < 3; j++) {
+                orderItems.add(new OrderItemQueryDto(i, "JPA" + j + " BOOK", 10000 * (j + 1), j + 1));
+            }
+            payload.add(new OrderQueryDto(i, "user" + i, now.minusMinutes(i), OrderStatus.ORDER,
+                    new Address("서울", "강가", "123-123"), orderItems));
+        }
+
+        databind = defaultMapper();
+        streaming = defaultMapper().registerModule(new OrderQueryJsonModule());
+    }
+
+    private ObjectMapper defaultMapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .registerModule(new Hibernate5Module())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    @Benchmark
+    public void databind(ByteCounter counter) throws IOException {
+        databind.writeValue(counter, payload);
+    }
+
+    @Benchmark
+    public void streaming(ByteCounter counter) throws IOException {
+        streaming.writeValue(counter, payload);
+    }
+
+    /**
+     * 출력 바이트 수만 세고 버리는 OutputStream
+     * => 소켓 쓰기 비용을 빼고 직렬화 비용만 잰다.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class ByteCounter extends OutputStream {
+
+        public long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+
+        @Override
+        public void close() {
+            // ObjectMapper.writeValue()가 스트림을 닫아도 계속 사용한다.
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.garit.study.repository.order.query;
+
+import com.garit.study.StudyApplication;
+import com.garit.study.api.OrderApiController;
+import com.garit.study.datagen.DataGenerator;
+import com.garit.study.service.SalesRollupService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주문 목록 조회 방식 비교 (V5, V6, V7)
+ * => ./gradlew jmh
+ *
+ * 1) v5Optimization : JPQL DTO 조회 루트 1번 + 주문상품 IN 1번 + Map 매칭
+ * 2) v6Flat         : JPQL 플랫 DTO 한방 쿼리 + groupingBy 재조립 (컨트롤러)
+ * 3) v7Jdbc         : JDBC 한방 쿼리 + 정렬된 결과를 한번만 읽으면서 조립
+ *
+ * H2 메모리 DB에 DataGenerator로 주문 orders개를 만들고, 웹 서버 없이 스프링 컨텍스트만 띄운다.
+ * SQL 로그는 끈다. => 로그 출력이 결과를 지배하지 않도록
+ * 할당량은 GC 프로파일러로 확인한다. => jmh { profilers = ['gc'] } (gc.alloc.rate.norm : 1회당 할당 바이트)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderQueryBenchmark {
+
+    @Param({"1000"})
+    private int orders;
+
+    private ConfigurableApplicationContext context;
+    private OrderQueryRepository orderQueryRepository;
+    private OrderQueryJdbcRepository orderQueryJdbcRepository;
+    private OrderApiController orderApiController;
+
+    @Setup
+    public void setUp() {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        context = new SpringApplicationBuilder(StudyApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=bench",
+                        "--spring.datasource.url=jdbc:h2:mem:bench",
+                        "--decorator.datasource.p6spy.enable-logging=false",
+                        "--logging.level.root=warn");
+
+        StandardEnvironment env = new StandardEnvironment();
+        env.getPropertySources().addFirst(new MapPropertySource("bench", Map.of(
+                "datagen.members", String.valueOf(Math.max(1, orders / 4)),
+                "datagen.items", "200",
+                "datagen.orders", String.valueOf(orders))));
+        new DataGenerator(context.getBean(JdbcTemplate.class), context.getBean(PlatformTransactionManager.class),
+                context.getBean(SalesRollupService.class), context, env).generate();
+
+        orderQueryRepository = context.getBean(OrderQueryRepository.class);
+        orderQueryJdbcRepository = context.getBean(OrderQueryJdbcRepository.class);
+        orderApiController = context.getBean(OrderApiController.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> v5Optimization() {
+        return orderQueryRepository.findAllByDto_optimization();
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> v6Flat() {
+        return orderApiController.ordersV6();
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> v7Jdbc() {
+        return orderQueryJdbcRepository.findAllByJdbc();
+    }
+}
@@ -3,12 +3,21 @@ package com.garit.study;
 import com.garit.study.domain.*;
 import com.garit.study.domain.item.Book;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
-import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * 총 주문 2개
@@ -20,21 +29,63 @@ import javax.persistence.EntityManager;
  * * userB
  * * * SPRING1 BOOK
  * * * SPRING2 BOOK
+ *
+ * seed 프로필에서만 등록한다. => 배포(dev)에서는 실행되지 않는다.
+ * datagen 프로필에서는 DataGenerator가 대량 데이터를 만들므로 등록하지 않는다.
  */
+@Slf4j
 @Component
-@RequiredArgsConstructor
-public class InitDb {
+@Profile("seed & !datagen")
+public class InitDb implements DisposableBean {
 
     private final InitService initService;
+    private final ExecutorService seeder;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final CompletableFuture<Void> seeded = new CompletableFuture<>();
+
+    public InitDb(InitService initService) {
+        this.initService = initService;
+        this.seeder = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "init-db");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 
     /**
-     * Component Scan 후 스프링 빈이 모두 등록되면,
-     * @PostConstruct 어노테이션이 붙은 메서드가 호출된다.
+     * 서버가 요청을 받을 수 있게 된 뒤(readiness = ACCEPTING_TRAFFIC)에 데이터를 넣는다.
+     * => @PostConstruct에서 넣으면 DB 쓰기가 끝날 때까지 기동(readiness)이 늦어진다.
+     * => 이벤트 리스너는 readiness를 발행한 스레드(SpringApplication.run)에서 바로 호출된다.
+     *    여기서 넣으면 넣는 동안 기동이 끝나지 않으므로, 전용 스레드(init-db)로 넘기고 바로 돌아간다.
+     * => readiness가 다시 ACCEPTING_TRAFFIC이 되어도 한번만 넣는다.
      */
-    @PostConstruct
-    public void init(){
-        initService.dbInit1();
-        initService.dbInit2();
+    @EventListener
+    public void init(AvailabilityChangeEvent<ReadinessState> event){
+        if (event.getState() != ReadinessState.ACCEPTING_TRAFFIC || !started.compareAndSet(false, true)) {
+            return;
+        }
+        seeder.execute(() -> {
+            try {
+                initService.dbInit1();
+                initService.dbInit2();
+                seeded.complete(null);
+            } catch (RuntimeException e) {
+                log.warn("sample data seeding failed", e);
+                seeded.completeExceptionally(e);
+            }
+        });
+    }
+
+    /**
+     * 샘플 데이터를 다 넣으면 완료된다. => 샘플 데이터가 있어야 하는 쪽(테스트)이 기다린다.
+     */
+    public CompletableFuture<Void> seeded() {
+        return seeded;
+    }
+
+    @Override
+    public void destroy() {
+        seeder.shutdownNow();
     }
 
     @Component
@@ -1,9 +1,14 @@
 package com.garit.study;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.hibernate5.Hibernate5Module;
+import com.garit.study.api.json.JfrMappingJackson2HttpMessageConverter;
+import com.garit.study.api.json.OrderQueryJsonModule;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 
 /**
  * @SpringBootApplication 어노테이션이 붙으면,
@@ -12,8 +17,16 @@ import org.springframework.context.annotation.Bean;
 @SpringBootApplication
 public class StudyApplication {
 
+	// 기동 단계(StartupStep)를 몇 개까지 기록할지 => 빈 하나당 2 ~ 3개
+	private static final int STARTUP_STEP_CAPACITY = 10000;
+
+	/**
+	 * 기동 단계별 시간을 메모리에 기록한다. => StartupTimingReport, /actuator/startup
+	 */
 	public static void main(String[] args) {
-		SpringApplication.run(StudyApplication.class, args);
+		SpringApplication application = new SpringApplication(StudyApplication.class);
+		application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEP_CAPACITY));
+		application.run(args);
 	}
 
 	@Bean
@@ -22,4 +35,20 @@ public class StudyApplication {
 		//hibernate5Module.configure(Hibernate5Module.Feature.FORCE_LAZY_LOADING, true);
 		return hibernate5Module;
 	}
+
+	/**
+	 * V4 ~ V7 주문 API DTO 전용 serializer (리플렉션 X, 스트리밍으로 바로 쓰기)
+	 */
+	@Bean
+	OrderQueryJsonModule orderQueryJsonModule(){
+		return new OrderQueryJsonModule();
+	}
+
+	/**
+	 * 기본 JSON 컨버터 대체 => 직렬화 시간, 응답 크기를 JFR 이벤트(JsonSerializationEvent)로 남긴다.
+	 */
+	@Bean
+	MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper){
+		return new JfrMappingJackson2HttpMessageConverter(objectMapper);
+	}
 }
@@ -0,0 +1,149 @@
+package com.garit.study.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 주문 요청 허용 여부를 결정한다.
+ *
+ * 1) 회원별 버킷 => 한 회원의 요청 폭주가 다른 회원에게 영향을 주지 않도록
+ * 2) 전체 버킷 => DB 커넥션 풀이 감당할 수 있는 만큼만 받도록
+ *
+ * 회원별 버킷을 먼저 확인한다.
+ * => 전체 버킷을 먼저 꺼내면, 회원별 한도에 걸린 요청이 다른 회원의 몫을 써버리게 된다.
+ * => 전체 버킷에서 거절되면 회원 버킷에서 꺼낸 토큰을 돌려준다. (처리되지 않은 요청이 회원 한도를 쓰지 않도록)
+ *
+ * [회원별 버킷 보관]
+ * => ConcurrentHashMap에 보관한다. => 이미 있는 회원의 버킷 조회는 락 없이 읽기만 한다. (주문 요청마다 실행되는 경로)
+ *    접근 순서 LinkedHashMap(LRU)은 get도 순서를 바꾸는 쓰기라서 모든 조회가 락을 잡아야 하므로 쓰지 않는다.
+ * => 새 회원을 추가해서 maxTrackedMembers를 넘으면, 한 스레드만 전체를 훑어서 정리한다. (다른 스레드는 기다리지 않는다)
+ *    1) 가득 찬 버킷(TokenBucket.isFull)은 모두 지운다. => 새로 만든 버킷과 같으므로 지워도 한도가 바뀌지 않는다.
+ *    2) 그래도 많으면 방금 추가한 회원을 빼고 아무 버킷이나 지운다. => 한도 안의 회원이 너무 많을 때만 생긴다. (지운 회원은 버스트를 다시 받는다)
+ *    => maxTrackedMembers의 7/8까지 줄인다. 다음 정리까지 새 회원이 1/8 쌓여야 하므로 정리 비용은 추가 1건당 O(1)
+ * => 정리하는 동안 다른 스레드가 추가한 버킷만큼은 잠깐 maxTrackedMembers를 넘을 수 있다.
+ * => 지우는 순간 다른 스레드가 같은 버킷에서 토큰을 꺼냈으면 그 토큰 1개는 기록되지 않는다. (가득 찬 버킷이므로 영향은 토큰 1개)
+ */
+@Component
+public class AdmissionControl {
+
+    private final double memberPermitsPerSecond;
+    private final int memberBurst;
+    private final int maxTrackedMembers;
+    private final int evictTarget;
+
+    private final TokenBucket globalBucket;
+    private final ConcurrentHashMap<Long, TokenBucket> memberBuckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private final Counter admitted;
+    private final Counter rejectedByMember;
+    private final Counter rejectedByGlobal;
+
+    public AdmissionControl(@Value("${admission.member.permits-per-second:5}") double memberPermitsPerSecond,
+                            @Value("${admission.member.burst:10}") int memberBurst,
+                            @Value("${admission.global.permits-per-second:200}") double globalPermitsPerSecond,
+                            @Value("${admission.global.burst:400}") int globalBurst,
+                            @Value("${admission.max-tracked-members:100000}") int maxTrackedMembers,
+                            MeterRegistry meterRegistry) {
+        this.memberPermitsPerSecond = memberPermitsPerSecond;
+        this.memberBurst = memberBurst;
+        this.globalBucket = new TokenBucket(globalPermitsPerSecond, globalBurst, System.nanoTime());
+        if (maxTrackedMembers < 1) {
+            throw new IllegalArgumentException("maxTrackedMembers >= 1 이어야 합니다.");
+        }
+        this.maxTrackedMembers = maxTrackedMembers;
+        this.evictTarget = Math.max(1, maxTrackedMembers - maxTrackedMembers / 8);
+
+        this.admitted = meterRegistry.counter("admission.requests", "result", "admitted");
+        this.rejectedByMember = meterRegistry.counter("admission.requests", "result", "rejected_member");
+        this.rejectedByGlobal = meterRegistry.counter("admission.requests", "result", "rejected_global");
+        Gauge.builder("admission.tracked.members", this, AdmissionControl::trackedMembers).register(meterRegistry);
+    }
+
+    /**
+     * @param memberId 회원을 알 수 없으면 null => 전체 버킷만 확인한다.
+     * @return 0이면 허용, 0보다 크면 다시 시도할 때까지 기다려야 하는 시간(ns)
+     */
+    public long tryAdmit(Long memberId) {
+        return tryAdmit(memberId, System.nanoTime());
+    }
+
+    long tryAdmit(Long memberId, long now) {
+        TokenBucket memberBucket = null;
+        if (memberId != null) {
+            memberBucket = memberBucket(memberId, now);
+            long wait = memberBucket.tryAcquire(now);
+            if (wait > 0) {
+                rejectedByMember.increment();
+                return wait;
+            }
+        }
+
+        long wait = globalBucket.tryAcquire(now);
+        if (wait > 0) {
+            if (memberBucket != null) {
+                memberBucket.refund();
+            }
+            rejectedByGlobal.increment();
+            return wait;
+        }
+
+        admitted.increment();
+        return 0;
+    }
+
+    private TokenBucket memberBucket(Long memberId, long now) {
+        TokenBucket bucket = memberBuckets.get(memberId);
+        if (bucket != null) {
+            return bucket;
+        }
+        TokenBucket created = new TokenBucket(memberPermitsPerSecond, memberBurst, now);
+        bucket = memberBuckets.putIfAbsent(memberId, created);
+        if (bucket != null) {
+            return bucket;  // 다른 스레드가 먼저 추가했다.
+        }
+        if (memberBuckets.size() > maxTrackedMembers) {
+            evict(memberId, now);
+        }
+        return created;
+    }
+
+    /**
+     * 한 스레드만 정리한다. => 이미 정리 중이면 그냥 돌아간다.
+     * => keep : 방금 추가한 회원 => 아직 토큰을 꺼내기 전이라 가득 차 있지만 지우지 않는다.
+     * => remove(key, value) : 정리하는 사이 다시 만들어진 버킷은 지우지 않는다.
+     */
+    private void evict(Long keep, long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            for (Iterator<Long> it = memberBuckets.keySet().iterator(); it.hasNext(); ) {
+                Long memberId = it.next();
+                TokenBucket bucket = memberBuckets.get(memberId);
+                if (bucket != null && bucket.isFull(now) && !memberId.equals(keep)) {
+                    memberBuckets.remove(memberId, bucket);
+                }
+            }
+            for (Iterator<Long> it = memberBuckets.keySet().iterator(); it.hasNext() && memberBuckets.size() > evictTarget; ) {
+                Long memberId = it.next();
+                if (!memberId.equals(keep)) {
+                    it.remove();
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    int trackedMembers() {
+        return memberBuckets.size();
+    }
+}
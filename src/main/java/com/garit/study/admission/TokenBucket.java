@@ -0,0 +1,65 @@
+package com.garit.study.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 락 없는 토큰 버킷 (GCRA : Generic Cell Rate Algorithm)
+ *
+ * 남은 토큰 수와 마지막 충전 시각을 따로 저장하지 않고,
+ * "버킷이 다시 가득 차는 이론상 시각(TAT)" 하나만 AtomicLong으로 저장한다.
+ * => 값이 하나이므로 CAS 한번으로 토큰을 꺼낼 수 있다. (synchronized X)
+ *
+ * 1) 요청 1건마다 TAT를 emissionInterval(= 1초 / 초당 허용 수) 만큼 미룬다.
+ * 2) 미룬 TAT가 현재 시각보다 burst 이상 앞서 있으면, 버킷이 비어있는 것이다. => 거절
+ */
+public class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrivalTime;
+
+    public TokenBucket(double permitsPerSecond, int burst, long nowNanos) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("permitsPerSecond > 0, burst >= 1 이어야 합니다.");
+        }
+        this.emissionIntervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+        this.burstNanos = emissionIntervalNanos * burst;
+        this.theoreticalArrivalTime = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * 토큰 1개를 꺼낸다.
+     *
+     * @return 0이면 허용, 0보다 크면 토큰이 생길 때까지 기다려야 하는 시간(ns)
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrivalTime.get();
+            long newTat = Math.max(tat, nowNanos) + emissionIntervalNanos;
+            long waitNanos = newTat - burstNanos - nowNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrivalTime.compareAndSet(tat, newTat)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * tryAcquire()로 꺼낸 토큰 1개를 돌려준다.
+     * => 꺼낸 뒤에 다른 이유(전체 한도)로 요청이 거절된 경우에만 호출한다.
+     * => TAT를 emissionInterval 만큼 당긴다. 그 사이 다른 요청이 꺼냈어도 토큰 수는 1개만 늘어난다.
+     */
+    public void refund() {
+        theoreticalArrivalTime.addAndGet(-emissionIntervalNanos);
+    }
+
+    /**
+     * 버킷이 가득 찬 상태인지 확인한다.
+     * => 가득 찬 버킷은 새로 만든 버킷과 같으므로, 메모리에서 지워도 된다.
+     */
+    public boolean isFull(long nowNanos) {
+        return theoreticalArrivalTime.get() <= nowNanos;
+    }
+}
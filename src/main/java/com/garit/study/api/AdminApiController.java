@@ -0,0 +1,182 @@
+package com.garit.study.api;
+
+import com.garit.study.batch.DeliveryCompletionJob;
+import com.garit.study.batch.DeliveryCompletionJob.JobReport;
+import com.garit.study.batch.ImportFormat;
+import com.garit.study.batch.ImportReport;
+import com.garit.study.batch.ItemImportJob;
+import com.garit.study.batch.MemberImportJob;
+import com.garit.study.batch.MemberImportReport;
+import com.garit.study.batch.OrderArchiveJob;
+import com.garit.study.batch.OrderArchiveJob.ArchiveReport;
+import com.garit.study.cache.OffHeapResponseCache;
+import com.garit.study.cache.OffHeapResponseCache.ResponseCacheReport;
+import com.garit.study.monitoring.BatchFetchStatistics;
+import com.garit.study.monitoring.BatchFetchStatistics.BatchFetchReport;
+import com.garit.study.monitoring.StartupTimingReport;
+import com.garit.study.monitoring.StartupTimingReport.Report;
+import com.garit.study.service.OrderTotalPriceBackfillService;
+import com.garit.study.service.OrderTotalPriceBackfillService.BackfillResult;
+import com.garit.study.service.SalesRollupService;
+import com.garit.study.service.SalesRollupService.RebuildResult;
+import com.garit.study.stock.LowStockMonitor;
+import com.garit.study.stock.LowStockReport;
+import com.garit.study.stock.LowStockService;
+import com.garit.study.stock.StockThresholdEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 운영자용 API
+ * => 성능 튜닝에 필요한 런타임 정보를 조회한다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class AdminApiController {
+
+    private final BatchFetchStatistics batchFetchStatistics;
+    private final OffHeapResponseCache responseCache;
+    private final SalesRollupService salesRollupService;
+    private final OrderTotalPriceBackfillService orderTotalPriceBackfillService;
+    private final DeliveryCompletionJob deliveryCompletionJob;
+    private final OrderArchiveJob orderArchiveJob;
+    private final StartupTimingReport startupTimingReport;
+    private final ItemImportJob itemImportJob;
+    private final MemberImportJob memberImportJob;
+    private final LowStockService lowStockService;
+    private final LowStockMonitor lowStockMonitor;
+
+    /**
+     * batch fetch(IN 쿼리) 통계와 추천 batch size
+     * => 추천값은 @BatchSize, hibernate.default_batch_fetch_size에 반영해서 다음 배포 때 적용한다.
+     */
+    @GetMapping("/api/admin/batch-fetch")
+    public List<BatchFetchReport> batchFetch() {
+        return batchFetchStatistics.report();
+    }
+
+    @DeleteMapping("/api/admin/batch-fetch")
+    public void resetBatchFetch() {
+        batchFetchStatistics.reset();
+    }
+
+    /**
+     * 힙 밖 응답 캐시 사용량, hit/miss
+     */
+    @GetMapping("/api/admin/response-cache")
+    public ResponseCacheReport responseCache() {
+        return responseCache.report();
+    }
+
+    @DeleteMapping("/api/admin/response-cache")
+    public void clearResponseCache() {
+        responseCache.invalidateAll();
+    }
+
+    /**
+     * 일별 매출 집계를 원본 주문에서 다시 만든다. (from 포함 ~ to 제외)
+     * => 기본값 : 첫 주문일 ~ 어제
+     */
+    @PostMapping("/api/admin/sales-rollup/rebuild")
+    public RebuildResult rebuildSalesRollup(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return salesRollupService.rebuild(from, to);
+    }
+
+    /**
+     * orders.total_price 컬럼을 주문상품에서 다시 계산해서 채운다.
+     */
+    @PostMapping("/api/admin/orders/total-price/backfill")
+    public BackfillResult backfillOrderTotalPrice() {
+        return orderTotalPriceBackfillService.backfill();
+    }
+
+    /**
+     * 배송 완료 배치 마지막 실행 결과 (처리 건수, 초당 처리량)
+     */
+    @GetMapping("/api/admin/batch/delivery-completion")
+    public JobReport deliveryCompletion() {
+        return deliveryCompletionJob.getLastReport();
+    }
+
+    /**
+     * 배송 완료 배치 바로 실행 => 이미 실행 중이면 빈 응답
+     */
+    @PostMapping("/api/admin/batch/delivery-completion")
+    public JobReport runDeliveryCompletion() {
+        return deliveryCompletionJob.run();
+    }
+
+    /**
+     * 주문 보관 배치 마지막 실행 결과 (옮긴 건수, 전후 조회 시간)
+     */
+    @GetMapping("/api/admin/archive/orders")
+    public ArchiveReport orderArchive() {
+        return orderArchiveJob.getLastReport();
+    }
+
+    /**
+     * 주문 보관 배치 바로 실행 => 이미 실행 중이면 빈 응답
+     */
+    @PostMapping("/api/admin/archive/orders")
+    public ArchiveReport runOrderArchive() {
+        return orderArchiveJob.run();
+    }
+
+    /**
+     * 상품 대량 등록 => 요청 바디(CSV / NDJSON, UTF-8)를 스트림으로 읽는다.
+     * => curl -X POST --data-binary @items.csv -H "Content-Type: text/csv" ".../api/admin/import/items?format=CSV"
+     */
+    @PostMapping("/api/admin/import/items")
+    public ImportReport importItems(@RequestParam(value = "format", defaultValue = "CSV") ImportFormat format,
+                                    InputStream body) throws IOException {
+        return itemImportJob.run(body, format);
+    }
+
+    /**
+     * 회원 대량 등록 => 이름이 이미 있는 회원, 파일 안에서 이름이 겹치는 회원은 건너뛴다.
+     * => curl -X POST --data-binary @members.csv -H "Content-Type: text/csv" ".../api/admin/import/members?format=CSV"
+     */
+    @PostMapping("/api/admin/import/members")
+    public MemberImportReport importMembers(@RequestParam(value = "format", defaultValue = "CSV") ImportFormat format,
+                                            InputStream body) throws IOException {
+        return memberImportJob.run(body, format);
+    }
+
+    /**
+     * 재고 부족 리포트 => 재고가 threshold(기본 low-stock.threshold) 미만인 상품, 재고 적은 순
+     */
+    @GetMapping("/api/admin/stock/low")
+    public LowStockReport lowStock(@RequestParam(value = "threshold", required = false) Integer threshold,
+                                   @RequestParam(value = "offset", defaultValue = "0") int offset,
+                                   @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return lowStockService.report(threshold, offset, limit);
+    }
+
+    /**
+     * 최근 재고 임계치 알림 (최신 순) => 재고 부족(BELOW), 회복(RECOVERED)
+     */
+    @GetMapping("/api/admin/stock/alerts")
+    public List<StockThresholdEvent> stockAlerts() {
+        return lowStockMonitor.recentAlerts();
+    }
+
+    /**
+     * 기동 단계별 시간 (ready, hibernate, querydsl, 느린 빈 상위 10개)
+     */
+    @GetMapping("/api/admin/startup")
+    public Report startup() {
+        return startupTimingReport.getReport();
+    }
+}
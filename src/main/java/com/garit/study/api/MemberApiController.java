@@ -1,5 +1,6 @@
 package com.garit.study.api;
 
+import com.garit.study.cache.MemberSnapshot;
 import com.garit.study.domain.Member;
 import com.garit.study.service.MemberService;
 import lombok.AllArgsConstructor;
@@ -41,13 +42,13 @@ public class MemberApiController {
      * 중간에 API 스펙에 맞는 DTO를 만들어서 사용해야 한다.
      */
     @GetMapping("/api/v2/members")
-    public Result<MemberDto> membersV2() {
+    public Result<List<MemberDto>> membersV2() {
         List<Member> findMembers = memberService.findMembers();
         List<MemberDto> collect = findMembers.stream()
                 .map(m -> new MemberDto(m.getName()))
                 .collect(Collectors.toList());
 
-        return new Result(collect.size(), collect);
+        return new Result<>(collect.size(), collect);
     }
 
     @Data
@@ -119,7 +120,7 @@ public class MemberApiController {
                                                @RequestBody @Valid UpdateMemberRequest request) {
 
         memberService.update(id, request.getName());
-        Member findMember = memberService.findOne(id);
+        MemberSnapshot findMember = memberService.findSnapshot(id);
         return new UpdateMemberResponse(findMember.getId(), findMember.getName());
     }
 
@@ -1,23 +1,31 @@
 package com.garit.study.api;
 
+import com.garit.study.bulkhead.Bulkhead;
+import com.garit.study.bulkhead.Compartment;
 import com.garit.study.domain.Address;
 import com.garit.study.domain.Order;
 import com.garit.study.domain.OrderItem;
 import com.garit.study.domain.OrderStatus;
+import com.garit.study.monitoring.jfr.OrderQueryEvent;
+import com.garit.study.repository.OrderFetchPlan;
 import com.garit.study.repository.OrderRepository;
 import com.garit.study.repository.OrderSearch;
 import com.garit.study.repository.order.query.OrderFlatDto;
 import com.garit.study.repository.order.query.OrderItemQueryDto;
+import com.garit.study.repository.order.query.OrderQueryJdbcRepository;
 import com.garit.study.repository.order.query.OrderQueryDto;
 import com.garit.study.repository.order.query.OrderQueryRepository;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import static java.util.stream.Collectors.*;
@@ -26,36 +34,43 @@ import static java.util.stream.Collectors.*;
 @RequiredArgsConstructor
 public class OrderApiController {
 
+    private static final int ARCHIVED_MAX_LIMIT = 1000;
+
     private final OrderRepository orderRepository;
     private final OrderQueryRepository orderQueryRepository;
+    private final OrderQueryJdbcRepository orderQueryJdbcRepository;
+    private final Bulkhead bulkhead;
 
 
     /**
      * V1 : 엔티티를 직접 노출
      */
     @GetMapping("/api/v1/orders")
-    public List<Order> ordersV1() {
-        List<Order> all = orderRepository.findAllByString(new OrderSearch());
-        /**
-         * Hibernate5Module 기본설정을 사용하고 있다.
-         * LAZY LOADING을 통해 프록시 초기화돼서, 데이터가 로딩된 객체만 반환이 된다.
-         * 따라서 객체 그래프를 초기화할 필요가 있다.
-         */
-        for (Order order : all) {
-            // Member 프록시 초기화
-            order.getMember().getName();
-
-            // Delivery 프록시 초기화
-            order.getDelivery().getAddress();
-
-            // OrderItem 프록시 초기화
-            List<OrderItem> orderItems = order.getOrderItems();
-
-            // Item 프록시 초기화
-            orderItems.stream().forEach(oi -> oi.getItem().getName());
-        }
+    public CompletableFuture<List<Order>> ordersV1() {
+        // 무거운 조회 => READ 구획에서 실행 (구획이 꽉 차면 503)
+        return bulkhead.submit(Compartment.READ, () -> {
+            List<Order> all = orderRepository.findAllByString(new OrderSearch());
+            /**
+             * Hibernate5Module 기본설정을 사용하고 있다.
+             * LAZY LOADING을 통해 프록시 초기화돼서, 데이터가 로딩된 객체만 반환이 된다.
+             * 따라서 객체 그래프를 초기화할 필요가 있다.
+             */
+            for (Order order : all) {
+                // Member 프록시 초기화
+                order.getMember().getName();
+
+                // Delivery 프록시 초기화
+                order.getDelivery().getAddress();
+
+                // OrderItem 프록시 초기화
+                List<OrderItem> orderItems = order.getOrderItems();
+
+                // Item 프록시 초기화
+                orderItems.stream().forEach(oi -> oi.getItem().getName());
+            }
 
-        return all;
+            return all;
+        });
     }
 
     /**
@@ -100,17 +115,14 @@ public class OrderApiController {
      * => 데이터가 부정합하게 조회될 수 있다.
      */
     @GetMapping("/api/v3/orders")
-    public List<OrderDto> ordersV3() {
-        List<Order> orders = orderRepository.findAllWithItem();
+    public CompletableFuture<List<OrderDto>> ordersV3() {
+        return bulkhead.submit(Compartment.READ, () -> {
+            List<Order> orders = orderRepository.findAllWithItem();
 
-        for (Order order : orders) {
-            // JPA에서는 PK(id)가 똑같으면 완전히 동일한 객체이다.
-            System.out.println("order ref = " + order + ", order id = " + order.getId());
-        }
-
-        return orders.stream()
-                .map(o -> new OrderDto(o))
-                .collect(Collectors.toList());
+            return orders.stream()
+                    .map(o -> new OrderDto(o))
+                    .collect(Collectors.toList());
+        });
     }
 
     /**
@@ -163,6 +175,23 @@ public class OrderApiController {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * V3.2 : 엔티티 그래프 기반 fetch plan
+     * <p>
+     * => V3.1과 같은 쿼리 전략(ToOne 페치 + 컬렉션 batch fetch)을 OrderFetchPlan으로 선택한다.
+     * => 화면마다 페치 조인 JPQL을 새로 만들지 않고, 필요한 만큼만 plan으로 골라서 조회한다.
+     */
+    @GetMapping("/api/v3.2/orders")
+    public List<OrderDto> ordersV3_plan(
+            @RequestParam(value = "offset", defaultValue = "0") int offset,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        List<Order> orders = orderRepository.findAll(OrderFetchPlan.FULL, offset, limit);
+
+        return orders.stream()
+                .map(o -> new OrderDto(o))
+                .collect(Collectors.toList());
+    }
+
     /**
      * V4 : JPA에서 DTO 직접 조회
      * <p>
@@ -198,10 +227,28 @@ public class OrderApiController {
      *
      * [문제점]
      * 1. 코드가 복잡하다.
+     *
+     * includeArchived=true 이면 보관 테이블의 주문을 뒤에 붙여서 반환한다.
+     * => 기본 조회는 운영 테이블(최근 주문)만 읽는다.
+     * => memberId, 주문일 from ~ to(포함)는 운영 주문과 보관 주문 양쪽에 같이 적용된다.
+     * => 보관 주문은 offset, limit(최대 ARCHIVED_MAX_LIMIT)으로 잘라서 붙인다.
      */
     @GetMapping("/api/v5/orders")
-    public List<OrderQueryDto> ordersV5() {
-        return orderQueryRepository.findAllByDto_optimization();
+    public List<OrderQueryDto> ordersV5(
+            @RequestParam(value = "includeArchived", defaultValue = "false") boolean includeArchived,
+            @RequestParam(value = "memberId", required = false) Long memberId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "offset", defaultValue = "0") int offset,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        LocalDateTime fromTime = from == null ? null : from.atStartOfDay();
+        LocalDateTime toTime = to == null ? null : to.plusDays(1).atStartOfDay();
+        List<OrderQueryDto> result = orderQueryRepository.findAllByDto_optimization(memberId, fromTime, toTime);
+        if (includeArchived) {
+            result.addAll(orderQueryRepository.findArchivedByDto_optimization(memberId, fromTime, toTime,
+                    Math.max(offset, 0), Math.min(Math.max(limit, 1), ARCHIVED_MAX_LIMIT)));
+        }
+        return result;
     }
 
 
@@ -226,7 +273,8 @@ public class OrderApiController {
     public List<OrderQueryDto> ordersV6() {
         List<OrderFlatDto> flats = orderQueryRepository.findAllByDto_flat();
 
-        return flats.stream()
+        OrderQueryEvent event = OrderQueryEvent.begin("findAllByDto_flat", "mapping");
+        List<OrderQueryDto> result = flats.stream()
                 .collect(
                         groupingBy(
                                 o -> new OrderQueryDto(o.getOrderId(), o.getName(), o.getOrderDate(), o.getOrderStatus(), o.getAddress()),
@@ -237,6 +285,27 @@ public class OrderApiController {
                 .stream()
                 .map(e -> new OrderQueryDto(e.getKey().getOrderId(), e.getKey().getName(), e.getKey().getOrderDate(), e.getKey().getOrderStatus(), e.getKey().getAddress(), e.getValue()))
                 .collect(toList());
+        event.end(result.size());
+        return result;
+    }
+
+    /**
+     * V7 : JDBC로 SQL 직접 사용 (쿼리 방식 선택 권장 순서 4번)
+     * <p>
+     * 1) Query : 1번 (V6와 같은 조인을 order_id 순서로 정렬)
+     * 2) 정렬된 결과를 한번만 읽으면서 주문이 바뀔 때마다 새 DTO를 만든다. => groupingBy 재조립 없음
+     * 3) 영속성 컨텍스트를 거치지 않는다.
+     *
+     * [장점]
+     * 1. V6의 장점(쿼리 1번)을 유지하면서 애플리케이션 추가 작업(플랫 DTO 생성, 재조립)이 없다.
+     *
+     * [문제점]
+     * 1. 테이블 / 컬럼 이름을 직접 쓰므로, 엔티티 매핑이 바뀌면 함께 고쳐야 한다.
+     * 2. V6와 같이 데이터 중복 전송, Order 기준 페이징 불가
+     */
+    @GetMapping("/api/v7/orders")
+    public List<OrderQueryDto> ordersV7() {
+        return orderQueryJdbcRepository.findAllByJdbc();
     }
 
 
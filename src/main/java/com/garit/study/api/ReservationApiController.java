@@ -0,0 +1,98 @@
+package com.garit.study.api;
+
+import com.garit.study.domain.ReservationStatus;
+import com.garit.study.domain.StockReservation;
+import com.garit.study.exception.NotEnoughStockException;
+import com.garit.study.service.OrderService;
+import com.garit.study.service.StockReservationService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+import java.util.NoSuchElementException;
+
+/**
+ * 재고 예약 API
+ * 1) POST /api/reservations : 재고를 ttlSeconds 동안 잡아둔다.
+ * 2) POST /api/reservations/{id}/confirm : 예약을 주문으로 확정한다.
+ * => 확정하지 않으면 만료되면서 재고가 돌아간다. (ReservationExpiryEngine)
+ *
+ * [응답 코드]
+ * => 400 : count < 1, ttlSeconds가 1 ~ MAX_TTL_SECONDS 밖이면 요청 검증(@Valid)에서 거절한다.
+ *          reservation.max-ttl-seconds를 넘는 ttl처럼 서비스가 거절한 입력(IllegalArgumentException)도 400
+ * => 404 : 없는 회원, 상품, 예약 (NoSuchElementException)
+ * => 409 : 재고 부족(NotEnoughStockException), 이미 확정했거나 만료된 예약을 확정(IllegalStateException)
+ */
+@RestController
+@RequiredArgsConstructor
+public class ReservationApiController {
+
+    private final StockReservationService stockReservationService;
+    private final OrderService orderService;
+
+    @PostMapping("/api/reservations")
+    public ReservationResponse reserve(@RequestBody @Valid ReserveRequest request) {
+        StockReservation reservation = stockReservationService.reserve(request.getMemberId(), request.getItemId(),
+                request.getCount(), request.getTtlSeconds());
+        return new ReservationResponse(reservation.getId(), reservation.getStatus(), reservation.getExpiresAt(), null);
+    }
+
+    @PostMapping("/api/reservations/{id}/confirm")
+    public ReservationResponse confirm(@PathVariable("id") Long id) {
+        orderService.orderReservation(id);
+        StockReservation reservation = stockReservationService.findOne(id);
+        return new ReservationResponse(reservation.getId(), reservation.getStatus(), reservation.getExpiresAt(),
+                reservation.getOrderId());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String invalidRequest(IllegalArgumentException e) {
+        return e.getMessage();
+    }
+
+    @ExceptionHandler(NoSuchElementException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public String notFound(NoSuchElementException e) {
+        return e.getMessage();
+    }
+
+    @ExceptionHandler({NotEnoughStockException.class, IllegalStateException.class})
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public String conflict(RuntimeException e) {
+        return e.getMessage();
+    }
+
+    @Data
+    static class ReserveRequest {
+
+        @NotNull
+        private Long memberId;
+
+        @NotNull
+        private Long itemId;
+
+        @Min(1)
+        private int count = 1;
+
+        @Min(1)
+        @Max(StockReservationService.MAX_TTL_SECONDS)
+        private long ttlSeconds = 300;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class ReservationResponse {
+        private Long reservationId;
+        private ReservationStatus status;
+        private LocalDateTime expiresAt;
+        private Long orderId;
+    }
+}
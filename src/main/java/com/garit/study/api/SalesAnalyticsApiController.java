@@ -0,0 +1,71 @@
+package com.garit.study.api;
+
+import com.garit.study.domain.OrderStatus;
+import com.garit.study.repository.sales.DailySalesRepository;
+import com.garit.study.repository.sales.SalesByDateDto;
+import com.garit.study.repository.sales.SalesByItemDto;
+import com.garit.study.repository.sales.SalesByStatusDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 매출 분석 API
+ * => 주문(orders, order_item)을 읽지 않고, 일별 매출 집계(daily_sales)만 읽는다.
+ *
+ * 기간 : from ~ to (둘 다 포함, yyyy-MM-dd) => 기본값은 최근 30일
+ * 상태 : 기본값 ORDER (유효한 매출), CANCEL을 주면 취소된 매출
+ */
+@RestController
+@RequiredArgsConstructor
+public class SalesAnalyticsApiController {
+
+    private static final int DEFAULT_DAYS = 30;
+
+    private final DailySalesRepository dailySalesRepository;
+
+    /**
+     * 일별 매출 (itemId를 주면 해당 상품만)
+     */
+    @GetMapping("/api/analytics/sales/daily")
+    public List<SalesByDateDto> daily(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "status", defaultValue = "ORDER") OrderStatus status,
+            @RequestParam(value = "itemId", required = false) Long itemId) {
+        LocalDate end = to == null ? LocalDate.now() : to;
+        return dailySalesRepository.findByDate(start(from, end), end, status, itemId);
+    }
+
+    /**
+     * 상품별 매출 (매출 순)
+     */
+    @GetMapping("/api/analytics/sales/items")
+    public List<SalesByItemDto> items(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "status", defaultValue = "ORDER") OrderStatus status) {
+        LocalDate end = to == null ? LocalDate.now() : to;
+        return dailySalesRepository.findByItem(start(from, end), end, status);
+    }
+
+    /**
+     * 주문 상태별 매출
+     */
+    @GetMapping("/api/analytics/sales/status")
+    public List<SalesByStatusDto> status(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to == null ? LocalDate.now() : to;
+        return dailySalesRepository.findByStatus(start(from, end), end);
+    }
+
+    private LocalDate start(LocalDate from, LocalDate end) {
+        return from == null ? end.minusDays(DEFAULT_DAYS - 1) : from;
+    }
+}
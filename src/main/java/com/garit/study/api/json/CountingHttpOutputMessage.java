@@ -0,0 +1,59 @@
+package com.garit.study.api.json;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 바디에 쓴 바이트 수를 세는 HttpOutputMessage => JsonSerializationEvent.bytes
+ */
+class CountingHttpOutputMessage implements HttpOutputMessage {
+
+    private final HttpOutputMessage delegate;
+    private CountingOutputStream body;
+
+    CountingHttpOutputMessage(HttpOutputMessage delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public OutputStream getBody() throws IOException {
+        if (body == null) {
+            body = new CountingOutputStream(delegate.getBody());
+        }
+        return body;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return delegate.getHeaders();
+    }
+
+    long getCount() {
+        return body == null ? 0 : body.count;
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.garit.study.api.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.garit.study.monitoring.jfr.JsonSerializationEvent;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * 스프링 부트 기본 JSON 컨버터와 같고, 직렬화 시간과 크기를 JFR 이벤트로 남긴다.
+ * => JFR 기록 중이 아니면 바이트를 세지 않고 그대로 쓴다.
+ */
+public class JfrMappingJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public JfrMappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        JsonSerializationEvent event = JsonSerializationEvent.begin("json", object);
+        if (!event.isEnabled()) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        CountingHttpOutputMessage counting = new CountingHttpOutputMessage(outputMessage);
+        super.writeInternal(object, type, counting);
+        event.end(counting.getCount());
+    }
+}
@@ -0,0 +1,43 @@
+package com.garit.study.api.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.garit.study.repository.order.query.OrderItemQueryDto;
+
+import java.io.IOException;
+
+/**
+ * OrderItemQueryDto => {"itemName": .., "orderPrice": .., "count": ..}
+ * => orderId는 @JsonIgnore 대상이므로 쓰지 않는다.
+ */
+public class OrderItemQueryDtoSerializer extends StdSerializer<OrderItemQueryDto> {
+
+    private static final long serialVersionUID = 1L;
+
+    // 필드 이름은 미리 인코딩해두고 재사용한다.
+    private static final SerializedString ITEM_NAME = new SerializedString("itemName");
+    private static final SerializedString ORDER_PRICE = new SerializedString("orderPrice");
+    private static final SerializedString COUNT = new SerializedString("count");
+
+    public OrderItemQueryDtoSerializer() {
+        super(OrderItemQueryDto.class);
+    }
+
+    @Override
+    public void serialize(OrderItemQueryDto orderItem, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        write(orderItem, gen);
+    }
+
+    static void write(OrderItemQueryDto orderItem, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        gen.writeFieldName(ITEM_NAME);
+        gen.writeString(orderItem.getItemName());
+        gen.writeFieldName(ORDER_PRICE);
+        gen.writeNumber(orderItem.getOrderPrice());
+        gen.writeFieldName(COUNT);
+        gen.writeNumber(orderItem.getCount());
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,21 @@
+package com.garit.study.api.json;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.garit.study.repository.order.query.OrderItemQueryDto;
+import com.garit.study.repository.order.query.OrderQueryDto;
+
+/**
+ * OrderQueryDto, OrderItemQueryDto 전용 직렬화 모듈
+ * => 두 DTO는 V4 ~ V7 주문 API에서만 반환하므로, 해당 API에만 적용된다.
+ * => Repository DTO에 @JsonSerialize를 붙이지 않는다. (Repository -> API 방향으로 의존관계가 생기지 않도록)
+ */
+public class OrderQueryJsonModule extends SimpleModule {
+
+    private static final long serialVersionUID = 1L;
+
+    public OrderQueryJsonModule() {
+        super("OrderQueryJsonModule");
+        addSerializer(OrderQueryDto.class, new OrderQueryDtoSerializer());
+        addSerializer(OrderItemQueryDto.class, new OrderItemQueryDtoSerializer());
+    }
+}
@@ -0,0 +1,38 @@
+package com.garit.study.api.json;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.ZoneId;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * V4 ~ V7 주문 API 바이너리 응답 설정 (Accept: application/x-jackson-smile)
+ *
+ * 1) OrderQuerySmileHttpMessageConverter를 빈으로 등록하면, 스프링 부트가 JSON 컨버터 뒤에 끼워 넣는다.
+ * => Accept 헤더가 없거나 모든 타입을 허용하면 지금처럼 JSON으로 응답한다.
+ * => 주문 시각을 epoch millis로 바꿀 때 쓰는 시간대 : order-query.smile.time-zone (주문 시각을 기록하는 시간대와 같아야 한다)
+ * 2) smile 라이브러리가 있으면 스프링 MVC가 모든 타입을 쓰는 기본 Smile 컨버터도 등록하므로, 이것은 제거한다.
+ */
+@Configuration
+public class OrderQuerySmileConfig implements WebMvcConfigurer {
+
+    @Bean
+    OrderQuerySmileHttpMessageConverter orderQuerySmileHttpMessageConverter(
+            Jackson2ObjectMapperBuilder builder,
+            @Value("${order-query.smile.time-zone:Asia/Seoul}") String timeZone) {
+        // ZoneId.of => 잘못된 이름이면 기동 실패 (TimeZone.getTimeZone은 조용히 GMT로 바꾼다)
+        return new OrderQuerySmileHttpMessageConverter(builder, TimeZone.getTimeZone(ZoneId.of(timeZone)));
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter.getClass() == MappingJackson2SmileHttpMessageConverter.class);
+    }
+}
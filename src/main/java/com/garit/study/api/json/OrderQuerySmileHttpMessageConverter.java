@@ -0,0 +1,84 @@
+package com.garit.study.api.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.garit.study.monitoring.jfr.JsonSerializationEvent;
+import com.garit.study.repository.order.query.OrderQueryDto;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.TimeZone;
+
+/**
+ * 대량 주문 API(V4 ~ V7, List<OrderQueryDto>) 전용 Smile 컨버터
+ * => 요청 헤더가 Accept: application/x-jackson-smile 일 때만 바이너리로 응답하고, 그 외에는 기존 JSON 그대로 응답한다.
+ *
+ * [크기가 줄어드는 이유]
+ * 1) 숫자는 가변 길이 바이너리로 쓴다.
+ * 2) 날짜는 epoch millis로 쓴다. => OrderQueryDtoSerializer
+ *    => 주문 시각(LocalDateTime)은 timeZone의 시각으로 보고 변환한다. (order-query.smile.time-zone, 기본 Asia/Seoul)
+ *    => JSON 응답은 문자열 그대로이므로 영향이 없다.
+ * 3) 필드 이름, 주문 상태(enum), 도시 이름 같은 반복 문자열은 처음 한번만 쓰고, 이후에는 사전 번호(back reference)로 쓴다.
+ * => enum 순서(ordinal)를 쓰지 않으므로 OrderStatus에 값이 추가되어도 클라이언트가 깨지지 않는다.
+ *
+ * 엔티티를 반환하는 다른 API는 Smile로 응답하지 않는다. (406) => OrderQuerySmileConfig
+ */
+public class OrderQuerySmileHttpMessageConverter extends MappingJackson2SmileHttpMessageConverter {
+
+    public OrderQuerySmileHttpMessageConverter(Jackson2ObjectMapperBuilder builder, TimeZone timeZone) {
+        super(smileMapper(builder, timeZone));
+    }
+
+    private static ObjectMapper smileMapper(Jackson2ObjectMapperBuilder builder, TimeZone timeZone) {
+        SmileFactory factory = new SmileFactory();
+        factory.configure(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES, true);
+        return builder.factory(factory).timeZone(timeZone).build();
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return isOrderQueryDtos(type) && super.canWrite(clazz, mediaType);
+    }
+
+    // 직렬화 시간과 크기를 JFR 이벤트로 남긴다. => JfrMappingJackson2HttpMessageConverter
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        JsonSerializationEvent event = JsonSerializationEvent.begin("smile", object);
+        if (!event.isEnabled()) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        CountingHttpOutputMessage counting = new CountingHttpOutputMessage(outputMessage);
+        super.writeInternal(object, type, counting);
+        event.end(counting.getCount());
+    }
+
+    private boolean isOrderQueryDtos(Type type) {
+        if (type == null) {
+            return false;
+        }
+        Class<?> element = ResolvableType.forType(type).asCollection().resolveGeneric(0);
+        return element != null && OrderQueryDto.class.isAssignableFrom(element);
+    }
+}
@@ -0,0 +1,161 @@
+package com.garit.study.batch;
+
+import com.garit.study.domain.BatchCheckpoint;
+import com.garit.study.repository.BatchCheckpointRepository;
+import com.garit.study.repository.DeliveryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 배송 완료 처리 배치 (READY => COMP)
+ *
+ * 시작할 때 체크포인트 행이 없으면 먼저 만들어서 커밋한다. (첫 실행)
+ * => 청크마다 이 행을 잠그므로, 서버 여러 대가 동시에 처음 실행해도 청크는 한번에 하나씩 처리된다.
+ *
+ * [청크 1개 = 트랜잭션 1개]
+ * 1) 체크포인트 행을 잠그고 마지막 처리 id를 읽는다.
+ * 2) 그 다음부터 대상 배송 id를 chunk-size개 조회한다. (keyset)
+ * 3) 벌크 update로 상태를 바꾸고, 체크포인트를 마지막 id로 옮긴다.
+ * 4) 영속성 컨텍스트를 비우고 커밋한다.
+ * => 배송이 수백만 건이어도 메모리에는 청크 하나의 id 목록만 올라간다.
+ * => 중간에 실패해도, 다시 실행하면 마지막으로 커밋된 청크 다음부터 이어서 처리한다.
+ *
+ * 끝까지 처리하면 체크포인트를 처음으로 되돌린다. => 이번에 아직 대상이 아니었던 배송은 다음 실행에서 처리
+ */
+@Slf4j
+@Component
+public class DeliveryCompletionJob {
+
+    static final String JOB_NAME = "delivery-completion";
+
+    private final DeliveryRepository deliveryRepository;
+    private final BatchCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final long shipAfterMinutes;
+
+    private final Counter completed;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile JobReport lastReport;
+
+    public DeliveryCompletionJob(DeliveryRepository deliveryRepository,
+                                 BatchCheckpointRepository checkpointRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${batch.delivery-completion.chunk-size:1000}") int chunkSize,
+                                 @Value("${batch.delivery-completion.ship-after-minutes:60}") long shipAfterMinutes,
+                                 MeterRegistry meterRegistry) {
+        this.deliveryRepository = deliveryRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.shipAfterMinutes = shipAfterMinutes;
+        this.completed = meterRegistry.counter("batch.delivery.completed");
+    }
+
+    /**
+     * @return 이미 실행 중이면 null
+     */
+    public JobReport run() {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            createCheckpointIfAbsent();
+            LocalDateTime cutoff = LocalDateTime.now().minusMinutes(shipAfterMinutes);
+            long start = System.nanoTime();
+            int chunks = 0;
+            long processed = 0;
+
+            ChunkResult chunk;
+            do {
+                chunk = transactionTemplate.execute(status -> processChunk(cutoff));
+                chunks++;
+                processed += chunk.getUpdated();
+                completed.increment(chunk.getUpdated());
+            } while (!chunk.isLast());
+
+            JobReport report = new JobReport(LocalDateTime.now(), chunks, processed, (System.nanoTime() - start) / 1_000_000);
+            log.info("delivery completion job chunks={} processed={} elapsed={}ms throughput={}/s",
+                    report.getChunks(), report.getProcessed(), report.getElapsedMillis(), report.getThroughputPerSecond());
+            lastReport = report;
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void createCheckpointIfAbsent() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> checkpointRepository.createIfAbsent(JOB_NAME));
+        } catch (DataIntegrityViolationException e) {
+            // 다른 서버가 먼저 만들었다.
+            log.debug("checkpoint {} already created", JOB_NAME);
+        }
+    }
+
+    private ChunkResult processChunk(LocalDateTime cutoff) {
+        BatchCheckpoint checkpoint = checkpointRepository.findForUpdate(JOB_NAME);
+        List<Long> ids = deliveryRepository.findCompletableIds(checkpoint.getLastId(), cutoff, chunkSize);
+
+        int updated = 0;
+        if (!ids.isEmpty()) {
+            updated = deliveryRepository.complete(ids);
+            checkpoint.advance(ids.get(ids.size() - 1), updated);
+        }
+
+        boolean last = ids.size() < chunkSize;
+        if (last) {
+            checkpoint.rewind();
+        }
+
+        // 체크포인트 변경을 먼저 반영하고 비운다.
+        deliveryRepository.flush();
+        deliveryRepository.clear();
+        return new ChunkResult(updated, last);
+    }
+
+    public JobReport getLastReport() {
+        return lastReport;
+    }
+
+    @Getter
+    private static class ChunkResult {
+
+        private final int updated;
+        private final boolean last;
+
+        ChunkResult(int updated, boolean last) {
+            this.updated = updated;
+            this.last = last;
+        }
+    }
+
+    @Getter
+    public static class JobReport {
+
+        private final LocalDateTime finishedAt;
+        private final int chunks;
+        private final long processed;
+        private final long elapsedMillis;
+        private final long throughputPerSecond;
+
+        JobReport(LocalDateTime finishedAt, int chunks, long processed, long elapsedMillis) {
+            this.finishedAt = finishedAt;
+            this.chunks = chunks;
+            this.processed = processed;
+            this.elapsedMillis = elapsedMillis;
+            this.throughputPerSecond = elapsedMillis == 0 ? processed * 1000 : processed * 1000 / elapsedMillis;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.garit.study.batch;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * batch.delivery-completion.enabled=true 인 서버에서만 주기적으로 실행한다.
+ * => 실행이 끝난 뒤 fixed-delay 만큼 쉬고 다시 실행한다. (실행이 길어져도 겹치지 않는다)
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "batch.delivery-completion.enabled", havingValue = "true")
+public class DeliveryCompletionScheduler {
+
+    private final DeliveryCompletionJob deliveryCompletionJob;
+
+    @Scheduled(fixedDelayString = "${batch.delivery-completion.fixed-delay-ms:60000}",
+            initialDelayString = "${batch.delivery-completion.initial-delay-ms:60000}")
+    public void run() {
+        deliveryCompletionJob.run();
+    }
+}
@@ -0,0 +1,81 @@
+package com.garit.study.batch;
+
+import com.garit.study.repository.IdempotencyKeyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 보관 기간(ttl-hours)이 지난 Idempotency-Key 삭제 배치
+ * => 클라이언트가 재시도하는 기간만 중복을 막으면 된다. 지나간 키는 테이블과 PK 인덱스만 키운다.
+ * => 메모리의 최근 키 캐시(IdempotentOrderService)는 LRU로 따로 비워지므로 건드리지 않는다.
+ *
+ * [청크 1개 = 트랜잭션 1개]
+ * 오래된 키를 chunk-size개 조회해서 PK로 지운다. => 지운 키는 다음 조회에서 빠지므로 체크포인트가 필요 없다.
+ * => 한번에 지우지 않는다. 큰 delete 하나는 락을 오래 잡고, 그동안 같은 범위의 주문 insert가 기다린다.
+ */
+@Slf4j
+@Component
+public class IdempotencyKeyCleanupJob {
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final long ttlHours;
+
+    private final Counter deleted;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public IdempotencyKeyCleanupJob(IdempotencyKeyRepository idempotencyKeyRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${idempotency.cleanup.chunk-size:1000}") int chunkSize,
+                                    @Value("${idempotency.ttl-hours:24}") long ttlHours,
+                                    MeterRegistry meterRegistry) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.ttlHours = ttlHours;
+        this.deleted = meterRegistry.counter("batch.idempotency.keys.deleted");
+    }
+
+    /**
+     * @return 지운 키 수, 이미 실행 중이면 -1
+     */
+    public long run() {
+        if (!running.compareAndSet(false, true)) {
+            return -1;
+        }
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusHours(ttlHours);
+            long total = 0;
+            int count;
+            do {
+                count = transactionTemplate.execute(status -> deleteChunk(cutoff));
+                total += count;
+                deleted.increment(count);
+            } while (count == chunkSize);
+
+            log.info("idempotency key cleanup cutoff={} deleted={}", cutoff, total);
+            return total;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int deleteChunk(LocalDateTime cutoff) {
+        List<String> keys = idempotencyKeyRepository.findExpiredKeys(cutoff, chunkSize);
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        idempotencyKeyRepository.deleteAll(keys);
+        return keys.size();
+    }
+}
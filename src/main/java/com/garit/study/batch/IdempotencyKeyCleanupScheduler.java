@@ -0,0 +1,24 @@
+package com.garit.study.batch;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 기본으로 켜져 있다. (기본 : 한시간에 한번)
+ * => 여러 서버에서 같이 실행돼도 같은 키를 지울 뿐이므로, idempotency.cleanup.enabled=false 로 한 서버만 남겨도 된다.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "idempotency.cleanup.enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyKeyCleanupScheduler {
+
+    private final IdempotencyKeyCleanupJob idempotencyKeyCleanupJob;
+
+    @Scheduled(fixedDelayString = "${idempotency.cleanup.fixed-delay-ms:3600000}",
+            initialDelayString = "${idempotency.cleanup.initial-delay-ms:600000}")
+    public void run() {
+        idempotencyKeyCleanupJob.run();
+    }
+}
@@ -0,0 +1,11 @@
+package com.garit.study.batch;
+
+/**
+ * 대량 등록 파일 형식
+ * => CSV : 첫 줄은 헤더(필드 이름), 큰따옴표로 감싼 값 안에는 쉼표 / 줄바꿈 / "" 사용 가능
+ * => NDJSON : 한 줄에 JSON 객체 하나
+ */
+public enum ImportFormat {
+    CSV,
+    NDJSON
+}
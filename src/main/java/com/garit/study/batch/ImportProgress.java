@@ -0,0 +1,46 @@
+package com.garit.study.batch;
+
+import com.garit.study.batch.ImportReport.RowError;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 대량 등록 진행 상황 (요청 스레드 하나에서만 사용)
+ * => 오류 행은 개수는 모두 세고, 내용은 maxErrors개까지만 들고 있는다. (오류가 많은 파일이어도 메모리가 늘지 않도록)
+ */
+class ImportProgress {
+
+    private final int maxErrors;
+    private final List<RowError> errors = new ArrayList<>();
+    private final long start = System.nanoTime();
+
+    private long rows;
+    private long inserted;
+    private long updated;
+    private long failed;
+
+    ImportProgress(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    void read() {
+        rows++;
+    }
+
+    void written(int inserted, int updated) {
+        this.inserted += inserted;
+        this.updated += updated;
+    }
+
+    void fail(long line, String message) {
+        failed++;
+        if (errors.size() < maxErrors) {
+            errors.add(new RowError(line, message));
+        }
+    }
+
+    ImportReport toReport(ImportFormat format) {
+        return new ImportReport(format, rows, inserted, updated, failed, errors, (System.nanoTime() - start) / 1_000_000);
+    }
+}
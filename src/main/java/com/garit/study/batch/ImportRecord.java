@@ -0,0 +1,26 @@
+package com.garit.study.batch;
+
+import java.util.Map;
+
+/**
+ * 파일에서 읽은 행 하나 => 필드 이름 : 문자열 값 (빈 값, JSON null은 null)
+ * => line : 행이 시작하는 줄 번호 (오류 리포트용, 1부터)
+ */
+class ImportRecord {
+
+    private final long line;
+    private final Map<String, String> fields;
+
+    ImportRecord(long line, Map<String, String> fields) {
+        this.line = line;
+        this.fields = fields;
+    }
+
+    long getLine() {
+        return line;
+    }
+
+    String get(String field) {
+        return fields.get(field);
+    }
+}
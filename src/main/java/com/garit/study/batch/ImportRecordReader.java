@@ -0,0 +1,237 @@
+package com.garit.study.batch;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 대량 등록 파일을 한 행씩 읽는다. => 파일 전체를 메모리에 올리지 않는다.
+ * => 행 하나가 MAX_RECORD_CHARS를 넘으면 오류 행으로 처리한다. (파일이 아무리 커도 메모리는 행 하나 크기까지만 쓴다)
+ * => 형식이 잘못된 행은 ImportRowException을 던지고, 다음 next()에서 그 다음 행부터 계속 읽는다.
+ * => CSV 따옴표가 닫히지 않으면 어디서 다시 시작할지 알 수 없으므로, 오류를 던진 뒤 더 읽지 않는다.
+ *
+ * Reader는 호출하는 쪽에서 버퍼링(BufferedReader)해서 넘긴다. => 한 글자씩 읽는다.
+ */
+abstract class ImportRecordReader {
+
+    static final int MAX_RECORD_CHARS = 64 * 1024;
+
+    protected final Reader in;
+    protected long line = 1;
+
+    ImportRecordReader(Reader in) {
+        this.in = in;
+    }
+
+    static ImportRecordReader open(ImportFormat format, Reader in, ObjectMapper objectMapper) {
+        return format == ImportFormat.CSV ? new Csv(in) : new Ndjson(in, objectMapper);
+    }
+
+    /**
+     * @return 파일 끝이면 null
+     */
+    abstract ImportRecord next() throws IOException;
+
+    /**
+     * CSV (RFC 4180)
+     * => 첫 행의 헤더를 필드 이름으로 사용한다. 빈 줄은 건너뛴다.
+     */
+    static class Csv extends ImportRecordReader {
+
+        private String[] header;
+        private boolean broken;
+
+        Csv(Reader in) {
+            super(in);
+        }
+
+        @Override
+        ImportRecord next() throws IOException {
+            if (header == null) {
+                List<String> names = readRecord(line);
+                if (names == null) {
+                    return null;
+                }
+                header = new String[names.size()];
+                for (int i = 0; i < header.length; i++) {
+                    String name = names.get(i) == null ? "" : names.get(i).trim();
+                    header[i] = i == 0 && name.startsWith("\uFEFF") ? name.substring(1) : name;     // UTF-8 BOM
+                }
+            }
+
+            while (true) {
+                long start = line;
+                List<String> values = readRecord(start);
+                if (values == null) {
+                    return null;
+                }
+                if (values.size() == 1 && values.get(0) == null) {
+                    continue;   // 빈 줄
+                }
+                if (values.size() != header.length) {
+                    throw new ImportRowException(start, "컬럼 수가 헤더와 다릅니다. (" + values.size() + " != " + header.length + ")");
+                }
+                Map<String, String> fields = new HashMap<>();
+                for (int i = 0; i < header.length; i++) {
+                    fields.put(header[i], values.get(i));
+                }
+                return new ImportRecord(start, fields);
+            }
+        }
+
+        /**
+         * 행 하나 (따옴표 안의 줄바꿈은 값에 포함)
+         *
+         * @return 파일 끝이면 null, 빈 값은 null
+         */
+        private List<String> readRecord(long start) throws IOException {
+            if (broken) {
+                return null;
+            }
+            int c = in.read();
+            if (c == -1) {
+                return null;
+            }
+
+            List<String> values = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            boolean quoted = false;
+            int chars = 0;
+            while (true) {
+                if (++chars > MAX_RECORD_CHARS) {
+                    if (quoted) {
+                        broken = true;
+                        throw new ImportRowException(start, "값이 너무 깁니다. (따옴표가 닫히지 않았을 수 있어 이후 행은 읽지 않습니다)");
+                    }
+                    skipLine(c);
+                    throw new ImportRowException(start, "행이 " + MAX_RECORD_CHARS + "자를 넘습니다.");
+                }
+
+                if (quoted) {
+                    if (c == -1) {
+                        broken = true;
+                        throw new ImportRowException(start, "따옴표가 닫히지 않았습니다.");
+                    }
+                    if (c == '"') {
+                        int next = in.read();
+                        if (next == '"') {
+                            value.append('"');      // "" => "
+                        } else {
+                            quoted = false;
+                            c = next;
+                            continue;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        value.append((char) c);
+                    }
+                } else if (c == -1 || c == '\n') {
+                    values.add(value.length() == 0 ? null : value.toString());
+                    if (c == '\n') {
+                        line++;
+                    }
+                    return values;
+                } else if (c == ',') {
+                    values.add(value.length() == 0 ? null : value.toString());
+                    value.setLength(0);
+                } else if (c == '"' && value.length() == 0) {
+                    quoted = true;
+                } else if (c != '\r') {
+                    value.append((char) c);
+                }
+                c = in.read();
+            }
+        }
+
+        private void skipLine(int c) throws IOException {
+            while (c != -1 && c != '\n') {
+                c = in.read();
+            }
+            if (c == '\n') {
+                line++;
+            }
+        }
+    }
+
+    /**
+     * NDJSON => 한 줄에 JSON 객체 하나, 빈 줄은 건너뛴다.
+     * => 값은 문자열로 바꿔서 넘긴다. (숫자 검증은 CSV와 같이 행을 매핑할 때 한다)
+     */
+    static class Ndjson extends ImportRecordReader {
+
+        private final ObjectMapper objectMapper;
+        private final StringBuilder buffer = new StringBuilder();
+
+        Ndjson(Reader in, ObjectMapper objectMapper) {
+            super(in);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        ImportRecord next() throws IOException {
+            while (true) {
+                long current = line;
+                String text = readLine(current);
+                if (text == null) {
+                    return null;
+                }
+                if (text.isBlank()) {
+                    continue;
+                }
+
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(text);
+                } catch (JsonProcessingException e) {
+                    throw new ImportRowException(current, "JSON 형식 오류 : " + e.getOriginalMessage());
+                }
+                if (!node.isObject()) {
+                    throw new ImportRowException(current, "JSON 객체가 아닙니다.");
+                }
+
+                Map<String, String> fields = new HashMap<>();
+                for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext(); ) {
+                    Map.Entry<String, JsonNode> field = it.next();
+                    JsonNode value = field.getValue();
+                    fields.put(field.getKey(), value.isNull() ? null : value.asText());
+                }
+                return new ImportRecord(current, fields);
+            }
+        }
+
+        /**
+         * @return 파일 끝이면 null
+         */
+        private String readLine(long current) throws IOException {
+            buffer.setLength(0);
+            int c = in.read();
+            if (c == -1) {
+                return null;
+            }
+            boolean tooLong = false;
+            while (c != -1 && c != '\n') {
+                if (buffer.length() < MAX_RECORD_CHARS) {
+                    buffer.append((char) c);
+                } else {
+                    tooLong = true;     // 줄 끝까지 버리면서 읽는다.
+                }
+                c = in.read();
+            }
+            line++;
+            if (tooLong) {
+                throw new ImportRowException(current, "행이 " + MAX_RECORD_CHARS + "자를 넘습니다.");
+            }
+            return buffer.toString();
+        }
+    }
+}
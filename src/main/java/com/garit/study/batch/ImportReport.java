@@ -0,0 +1,47 @@
+package com.garit.study.batch;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 대량 등록 결과
+ * => rows : 읽은 행 수 (오류 행 포함) = inserted + updated + failed
+ * => errors : 오류 행 중 앞에서부터 max-errors개 (줄 번호, 사유)
+ */
+@Getter
+public class ImportReport {
+
+    private final ImportFormat format;
+    private final long rows;
+    private final long inserted;
+    private final long updated;
+    private final long failed;
+    private final List<RowError> errors;
+    private final long elapsedMillis;
+    private final long rowsPerSecond;
+
+    ImportReport(ImportFormat format, long rows, long inserted, long updated, long failed, List<RowError> errors,
+                 long elapsedMillis) {
+        this.format = format;
+        this.rows = rows;
+        this.inserted = inserted;
+        this.updated = updated;
+        this.failed = failed;
+        this.errors = errors;
+        this.elapsedMillis = elapsedMillis;
+        this.rowsPerSecond = elapsedMillis == 0 ? rows : rows * 1000 / elapsedMillis;
+    }
+
+    @Getter
+    public static class RowError {
+
+        private final long line;
+        private final String message;
+
+        RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+    }
+}
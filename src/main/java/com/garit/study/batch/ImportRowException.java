@@ -0,0 +1,20 @@
+package com.garit.study.batch;
+
+/**
+ * 행 하나를 읽거나 검증하다 실패 => 해당 행만 리포트에 남기고 다음 행을 계속 처리한다.
+ */
+class ImportRowException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long line;
+
+    ImportRowException(long line, String message) {
+        super(message);
+        this.line = line;
+    }
+
+    long getLine() {
+        return line;
+    }
+}
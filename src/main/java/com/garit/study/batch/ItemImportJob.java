@@ -0,0 +1,294 @@
+package com.garit.study.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.garit.study.batch.ImportReport.RowError;
+import com.garit.study.domain.item.Item;
+import com.garit.study.repository.EntityIdGenerator;
+import com.garit.study.repository.ItemImportRepository;
+import com.garit.study.service.ItemChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 상품 대량 등록 (CSV / NDJSON)
+ *
+ * [필드] dtype(B, A, M), id, name, price, stockQuantity, author, isbn(B), artist, etc(A), director, actor(M)
+ * => id가 없으면 새 상품으로 insert, 있으면 같은 dtype의 상품을 update (upsert)
+ * => update는 행 전체를 덮어쓴다. (파일에 없는 하위 타입 필드는 null)
+ * => 없는 id, dtype이 다른 id는 오류 행 (새 id는 항상 id 생성기에서 받는다)
+ * => dtype에 맞지 않는 하위 타입 필드는 무시한다. (Book 행의 artist 등)
+ *
+ * [청크 1개 = 트랜잭션 1개] import.items.chunk-size (기본 1000)
+ * 1) 파일을 한 행씩 읽어서 검증하고, 통과한 행을 청크에 모은다.
+ * 2) 청크의 id들이 이미 있는지 IN 쿼리 1번으로 확인한다.
+ * 3) insert / update를 각각 JDBC batch 1번으로 실행한다. (엔티티, 영속성 컨텍스트 X)
+ * => 청크가 실패하면(제약 조건 위반 등) 그 청크의 행만 모두 오류로 남기고, 다음 청크를 계속 처리한다.
+ * => 저장한 행이 있으면 청크 트랜잭션 안에서 ItemChangedEvent(null)를 발행한다. => 커밋되면 캐시가 비워진다.
+ *
+ * [메모리] 파일 크기와 관계없이 청크 1개 + 오류 행 import.items.max-errors개 (기본 100) 까지만 들고 있는다.
+ */
+@Slf4j
+@Component
+public class ItemImportJob {
+
+    private static final Set<String> DTYPES = Set.of("B", "A", "M");
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private final ItemImportRepository itemImportRepository;
+    private final EntityIdGenerator entityIdGenerator;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxErrors;
+
+    private final Counter inserted;
+    private final Counter updated;
+    private final Counter failed;
+
+    public ItemImportJob(ItemImportRepository itemImportRepository,
+                         EntityIdGenerator entityIdGenerator,
+                         PlatformTransactionManager transactionManager,
+                         ApplicationEventPublisher eventPublisher,
+                         ObjectMapper objectMapper,
+                         @Value("${import.items.chunk-size:1000}") int chunkSize,
+                         @Value("${import.items.max-errors:100}") int maxErrors,
+                         MeterRegistry meterRegistry) {
+        this.itemImportRepository = itemImportRepository;
+        this.entityIdGenerator = entityIdGenerator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+        this.inserted = meterRegistry.counter("batch.items.imported", "result", "inserted");
+        this.updated = meterRegistry.counter("batch.items.imported", "result", "updated");
+        this.failed = meterRegistry.counter("batch.items.imported", "result", "failed");
+    }
+
+    public ImportReport run(InputStream in, ImportFormat format) throws IOException {
+        ImportProgress progress = new ImportProgress(maxErrors);
+        ImportRecordReader records = ImportRecordReader.open(format,
+                new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024), objectMapper);
+
+        List<ItemRow> chunk = new ArrayList<>(chunkSize);
+        while (true) {
+            ImportRecord record;
+            try {
+                record = records.next();
+            } catch (ImportRowException e) {
+                progress.read();
+                fail(progress, e);
+                continue;
+            }
+            if (record == null) {
+                break;
+            }
+            progress.read();
+
+            try {
+                chunk.add(ItemRow.from(record));
+            } catch (ImportRowException e) {
+                fail(progress, e);
+                continue;
+            }
+            if (chunk.size() == chunkSize) {
+                writeChunk(chunk, progress);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, progress);
+        }
+
+        ImportReport report = progress.toReport(format);
+        log.info("item import format={} rows={} inserted={} updated={} failed={} elapsed={}ms rows={}/s",
+                format, report.getRows(), report.getInserted(), report.getUpdated(), report.getFailed(),
+                report.getElapsedMillis(), report.getRowsPerSecond());
+        return report;
+    }
+
+    private void fail(ImportProgress progress, ImportRowException e) {
+        progress.fail(e.getLine(), e.getMessage());
+        failed.increment();
+    }
+
+    private void writeChunk(List<ItemRow> chunk, ImportProgress progress) {
+        List<RowError> errors = new ArrayList<>();
+        try {
+            int[] counts = transactionTemplate.execute(status -> upsert(chunk, errors));
+            progress.written(counts[0], counts[1]);
+            inserted.increment(counts[0]);
+            updated.increment(counts[1]);
+            for (RowError error : errors) {
+                progress.fail(error.getLine(), error.getMessage());
+            }
+            failed.increment(errors.size());
+        } catch (DataAccessException | TransactionException e) {
+            // 청크 전체가 롤백되었으므로 청크의 모든 행을 오류로 남긴다.
+            String message = "청크 저장 실패 : " + e.getMostSpecificCause().getMessage();
+            log.warn("item import chunk failed lines={}~{}", chunk.get(0).line, chunk.get(chunk.size() - 1).line, e);
+            for (ItemRow row : chunk) {
+                progress.fail(row.line, message);
+            }
+            failed.increment(chunk.size());
+        }
+    }
+
+    /**
+     * @return {insert 수, update 수}
+     */
+    private int[] upsert(List<ItemRow> chunk, List<RowError> errors) {
+        List<Long> ids = new ArrayList<>();
+        for (ItemRow row : chunk) {
+            if (row.id != null) {
+                ids.add(row.id);
+            }
+        }
+        Map<Long, String> dtypes = itemImportRepository.findDtypes(ids);
+
+        List<ItemRow> newRows = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        for (ItemRow row : chunk) {
+            if (row.id == null) {
+                newRows.add(row);
+                continue;
+            }
+            String dtype = dtypes.get(row.id);
+            if (dtype == null) {
+                errors.add(new RowError(row.line, "존재하지 않는 상품 id입니다. (" + row.id + ")"));
+            } else if (!dtype.equals(row.dtype)) {
+                errors.add(new RowError(row.line, "상품 타입(dtype)은 바꿀 수 없습니다. (" + dtype + " => " + row.dtype + ")"));
+            } else {
+                updates.add(row.params(row.id));
+            }
+        }
+
+        // 새 상품 id는 청크마다 한번에 예약한다. (행마다 시퀀스를 읽지 않는다)
+        long[] newIds = entityIdGenerator.nextIds(Item.class, newRows.size());
+        List<Object[]> inserts = new ArrayList<>(newRows.size());
+        for (int i = 0; i < newRows.size(); i++) {
+            inserts.add(newRows.get(i).params(newIds[i]));
+        }
+
+        if (!inserts.isEmpty()) {
+            itemImportRepository.insert(inserts);
+        }
+        if (!updates.isEmpty()) {
+            itemImportRepository.update(updates);
+        }
+        if (!inserts.isEmpty() || !updates.isEmpty()) {
+            eventPublisher.publishEvent(new ItemChangedEvent(null));
+        }
+        return new int[]{inserts.size(), updates.size()};
+    }
+
+    /**
+     * 검증을 통과한 행
+     */
+    private static class ItemRow {
+
+        private final long line;
+        private final String dtype;
+        private final Long id;
+        private final String name;
+        private final int price;
+        private final int stockQuantity;
+        private final String[] details;     // author, isbn, artist, etc, director, actor
+
+        private ItemRow(long line, String dtype, Long id, String name, int price, int stockQuantity, String[] details) {
+            this.line = line;
+            this.dtype = dtype;
+            this.id = id;
+            this.name = name;
+            this.price = price;
+            this.stockQuantity = stockQuantity;
+            this.details = details;
+        }
+
+        static ItemRow from(ImportRecord record) {
+            long line = record.getLine();
+            String dtype = record.get("dtype");
+            if (dtype == null || !DTYPES.contains(dtype)) {
+                throw new ImportRowException(line, "dtype은 B, A, M 중 하나여야 합니다. (" + dtype + ")");
+            }
+            String name = text(record, "name");
+            if (name == null || name.isBlank()) {
+                throw new ImportRowException(line, "name은 필수입니다.");
+            }
+            String idText = record.get("id");
+            Long id = idText == null ? null : number(line, "id", idText);
+            int price = (int) nonNegative(line, "price", record.get("price"));
+            int stockQuantity = (int) nonNegative(line, "stockQuantity", record.get("stockQuantity"));
+
+            String[] details = new String[6];
+            switch (dtype) {
+                case "B":
+                    details[0] = text(record, "author");
+                    details[1] = text(record, "isbn");
+                    break;
+                case "A":
+                    details[2] = text(record, "artist");
+                    details[3] = text(record, "etc");
+                    break;
+                default:
+                    details[4] = text(record, "director");
+                    details[5] = text(record, "actor");
+            }
+            return new ItemRow(line, dtype, id, name, price, stockQuantity, details);
+        }
+
+        /**
+         * ItemImportRepository 파라미터 순서
+         */
+        Object[] params(long itemId) {
+            return new Object[]{name, price, stockQuantity,
+                    details[0], details[1], details[2], details[3], details[4], details[5], itemId, dtype};
+        }
+
+        private static String text(ImportRecord record, String field) {
+            String value = record.get(field);
+            if (value != null && value.length() > MAX_TEXT_LENGTH) {
+                throw new ImportRowException(record.getLine(), field + "은(는) " + MAX_TEXT_LENGTH + "자 이하여야 합니다.");
+            }
+            return value;
+        }
+
+        private static long nonNegative(long line, String field, String value) {
+            if (value == null) {
+                throw new ImportRowException(line, field + "은(는) 필수입니다.");
+            }
+            long number = number(line, field, value);
+            if (number < 0 || number > Integer.MAX_VALUE) {
+                throw new ImportRowException(line, field + "은(는) 0 ~ " + Integer.MAX_VALUE + " 사이여야 합니다. (" + value + ")");
+            }
+            return number;
+        }
+
+        private static long number(long line, String field, String value) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                throw new ImportRowException(line, field + "은(는) 숫자여야 합니다. (" + value + ")");
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.garit.study.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.garit.study.domain.Member;
+import com.garit.study.repository.EntityIdGenerator;
+import com.garit.study.repository.MemberImportRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 회원 대량 등록 (CSV / NDJSON)
+ *
+ * [필드] name(필수), city, street, zipcode
+ * => 주소 필드가 모두 없으면 address는 null
+ *
+ * [중복 검사] MemberService.join은 회원마다 findByName 쿼리를 1번씩 실행한다. => 회원 N명이면 쿼리 N번
+ * 1) 등록 전에 기존 회원 이름을 한번만 읽어서 NameHashSet에 올린다. (쿼리 2번 : count, 이름 스트리밍)
+ * 2) 파일의 이름도 같은 집합에 넣으면서, DB에 있는 이름 / 파일 앞쪽에 있던 이름이면 중복으로 건너뛴다.
+ * => 이름은 앞뒤 공백을 제거하고, 대소문자를 구분해서 비교한다. (findByName과 같음)
+ * => 중복은 오류 행이 아니다. (failed X, duplicates로 센다)
+ * => 집합은 등록을 시작한 시점의 스냅샷이다. 등록 중에 화면에서 가입한 같은 이름은 막지 못한다. (join도 동시 가입은 막지 못함)
+ * => 청크가 실패해도 그 청크의 이름은 집합에 남는다. 파일 뒤쪽의 같은 이름은 중복으로 건너뛰므로, 실패한 행만 고쳐서 다시 등록한다.
+ *
+ * [청크 1개 = 트랜잭션 1개] import.members.chunk-size (기본 1000)
+ * => 새 회원만 JDBC batch 1번으로 insert 한다. (엔티티, 영속성 컨텍스트 X)
+ * => 청크가 실패하면 그 청크의 행만 모두 오류로 남기고, 다음 청크를 계속 처리한다.
+ *
+ * [메모리] 청크 1개 + 오류 행 import.members.max-errors개 (기본 100) + 이름 해시 (이름 1개당 16 ~ 32 byte)
+ */
+@Slf4j
+@Component
+public class MemberImportJob {
+
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private final MemberImportRepository memberImportRepository;
+    private final EntityIdGenerator entityIdGenerator;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxErrors;
+
+    private final Counter inserted;
+    private final Counter duplicate;
+    private final Counter failed;
+
+    public MemberImportJob(MemberImportRepository memberImportRepository,
+                           EntityIdGenerator entityIdGenerator,
+                           PlatformTransactionManager transactionManager,
+                           ObjectMapper objectMapper,
+                           @Value("${import.members.chunk-size:1000}") int chunkSize,
+                           @Value("${import.members.max-errors:100}") int maxErrors,
+                           MeterRegistry meterRegistry) {
+        this.memberImportRepository = memberImportRepository;
+        this.entityIdGenerator = entityIdGenerator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+        this.inserted = meterRegistry.counter("batch.members.imported", "result", "inserted");
+        this.duplicate = meterRegistry.counter("batch.members.imported", "result", "duplicate");
+        this.failed = meterRegistry.counter("batch.members.imported", "result", "failed");
+    }
+
+    public MemberImportReport run(InputStream in, ImportFormat format) throws IOException {
+        ImportProgress progress = new ImportProgress(maxErrors);
+
+        long loadStart = System.nanoTime();
+        NameHashSet names = new NameHashSet((int) Math.min(memberImportRepository.count(), Integer.MAX_VALUE / 2));
+        memberImportRepository.forEachName(names::addExisting);
+        int existingNames = names.size();
+        long loadMillis = (System.nanoTime() - loadStart) / 1_000_000;
+
+        ImportRecordReader records = ImportRecordReader.open(format,
+                new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024), objectMapper);
+
+        long duplicatesExisting = 0;
+        long duplicatesInFile = 0;
+        List<MemberRow> chunk = new ArrayList<>(chunkSize);
+        while (true) {
+            ImportRecord record;
+            try {
+                record = records.next();
+            } catch (ImportRowException e) {
+                progress.read();
+                fail(progress, e);
+                continue;
+            }
+            if (record == null) {
+                break;
+            }
+            progress.read();
+
+            MemberRow row;
+            try {
+                row = MemberRow.from(record);
+            } catch (ImportRowException e) {
+                fail(progress, e);
+                continue;
+            }
+
+            int found = names.addFromFile(row.name);
+            if (found != NameHashSet.ABSENT) {
+                if (found == NameHashSet.EXISTING) {
+                    duplicatesExisting++;
+                } else {
+                    duplicatesInFile++;
+                }
+                duplicate.increment();
+                continue;
+            }
+
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                writeChunk(chunk, progress);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, progress);
+        }
+
+        MemberImportReport report = new MemberImportReport(progress.toReport(format),
+                duplicatesExisting, duplicatesInFile, existingNames, loadMillis);
+        log.info("member import format={} rows={} inserted={} duplicates={} (existing={}, inFile={}) failed={}" +
+                        " existingNames={} load={}ms elapsed={}ms rows={}/s",
+                format, report.getRows(), report.getInserted(), report.getDuplicates(), report.getDuplicatesExisting(),
+                report.getDuplicatesInFile(), report.getFailed(), report.getExistingNames(), report.getLoadMillis(),
+                report.getElapsedMillis(), report.getRowsPerSecond());
+        return report;
+    }
+
+    private void fail(ImportProgress progress, ImportRowException e) {
+        progress.fail(e.getLine(), e.getMessage());
+        failed.increment();
+    }
+
+    private void writeChunk(List<MemberRow> chunk, ImportProgress progress) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // 새 회원 id는 청크마다 한번에 예약한다. (행마다 시퀀스를 읽지 않는다)
+                long[] ids = entityIdGenerator.nextIds(Member.class, chunk.size());
+                List<Object[]> rows = new ArrayList<>(chunk.size());
+                for (int i = 0; i < chunk.size(); i++) {
+                    rows.add(chunk.get(i).params(ids[i]));
+                }
+                memberImportRepository.insert(rows);
+            });
+            progress.written(chunk.size(), 0);
+            inserted.increment(chunk.size());
+        } catch (DataAccessException | TransactionException e) {
+            // 청크 전체가 롤백되었으므로 청크의 모든 행을 오류로 남긴다.
+            String message = "청크 저장 실패 : " + e.getMostSpecificCause().getMessage();
+            log.warn("member import chunk failed lines={}~{}", chunk.get(0).line, chunk.get(chunk.size() - 1).line, e);
+            for (MemberRow row : chunk) {
+                progress.fail(row.line, message);
+            }
+            failed.increment(chunk.size());
+        }
+    }
+
+    /**
+     * 검증을 통과한 행
+     */
+    private static class MemberRow {
+
+        private final long line;
+        private final String name;
+        private final String city;
+        private final String street;
+        private final String zipcode;
+
+        private MemberRow(long line, String name, String city, String street, String zipcode) {
+            this.line = line;
+            this.name = name;
+            this.city = city;
+            this.street = street;
+            this.zipcode = zipcode;
+        }
+
+        static MemberRow from(ImportRecord record) {
+            String name = text(record, "name");
+            if (name == null || name.isBlank()) {
+                throw new ImportRowException(record.getLine(), "name은 필수입니다.");
+            }
+            return new MemberRow(record.getLine(), name.trim(),
+                    text(record, "city"), text(record, "street"), text(record, "zipcode"));
+        }
+
+        /**
+         * MemberImportRepository 파라미터 순서
+         */
+        Object[] params(long memberId) {
+            return new Object[]{memberId, name, city, street, zipcode};
+        }
+
+        private static String text(ImportRecord record, String field) {
+            String value = record.get(field);
+            if (value != null && value.length() > MAX_TEXT_LENGTH) {
+                throw new ImportRowException(record.getLine(), field + "은(는) " + MAX_TEXT_LENGTH + "자 이하여야 합니다.");
+            }
+            return value;
+        }
+    }
+}
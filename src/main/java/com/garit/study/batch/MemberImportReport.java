@@ -0,0 +1,45 @@
+package com.garit.study.batch;
+
+import com.garit.study.batch.ImportReport.RowError;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 회원 대량 등록 결과
+ * => rows : 읽은 행 수 (오류 행 포함) = inserted + duplicates + failed
+ * => duplicates = duplicatesExisting(DB에 이미 있는 이름) + duplicatesInFile(파일 앞쪽에 있던 이름)
+ * => existingNames, loadMillis : 등록 전에 메모리에 올린 기존 회원 이름 수와 걸린 시간
+ */
+@Getter
+public class MemberImportReport {
+
+    private final ImportFormat format;
+    private final long rows;
+    private final long inserted;
+    private final long duplicates;
+    private final long duplicatesExisting;
+    private final long duplicatesInFile;
+    private final long failed;
+    private final List<RowError> errors;
+    private final long existingNames;
+    private final long loadMillis;
+    private final long elapsedMillis;
+    private final long rowsPerSecond;
+
+    MemberImportReport(ImportReport report, long duplicatesExisting, long duplicatesInFile,
+                       long existingNames, long loadMillis) {
+        this.format = report.getFormat();
+        this.rows = report.getRows();
+        this.inserted = report.getInserted();
+        this.duplicates = duplicatesExisting + duplicatesInFile;
+        this.duplicatesExisting = duplicatesExisting;
+        this.duplicatesInFile = duplicatesInFile;
+        this.failed = report.getFailed();
+        this.errors = report.getErrors();
+        this.existingNames = existingNames;
+        this.loadMillis = loadMillis;
+        this.elapsedMillis = report.getElapsedMillis();
+        this.rowsPerSecond = report.getRowsPerSecond();
+    }
+}
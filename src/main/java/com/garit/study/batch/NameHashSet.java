@@ -0,0 +1,129 @@
+package com.garit.study.batch;
+
+/**
+ * 회원 이름 중복 검사용 해시 집합 (요청 스레드 하나에서만 사용)
+ * => 문자열을 저장하지 않고 이름의 64비트 해시만 long[]에 저장한다. (open addressing, linear probing)
+ * => 마지막 비트는 어디서 들어온 이름인지 표시한다. (0 : DB에 이미 있는 이름, 1 : 파일에서 읽은 이름)
+ *
+ * [메모리] 이름 1개당 16 ~ 32 byte (load factor 0.25 ~ 0.5)
+ * => HashSet<String>은 이름 1개당 엔트리 + String + byte[]로 80 byte 이상
+ * => 회원 1000만 명이면 160MB ~ 320MB (HashSet<String>이면 800MB 이상)
+ *
+ * [해시 충돌] 남은 63비트가 같은 다른 이름은 같은 이름으로 본다.
+ * => 충돌한 행은 중복으로 건너뛸 뿐, 같은 이름이 두 번 insert 되지는 않는다.
+ * => 1000만 명 기준 충돌 확률은 약 10^-5
+ */
+class NameHashSet {
+
+    static final int ABSENT = 0;
+    static final int EXISTING = 1;
+    static final int IN_FILE = 2;
+
+    // long[] 2^30개 (8GB) => 자바 배열은 이보다 두 배로 늘릴 수 없다. => 이름은 최대 2^29개
+    static final int MAX_CAPACITY = 1 << 30;
+
+    private static final long EMPTY = 0L;
+    private static final long FROM_FILE = 1L;
+
+    private final int maxCapacity;
+    private long[] slots;
+    private int size;
+
+    NameHashSet(int expected) {
+        this(expected, MAX_CAPACITY);
+    }
+
+    NameHashSet(int expected, int maxCapacity) {
+        this.maxCapacity = maxCapacity;
+        int capacity = 16;
+        while (capacity < expected * 2L && capacity < maxCapacity) {
+            capacity <<= 1;
+        }
+        this.slots = new long[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * DB에 이미 있는 이름
+     */
+    void addExisting(String name) {
+        add(hash(name), false);
+    }
+
+    /**
+     * 파일에서 읽은 이름 => 처음 보는 이름이면 추가한다.
+     *
+     * @return ABSENT(새 이름, 추가됨), EXISTING(DB에 있는 이름), IN_FILE(파일 앞쪽에 있던 이름)
+     */
+    int addFromFile(String name) {
+        return add(hash(name), true);
+    }
+
+    private int add(long hash, boolean fromFile) {
+        int mask = slots.length - 1;
+        int index = index(hash, mask);
+        while (true) {
+            long slot = slots[index];
+            if (slot == EMPTY) {
+                if (size + 1 > slots.length / 2 && slots.length >= maxCapacity) {
+                    throw new IllegalStateException("이름 중복 검사 집합이 가득 찼습니다. (이름 최대 " + maxCapacity / 2 + "개)"
+                            + " => 회원 등록 파일을 나눠서 등록하세요.");
+                }
+                slots[index] = fromFile ? hash | FROM_FILE : hash;
+                if (++size > slots.length / 2) {
+                    grow();
+                }
+                return ABSENT;
+            }
+            if ((slot & ~FROM_FILE) == hash) {
+                return (slot & FROM_FILE) == 0 ? EXISTING : IN_FILE;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    private void grow() {
+        long[] old = slots;
+        slots = new long[old.length * 2];
+        int mask = slots.length - 1;
+        for (long slot : old) {
+            if (slot != EMPTY) {
+                int index = index(slot & ~FROM_FILE, mask);
+                while (slots[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                slots[index] = slot;
+            }
+        }
+    }
+
+    /**
+     * 마지막 비트는 표시용(FROM_FILE)이라서 해시에서는 항상 0이다.
+     * => 그대로 슬롯을 고르면 짝수 슬롯에서만 시작해서 클러스터가 생긴다. => 한 비트 밀어서 고른다.
+     */
+    private static int index(long hash, int mask) {
+        return (int) (hash >>> 1) & mask;
+    }
+
+    /**
+     * FNV-1a 64 + murmur3 fmix64 (하위 비트로 슬롯을 고르므로 비트를 한번 더 섞는다)
+     * => 마지막 비트는 표시용으로 비워두고, 0(빈 슬롯)이 나오지 않도록 한다.
+     */
+    static long hash(String name) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < name.length(); i++) {
+            h ^= name.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        h &= ~FROM_FILE;
+        return h == EMPTY ? 2L : h;
+    }
+}
@@ -0,0 +1,174 @@
+package com.garit.study.batch;
+
+import com.garit.study.repository.OrderArchiveRepository;
+import com.garit.study.service.OrderChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 오래된 주문, 취소된 주문 보관 배치 (orders, order_item, delivery => orders_archive, order_item_archive)
+ *
+ * [보관 대상]
+ * 1) retention-days 보다 오래된 주문
+ * 2) cancel-retention-days 보다 오래된 취소 주문
+ * => 주문 목록 조회(V4 ~ V6), 주문 검색은 운영 테이블만 읽으므로, 테이블이 작을수록 조인/정렬 비용이 줄어든다.
+ * => 보관된 주문은 /api/v5/orders?includeArchived=true 로만 조회한다.
+ *
+ * [청크 1개 = 트랜잭션 1개]
+ * 1) 대상 주문 id를 chunk-size개 조회한다.
+ * 2) insert ... select 로 보관 테이블에 복사하고, 원래 테이블에서 지운다.
+ * => 옮긴 주문은 대상 조회에서 빠지므로 체크포인트가 필요 없다. 중간에 실패해도 다시 실행하면 남은 것부터 옮긴다.
+ *
+ * 전후로 주문 목록 쿼리를 끝까지 읽는 시간을 재서 리포트에 남긴다. => 보관으로 얻은 조회 비용 차이
+ */
+@Slf4j
+@Component
+public class OrderArchiveJob {
+
+    private static final int PROBE_FETCH_SIZE = 1000;
+
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final long retentionDays;
+    private final long cancelRetentionDays;
+
+    private final Counter archived;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile ArchiveReport lastReport;
+
+    public OrderArchiveJob(OrderArchiveRepository orderArchiveRepository,
+                           PlatformTransactionManager transactionManager,
+                           ApplicationEventPublisher eventPublisher,
+                           @Value("${archive.orders.chunk-size:500}") int chunkSize,
+                           @Value("${archive.orders.retention-days:365}") long retentionDays,
+                           @Value("${archive.orders.cancel-retention-days:7}") long cancelRetentionDays,
+                           MeterRegistry meterRegistry) {
+        this.orderArchiveRepository = orderArchiveRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.retentionDays = retentionDays;
+        this.cancelRetentionDays = cancelRetentionDays;
+        this.archived = meterRegistry.counter("batch.orders.archived");
+    }
+
+    /**
+     * @return 이미 실행 중이면 null
+     */
+    public ArchiveReport run() {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime orderCutoff = now.minusDays(retentionDays);
+            LocalDateTime cancelCutoff = now.minusDays(cancelRetentionDays);
+
+            Probe before = probe();
+            long start = System.nanoTime();
+            int chunks = 0;
+            long moved = 0;
+
+            int count;
+            do {
+                count = transactionTemplate.execute(status -> archiveChunk(orderCutoff, cancelCutoff, now));
+                chunks++;
+                moved += count;
+                archived.increment(count);
+            } while (count == chunkSize);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            Probe after = probe();
+
+            ArchiveReport report = new ArchiveReport(LocalDateTime.now(), chunks, moved, elapsedMillis,
+                    before.getRows(), before.getMicros(), after.getRows(), after.getMicros());
+            log.info("order archive job chunks={} archived={} elapsed={}ms hotOrders={}->{} probe={}us->{}us",
+                    chunks, moved, elapsedMillis, before.getRows(), after.getRows(), before.getMicros(), after.getMicros());
+            lastReport = report;
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int archiveChunk(LocalDateTime orderCutoff, LocalDateTime cancelCutoff, LocalDateTime now) {
+        List<Object[]> rows = orderArchiveRepository.findArchivableIds(orderCutoff, cancelCutoff, chunkSize);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> orderIds = new ArrayList<>(rows.size());
+        List<Long> deliveryIds = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            orderIds.add((Long) row[0]);
+            if (row[1] != null) {
+                deliveryIds.add((Long) row[1]);
+            }
+        }
+
+        orderArchiveRepository.archive(orderIds, deliveryIds, now);
+        // 주문 목록 캐시 무효화 (커밋 이후)
+        eventPublisher.publishEvent(new OrderChangedEvent(null));
+        return rows.size();
+    }
+
+    private Probe probe() {
+        long start = System.nanoTime();
+        long rows = transactionTemplate.execute(status -> orderArchiveRepository.scanHotOrders(PROBE_FETCH_SIZE));
+        return new Probe(rows, (System.nanoTime() - start) / 1_000);
+    }
+
+    public ArchiveReport getLastReport() {
+        return lastReport;
+    }
+
+    @Getter
+    private static class Probe {
+
+        private final long rows;
+        private final long micros;
+
+        Probe(long rows, long micros) {
+            this.rows = rows;
+            this.micros = micros;
+        }
+    }
+
+    @Getter
+    public static class ArchiveReport {
+
+        private final LocalDateTime finishedAt;
+        private final int chunks;
+        private final long archived;
+        private final long elapsedMillis;
+        private final long hotOrdersBefore;
+        private final long probeMicrosBefore;
+        private final long hotOrdersAfter;
+        private final long probeMicrosAfter;
+
+        ArchiveReport(LocalDateTime finishedAt, int chunks, long archived, long elapsedMillis,
+                      long hotOrdersBefore, long probeMicrosBefore, long hotOrdersAfter, long probeMicrosAfter) {
+            this.finishedAt = finishedAt;
+            this.chunks = chunks;
+            this.archived = archived;
+            this.elapsedMillis = elapsedMillis;
+            this.hotOrdersBefore = hotOrdersBefore;
+            this.probeMicrosBefore = probeMicrosBefore;
+            this.hotOrdersAfter = hotOrdersAfter;
+            this.probeMicrosAfter = probeMicrosAfter;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.garit.study.batch;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * archive.orders.enabled=true 인 서버에서만 주기적으로 실행한다. (기본 : 하루 한번)
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "archive.orders.enabled", havingValue = "true")
+public class OrderArchiveScheduler {
+
+    private final OrderArchiveJob orderArchiveJob;
+
+    @Scheduled(fixedDelayString = "${archive.orders.fixed-delay-ms:86400000}",
+            initialDelayString = "${archive.orders.initial-delay-ms:600000}")
+    public void run() {
+        orderArchiveJob.run();
+    }
+}
@@ -0,0 +1,13 @@
+package com.garit.study.batch;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * @Scheduled 배치 실행
+ * => 스프링 부트가 스케줄러 스레드 풀(taskScheduler)을 자동으로 등록한다. (spring.task.scheduling.*)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,113 @@
+package com.garit.study.bulkhead;
+
+import com.garit.study.exception.BulkheadFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 엔드포인트를 구획(Compartment)별 스레드 풀에서 실행한다.
+ * => 컨트롤러는 CompletableFuture를 반환하고, 톰캣 요청 스레드는 바로 반납된다.
+ * => 구획이 꽉 차면 대기하지 않고 BulkheadFullException(503)으로 바로 거절한다.
+ *
+ * [주의]
+ * OSIV는 요청 스레드에만 영속성 컨텍스트를 열어준다.
+ * 따라서 조회 구획은 작업 스레드에서 읽기 전용 트랜잭션을 열어야 지연 로딩이 동작한다.
+ *
+ * [지표] 구획마다 (compartment 태그)
+ * => bulkhead.wait : 제출부터 작업 스레드가 잡을 때까지 대기열에서 기다린 시간
+ * => bulkhead.execution : 작업 스레드에서 실행된 시간 (성공, 실패 모두)
+ * => bulkhead.rejected : 구획이 꽉 차서 거절한 요청 수
+ * => 느린 엔드포인트가 자기 구획의 대기 시간만 늘리고, 다른 구획은 그대로인지 확인할 수 있다.
+ *
+ * 스레드 풀을 빈으로 등록하지 않는다.
+ * => Executor 빈이 생기면 스프링 부트의 기본 applicationTaskExecutor가 등록되지 않기 때문
+ */
+@Slf4j
+@Component
+public class Bulkhead implements DisposableBean {
+
+    private final Map<Compartment, ThreadPoolTaskExecutor> executors = new EnumMap<>(Compartment.class);
+    private final Map<Compartment, CompartmentMetrics> metrics = new EnumMap<>(Compartment.class);
+    private final TransactionTemplate readOnlyTransaction;
+
+    public Bulkhead(Environment env, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        for (Compartment compartment : Compartment.values()) {
+            executors.put(compartment, createExecutor(compartment, env));
+            metrics.put(compartment, new CompartmentMetrics(compartment, meterRegistry));
+        }
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    private ThreadPoolTaskExecutor createExecutor(Compartment compartment, Environment env) {
+        int maxConcurrency = env.getProperty("bulkhead." + compartment.getKey() + ".max-concurrency",
+                Integer.class, compartment.getDefaultMaxConcurrency());
+        int queueCapacity = env.getProperty("bulkhead." + compartment.getKey() + ".queue-capacity",
+                Integer.class, compartment.getDefaultQueueCapacity());
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrency);
+        executor.setMaxPoolSize(maxConcurrency);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("bulkhead-" + compartment.getKey() + "-");
+        executor.initialize();
+
+        log.info("bulkhead compartment={} maxConcurrency={} queueCapacity={}", compartment, maxConcurrency, queueCapacity);
+        return executor;
+    }
+
+    public <T> CompletableFuture<T> submit(Compartment compartment, Supplier<T> task) {
+        Supplier<T> body = compartment.isReadOnlyTransaction()
+                ? () -> readOnlyTransaction.execute(status -> task.get())
+                : task;
+        CompartmentMetrics compartmentMetrics = metrics.get(compartment);
+        long submitted = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long started = System.nanoTime();
+                compartmentMetrics.wait.record(started - submitted, TimeUnit.NANOSECONDS);
+                try {
+                    return body.get();
+                } finally {
+                    compartmentMetrics.execution.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
+            }, executors.get(compartment));
+        } catch (TaskRejectedException e) {
+            compartmentMetrics.rejected.increment();
+            throw new BulkheadFullException("bulkhead compartment " + compartment + " is saturated", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executors.values().forEach(ThreadPoolTaskExecutor::shutdown);
+    }
+
+    private static class CompartmentMetrics {
+
+        private final Timer wait;
+        private final Timer execution;
+        private final Counter rejected;
+
+        CompartmentMetrics(Compartment compartment, MeterRegistry meterRegistry) {
+            this.wait = meterRegistry.timer("bulkhead.wait", "compartment", compartment.getKey());
+            this.execution = meterRegistry.timer("bulkhead.execution", "compartment", compartment.getKey());
+            this.rejected = meterRegistry.counter("bulkhead.rejected", "compartment", compartment.getKey());
+        }
+    }
+}
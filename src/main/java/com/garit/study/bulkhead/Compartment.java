@@ -0,0 +1,43 @@
+package com.garit.study.bulkhead;
+
+/**
+ * 벌크헤드 구획
+ * => 엔드포인트 종류마다 별도의 스레드 풀(동시 실행 수 + 대기열)을 사용한다.
+ * => 대용량 조회가 몰려도, 주문(쓰기) 구획의 스레드와 커넥션은 침범하지 못한다.
+ *
+ * 기본값은 bulkhead.{name}.max-concurrency, bulkhead.{name}.queue-capacity 로 변경할 수 있다.
+ */
+public enum Compartment {
+
+    READ("read", 6, 32, true),       // 무거운 조회 API
+    WRITE("write", 10, 64, false),   // 주문 등록 => 트랜잭션은 서비스 계층에서 시작한다.
+    EXPORT("export", 2, 0, true);    // 대용량 다운로드 => 대기열 없이 바로 거절
+
+    private final String key;
+    private final int defaultMaxConcurrency;
+    private final int defaultQueueCapacity;
+    private final boolean readOnlyTransaction;
+
+    Compartment(String key, int defaultMaxConcurrency, int defaultQueueCapacity, boolean readOnlyTransaction) {
+        this.key = key;
+        this.defaultMaxConcurrency = defaultMaxConcurrency;
+        this.defaultQueueCapacity = defaultQueueCapacity;
+        this.readOnlyTransaction = readOnlyTransaction;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public int getDefaultMaxConcurrency() {
+        return defaultMaxConcurrency;
+    }
+
+    public int getDefaultQueueCapacity() {
+        return defaultQueueCapacity;
+    }
+
+    public boolean isReadOnlyTransaction() {
+        return readOnlyTransaction;
+    }
+}
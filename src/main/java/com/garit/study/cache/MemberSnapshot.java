@@ -0,0 +1,23 @@
+package com.garit.study.cache;
+
+import com.garit.study.domain.Address;
+import lombok.Getter;
+
+/**
+ * 회원 엔티티에서 주문 / 응답에 필요한 값만 복사해둔 불변 객체
+ * => 영속성 컨텍스트와 관계없으므로 여러 스레드, 여러 트랜잭션에서 함께 써도 된다.
+ * => Address는 값 타입(불변)이므로 그대로 공유한다.
+ */
+@Getter
+public class MemberSnapshot {
+
+    private final Long id;
+    private final String name;
+    private final Address address;
+
+    public MemberSnapshot(Long id, String name, Address address) {
+        this.id = id;
+        this.name = name;
+        this.address = address;
+    }
+}
@@ -0,0 +1,129 @@
+package com.garit.study.cache;
+
+import com.garit.study.domain.Member;
+import com.garit.study.repository.MemberRepository;
+import com.garit.study.service.MemberChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 id => (이름, 주소) 스냅샷 near cache
+ * => 주문할 때 회원은 배송 주소를 복사하는 데만 쓰인다. 매번 회원을 select 하지 않고 메모리의 스냅샷을 쓴다.
+ *
+ * [크기] member-cache.max-size (기본 10000) => 넘으면 가장 오래 안 쓴 회원(LRU)부터 내보낸다.
+ * [ttl] member-cache.ttl-seconds (기본 60) => 다른 서버에서 바뀐 회원 정보가 늦게 반영되는 최대 시간
+ *
+ * [무효화]
+ * => 회원 가입, 수정이 커밋되면 해당 회원을 지우고 세대(generation)를 올린다.
+ * => 조회를 시작한 뒤 세대가 바뀌었으면 저장하지 않는다. (커밋 전에 읽은 이전 값이 캐시에 남지 않도록)
+ */
+@Slf4j
+@Component
+public class MemberSnapshotCache {
+
+    private final MemberRepository memberRepository;
+    private final long ttlNanos;
+
+    private final LinkedHashMap<Long, CachedSnapshot> entries;
+    private long generation;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public MemberSnapshotCache(MemberRepository memberRepository,
+                               @Value("${member-cache.max-size:10000}") int maxSize,
+                               @Value("${member-cache.ttl-seconds:60}") long ttlSeconds,
+                               MeterRegistry meterRegistry) {
+        this.memberRepository = memberRepository;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.entries = new LinkedHashMap<Long, CachedSnapshot>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedSnapshot> eldest) {
+                return size() > maxSize;
+            }
+        };
+
+        this.hits = meterRegistry.counter("member.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("member.cache.requests", "result", "miss");
+        Gauge.builder("member.cache.size", this, c -> c.size()).register(meterRegistry);
+
+        log.info("member snapshot cache maxSize={} ttlSeconds={}", maxSize, ttlSeconds);
+    }
+
+    /**
+     * 캐시에 없거나 ttl이 지났으면 DB에서 읽어서 채운다.
+     * => 없는 회원이면 NoSuchElementException (findById().get()과 같다)
+     */
+    public MemberSnapshot get(Long memberId) {
+        return get(memberId, System.nanoTime());
+    }
+
+    /**
+     * now : System.nanoTime() 기준 현재 시각 (테스트에서 ttl 경과를 시간 대기 없이 확인한다)
+     */
+    MemberSnapshot get(Long memberId, long now) {
+        long startGeneration;
+        synchronized (this) {
+            CachedSnapshot entry = entries.get(memberId);
+            if (entry != null && now - entry.loadedAt < ttlNanos) {
+                hits.increment();
+                return entry.snapshot;
+            }
+            startGeneration = generation;
+        }
+        misses.increment();
+
+        // DB 조회는 락 밖에서 한다.
+        Member member = memberRepository.findById(memberId).get();
+        MemberSnapshot snapshot = new MemberSnapshot(member.getId(), member.getName(), member.getAddress());
+
+        synchronized (this) {
+            if (generation == startGeneration) {
+                entries.put(memberId, new CachedSnapshot(snapshot, now));
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * 회원 가입, 수정이 커밋된 뒤에 해당 회원을 지운다.
+     */
+    @TransactionalEventListener
+    public void onMemberChanged(MemberChangedEvent event) {
+        invalidate(event.getMemberId());
+    }
+
+    public synchronized void invalidate(Long memberId) {
+        generation++;
+        entries.remove(memberId);
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static class CachedSnapshot {
+
+        private final MemberSnapshot snapshot;
+        private final long loadedAt;
+
+        CachedSnapshot(MemberSnapshot snapshot, long loadedAt) {
+            this.snapshot = snapshot;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
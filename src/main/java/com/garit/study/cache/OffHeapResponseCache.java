@@ -0,0 +1,373 @@
+package com.garit.study.cache;
+
+import com.garit.study.service.ItemChangedEvent;
+import com.garit.study.service.MemberChangedEvent;
+import com.garit.study.service.OrderChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 직렬화가 끝난 응답 바이트를 힙 밖(direct ByteBuffer)에 저장하는 캐시
+ *
+ * [힙 밖에 저장하는 이유]
+ * => 수 MB짜리 응답을 객체(DTO)나 byte[]로 들고 있으면 old 영역이 커지고, GC가 매번 그만큼을 훑어야 한다.
+ * => direct 메모리는 GC 대상이 아니므로, 캐시 크기를 늘려도 GC 시간이 늘지 않는다.
+ *
+ * [메모리 구조]
+ * 1) 전체 예산(max-bytes)을 고정 크기 블록(block-size)으로 나누고, 블록 1024개씩 slab(direct ByteBuffer) 하나에 담는다.
+ * => slab은 처음 쓰일 때 할당한다. (기동 시점에 예산 전체를 잡지 않는다)
+ * 2) 응답 하나는 블록 여러개에 나눠서 저장한다. => 크기가 제각각이어도 단편화가 생기지 않는다.
+ * 3) 빈 블록이 모자라면 가장 오래 안 쓴 응답(LRU)부터 내보낸다. (소켓에 쓰는 중인 응답은 건너뛴다)
+ *
+ * [동시성]
+ * => 락은 맵과 빈 블록 목록을 고칠 때만 잡고, 복사/소켓 쓰기는 락 밖에서 한다.
+ * => 소켓에 쓰는 중인 응답이 밀려나도, 참조 카운트가 0이 될 때까지 블록을 재사용하지 않는다.
+ *
+ * [무효화]
+ * => 주문이 커밋되면 세대(generation)를 올리고 전부 비운다.
+ * => 요청 시작 시점의 세대가 바뀌었으면 저장하지 않는다. (커밋 전 데이터로 만든 응답이 캐시에 남지 않도록)
+ * => 회원 정보가 바뀌어도 전부 비운다. (주문 목록 응답에 회원 이름이 들어있다)
+ * => 상품이 바뀌어도(화면 수정, 대량 등록) 전부 비운다. (주문 목록 응답에 상품 이름, 가격이 들어있다)
+ * => 이벤트 없이 DB를 직접 고친 경우에 대비해서 ttl로 최대 지연 시간을 제한한다.
+ */
+@Slf4j
+@Component
+public class OffHeapResponseCache {
+
+    private static final int BLOCKS_PER_SLAB = 1024;
+
+    private final int blockSize;
+    private final int maxEntryBytes;
+    private final long ttlNanos;
+
+    private final ByteBuffer[] slabs;
+    private final int[] freeBlocks;
+    private int freeCount;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private volatile long generation;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter stores;
+
+    public OffHeapResponseCache(@Value("${response-cache.max-bytes:67108864}") long maxBytes,
+                                @Value("${response-cache.block-size:8192}") int blockSize,
+                                @Value("${response-cache.max-entry-bytes:8388608}") int maxEntryBytes,
+                                @Value("${response-cache.ttl-seconds:60}") long ttlSeconds,
+                                MeterRegistry meterRegistry) {
+        int totalBlocks = (int) Math.min(Integer.MAX_VALUE, maxBytes / blockSize);
+        this.blockSize = blockSize;
+        this.maxEntryBytes = (int) Math.min(maxEntryBytes, (long) totalBlocks * blockSize);
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+
+        this.slabs = new ByteBuffer[(totalBlocks + BLOCKS_PER_SLAB - 1) / BLOCKS_PER_SLAB];
+        this.freeBlocks = new int[totalBlocks];
+        // 낮은 번호 블록부터 꺼내 쓴다. => 캐시가 덜 찼으면 뒤쪽 slab은 할당되지 않는다.
+        for (int i = 0; i < totalBlocks; i++) {
+            freeBlocks[i] = totalBlocks - 1 - i;
+        }
+        this.freeCount = totalBlocks;
+
+        this.hits = meterRegistry.counter("response.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("response.cache.requests", "result", "miss");
+        this.stores = meterRegistry.counter("response.cache.stores");
+        Gauge.builder("response.cache.used.bytes", this, c -> c.usedBytes()).register(meterRegistry);
+
+        log.info("off-heap response cache maxBytes={} blockSize={} maxEntryBytes={} ttlSeconds={}",
+                (long) totalBlocks * blockSize, blockSize, this.maxEntryBytes, ttlSeconds);
+    }
+
+    public long generation() {
+        return generation;
+    }
+
+    /**
+     * 캐시된 응답을 꺼낸다.
+     * => 사용한 뒤에는 반드시 release() 해야 블록이 재사용될 수 있다.
+     *
+     * @return 캐시에 없거나 ttl이 지났으면 null
+     */
+    public Entry acquire(String key) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && entry.isExpired(System.nanoTime())) {
+                entries.remove(key);
+                entry.release();
+                entry = null;
+            }
+            if (entry != null && !entry.retain()) {
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return entry;
+    }
+
+    /**
+     * @param generation 응답을 만들기 시작할 때의 세대 => 그 사이에 주문이 바뀌었으면 저장하지 않는다.
+     */
+    public void put(String key, long generation, String contentType, InputStream body, int length) throws IOException {
+        if (length <= 0 || length > maxEntryBytes) {
+            return;
+        }
+        int[] blocks = allocate((length + blockSize - 1) / blockSize);
+        if (blocks == null) {
+            return;
+        }
+
+        Entry entry = new Entry(contentType, length, blocks, System.nanoTime() + ttlNanos);
+        try {
+            entry.copyFrom(body);
+        } catch (IOException | RuntimeException e) {
+            entry.release();
+            throw e;
+        }
+
+        Entry old;
+        synchronized (this) {
+            if (generation != this.generation) {
+                entry.release();
+                return;
+            }
+            old = entries.put(key, entry);
+        }
+        if (old != null) {
+            old.release();
+        }
+        stores.increment();
+    }
+
+    /**
+     * 주문이 커밋된 뒤에 캐시를 비운다.
+     */
+    @TransactionalEventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        invalidateAll();
+    }
+
+    /**
+     * 회원 정보가 커밋된 뒤에 캐시를 비운다.
+     */
+    @TransactionalEventListener
+    public void onMemberChanged(MemberChangedEvent event) {
+        invalidateAll();
+    }
+
+    /**
+     * 상품이 커밋된 뒤에 캐시를 비운다.
+     */
+    @TransactionalEventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        invalidateAll();
+    }
+
+    public void invalidateAll() {
+        synchronized (this) {
+            generation++;
+            for (Entry entry : entries.values()) {
+                entry.release();
+            }
+            entries.clear();
+        }
+    }
+
+    public synchronized ResponseCacheReport report() {
+        return new ResponseCacheReport(entries.size(), usedBytes(), (long) freeBlocks.length * blockSize,
+                generation, (long) hits.count(), (long) misses.count());
+    }
+
+    private synchronized long usedBytes() {
+        return (long) (freeBlocks.length - freeCount) * blockSize;
+    }
+
+    /**
+     * 빈 블록이 모자라면 LRU 순서로 응답을 내보낸다.
+     * => 소켓에 쓰는 중인 응답은 내보내도 블록이 바로 돌아오지 않으므로 건너뛴다. (맵에 그대로 둔다)
+     * => 쓰는 중이 아닌 응답을 모두 내보내도 모자라면, 아무것도 내보내지 않고 저장을 포기한다.
+     *    (캐시를 다 비우고도 저장하지 못하는 일이 없도록)
+     *
+     * retain()은 이 락 안에서만 일어나므로, 락을 잡은 동안 쓰는 중이 아니던 응답이 쓰는 중으로 바뀌지 않는다.
+     */
+    private synchronized int[] allocate(int count) {
+        if (freeCount < count) {
+            long reclaimable = freeCount;
+            for (Entry entry : entries.values()) {
+                if (!entry.isInUse()) {
+                    reclaimable += entry.blocks.length;
+                }
+            }
+            if (reclaimable < count) {
+                return null;
+            }
+
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (freeCount < count) {
+                Entry victim = eldest.next();
+                if (victim.isInUse()) {
+                    continue;
+                }
+                eldest.remove();
+                victim.release();
+            }
+        }
+
+        int[] blocks = new int[count];
+        for (int i = 0; i < count; i++) {
+            blocks[i] = freeBlocks[--freeCount];
+            allocateSlab(blocks[i] / BLOCKS_PER_SLAB);
+        }
+        return blocks;
+    }
+
+    private void allocateSlab(int index) {
+        if (slabs[index] == null) {
+            int blocks = Math.min(BLOCKS_PER_SLAB, freeBlocks.length - index * BLOCKS_PER_SLAB);
+            slabs[index] = ByteBuffer.allocateDirect(blocks * blockSize);
+        }
+    }
+
+    private synchronized void free(int[] blocks) {
+        for (int block : blocks) {
+            freeBlocks[freeCount++] = block;
+        }
+    }
+
+    /**
+     * 블록 하나를 가리키는 view
+     * => duplicate()로 position/limit만 따로 가지므로, 여러 스레드가 같은 slab을 동시에 읽고 쓸 수 있다.
+     * => slab은 allocate()에서 락을 잡고 만들고, Entry도 락을 잡고 맵에 넣고 꺼내므로 락 없이 읽어도 보인다.
+     */
+    private ByteBuffer blockView(int block, int length) {
+        ByteBuffer view = slabs[block / BLOCKS_PER_SLAB].duplicate();
+        int offset = (block % BLOCKS_PER_SLAB) * blockSize;
+        view.position(offset);
+        view.limit(offset + length);
+        return view;
+    }
+
+    /**
+     * 캐시된 응답 하나
+     * => refs : 캐시(맵)가 가진 참조 1 + 응답을 쓰고 있는 요청 수
+     */
+    public final class Entry {
+
+        @Getter
+        private final String contentType;
+        @Getter
+        private final int length;
+        private final int[] blocks;
+        private final long expiresAtNanos;
+        private final AtomicInteger refs = new AtomicInteger(1);
+
+        private Entry(String contentType, int length, int[] blocks, long expiresAtNanos) {
+            this.contentType = contentType;
+            this.length = length;
+            this.blocks = blocks;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAtNanos > 0;
+        }
+
+        // 캐시(맵)가 가진 참조 외에, 응답을 쓰고 있는 요청이 있는지
+        private boolean isInUse() {
+            return refs.get() > 1;
+        }
+
+        private boolean retain() {
+            for (; ; ) {
+                int current = refs.get();
+                if (current == 0) {
+                    return false;
+                }
+                if (refs.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        public void release() {
+            if (refs.decrementAndGet() == 0) {
+                free(blocks);
+            }
+        }
+
+        private void copyFrom(InputStream body) throws IOException {
+            byte[] chunk = new byte[blockSize];
+            int remaining = length;
+            for (int block : blocks) {
+                int size = Math.min(blockSize, remaining);
+                readFully(body, chunk, size);
+                blockView(block, size).put(chunk, 0, size);
+                remaining -= size;
+            }
+        }
+
+        /**
+         * 블록 단위로 소켓에 바로 쓴다. => 힙에는 블록 하나 크기의 복사 버퍼만 사용한다.
+         */
+        public void writeTo(OutputStream out) throws IOException {
+            byte[] chunk = new byte[blockSize];
+            int remaining = length;
+            for (int block : blocks) {
+                int size = Math.min(blockSize, remaining);
+                blockView(block, size).get(chunk, 0, size);
+                out.write(chunk, 0, size);
+                remaining -= size;
+            }
+        }
+
+        private void readFully(InputStream in, byte[] buffer, int size) throws IOException {
+            int read = 0;
+            while (read < size) {
+                int n = in.read(buffer, read, size - read);
+                if (n < 0) {
+                    throw new IOException("response body is shorter than " + length + " bytes");
+                }
+                read += n;
+            }
+        }
+    }
+
+    @Getter
+    public static class ResponseCacheReport {
+
+        private final int entries;
+        private final long usedBytes;
+        private final long maxBytes;
+        private final long generation;
+        private final long hits;
+        private final long misses;
+
+        ResponseCacheReport(int entries, long usedBytes, long maxBytes, long generation, long hits, long misses) {
+            this.entries = entries;
+            this.usedBytes = usedBytes;
+            this.maxBytes = maxBytes;
+            this.generation = generation;
+            this.hits = hits;
+            this.misses = misses;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.garit.study.cache;
+
+import com.garit.study.domain.Order;
+import com.garit.study.domain.OrderStatus;
+import com.garit.study.repository.OrderSearch;
+import com.garit.study.repository.OrderSortType;
+import com.garit.study.service.ItemChangedEvent;
+import com.garit.study.service.MemberChangedEvent;
+import com.garit.study.service.OrderChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주문 검색(/orders) 결과 캐시 => 검색 조건 => 주문 id 목록
+ * => 같은 검색 조건이면 검색 쿼리(회원 조인 + like, 금액 범위, 정렬) 대신 id 목록으로 주문을 읽는다. (PK IN 조회)
+ * => 엔티티가 아니라 id만 저장한다. 상품 이름 같은 표시 값은 매번 DB에서 읽으므로 오래된 값이 보이지 않는다.
+ *
+ * [이득] 쿼리 수는 miss와 같다. (주문 1 + 주문상품 batch 1 + 상품 batch 1 => 3번)
+ * => 줄어드는 것은 첫번째 쿼리의 비용뿐이다. => 전체 주문을 훑고 정렬하는 검색이 PK로 최대 1000건을 찾는 조회가 된다.
+ * => 인덱스를 못 타는 조건(회원 이름 like '%..%', 금액 범위 + 정렬)일수록 이득이 크고,
+ *    결과가 적고 인덱스를 타는 검색이면 차이가 거의 없다. (order.search.cache.requests 메트릭과 쿼리 시간으로 판단)
+ * => 주문상품, 상품 batch 쿼리와 화면 렌더링은 그대로 실행된다. (화면 자체를 캐시하는 것이 아니다)
+ *
+ * [key] 검색 조건을 정규화한다. => 회원 이름이 빈 문자열이면 조건 없음(null)과 같다. (nameLike와 같은 기준)
+ *
+ * [버전] 주문 쓰기 버전(version)
+ * => 주문 생성, 취소, 보관, 금액 backfill(OrderChangedEvent)과 회원 이름 변경(MemberChangedEvent)이 커밋되면 1 올린다.
+ * => 상품 수정, 대량 등록(ItemChangedEvent)도 1 올린다. => 주문 목록에 보이는 데이터가 바뀌면 응답 캐시와 같은 기준으로 비운다.
+ * => 항목은 검색을 시작할 때의 버전으로 저장하고, 꺼낼 때 버전이 다르면 버린다. (stale)
+ * => 커밋 전에 올리지 않는다. 커밋 전 데이터로 만든 결과가 새 버전으로 저장될 수 있기 때문
+ * => 버전은 서버(JVM)마다 따로 있다. 다른 서버에서 커밋된 주문 변경은 이 서버의 버전을 올리지 못한다.
+ *
+ * [ttl] order-search-cache.ttl-seconds (기본 60) => 다른 서버에서 바뀐 주문이 검색 결과에 늦게 반영되는 최대 시간
+ * => 버전을 DB에 두지 않고 ttl로 제한한다. 버전을 DB에서 읽으면 hit마다 쿼리가 1번 늘어서 캐시의 이득(검색 쿼리 1번)이 사라진다.
+ * => 항목의 시각은 검색을 시작한 시각이다. ttl이 지난 항목은 꺼낼 때 버리고 miss로 본다. (expired)
+ *
+ * [크기] order-search-cache.max-size (기본 256) => 넘으면 가장 오래 안 쓴 검색 조건(LRU)부터 내보낸다.
+ * => 검색 결과는 최대 1000건이므로 항목 1개는 id 1000개 이하
+ */
+@Slf4j
+@Component
+public class OrderSearchCache {
+
+    private final long ttlNanos;
+
+    private final LinkedHashMap<SearchKey, CachedIds> entries;
+    private long version;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter stales;
+    private final Counter expired;
+
+    public OrderSearchCache(@Value("${order-search-cache.max-size:256}") int maxSize,
+                            @Value("${order-search-cache.ttl-seconds:60}") long ttlSeconds,
+                            MeterRegistry meterRegistry) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.entries = new LinkedHashMap<SearchKey, CachedIds>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SearchKey, CachedIds> eldest) {
+                return size() > maxSize;
+            }
+        };
+
+        this.hits = meterRegistry.counter("order.search.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("order.search.cache.requests", "result", "miss");
+        this.stales = meterRegistry.counter("order.search.cache.requests", "result", "stale");
+        this.expired = meterRegistry.counter("order.search.cache.requests", "result", "expired");
+        Gauge.builder("order.search.cache.size", this, c -> c.size()).register(meterRegistry);
+
+        log.info("order search cache maxSize={} ttlSeconds={}", maxSize, ttlSeconds);
+    }
+
+    /**
+     * @return hit이면 주문 id 목록, miss이면 put()에 넘길 key와 검색 시작 시점의 버전, 시각
+     */
+    public Lookup lookup(OrderSearch orderSearch) {
+        return lookup(orderSearch, System.nanoTime());
+    }
+
+    /**
+     * now : System.nanoTime() 기준 현재 시각 (테스트에서 ttl 경과를 시간 대기 없이 확인한다)
+     */
+    synchronized Lookup lookup(OrderSearch orderSearch, long now) {
+        SearchKey key = new SearchKey(orderSearch);
+        CachedIds entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return new Lookup(key, version, now, null);
+        }
+        if (entry.version != version) {
+            entries.remove(key);
+            stales.increment();
+            return new Lookup(key, version, now, null);
+        }
+        if (now - entry.searchedAt >= ttlNanos) {
+            entries.remove(key);
+            expired.increment();
+            return new Lookup(key, version, now, null);
+        }
+        hits.increment();
+        return new Lookup(key, version, now, entry.orderIds);
+    }
+
+    /**
+     * 검색하는 동안 버전이 바뀌었으면 저장하지 않는다.
+     */
+    public synchronized void put(Lookup lookup, List<Order> orders) {
+        if (lookup.version != version) {
+            return;
+        }
+        List<Long> orderIds = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            orderIds.add(order.getId());
+        }
+        entries.put(lookup.key, new CachedIds(lookup.version, lookup.searchedAt, List.copyOf(orderIds)));
+    }
+
+    @TransactionalEventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        invalidateAll();
+    }
+
+    /**
+     * 회원 이름이 바뀌면 회원 이름 검색 결과가 달라진다.
+     */
+    @TransactionalEventListener
+    public void onMemberChanged(MemberChangedEvent event) {
+        invalidateAll();
+    }
+
+    @TransactionalEventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        invalidateAll();
+    }
+
+    /**
+     * 버전만 올린다. => 남은 항목은 꺼낼 때 버리거나 LRU로 밀려난다.
+     */
+    public synchronized void invalidateAll() {
+        version++;
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public static class Lookup {
+
+        private final SearchKey key;
+        private final long version;
+        private final long searchedAt;
+        private final List<Long> orderIds;
+
+        private Lookup(SearchKey key, long version, long searchedAt, List<Long> orderIds) {
+            this.key = key;
+            this.version = version;
+            this.searchedAt = searchedAt;
+            this.orderIds = orderIds;
+        }
+
+        public boolean isHit() {
+            return orderIds != null;
+        }
+
+        public List<Long> getOrderIds() {
+            return orderIds;
+        }
+    }
+
+    private static class CachedIds {
+
+        private final long version;
+        private final long searchedAt;
+        private final List<Long> orderIds;
+
+        CachedIds(long version, long searchedAt, List<Long> orderIds) {
+            this.version = version;
+            this.searchedAt = searchedAt;
+            this.orderIds = orderIds;
+        }
+    }
+
+    /**
+     * 정규화한 검색 조건
+     */
+    private static final class SearchKey {
+
+        private final String memberName;
+        private final OrderStatus orderStatus;
+        private final Integer minTotalPrice;
+        private final Integer maxTotalPrice;
+        private final OrderSortType sort;
+
+        SearchKey(OrderSearch orderSearch) {
+            this.memberName = StringUtils.hasText(orderSearch.getMemberName()) ? orderSearch.getMemberName() : null;
+            this.orderStatus = orderSearch.getOrderStatus();
+            this.minTotalPrice = orderSearch.getMinTotalPrice();
+            this.maxTotalPrice = orderSearch.getMaxTotalPrice();
+            this.sort = orderSearch.getSort();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SearchKey)) {
+                return false;
+            }
+            SearchKey other = (SearchKey) o;
+            return Objects.equals(memberName, other.memberName)
+                    && orderStatus == other.orderStatus
+                    && Objects.equals(minTotalPrice, other.minTotalPrice)
+                    && Objects.equals(maxTotalPrice, other.maxTotalPrice)
+                    && sort == other.sort;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(memberName, orderStatus, minTotalPrice, maxTotalPrice, sort);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.garit.study.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * 자주 호출되지만 잘 바뀌지 않는 주문 목록 API 응답을 OffHeapResponseCache에 저장한다.
+ * => hit : 조회 쿼리, DTO 생성, 직렬화를 모두 건너뛰고 저장된 바이트를 그대로 내보낸다.
+ * => miss : 컨트롤러가 만든 응답을 한번 버퍼링해서 저장한 뒤 내보낸다.
+ *
+ * key : URI + 쿼리 스트링 + Accept (같은 URI라도 JSON, Smile 응답을 따로 저장)
+ *
+ * 동기 방식으로 응답하는 DTO 조회 API만 대상으로 한다.
+ * => V1, V3는 bulkhead에서 비동기로 응답하고, 엔티티를 노출하는 예제라서 캐시하지 않는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final Set<String> CACHEABLE_PATHS = Set.of(
+            "/api/v4/orders", "/api/v5/orders", "/api/v6/orders", "/api/v7/orders", "/api/v4/simple-orders");
+
+    private static final UrlPathHelper PATH_HELPER = new UrlPathHelper();
+
+    private final OffHeapResponseCache cache;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !("GET".equals(request.getMethod()) && CACHEABLE_PATHS.contains(PATH_HELPER.getPathWithinApplication(request)));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String key = key(request);
+        OffHeapResponseCache.Entry entry = cache.acquire(key);
+        if (entry != null) {
+            try {
+                response.setStatus(HttpStatus.OK.value());
+                response.setContentType(entry.getContentType());
+                response.setContentLength(entry.getLength());
+                response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                entry.writeTo(response.getOutputStream());
+            } finally {
+                entry.release();
+            }
+            return;
+        }
+
+        long generation = cache.generation();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        wrapper.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        filterChain.doFilter(request, wrapper);
+
+        if (wrapper.getStatus() == HttpStatus.OK.value() && wrapper.getContentType() != null) {
+            cache.put(key, generation, wrapper.getContentType(), wrapper.getContentInputStream(), wrapper.getContentSize());
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private String key(HttpServletRequest request) {
+        String query = request.getQueryString();
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return PATH_HELPER.getPathWithinApplication(request)
+                + (query == null ? "" : "?" + query)
+                + "|" + (accept == null ? "" : accept);
+    }
+}
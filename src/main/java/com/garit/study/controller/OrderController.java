@@ -1,26 +1,50 @@
 package com.garit.study.controller;
 
+import com.garit.study.bulkhead.Bulkhead;
+import com.garit.study.bulkhead.Compartment;
+import com.garit.study.domain.IdempotencyKey;
 import com.garit.study.domain.Member;
 import com.garit.study.domain.Order;
 import com.garit.study.domain.item.Item;
 import com.garit.study.repository.OrderSearch;
+import com.garit.study.service.IdempotentOrderService;
 import com.garit.study.service.ItemService;
 import com.garit.study.service.MemberService;
+import com.garit.study.service.OrderExportService;
 import com.garit.study.service.OrderService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.ConstraintViolationException;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPOutputStream;
 
 @Controller
+@Validated      // @RequestHeader 같은 단일 파라미터 검증 => 실패하면 ConstraintViolationException (400)
 @RequiredArgsConstructor
 public class OrderController {
 
     private final OrderService orderService;
+    private final IdempotentOrderService idempotentOrderService;
     private final MemberService memberService;
     private final ItemService itemService;
+    private final OrderExportService orderExportService;
+    private final Bulkhead bulkhead;
 
     @GetMapping("/order")
     public String createForm(Model model){
@@ -33,13 +57,29 @@ public class OrderController {
         return "order/orderForm";
     }
 
+    /**
+     * 주문은 WRITE 구획에서 실행한다.
+     * => 대용량 조회(READ)가 스레드와 커넥션을 모두 잡고 있어도, 주문 지연 시간은 영향을 받지 않는다.
+     *
+     * Idempotency-Key 헤더가 있으면, 같은 키로 재시도해도 주문은 한번만 생성된다.
+     * => 1~100자, 공백 X. 형식이 틀리면 400
+     * => 같은 키로 다른 내용을 주문하면 422 (IdempotencyKeyMismatchException)
+     */
     @PostMapping("/order")
-    public String order(@RequestParam("memberId") Long memberId,
-                        @RequestParam("itemId") Long itemId,
-                        @RequestParam("count") int count){
+    public CompletableFuture<String> order(@RequestHeader(value = "Idempotency-Key", required = false)
+                                           @Size(min = 1, max = IdempotencyKey.MAX_LENGTH) @Pattern(regexp = "\\S+") String idempotencyKey,
+                                           @RequestParam("memberId") Long memberId,
+                                           @RequestParam("itemId") Long itemId,
+                                           @RequestParam("count") int count){
 
-        orderService.order(memberId, itemId, count);
-        return "redirect:/orders";
+        return bulkhead.submit(Compartment.WRITE, () -> {
+            if (idempotencyKey != null) {
+                idempotentOrderService.order(idempotencyKey, memberId, itemId, count);
+            } else {
+                orderService.order(memberId, itemId, count);
+            }
+            return "redirect:/orders";
+        });
     }
 
     @GetMapping("/orders")
@@ -51,9 +91,73 @@ public class OrderController {
         return "order/orderList";
     }
 
+    /**
+     * 주문 검색 결과 CSV 다운로드 => /orders 화면과 같은 검색 조건, 건수 제한 없음
+     *
+     * EXPORT 구획(동시 2개, 대기열 없음)에서 실행한다.
+     * => 긴 다운로드가 화면 조회, 주문의 스레드와 커넥션을 잡지 않는다. 꽉 차면 503으로 바로 거절한다.
+     *
+     * 클라이언트가 gzip을 받을 수 있으면(Accept-Encoding) 쓰는 대로 압축해서 보낸다. (Content-Encoding: gzip)
+     * => GZIPOutputStream(syncFlush=true) : flush 할 때마다 그때까지 압축한 데이터를 바로 내보낸다.
+     * => 브라우저는 압축을 풀어서 orders.csv로 저장한다.
+     */
+    @GetMapping("/orders/export")
+    @ResponseBody
+    public CompletableFuture<Void> exportOrders(@ModelAttribute("orderSearch") OrderSearch orderSearch,
+                                                @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                HttpServletResponse response){
+
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        return bulkhead.submit(Compartment.EXPORT, () -> {
+            response.setContentType("text/csv;charset=UTF-8");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders.csv\"");
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (gzip) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            try {
+                OutputStream body = gzip
+                        ? new GZIPOutputStream(response.getOutputStream(), 8 * 1024, true)
+                        : response.getOutputStream();
+                Writer writer = new OutputStreamWriter(body, StandardCharsets.UTF_8);
+                try {
+                    orderExportService.writeCsv(orderSearch, writer);
+                } catch (IOException | RuntimeException e) {
+                    abortExport(response);
+                    throw e;
+                }
+                writer.close();     // 끝까지 쓴 경우에만 gzip trailer + 응답 끝을 보낸다.
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 내보내는 중에 실패(DB 장애, 클라이언트 연결 끊김 등)하면 응답을 정상 종료하지 않는다.
+     * => 스트림을 닫지 않는다. (gzip trailer, 마지막 chunk를 보내지 않는다)
+     *    닫으면 클라이언트는 200 + 잘린 CSV를 완성된 파일로 저장한다.
+     * => 아직 아무것도 보내지 않았으면(커밋 전) 헤더, 버퍼를 비운다. => 예외가 그대로 오류 응답(500)이 된다.
+     * => 이미 보내기 시작했으면 상태 코드를 바꿀 수 없다.
+     *    예외를 그대로 던지면 컨테이너(톰캣)가 연결을 끊는다. => 클라이언트는 다운로드 실패로 본다.
+     */
+    private void abortExport(HttpServletResponse response) {
+        if (!response.isCommitted()) {
+            response.reset();
+        }
+    }
+
     @PostMapping("/orders/{orderId}/cancel")
     public String cancelOrder(@PathVariable("orderId") Long orderId){
         orderService.cancelOrder(orderId);
         return "redirect:/orders";
     }
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ResponseBody
+    public String invalidRequest(ConstraintViolationException e) {
+        return e.getMessage();
+    }
 }
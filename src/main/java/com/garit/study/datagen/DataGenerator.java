@@ -0,0 +1,340 @@
+package com.garit.study.datagen;
+
+import com.garit.study.service.OrderChangedEvent;
+import com.garit.study.service.SalesRollupService;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntConsumer;
+
+/**
+ * 부하 테스트용 대량 데이터 생성기 (datagen 프로필)
+ * => datagen 프로필에서는 InitDb(주문 2개)가 등록되지 않고, 이 클래스가 회원 / 상품 / 주문을 수백만 건 만든다.
+ *
+ * [생성 규칙] (datagen.* 프로퍼티)
+ * 1) 카테고리 : 도서 / 음반 / 영화 루트 아래에 categories개, 상품은 자기 타입의 카테고리 하나에 속한다.
+ * 2) 상품 : Book / Album / Movie 를 번갈아 만든다. 가격 1,000 ~ 50,000
+ * 3) 주문 : order-days일 동안 고르게 분포, cancel-ratio 만큼 취소
+ * => 주문당 상품 수는 기하분포 (1개 50%, 2개 25% ...) 이고 max-items-per-order개에서 자른다.
+ * => 상품은 앞쪽 번호일수록 자주 팔린다. (인기 상품 쏠림)
+ * 4) 재고는 넉넉하게 잡고 주문으로 차감하지 않는다.
+ *
+ * [속도]
+ * 1) 엔티티를 거치지 않고 JdbcTemplate 배치 insert 로 쓴다. (영속성 컨텍스트, dirty checking X)
+ * => MySQL은 jdbc url에 rewriteBatchedStatements=true 를 줘야 배치가 multi-row insert 한번으로 나간다.
+ * 2) chunk-size 단위로 나눠서 threads개 스레드가 동시에 쓴다. 청크 1개 = 트랜잭션 1개
+ * 3) 청크마다 seed + 청크 번호로 Random을 만든다. => 스레드 수와 상관없이 같은 데이터가 만들어진다.
+ *
+ * [id]
+ * => id는 id-offset (이미 있는 id가 더 크면 그 다음)부터 직접 매긴다.
+ * => hibernate_sequence가 id-offset에 닿기 전까지는 애플리케이션이 만드는 주문과 겹치지 않는다.
+ *
+ * 기동을 막지 않도록 ApplicationReadyEvent 이후에 별도 스레드에서 실행한다.
+ * 끝나면 일별 매출 집계를 다시 만들고, 주문 캐시를 비운다.
+ */
+@Slf4j
+@Component
+@Profile("datagen")
+public class DataGenerator {
+
+    private static final String[] CITIES = {"서울", "부산", "대구", "인천", "광주", "대전", "진주"};
+    private static final String[] ROOT_CATEGORIES = {"도서", "음반", "영화"};
+    private static final String[] DTYPES = {"B", "A", "M"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SalesRollupService salesRollupService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final int members;
+    private final int items;
+    private final int categories;
+    private final int orders;
+    private final int maxItemsPerOrder;
+    private final int orderDays;
+    private final double cancelRatio;
+    private final int chunkSize;
+    private final int threads;
+    private final long seed;
+    private final long idOffset;
+
+    public DataGenerator(JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         SalesRollupService salesRollupService,
+                         ApplicationEventPublisher eventPublisher,
+                         Environment env) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.salesRollupService = salesRollupService;
+        this.eventPublisher = eventPublisher;
+
+        this.members = env.getProperty("datagen.members", Integer.class, 100_000);
+        this.items = env.getProperty("datagen.items", Integer.class, 10_000);
+        this.categories = env.getProperty("datagen.categories", Integer.class, 30);
+        this.orders = env.getProperty("datagen.orders", Integer.class, 1_000_000);
+        this.maxItemsPerOrder = env.getProperty("datagen.max-items-per-order", Integer.class, 5);
+        this.orderDays = env.getProperty("datagen.order-days", Integer.class, 730);
+        this.cancelRatio = env.getProperty("datagen.cancel-ratio", Double.class, 0.1);
+        this.chunkSize = env.getProperty("datagen.chunk-size", Integer.class, 5_000);
+        this.threads = env.getProperty("datagen.threads", Integer.class, 4);
+        this.seed = env.getProperty("datagen.seed", Long.class, 42L);
+        this.idOffset = env.getProperty("datagen.id-offset", Long.class, 1_000_000_000L);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startAfterReady() {
+        Thread thread = new Thread(() -> {
+            try {
+                generate();
+            } catch (RuntimeException e) {
+                log.error("data generation failed", e);
+            }
+        }, "datagen");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public GenerationReport generate() {
+        long start = System.nanoTime();
+        long base = nextFreeId();
+        LocalDateTime now = LocalDateTime.now();
+        log.info("data generation start base={} members={} items={} orders={} threads={} chunkSize={}",
+                base, members, items, orders, threads, chunkSize);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("datagen-");
+        executor.initialize();
+        try {
+            // 주문이 회원 / 상품을 참조하므로 순서대로 만든다. (단계 안에서만 병렬)
+            transactionTemplate.executeWithoutResult(status -> insertCategories(base));
+            runChunks(executor, members, chunk -> insertMembers(base, chunk));
+
+            int[] prices = new int[items];
+            runChunks(executor, items, chunk -> insertItems(base, chunk, prices));
+
+            long[] orderItemCounts = new long[(orders + chunkSize - 1) / chunkSize];
+            runChunks(executor, orders, chunk -> orderItemCounts[chunk] = insertOrders(base, chunk, prices, now));
+
+            long orderItems = 0;
+            for (long count : orderItemCounts) {
+                orderItems += count;
+            }
+
+            // 오늘 주문까지 포함 (증분 갱신을 거치지 않았으므로)
+            salesRollupService.rebuild(null, now.toLocalDate().plusDays(1));
+            transactionTemplate.executeWithoutResult(status -> eventPublisher.publishEvent(new OrderChangedEvent(null)));
+
+            GenerationReport report = new GenerationReport(base, members, items, orders, orderItems,
+                    (System.nanoTime() - start) / 1_000_000);
+            log.info("data generation done members={} items={} orders={} orderItems={} elapsed={}ms rows={}/s",
+                    members, items, orders, orderItems, report.getElapsedMillis(), report.getRowsPerSecond());
+            return report;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * total개를 chunk-size로 나눠서 병렬로 실행하고, 모두 끝날 때까지 기다린다.
+     */
+    private void runChunks(ThreadPoolTaskExecutor executor, int total, IntConsumer chunkTask) {
+        int chunks = (total + chunkSize - 1) / chunkSize;
+        List<CompletableFuture<Void>> futures = new ArrayList<>(chunks);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int index = chunk;
+            futures.add(CompletableFuture.runAsync(
+                    () -> transactionTemplate.executeWithoutResult(status -> chunkTask.accept(index)), executor));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+    }
+
+    private long nextFreeId() {
+        long max = 0;
+        for (String sql : new String[]{
+                "select coalesce(max(member_id), 0) from member",
+                "select coalesce(max(item_id), 0) from item",
+                "select coalesce(max(category_id), 0) from category",
+                "select coalesce(max(delivery_id), 0) from delivery",
+                "select coalesce(max(order_id), 0) from orders",
+                "select coalesce(max(order_item_id), 0) from order_item"}) {
+            Long id = jdbcTemplate.queryForObject(sql, Long.class);
+            max = Math.max(max, id == null ? 0 : id);
+        }
+        return Math.max(idOffset, max + 1);
+    }
+
+    /**
+     * 루트 카테고리 id : base + 0 ~ 2
+     * 하위 카테고리 id : base + 3 + i => 상품 타입 i % 3 의 루트 아래
+     */
+    private void insertCategories(long base) {
+        List<Object[]> rows = new ArrayList<>(ROOT_CATEGORIES.length + categories);
+        for (int i = 0; i < ROOT_CATEGORIES.length; i++) {
+            rows.add(new Object[]{base + i, ROOT_CATEGORIES[i], null});
+        }
+        for (int i = 0; i < categories; i++) {
+            rows.add(new Object[]{base + ROOT_CATEGORIES.length + i,
+                    ROOT_CATEGORIES[i % ROOT_CATEGORIES.length] + "-" + i, base + i % ROOT_CATEGORIES.length});
+        }
+        jdbcTemplate.batchUpdate("insert into category (category_id, name, parent_id) values (?, ?, ?)", rows);
+    }
+
+    private void insertMembers(long base, int chunk) {
+        Random random = random(1, chunk);
+        int from = chunk * chunkSize;
+        int to = Math.min(members, from + chunkSize);
+
+        List<Object[]> rows = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            rows.add(new Object[]{base + i, "회원" + i,
+                    CITIES[random.nextInt(CITIES.length)], String.valueOf(random.nextInt(1000)), zipcode(random)});
+        }
+        jdbcTemplate.batchUpdate("insert into member (member_id, name, city, street, zipcode) values (?, ?, ?, ?, ?)", rows);
+    }
+
+    private void insertItems(long base, int chunk, int[] prices) {
+        Random random = random(2, chunk);
+        int from = chunk * chunkSize;
+        int to = Math.min(items, from + chunkSize);
+
+        List<Object[]> itemRows = new ArrayList<>(to - from);
+        List<Object[]> categoryRows = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            int type = i % DTYPES.length;
+            int price = (10 + random.nextInt(491)) * 100;
+            prices[i] = price;
+
+            String name = ROOT_CATEGORIES[type] + "-" + i;
+            itemRows.add(new Object[]{DTYPES[type], base + i, name, price, 1_000 + random.nextInt(9_000),
+                    type == 0 ? "저자" + random.nextInt(1000) : null,
+                    type == 0 ? String.valueOf(9_780_000_000_000L + i) : null,
+                    type == 1 ? "가수" + random.nextInt(1000) : null,
+                    null,
+                    type == 2 ? "감독" + random.nextInt(1000) : null,
+                    type == 2 ? "배우" + random.nextInt(1000) : null});
+
+            if (categories > 0) {
+                // 같은 타입의 하위 카테고리 중 하나
+                int sameType = (categories - type + ROOT_CATEGORIES.length - 1) / ROOT_CATEGORIES.length;
+                if (sameType > 0) {
+                    int category = type + ROOT_CATEGORIES.length * random.nextInt(sameType);
+                    categoryRows.add(new Object[]{base + ROOT_CATEGORIES.length + category, base + i});
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into item (dtype, item_id, name, price, stock_quantity," +
+                " author, isbn, artist, etc, director, actor) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", itemRows);
+        jdbcTemplate.batchUpdate("insert into category_item (category_id, item_id) values (?, ?)", categoryRows);
+    }
+
+    /**
+     * 주문 id = 배송 id = base + i
+     * 주문상품 id = base + i * max-items-per-order + j
+     *
+     * @return 만든 주문상품 수
+     */
+    private long insertOrders(long base, int chunk, int[] prices, LocalDateTime now) {
+        Random random = random(3, chunk);
+        int from = chunk * chunkSize;
+        int to = Math.min(orders, from + chunkSize);
+        long orderSeconds = orderDays * 86_400L;
+        LocalDateTime shippedBefore = now.minusDays(1);
+
+        List<Object[]> deliveryRows = new ArrayList<>(to - from);
+        List<Object[]> orderRows = new ArrayList<>(to - from);
+        List<Object[]> orderItemRows = new ArrayList<>((to - from) * 2);
+        for (int i = from; i < to; i++) {
+            long id = base + i;
+            LocalDateTime orderDate = now.minusSeconds(1 + (long) (random.nextDouble() * orderSeconds));
+            boolean canceled = random.nextDouble() < cancelRatio;
+
+            int totalPrice = 0;
+            int itemCount = itemsPerOrder(random);
+            for (int j = 0; j < itemCount; j++) {
+                int item = popularItem(random);
+                int count = 1 + random.nextInt(3);
+                totalPrice += prices[item] * count;
+                orderItemRows.add(new Object[]{base + (long) i * maxItemsPerOrder + j, base + item, id, prices[item], count});
+            }
+
+            String deliveryStatus = !canceled && orderDate.isBefore(shippedBefore) ? "COMP" : "READY";
+            deliveryRows.add(new Object[]{id, CITIES[random.nextInt(CITIES.length)],
+                    String.valueOf(random.nextInt(1000)), zipcode(random), deliveryStatus});
+            orderRows.add(new Object[]{id, base + random.nextInt(members), id, Timestamp.valueOf(orderDate),
+                    canceled ? "CANCEL" : "ORDER", totalPrice});
+        }
+
+        jdbcTemplate.batchUpdate("insert into delivery (delivery_id, city, street, zipcode, status) values (?, ?, ?, ?, ?)",
+                deliveryRows);
+        jdbcTemplate.batchUpdate("insert into orders (order_id, member_id, delivery_id, order_date, status, total_price)" +
+                " values (?, ?, ?, ?, ?, ?)", orderRows);
+        jdbcTemplate.batchUpdate("insert into order_item (order_item_id, item_id, order_id, order_price, count)" +
+                " values (?, ?, ?, ?, ?)", orderItemRows);
+        return orderItemRows.size();
+    }
+
+    // 기하분포 (p = 0.5)
+    private int itemsPerOrder(Random random) {
+        int count = 1;
+        while (count < maxItemsPerOrder && random.nextBoolean()) {
+            count++;
+        }
+        return count;
+    }
+
+    // 앞쪽 번호 상품일수록 자주 뽑힌다. (u^2 => 상위 10% 상품이 주문의 약 30%)
+    private int popularItem(Random random) {
+        double u = random.nextDouble();
+        return (int) (u * u * items);
+    }
+
+    private String zipcode(Random random) {
+        return String.format("%05d", random.nextInt(100_000));
+    }
+
+    private Random random(int phase, int chunk) {
+        return new Random(seed * 31 + phase * 1_000_003L + chunk);
+    }
+
+    @Getter
+    public static class GenerationReport {
+
+        private final long baseId;
+        private final long members;
+        private final long items;
+        private final long orders;
+        private final long orderItems;
+        private final long elapsedMillis;
+        private final long rowsPerSecond;
+
+        GenerationReport(long baseId, long members, long items, long orders, long orderItems, long elapsedMillis) {
+            this.baseId = baseId;
+            this.members = members;
+            this.items = items;
+            this.orders = orders;
+            this.orderItems = orderItems;
+            this.elapsedMillis = elapsedMillis;
+            // 배송 = 주문 수
+            long rows = members + items + orders * 2 + orderItems;
+            this.rowsPerSecond = elapsedMillis == 0 ? rows * 1000 : rows * 1000 / elapsedMillis;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.garit.study.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.LocalDateTime;
+
+/**
+ * 배치 작업 진행 위치
+ * => 청크를 처리한 트랜잭션에서 같이 갱신하므로, 서버가 중간에 죽어도 커밋된 청크 다음부터 다시 시작한다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class BatchCheckpoint {
+
+    @Id
+    @Column(name = "job_name", length = 100)
+    private String jobName;
+
+    private long lastId;        // 마지막으로 처리한 id (keyset)
+
+    private long processed;     // 누적 처리 건수
+
+    private LocalDateTime updatedAt;
+
+    public BatchCheckpoint(String jobName) {
+        this.jobName = jobName;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void advance(long lastId, int processed) {
+        this.lastId = lastId;
+        this.processed += processed;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * 끝까지 처리했으면 처음으로 되돌린다.
+     * => 아직 대상이 아니어서 건너뛴 행은 다음 실행에서 다시 확인한다.
+     */
+    public void rewind() {
+        this.lastId = 0;
+        this.updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,40 @@
+package com.garit.study.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.EmbeddedId;
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+/**
+ * 일별 매출 집계 (rollup)
+ * => 매출 조회 때마다 주문, 주문상품을 읽어서 Order.getTotalPrice()를 계산하지 않고, 미리 합쳐둔 값을 읽는다.
+ * => 1년치를 조회해도 (365일 x 상품 수) 행만 읽으면 된다.
+ *
+ * status별로 따로 쌓는다.
+ * => ORDER : 유효한 매출, CANCEL : 취소된 매출 (주문 취소 시 ORDER에서 빼서 CANCEL로 옮긴다)
+ *
+ * 주문 시점에 SalesRollupService가 값을 더하고, 어긋났을 때는 rebuild로 원본 주문에서 다시 계산한다.
+ */
+@Entity
+@Table(name = "daily_sales", indexes = @Index(name = "idx_daily_sales_date_status", columnList = "sales_date, status"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class DailySales {
+
+    @EmbeddedId
+    private DailySalesId id;
+
+    private long revenue;   // 매출 (주문 가격 * 수량)
+
+    private long units;     // 판매 수량
+
+    public DailySales(DailySalesId id, long revenue, long units) {
+        this.id = id;
+        this.revenue = revenue;
+        this.units = units;
+    }
+}
@@ -0,0 +1,42 @@
+package com.garit.study.domain;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * 일별 매출 집계 키 (주문일, 상품, 주문 상태)
+ * => 복합키 클래스는 Serializable, equals/hashCode가 필요하다.
+ */
+@Embeddable
+@Getter
+@EqualsAndHashCode
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class DailySalesId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Column(name = "sales_date")
+    private LocalDate salesDate;
+
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Enumerated(value = EnumType.STRING)
+    @Column(name = "status", length = 10)
+    private OrderStatus status;
+
+    public DailySalesId(LocalDate salesDate, Long itemId, OrderStatus status) {
+        this.salesDate = salesDate;
+        this.itemId = itemId;
+        this.status = status;
+    }
+}
@@ -8,7 +8,11 @@ import javax.persistence.*;
 
 import static javax.persistence.FetchType.LAZY;
 
+/**
+ * idx_delivery_status : 배송 처리 배치가 READY 상태만 id 순서로 훑는다. (status = ? and delivery_id > ? order by delivery_id)
+ */
 @Entity
+@Table(indexes = @Index(name = "idx_delivery_status", columnList = "status, delivery_id"))
 @Getter
 @Setter
 public class Delivery {
@@ -0,0 +1,72 @@
+package com.garit.study.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 주문 요청 중복 방지 키
+ * => 클라이언트가 타임아웃 후 같은 Idempotency-Key로 재시도하면, 새로 주문하지 않고 처음 만든 주문 id를 돌려준다.
+ * => PK 제약 조건 덕분에 서버가 여러 대여도 같은 키로 주문이 두번 커밋될 수 없다.
+ *
+ * requestHash : 처음 요청한 내용(회원, 상품, 수량)의 해시
+ * => 같은 키로 다른 내용을 보내면 재시도가 아니므로, 처음 주문 id를 돌려주지 않고 거절한다. (422)
+ *
+ * idx_idempotency_key_created_at : 보관 기간(idempotency.ttl-hours)이 지난 키를 오래된 순서로 지운다.
+ */
+@Entity
+@Table(name = "idempotency_key", indexes = @Index(name = "idx_idempotency_key_created_at", columnList = "created_at"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class IdempotencyKey {
+
+    public static final int MAX_LENGTH = 100;
+
+    @Id
+    @Column(name = "idempotency_key", length = MAX_LENGTH)
+    private String idempotencyKey;
+
+    private Long orderId;
+
+    // SHA-256 => base64 43자
+    @Column(name = "request_hash", length = 44)
+    private String requestHash;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    public IdempotencyKey(String idempotencyKey, String requestHash, Long orderId) {
+        this.idempotencyKey = idempotencyKey;
+        this.requestHash = requestHash;
+        this.orderId = orderId;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    /**
+     * request_hash 컬럼이 생기기 전에 저장된 키(null)는 비교할 수 없으므로 같은 요청으로 본다.
+     */
+    public boolean matches(String requestHash) {
+        return this.requestHash == null || this.requestHash.equals(requestHash);
+    }
+
+    public static String requestHash(Long memberId, Long itemId, int count) {
+        String request = "memberId=" + memberId + "&itemId=" + itemId + "&count=" + count;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(request.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);     // 모든 JVM이 SHA-256을 지원해야 한다.
+        }
+    }
+}
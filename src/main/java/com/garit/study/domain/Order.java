@@ -4,6 +4,7 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.BatchSize;
 
 import javax.persistence.*;
@@ -13,13 +14,28 @@ import java.util.List;
 
 import static javax.persistence.FetchType.LAZY;
 
+/**
+ * 엔티티 그래프 => JPQL 없이, 함께 조회할 연관관계를 이름으로 정의한다.
+ * OrderFetchPlan에서 이름으로 꺼내서 조회 쿼리에 힌트로 넘긴다.
+ * => ToOne 관계만 그래프에 넣는다. (컬렉션을 넣으면 페치 조인이 되어 페이징이 안된다.)
+ */
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_total_price", columnList = "total_price"),
+        @Index(name = "idx_orders_order_date", columnList = "order_date")
+})
+@NamedEntityGraph(name = Order.GRAPH_MEMBER_DELIVERY,
+        attributeNodes = {
+                @NamedAttributeNode("member"),
+                @NamedAttributeNode("delivery")
+        })
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)  // new로 생성하지 못하도록한다.
 public class Order {
 
+    public static final String GRAPH_MEMBER_DELIVERY = "Order.withMemberDelivery";
+
     @Id @GeneratedValue
     @Column(name = "order_id")
     private Long id;
@@ -57,18 +73,39 @@ public class Order {
     @JoinColumn(name = "delivery_id")
     private Delivery delivery;
 
+    @Column(name = "order_date")
     private LocalDateTime orderDate;    // 주문 시간
 
     @Enumerated(value = EnumType.STRING)
     private OrderStatus status;         // 주문 상태 [ORDER, CANCEL]
 
+    /**
+     * 전체 주문 가격 (주문상품 가격 * 수량의 합)
+     * => 매번 orderItems를 로딩해서 계산하지 않고, 컬럼에 저장해둔다. (반정규화)
+     * => DB에서 바로 금액으로 검색하고 정렬할 수 있다. (idx_orders_total_price)
+     *
+     * addOrderItem()에서만 값이 바뀐다. => setter 제공 X
+     * 주문 취소 시에는 주문상품이 그대로 남으므로 값도 그대로 둔다. (취소 여부는 status로 구분)
+     *
+     * int 필드라서 컬럼에 null이 있으면 주문 로딩이 실패한다. => NOT NULL DEFAULT 0 (db/mysql/orders_total_price.sql)
+     */
+    @Setter(AccessLevel.NONE)
+    @Column(name = "total_price", nullable = false, columnDefinition = "integer default 0 not null")
+    private int totalPrice;
+
     /**
      * 양방향 연관관계 편의 메서드
      * 핵심적으로 control하는 쪽에 연관관계 편의 메서드가 있는 것이 좋다.
+     *
+     * 회원이 아직 초기화되지 않은 프록시(getReferenceById)이면 반대쪽 컬렉션에 추가하지 않는다.
+     * => member.getOrders()를 호출하는 순간 프록시가 초기화되면서 회원 select가 나간다.
+     * => orders는 읽기 전용(mappedBy)이라서 FK 저장에는 영향이 없다.
      */
     public void setMember(Member member){
         this.member = member;
-        member.getOrders().add(this);
+        if (Hibernate.isInitialized(member)) {
+            member.getOrders().add(this);
+        }
         /*
             public static void main(String[] args) {
             Member member = new Member();
@@ -81,6 +118,7 @@ public class Order {
     public void addOrderItem(OrderItem orderItem){
         this.orderItems.add(orderItem);
         orderItem.setOrder(this);
+        this.totalPrice += orderItem.getTotalPrice();
     }
 
     public void setDelivery(Delivery delivery){
@@ -142,22 +180,4 @@ public class Order {
         }
     }
 
-    /**
-     * 조회 로직
-     */
-    // 전체 주문 가격 조회회
-    public int getTotalPrice(){
-        int totalPrice = 0;
-        for (OrderItem orderItem : orderItems) {
-            totalPrice += orderItem.getTotalPrice();
-        }
-        return totalPrice;
-
-/*
-        return orderItems.stream()
-                .mapToInt(OrderItem::getTotalPrice)
-                .sum();
-*/
-    }
-
 }
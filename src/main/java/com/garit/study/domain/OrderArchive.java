@@ -0,0 +1,48 @@
+package com.garit.study.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 보관 주문 (orders + delivery)
+ * => 보관된 주문은 더 이상 바뀌지 않으므로, 연관관계 없이 id만 가지고, 배송 정보(1:1)는 한 행에 합쳐서 저장한다.
+ * => 행은 OrderArchiveRepository가 insert ... select로만 만든다. (엔티티는 조회용)
+ */
+@Entity
+@Table(name = "orders_archive", indexes = {
+        @Index(name = "idx_orders_archive_member", columnList = "member_id"),
+        @Index(name = "idx_orders_archive_order_date", columnList = "order_date")
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OrderArchive {
+
+    @Id
+    @Column(name = "order_id")
+    private Long id;            // 원래 주문 id 그대로
+
+    @Column(name = "member_id")
+    private Long memberId;
+
+    @Column(name = "order_date")
+    private LocalDateTime orderDate;
+
+    @Enumerated(value = EnumType.STRING)
+    private OrderStatus status;
+
+    private int totalPrice;
+
+    private Long deliveryId;
+
+    @Embedded
+    private Address address;    // 배송 주소
+
+    @Enumerated(value = EnumType.STRING)
+    private DeliveryStatus deliveryStatus;
+
+    private LocalDateTime archivedAt;
+}
@@ -56,6 +56,19 @@ public class OrderItem {
         return orderItem;
     }
 
+    /**
+     * 예약(StockReservation)을 확정한 주문상품 => 예약할 때 이미 재고를 뺐으므로 다시 빼지 않는다.
+     */
+    public static OrderItem createReservedOrderItem(Item item, int orderPrice, int count) {
+        OrderItem orderItem = new OrderItem();
+
+        orderItem.setItem(item);
+        orderItem.setOrderPrice(orderPrice);
+        orderItem.setCount(count);
+
+        return orderItem;
+    }
+
     /**
      * 비즈니스 로직
      */
@@ -0,0 +1,5 @@
+package com.garit.study.domain;
+
+public enum ReservationStatus {
+    HELD, CONFIRMED, EXPIRED
+}
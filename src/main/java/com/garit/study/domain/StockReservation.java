@@ -0,0 +1,77 @@
+package com.garit.study.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 재고 예약 (장바구니, 결제 대기)
+ * => 예약할 때 상품 재고를 먼저 빼두고(HELD), 주문으로 확정(CONFIRMED)하거나 만료(EXPIRED)되면 재고를 돌려준다.
+ * => 확정된 주문은 재고를 다시 빼지 않는다. (OrderItem.createReservedOrderItem)
+ *
+ * idx_stock_reservation_status : 기동할 때 HELD 예약만 읽어서 만료 타이머(ReservationExpiryEngine)에 다시 등록한다.
+ */
+@Entity
+@Table(name = "stock_reservation", indexes = @Index(name = "idx_stock_reservation_status", columnList = "status, reservation_id"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class StockReservation {
+
+    @Id @GeneratedValue
+    @Column(name = "reservation_id")
+    private Long id;
+
+    @Column(name = "member_id")
+    private Long memberId;
+
+    @Column(name = "item_id")
+    private Long itemId;
+
+    private int quantity;
+
+    @Enumerated(value = EnumType.STRING)
+    private ReservationStatus status;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    @Column(name = "order_id")
+    private Long orderId;       // 확정된 주문
+
+    public static StockReservation hold(Long memberId, Long itemId, int quantity, LocalDateTime expiresAt) {
+        StockReservation reservation = new StockReservation();
+        reservation.memberId = memberId;
+        reservation.itemId = itemId;
+        reservation.quantity = quantity;
+        reservation.status = ReservationStatus.HELD;
+        reservation.expiresAt = expiresAt;
+        return reservation;
+    }
+
+    /**
+     * 주문으로 확정 => 만료 시간이 지났으면 만료 처리 전이라도 확정할 수 없다.
+     */
+    public void confirm(LocalDateTime now) {
+        if (status != ReservationStatus.HELD) {
+            throw new IllegalStateException("확정할 수 없는 예약입니다. (" + status + ")");
+        }
+        if (!now.isBefore(expiresAt)) {
+            throw new IllegalStateException("예약 시간이 지났습니다.");
+        }
+        this.status = ReservationStatus.CONFIRMED;
+    }
+
+    public void linkOrder(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    /**
+     * 만료 => 재고는 호출하는 쪽(ReservationExpiryEngine)에서 상품별로 모아서 돌려준다.
+     */
+    public void expire() {
+        this.status = ReservationStatus.EXPIRED;
+    }
+}
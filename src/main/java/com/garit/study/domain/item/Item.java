@@ -2,14 +2,26 @@ package com.garit.study.domain.item;
 
 import com.garit.study.domain.Category;
 import com.garit.study.exception.NotEnoughStockException;
+import com.garit.study.stock.StockLevelListener;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * idx_item_stock_quantity : 재고 부족 리포트가 임계치 미만 상품을 재고 순서로 훑는다.
+ * => stock_quantity < ? order by stock_quantity, item_id => 인덱스 범위 스캔, 정렬 없음
+ *
+ * StockLevelListener : 재고가 바뀐 상품이 flush 될 때 재고 임계치를 넘었는지 검사한다. (LowStockMonitor)
+ */
+@BatchSize(size = 100)      // OrderItem -> Item 프록시를 IN 쿼리로 한꺼번에 초기화
 @Entity
+@Table(indexes = @Index(name = "idx_item_stock_quantity", columnList = "stock_quantity, item_id"))
+@EntityListeners(StockLevelListener.class)
 
 // 부모 테이블에 상속관계 전략을 명시해줘야 한다.
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
@@ -31,8 +43,18 @@ public abstract class Item {
 
     private int price;
 
+    @Column(name = "stock_quantity")
     private int stockQuantity;
 
+    /**
+     * 마지막으로 DB와 맞춘(로딩, insert, update) 시점의 재고 => 컬럼 X
+     * => StockLevelListener가 flush 전후 재고를 비교할 때 사용한다.
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private int syncedStockQuantity;
+
     // 다대다 관계
     // mappedBy로 items를 잡아주면 됨됨
     @ManyToMany(mappedBy = "items")
@@ -66,4 +88,12 @@ public abstract class Item {
         }
         this.stockQuantity = restStock;
     }
+
+    public int syncedStockQuantity() {
+        return syncedStockQuantity;
+    }
+
+    public void markStockSynced() {
+        this.syncedStockQuantity = this.stockQuantity;
+    }
 }
@@ -0,0 +1,22 @@
+package com.garit.study.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 벌크헤드 구획의 스레드와 대기열이 모두 찼을 때 발생한다.
+ * => 요청을 쌓아두지 않고 바로 503으로 거절해서, 클라이언트가 다시 시도하게 한다.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class BulkheadFullException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+
+    public BulkheadFullException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
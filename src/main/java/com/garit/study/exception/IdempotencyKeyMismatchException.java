@@ -0,0 +1,18 @@
+package com.garit.study.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 이미 사용한 Idempotency-Key로 다른 내용(회원, 상품, 수량)의 주문을 요청했을 때 발생한다.
+ * => 재시도가 아니므로 처음 주문 id를 돌려주지 않고 422로 거절한다. 클라이언트는 새 키를 만들어야 한다.
+ */
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class IdempotencyKeyMismatchException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,9 @@
 package com.garit.study.exception;
 
 public class NotEnoughStockException extends RuntimeException{
+
+    private static final long serialVersionUID = 1L;
+
     public NotEnoughStockException() {
         super();
     }
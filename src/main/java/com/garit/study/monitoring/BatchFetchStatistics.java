@@ -0,0 +1,186 @@
+package com.garit.study.monitoring;
+
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * batch fetch(IN 쿼리)가 실제로 몇 개의 id를 싣고 나가는지, 얼마나 걸리는지 기록한다.
+ * => @BatchSize, default_batch_fetch_size 값을 감으로 정하지 말고, 실제 트래픽을 보고 조정하기 위함
+ *
+ * p6spy가 모든 JDBC 실행을 이 리스너로 넘겨준다. (JdbcEventListener 빈은 p6spy starter가 자동 등록)
+ * => 하이버네이트 로딩 이벤트 안에서 실행된 쿼리만 본다. (HibernateLoadScope)
+ *    JPQL로 직접 쓴 IN 쿼리(oi.order.id in :orderIds, findAllByIds 등)는 batch fetch가 아니므로 세지 않는다.
+ * => "select ... from order_item orderitems0_ where orderitems0_.order_id in (?, ?, ...)" 형태만 집계한다.
+ * => key : 테이블.컬럼 (ex. order_item.order_id => Order.orderItems 컬렉션 batch fetch)
+ *
+ * 하이버네이트의 batch size는 SessionFactory 생성 시점에 고정되므로, 런타임에 바꾸지 않고 추천값만 계산한다.
+ */
+@Component
+public class BatchFetchStatistics extends JdbcEventListener {
+
+    // 데이터베이스에 따라 IN 절 파라미터를 1000으로 제한하기도 해서, 1000을 넘기지 않는다.
+    static final int MAX_BATCH_SIZE = 1000;
+    static final int MIN_BATCH_SIZE = 16;
+
+    private static final Pattern IN_QUERY = Pattern.compile(
+            "^\\s*select\\s.*?\\sfrom\\s+(\\w+)\\s+(\\w+)\\s+where\\s+\\2\\.(\\w+)\\s+in\\s*\\(([?,\\s]+)\\)",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private final Map<String, Association> associations = new ConcurrentHashMap<>();
+
+    @Override
+    public void onAfterExecuteQuery(PreparedStatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        if (e != null || !HibernateLoadScope.isActive()) {
+            return;
+        }
+        record(statementInformation.getSql(), timeElapsedNanos);
+    }
+
+    void record(String sql, long elapsedNanos) {
+        if (sql == null) {
+            return;
+        }
+        Matcher matcher = IN_QUERY.matcher(sql);
+        if (!matcher.find()) {
+            return;
+        }
+        String key = matcher.group(1).toLowerCase() + "." + matcher.group(3).toLowerCase();
+        int ids = countParameters(matcher.group(4));
+        associations.computeIfAbsent(key, k -> new Association()).add(ids, elapsedNanos);
+    }
+
+    private int countParameters(String parameters) {
+        int count = 0;
+        for (int i = 0; i < parameters.length(); i++) {
+            if (parameters.charAt(i) == '?') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public List<BatchFetchReport> report() {
+        List<BatchFetchReport> result = new ArrayList<>();
+        associations.forEach((key, association) -> result.add(association.toReport(key)));
+        result.sort((a, b) -> Long.compare(b.getQueries(), a.getQueries()));
+        return result;
+    }
+
+    public void reset() {
+        associations.clear();
+    }
+
+    /**
+     * 연관관계(테이블.컬럼) 하나에 대한 누적 통계
+     * => 요청 스레드마다 기록하므로 락 없이 LongAdder, AtomicLongArray만 사용한다.
+     */
+    static class Association {
+
+        private final LongAdder queries = new LongAdder();
+        private final LongAdder ids = new LongAdder();
+        private final LongAdder elapsedNanos = new LongAdder();
+
+        // index : IN 절 id 개수 (MAX_BATCH_SIZE 이상은 마지막 칸에 모은다)
+        private final AtomicLongArray histogram = new AtomicLongArray(MAX_BATCH_SIZE + 1);
+
+        void add(int idCount, long nanos) {
+            queries.increment();
+            ids.add(idCount);
+            elapsedNanos.add(nanos);
+            histogram.incrementAndGet(Math.min(idCount, MAX_BATCH_SIZE));
+        }
+
+        BatchFetchReport toReport(String key) {
+            long total = 0;
+            long[] counts = new long[histogram.length()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = histogram.get(i);
+                total += counts[i];
+            }
+
+            int max = 0;
+            for (int i = counts.length - 1; i >= 0; i--) {
+                if (counts[i] > 0) {
+                    max = i;
+                    break;
+                }
+            }
+            int p50 = percentile(counts, total, 0.50);
+            int p95 = percentile(counts, total, 0.95);
+
+            long queryCount = queries.sum();
+            double avgIds = queryCount == 0 ? 0 : (double) ids.sum() / queryCount;
+            double avgMillis = queryCount == 0 ? 0 : elapsedNanos.sum() / 1_000_000.0 / queryCount;
+
+            return new BatchFetchReport(key, queryCount, avgIds, p50, p95, max, avgMillis,
+                    suggest(counts, total, p95, max));
+        }
+
+        private int percentile(long[] counts, long total, double ratio) {
+            if (total == 0) {
+                return 0;
+            }
+            long target = (long) Math.ceil(total * ratio);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= target) {
+                    return i;
+                }
+            }
+            return counts.length - 1;
+        }
+
+        /**
+         * [추천 batch size]
+         * 1) 대부분의 IN 쿼리가 가장 큰 크기로 꽉 차서 나간다면, 설정값이 작아서 쿼리가 여러번 나가는 것이다. => 2배
+         * 2) 그렇지 않으면 p95를 담을 수 있는 가장 작은 2의 거듭제곱이면 충분하다.
+         * => 어느 경우든 MIN_BATCH_SIZE ~ MAX_BATCH_SIZE 사이로 제한한다.
+         */
+        private int suggest(long[] counts, long total, int p95, int max) {
+            if (total == 0) {
+                return MIN_BATCH_SIZE;
+            }
+            boolean saturated = max > 1 && counts[max] * 2 > total;
+            int suggested = saturated ? max * 2 : Integer.highestOneBit(Math.max(p95, 1) * 2 - 1);
+            return Math.max(MIN_BATCH_SIZE, Math.min(MAX_BATCH_SIZE, suggested));
+        }
+    }
+
+    @Getter
+    public static class BatchFetchReport {
+
+        private final String association;
+        private final long queries;
+        private final double avgIds;
+        private final int p50Ids;
+        private final int p95Ids;
+        private final int maxIds;
+        private final double avgMillis;
+        private final int suggestedBatchSize;
+
+        BatchFetchReport(String association, long queries, double avgIds, int p50Ids, int p95Ids, int maxIds,
+                         double avgMillis, int suggestedBatchSize) {
+            this.association = association;
+            this.queries = queries;
+            this.avgIds = avgIds;
+            this.p50Ids = p50Ids;
+            this.p95Ids = p95Ids;
+            this.maxIds = maxIds;
+            this.avgMillis = avgMillis;
+            this.suggestedBatchSize = suggestedBatchSize;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.garit.study.monitoring;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerGroup;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEventListener;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 지금 스레드가 하이버네이트 로딩 이벤트(LOAD, INIT_COLLECTION) 안에서 쿼리를 날리는 중인지 표시한다.
+ *
+ * => 프록시 초기화, 컬렉션 지연 로딩, em.find는 이 이벤트 리스너 안에서 batch fetch IN 쿼리를 날린다.
+ * => JPQL로 직접 쓴 IN 쿼리(v5의 oi.order.id in :orderIds 등)는 이벤트 밖에서 실행된다.
+ * => BatchFetchStatistics는 이 구간 안에서 실행된 IN 쿼리만 batch fetch로 집계한다.
+ *
+ * 하이버네이트 기본 리스너를 감싸서 다시 등록한다. (리스너 호출 전후로 깊이만 올렸다 내린다)
+ */
+@Component
+public class HibernateLoadScope implements SmartInitializingSingleton {
+
+    // 로딩 중에 다른 엔티티를 다시 로딩할 수 있어서 깊이로 센다.
+    private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public HibernateLoadScope(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public static boolean isActive() {
+        return DEPTH.get()[0] > 0;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+
+        // 감싼 리스너 하나가 기존 리스너들을 순서대로 호출한다. (같은 클래스 리스너를 여러개 넣으면 중복으로 본다)
+        EventListenerGroup<LoadEventListener> load = registry.getEventListenerGroup(EventType.LOAD);
+        List<LoadEventListener> loadDelegates = detach(load);
+        load.appendListener((event, loadType) -> {
+            int[] depth = enter();
+            try {
+                for (LoadEventListener delegate : loadDelegates) {
+                    delegate.onLoad(event, loadType);
+                }
+            } finally {
+                depth[0]--;
+            }
+        });
+
+        EventListenerGroup<InitializeCollectionEventListener> initCollection = registry.getEventListenerGroup(EventType.INIT_COLLECTION);
+        List<InitializeCollectionEventListener> initCollectionDelegates = detach(initCollection);
+        initCollection.appendListener(event -> {
+            int[] depth = enter();
+            try {
+                for (InitializeCollectionEventListener delegate : initCollectionDelegates) {
+                    delegate.onInitializeCollection(event);
+                }
+            } finally {
+                depth[0]--;
+            }
+        });
+    }
+
+    private static int[] enter() {
+        int[] depth = DEPTH.get();
+        depth[0]++;
+        return depth;
+    }
+
+    /**
+     * 등록된 리스너를 순서대로 꺼내고 그룹을 비운다.
+     * => listeners()는 deprecated라서 fireEventOnEachListener로 리스너마다 한번씩 목록에 담는다.
+     */
+    private static <T> List<T> detach(EventListenerGroup<T> group) {
+        List<T> listeners = new ArrayList<>();
+        group.fireEventOnEachListener(listeners, (listener, list) -> list.add(listener));
+        group.clearListeners();
+        return listeners;
+    }
+}
@@ -0,0 +1,67 @@
+package com.garit.study.monitoring;
+
+import com.querydsl.core.types.dsl.EntityPathBase;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+/**
+ * QueryDSL Q 클래스(QOrder, QMember ...)를 기동 중에 미리 초기화한다.
+ *
+ * => Q 클래스는 static 필드(QOrder.order)에서 경로 객체를 잔뜩 만들기 때문에, 처음 쓰는 순간 클래스 초기화 비용이 든다.
+ * => 미리 초기화하지 않으면 배포 후 첫 검색 요청이 그 비용을 떠안는다.
+ * => 빈이 모두 만들어진 뒤, readiness 이전에 실행하고 "querydsl.qclasses.initialize" 기동 단계로 기록한다.
+ */
+@Slf4j
+@Component
+public class QuerydslClassInitializer implements SmartInitializingSingleton {
+
+    static final String STEP_NAME = "querydsl.qclasses.initialize";
+    private static final String BASE_PACKAGE = "com.garit.study";
+
+    private final ConfigurableApplicationContext context;
+    private volatile int classes;
+    private volatile long elapsedNanos;
+
+    public QuerydslClassInitializer(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        StartupStep step = context.getApplicationStartup().start(STEP_NAME);
+        long start = System.nanoTime();
+
+        // 클래스 파일 메타데이터만 읽어서 찾는다. (찾는 동안에는 클래스를 로딩하지 않는다)
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AssignableTypeFilter(EntityPathBase.class));
+        int count = 0;
+        for (BeanDefinition candidate : scanner.findCandidateComponents(BASE_PACKAGE)) {
+            try {
+                Class.forName(candidate.getBeanClassName(), true, ClassUtils.getDefaultClassLoader());
+                count++;
+            } catch (ClassNotFoundException | LinkageError e) {
+                log.warn("querydsl class {} initialization failed", candidate.getBeanClassName(), e);
+            }
+        }
+
+        this.classes = count;
+        this.elapsedNanos = System.nanoTime() - start;
+        step.tag("classes", String.valueOf(count)).end();
+        log.info("querydsl classes initialized count={} elapsed={}ms", count, elapsedNanos / 1_000_000);
+    }
+
+    public int getClasses() {
+        return classes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+}
@@ -0,0 +1,165 @@
+package com.garit.study.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.BeanFactoryUtils;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 기동 시간 리포트 => 어디서 시간이 걸리는지 보고 첫 요청까지의 시간을 줄이기 위함
+ *
+ * [수집]
+ * 1) ready : main 시작 ~ ApplicationReadyEvent
+ * 2) BufferingApplicationStartup(StudyApplication.main)이 기록한 기동 단계
+ * => hibernate : entityManagerFactory 빈 생성 (메타모델, 엔티티 매핑 검증 포함)
+ * => 빈 생성 시간 상위 top-beans개 (의존하는 빈을 만드는 시간까지 포함된 값)
+ * => 단계 이름별 합계 (spring.context.refresh, spring.beans.instantiate ...)
+ * 3) QueryDSL Q 클래스 초기화 (QuerydslClassInitializer)
+ *
+ * 테스트처럼 main을 거치지 않으면 기동 단계가 기록되지 않으므로, 2)는 비어있다.
+ *
+ * [노출]
+ * => 로그 한 줄 + startup.phase.time{phase}, startup.bean.time{bean} 게이지 + /api/admin/startup
+ * => 단계 전체 타임라인은 /actuator/startup
+ */
+@Slf4j
+@Component
+public class StartupTimingReport {
+
+    private static final String BEAN_INSTANTIATE = "spring.beans.instantiate";
+    private static final String ENTITY_MANAGER_FACTORY = "entityManagerFactory";
+    private static final int TOP_BEANS = 10;
+
+    private final ConfigurableApplicationContext context;
+    private final QuerydslClassInitializer querydslClassInitializer;
+    private final MeterRegistry meterRegistry;
+    private volatile Report report;
+
+    public StartupTimingReport(ConfigurableApplicationContext context,
+                               QuerydslClassInitializer querydslClassInitializer,
+                               MeterRegistry meterRegistry) {
+        this.context = context;
+        this.querydslClassInitializer = querydslClassInitializer;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        Map<String, Long> phases = new LinkedHashMap<>();
+        Duration timeTaken = event.getTimeTaken();
+        if (timeTaken != null) {
+            phases.put("ready", timeTaken.toMillis());
+        }
+        phases.put("querydsl", querydslClassInitializer.getElapsedNanos() / 1_000_000);
+
+        Map<String, Long> steps = new LinkedHashMap<>();
+        List<BeanTime> beans = new ArrayList<>();
+        ApplicationStartup startup = context.getApplicationStartup();
+        if (startup instanceof BufferingApplicationStartup) {
+            // 버퍼를 비우지 않고 읽는다. => /actuator/startup 에서도 그대로 볼 수 있다.
+            for (StartupTimeline.TimelineEvent timelineEvent : ((BufferingApplicationStartup) startup).getBufferedTimeline().getEvents()) {
+                StartupStep step = timelineEvent.getStartupStep();
+                long millis = timelineEvent.getDuration().toMillis();
+                steps.merge(step.getName(), millis, Long::sum);
+
+                if (BEAN_INSTANTIATE.equals(step.getName())) {
+                    String beanName = tag(step, "beanName");
+                    beans.add(new BeanTime(beanName, millis));
+                    // FactoryBean은 "&entityManagerFactory" 로 기록된다.
+                    if (ENTITY_MANAGER_FACTORY.equals(BeanFactoryUtils.transformedBeanName(beanName))) {
+                        phases.put("hibernate", millis);
+                    }
+                }
+            }
+            Long refresh = steps.get("spring.context.refresh");
+            if (refresh != null) {
+                phases.put("context.refresh", refresh);
+            }
+        }
+        beans.sort(Comparator.comparingLong(BeanTime::getMillis).reversed());
+        List<BeanTime> topBeans = new ArrayList<>(beans.subList(0, Math.min(TOP_BEANS, beans.size())));
+
+        Report report = new Report(phases, topBeans, steps, querydslClassInitializer.getClasses());
+        this.report = report;
+        register(report);
+        log.info("startup phases={} querydslClasses={} topBeans={}", phases, report.getQuerydslClasses(), topBeans);
+    }
+
+    private void register(Report report) {
+        report.getPhases().forEach((phase, millis) ->
+                TimeGauge.builder("startup.phase.time", () -> millis, TimeUnit.MILLISECONDS)
+                        .tag("phase", phase)
+                        .register(meterRegistry));
+        for (BeanTime bean : report.getTopBeans()) {
+            TimeGauge.builder("startup.bean.time", bean::getMillis, TimeUnit.MILLISECONDS)
+                    .tag("bean", bean.getBean())
+                    .register(meterRegistry);
+        }
+    }
+
+    private String tag(StartupStep step, String key) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if (key.equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return "unknown";
+    }
+
+    /**
+     * @return ApplicationReadyEvent 이전이면 null
+     */
+    public Report getReport() {
+        return report;
+    }
+
+    @Getter
+    public static class Report {
+
+        private final Map<String, Long> phases;     // 단위 : ms
+        private final List<BeanTime> topBeans;
+        private final Map<String, Long> steps;
+        private final int querydslClasses;
+
+        Report(Map<String, Long> phases, List<BeanTime> topBeans, Map<String, Long> steps, int querydslClasses) {
+            this.phases = phases;
+            this.topBeans = topBeans;
+            this.steps = steps;
+            this.querydslClasses = querydslClasses;
+        }
+    }
+
+    @Getter
+    public static class BeanTime {
+
+        private final String bean;
+        private final long millis;
+
+        BeanTime(String bean, long millis) {
+            this.bean = bean;
+            this.millis = millis;
+        }
+
+        @Override
+        public String toString() {
+            return bean + "=" + millis + "ms";
+        }
+    }
+}
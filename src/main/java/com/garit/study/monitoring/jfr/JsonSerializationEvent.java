@@ -0,0 +1,54 @@
+package com.garit.study.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.Collection;
+
+/**
+ * 응답 바디 직렬화(Jackson HttpMessageConverter) JFR 이벤트
+ * => format : json, smile
+ * => rows : 응답이 컬렉션이면 원소 수, 아니면 -1
+ * => bytes : 직렬화한 바이트 수
+ */
+@Name("com.garit.study.JsonSerialization")
+@Label("JSON Serialization")
+@Category({"Garit", "Web"})
+@Description("Response body serialization by a Jackson message converter")
+@StackTrace(false)
+public class JsonSerializationEvent extends Event {
+
+    @Label("Format")
+    String format;
+
+    @Label("Type")
+    String type;
+
+    @Label("Rows")
+    int rows;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    public static JsonSerializationEvent begin(String format, Object body) {
+        JsonSerializationEvent event = new JsonSerializationEvent();
+        if (event.isEnabled()) {
+            event.format = format;
+            event.type = body == null ? "null" : body.getClass().getSimpleName();
+            event.rows = body instanceof Collection ? ((Collection<?>) body).size() : -1;
+        }
+        event.begin();
+        return event;
+    }
+
+    public void end(long bytes) {
+        this.bytes = bytes;
+        commit();
+    }
+}
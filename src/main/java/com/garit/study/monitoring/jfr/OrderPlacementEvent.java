@@ -0,0 +1,47 @@
+package com.garit.study.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 주문(OrderService.order) 단계별 JFR 이벤트
+ * => phase : member.lookup, item.lookup, stock.decrement, persist, flush, rollup
+ * => 이벤트가 꺼져 있으면 begin / commit은 아무 일도 하지 않는다. (JIT가 객체 생성까지 없앤다)
+ */
+@Name("com.garit.study.OrderPlacement")
+@Label("Order Placement Phase")
+@Category({"Garit", "Order"})
+@Description("One phase of OrderService.order")
+@StackTrace(false)
+public class OrderPlacementEvent extends Event {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Member Id")
+    long memberId;
+
+    @Label("Item Id")
+    long itemId;
+
+    @Label("Rows")
+    int rows;
+
+    public static OrderPlacementEvent begin(String phase, Long memberId, Long itemId) {
+        OrderPlacementEvent event = new OrderPlacementEvent();
+        event.phase = phase;
+        event.memberId = memberId == null ? -1 : memberId;
+        event.itemId = itemId == null ? -1 : itemId;
+        event.begin();
+        return event;
+    }
+
+    public void end(int rows) {
+        this.rows = rows;
+        commit();
+    }
+}
@@ -0,0 +1,44 @@
+package com.garit.study.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 주문 조회(OrderQueryRepository) 단계별 JFR 이벤트
+ * => method : 리포지토리 메서드 이름
+ * => phase : orders(루트 쿼리), items(컬렉션 쿼리), mapping(DTO 조립)
+ * => rows : 쿼리 결과 행 수 / 조립한 DTO 수
+ */
+@Name("com.garit.study.OrderQuery")
+@Label("Order Query Phase")
+@Category({"Garit", "Order"})
+@Description("Query or DTO mapping phase of an OrderQueryRepository method")
+@StackTrace(false)
+public class OrderQueryEvent extends Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Rows")
+    int rows;
+
+    public static OrderQueryEvent begin(String method, String phase) {
+        OrderQueryEvent event = new OrderQueryEvent();
+        event.method = method;
+        event.phase = phase;
+        event.begin();
+        return event;
+    }
+
+    public void end(int rows) {
+        this.rows = rows;
+        commit();
+    }
+}
@@ -0,0 +1,45 @@
+package com.garit.study.repository;
+
+import com.garit.study.domain.BatchCheckpoint;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+
+@Repository
+@RequiredArgsConstructor
+public class BatchCheckpointRepository {
+
+    private final EntityManager em;
+
+    /**
+     * 첫 실행이면 체크포인트 행을 만든다.
+     * => 없는 행은 for update로 잠글 수 없다. 서버 여러 대가 처음에 동시에 시작하면 둘 다 insert를 시도한다.
+     * => 늦은 쪽은 PK 위반(DataIntegrityViolationException) => 이미 만들어졌으므로 호출하는 쪽에서 무시한다.
+     * => 바로 flush해서 같은 트랜잭션 안에서 위반이 드러나게 한다. (청크 트랜잭션과 분리해서 호출)
+     */
+    public void createIfAbsent(String jobName) {
+        if (em.find(BatchCheckpoint.class, jobName) == null) {
+            em.persist(new BatchCheckpoint(jobName));
+            em.flush();
+        }
+    }
+
+    /**
+     * select ... for update
+     * => 서버 여러 대에서 같은 배치가 돌아도 청크를 한번에 하나씩만 처리하고, 항상 최신 위치에서 이어간다.
+     * => 행은 createIfAbsent()로 미리 만들어둔다.
+     */
+    public BatchCheckpoint findForUpdate(String jobName) {
+        BatchCheckpoint checkpoint = em.find(BatchCheckpoint.class, jobName, LockModeType.PESSIMISTIC_WRITE);
+        if (checkpoint == null) {
+            throw new IllegalStateException("체크포인트가 없습니다. (" + jobName + ")");
+        }
+        return checkpoint;
+    }
+
+    public BatchCheckpoint findOne(String jobName) {
+        return em.find(BatchCheckpoint.class, jobName);
+    }
+}
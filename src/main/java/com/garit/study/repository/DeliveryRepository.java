@@ -0,0 +1,70 @@
+package com.garit.study.repository;
+
+import com.garit.study.domain.DeliveryStatus;
+import com.garit.study.domain.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 배송 일괄 처리용 Repository
+ * => 엔티티를 로딩하지 않고 id만 조회하고, 상태 변경은 벌크 update로 처리한다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DeliveryRepository {
+
+    private final EntityManager em;
+
+    /**
+     * [keyset] lastId 다음부터 배송 완료 대상 id를 limit개 조회한다.
+     * => offset 페이징과 달리, 뒤쪽 청크로 갈수록 느려지지 않는다.
+     *
+     * 대상 : READY 상태이고, 주문이 취소되지 않았고, 주문한지 cutoff가 지난 배송
+     */
+    public List<Long> findCompletableIds(long lastId, LocalDateTime cutoff, int limit) {
+        return em.createQuery(
+                        "select d.id from Order o join o.delivery d" +
+                                " where d.status = :ready and d.id > :lastId" +
+                                " and o.status = :ordered and o.orderDate <= :cutoff" +
+                                " order by d.id", Long.class)
+                .setParameter("ready", DeliveryStatus.READY)
+                .setParameter("lastId", lastId)
+                .setParameter("ordered", OrderStatus.ORDER)
+                .setParameter("cutoff", cutoff)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * READY => COMP
+     * => 조회 이후에 취소된 주문은 건너뛰도록 조건을 다시 건다.
+     *
+     * @return 실제로 변경된 배송 수
+     */
+    public int complete(List<Long> ids) {
+        return em.createQuery(
+                        "update Delivery d set d.status = :comp" +
+                                " where d.id in :ids and d.status = :ready" +
+                                " and exists (select o.id from Order o where o.delivery = d and o.status = :ordered)")
+                .setParameter("comp", DeliveryStatus.COMP)
+                .setParameter("ids", ids)
+                .setParameter("ready", DeliveryStatus.READY)
+                .setParameter("ordered", OrderStatus.ORDER)
+                .executeUpdate();
+    }
+
+    public void flush() {
+        em.flush();
+    }
+
+    /**
+     * 청크마다 영속성 컨텍스트를 비운다. => 청크 수가 늘어도 메모리 사용량이 일정하다.
+     */
+    public void clear() {
+        em.clear();
+    }
+}
@@ -0,0 +1,112 @@
+package com.garit.study.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.enhanced.DatabaseStructure;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.jdbc.AbstractReturningWork;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * JDBC로 직접 insert 하는 행의 id
+ * => 엔티티로 저장할 때와 같은 id 생성기(hibernate_sequence)를 사용한다.
+ * => 직접 max(id) + 1을 쓰면, 이후에 화면에서 등록하는 엔티티 id와 겹친다.
+ * => 트랜잭션 안에서 호출해야 한다. (현재 세션의 커넥션으로 시퀀스를 읽는다)
+ */
+@Repository
+@RequiredArgsConstructor
+public class EntityIdGenerator {
+
+    private final EntityManager em;
+
+    public long nextId(Class<?> entityClass) {
+        SharedSessionContractImplementor session = em.unwrap(SharedSessionContractImplementor.class);
+        return nextId(session, generator(session, entityClass));
+    }
+
+    /**
+     * id count개를 한번에 예약한다. => 대량 insert에서 행마다 시퀀스를 읽지 않는다.
+     *
+     * [테이블 시퀀스] (MySQL => hibernate_sequence 테이블)
+     * => 별도 트랜잭션에서 next_val을 count만큼 한번에 올리고 바로 커밋한다. (select ... for update 1번 + update 1번)
+     * => 하이버네이트 TableStructure와 같은 방식이라서, 엔티티 저장이 받는 id와 겹치지 않는다.
+     * => 행 잠금은 예약하는 동안만 잡는다. (청크 트랜잭션이 끝날 때까지 다른 insert를 막지 않는다)
+     *
+     * [DB 시퀀스] (H2 등) => 시퀀스는 한번에 여러 값을 올릴 수 없으므로 count번 읽는다.
+     *
+     * 청크가 롤백되면 예약한 id는 버려진다. (시퀀스와 같다 => id에 빈 구간이 생길 뿐)
+     */
+    public long[] nextIds(Class<?> entityClass, int count) {
+        long[] ids = new long[count];
+        if (count == 0) {
+            return ids;
+        }
+        SharedSessionContractImplementor session = em.unwrap(SharedSessionContractImplementor.class);
+        IdentifierGenerator generator = generator(session, entityClass);
+
+        DatabaseStructure structure = generator instanceof SequenceStyleGenerator
+                ? ((SequenceStyleGenerator) generator).getDatabaseStructure()
+                : null;
+        if (structure == null || structure.isPhysicalSequence() || structure.getIncrementSize() != 1) {
+            for (int i = 0; i < count; i++) {
+                ids[i] = nextId(session, generator);
+            }
+            return ids;
+        }
+
+        long first = reserveTableBlock(session, structure.getPhysicalName().render(), count);
+        for (int i = 0; i < count; i++) {
+            ids[i] = first + i;
+        }
+        return ids;
+    }
+
+    /**
+     * @return 예약한 구간의 첫번째 id => [first, first + count)
+     */
+    private long reserveTableBlock(SharedSessionContractImplementor session, String table, int count) {
+        String select = "select " + SequenceStyleGenerator.DEF_VALUE_COLUMN + " from " + table
+                + session.getJdbcServices().getDialect().getForUpdateString();
+        String update = "update " + table + " set " + SequenceStyleGenerator.DEF_VALUE_COLUMN + " = ?"
+                + " where " + SequenceStyleGenerator.DEF_VALUE_COLUMN + " = ?";
+
+        return session.getTransactionCoordinator().createIsolationDelegate().delegateWork(new AbstractReturningWork<Long>() {
+            @Override
+            public Long execute(Connection connection) throws SQLException {
+                long first;
+                try (PreparedStatement statement = connection.prepareStatement(select);
+                     ResultSet rs = statement.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new SQLException("시퀀스 테이블이 비어 있습니다. (" + table + ")");
+                    }
+                    first = rs.getLong(1);
+                }
+                try (PreparedStatement statement = connection.prepareStatement(update)) {
+                    statement.setLong(1, first + count);
+                    statement.setLong(2, first);
+                    if (statement.executeUpdate() != 1) {
+                        throw new SQLException("시퀀스 테이블을 갱신하지 못했습니다. (" + table + ")");
+                    }
+                }
+                return first;
+            }
+        }, true);
+    }
+
+    private IdentifierGenerator generator(SharedSessionContractImplementor session, Class<?> entityClass) {
+        return session.getFactory().getMetamodel()
+                .entityPersister(entityClass)
+                .getIdentifierGenerator();
+    }
+
+    private long nextId(SharedSessionContractImplementor session, IdentifierGenerator generator) {
+        return ((Number) generator.generate(session, null)).longValue();
+    }
+}
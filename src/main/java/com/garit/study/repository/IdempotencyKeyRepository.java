@@ -0,0 +1,47 @@
+package com.garit.study.repository;
+
+import com.garit.study.domain.IdempotencyKey;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyKeyRepository {
+
+    private final EntityManager em;
+
+    /**
+     * id를 직접 할당하므로 persist 시점에 select 쿼리가 나가지 않는다.
+     * => 같은 키가 이미 있으면 flush(커밋) 시점에 PK 제약 조건 위반이 발생한다.
+     */
+    public void save(IdempotencyKey idempotencyKey) {
+        em.persist(idempotencyKey);
+    }
+
+    public IdempotencyKey findOne(String idempotencyKey) {
+        return em.find(IdempotencyKey.class, idempotencyKey);
+    }
+
+    /**
+     * 보관 기간이 지난 키를 오래된 순서로 limit개 (idx_idempotency_key_created_at)
+     */
+    public List<String> findExpiredKeys(LocalDateTime cutoff, int limit) {
+        return em.createQuery(
+                        "select k.idempotencyKey from IdempotencyKey k" +
+                                " where k.createdAt < :cutoff" +
+                                " order by k.createdAt", String.class)
+                .setParameter("cutoff", cutoff)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    public int deleteAll(List<String> idempotencyKeys) {
+        return em.createQuery("delete from IdempotencyKey k where k.idempotencyKey in :keys")
+                .setParameter("keys", idempotencyKeys)
+                .executeUpdate();
+    }
+}
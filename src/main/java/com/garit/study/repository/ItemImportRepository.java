@@ -0,0 +1,55 @@
+package com.garit.study.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 상품 대량 등록 쿼리
+ * => 엔티티를 만들지 않고 JDBC batch로 insert / update 한다. (em.persist, em.merge X)
+ * => 트랜잭션 안에서 호출해야 한다. (JdbcTemplate은 JPA 트랜잭션의 커넥션을 같이 쓴다)
+ * => 새 상품 id는 EntityIdGenerator에서 받는다.
+ *
+ * 행 파라미터 순서 (insert, update 공통)
+ * => name, price, stock_quantity, author, isbn, artist, etc, director, actor, item_id, dtype
+ */
+@Repository
+@RequiredArgsConstructor
+public class ItemImportRepository {
+
+    private final EntityManager em;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 이미 있는 상품의 dtype => 없는 id는 map에 없다.
+     */
+    public Map<Long, String> findDtypes(List<Long> itemIds) {
+        Map<Long, String> dtypes = new HashMap<>();
+        if (itemIds.isEmpty()) {
+            return dtypes;  // 빈 in () 절은 MySQL에서 문법 오류
+        }
+        List<?> rows = em.createNativeQuery("select item_id, dtype from item where item_id in (:itemIds)")
+                .setParameter("itemIds", itemIds)
+                .getResultList();
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            dtypes.put(((Number) columns[0]).longValue(), (String) columns[1]);
+        }
+        return dtypes;
+    }
+
+    public void insert(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("insert into item (name, price, stock_quantity, author, isbn, artist, etc, director, actor," +
+                " item_id, dtype) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    public void update(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("update item set name = ?, price = ?, stock_quantity = ?, author = ?, isbn = ?," +
+                " artist = ?, etc = ?, director = ?, actor = ? where item_id = ? and dtype = ?", rows);
+    }
+}
@@ -5,8 +5,16 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * [재고 락] 재고를 바꾸는 쪽(주문, 취소, 예약, 예약 만료)과 예약 확정은 상품을 select ... for update로 읽는다.
+ * => 예약 확정은 재고를 바꾸지 않지만, 같은 상품의 일별 매출 행을 동시에 만들지 않도록 잠근다. (SalesRollupService)
+ * => 락 없이 읽으면 읽은 재고 + 수량을 덮어쓰므로, 그 사이 커밋된 다른 트랜잭션의 재고 변경이 사라진다. (lost update)
+ * => 여러 상품을 잠글 때는 id 순서로 잠근다. (교착 상태 X)
+ */
 @Repository
 @RequiredArgsConstructor
 public class ItemRepository {
@@ -35,8 +43,66 @@ public class ItemRepository {
         return em.find(Item.class, id);
     }
 
+    /**
+     * select ... for update => em.find(LockModeType)이 아니라 JPQL로 읽는다.
+     * => JPQL은 실행 전에 flush 한다. 같은 트랜잭션에서 저장만 하고 아직 insert 하지 않은 상품도 잠글 수 있다.
+     */
+    public Item findOneForUpdate(Long id){
+        List<Item> items = em.createQuery("select i from Item i where i.id = :id", Item.class)
+                .setParameter("id", id)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+        return items.isEmpty() ? null : items.get(0);
+    }
+
     public List<Item> findALl(){
         return em.createQuery("select i from Item i", Item.class)
                 .getResultList();
     }
+
+    /**
+     * id 목록으로 한번에 조회 (IN 쿼리 1번) => 순서는 보장하지 않는다.
+     */
+    public List<Item> findAllByIds(List<Long> ids){
+        if (ids.isEmpty()) {
+            return new ArrayList<>();   // 빈 in () 절은 MySQL에서 문법 오류
+        }
+        return em.createQuery("select i from Item i where i.id in :ids", Item.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    /**
+     * id 목록으로 한번에 잠근다. (select ... for update, IN 쿼리 1번) => id 순서
+     * => 이미 로딩한 상품은 잠가도 다시 읽지 않는다. 재고를 읽기 전에 호출해야 한다.
+     */
+    public List<Item> findAllByIdsForUpdate(List<Long> ids){
+        if (ids.isEmpty()) {
+            return new ArrayList<>();   // 빈 in () 절은 MySQL에서 문법 오류
+        }
+        return em.createQuery("select i from Item i where i.id in :ids order by i.id", Item.class)
+                .setParameter("ids", ids)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+
+    /**
+     * 재고가 threshold 미만인 상품 (재고 적은 순, 같으면 id 순)
+     * => idx_item_stock_quantity(stock_quantity, item_id) 범위를 순서대로 읽는다. => 상품 테이블 전체를 읽거나 정렬하지 않는다.
+     */
+    public List<LowStockItemDto> findLowStock(int threshold, int offset, int limit){
+        return em.createQuery("select new com.garit.study.repository.LowStockItemDto(i.id, i.name, i.stockQuantity)" +
+                        " from Item i where i.stockQuantity < :threshold" +
+                        " order by i.stockQuantity, i.id", LowStockItemDto.class)
+                .setParameter("threshold", threshold)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    public long countLowStock(int threshold){
+        return em.createQuery("select count(i) from Item i where i.stockQuantity < :threshold", Long.class)
+                .setParameter("threshold", threshold)
+                .getSingleResult();
+    }
 }
@@ -0,0 +1,20 @@
+package com.garit.study.repository;
+
+import lombok.Getter;
+
+/**
+ * 재고 부족 리포트 한 행 => JPQL에서 DTO로 바로 조회한다.
+ */
+@Getter
+public class LowStockItemDto {
+
+    private final Long itemId;
+    private final String name;
+    private final int stockQuantity;
+
+    public LowStockItemDto(Long itemId, String name, int stockQuantity) {
+        this.itemId = itemId;
+        this.name = name;
+        this.stockQuantity = stockQuantity;
+    }
+}
@@ -0,0 +1,53 @@
+package com.garit.study.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 회원 대량 등록 쿼리
+ * => 엔티티를 만들지 않고 JDBC batch로 insert 한다. (em.persist X)
+ * => 새 회원 id는 EntityIdGenerator에서 받는다.
+ *
+ * [fetch size] import.members.fetch-size (기본 1000)
+ * => 기존 회원 이름을 읽을 때 드라이버가 한번에 가져오는 행 수. 이름 전체를 List로 만들지 않고 한 행씩 넘긴다.
+ * => MySQL은 useCursorFetch=true 일 때만 적용된다. (application-dev.yml)
+ *
+ * 행 파라미터 순서 => member_id, name, city, street, zipcode
+ */
+@Repository
+public class MemberImportRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MemberImportRepository(DataSource dataSource,
+                                  @Value("${import.members.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    public long count() {
+        Long count = jdbcTemplate.queryForObject("select count(*) from member", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * 모든 회원 이름을 한 행씩 넘긴다. (이름이 null인 회원은 제외)
+     */
+    public void forEachName(Consumer<String> consumer) {
+        jdbcTemplate.query("select name from member where name is not null", rs -> {
+            consumer.accept(rs.getString(1));
+        });
+    }
+
+    /**
+     * 트랜잭션 안에서 호출해야 한다. (JdbcTemplate은 JPA 트랜잭션의 커넥션을 같이 쓴다)
+     */
+    public void insert(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("insert into member (member_id, name, city, street, zipcode) values (?, ?, ?, ?, ?)", rows);
+    }
+}
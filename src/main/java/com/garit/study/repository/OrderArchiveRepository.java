@@ -0,0 +1,126 @@
+package com.garit.study.repository;
+
+import com.garit.study.domain.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 주문을 보관 테이블로 옮기는 쿼리
+ * => 엔티티를 로딩하지 않고 insert ... select, delete 로만 옮긴다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderArchiveRepository {
+
+    private final EntityManager em;
+
+    /**
+     * 보관 대상 주문 (order_id, delivery_id)
+     * 1) orderCutoff 이전 주문
+     * 2) cancelCutoff 이전에 주문했고 취소된 주문
+     *
+     * 두 조건을 or로 묶으면 order_date 인덱스(idx_orders_order_date)로 범위를 좁힐 수 없어서 주문 테이블 전체를 훑는다.
+     * => 조건마다 order_date 범위 쿼리로 나눠서 조회하고 합친다.
+     * => 2)는 1)과 겹치지 않게 [orderCutoff, cancelCutoff) 범위만 본다.
+     * => 1)로 limit개가 차면 2)는 조회하지 않는다. (다음 청크에서 처리)
+     *
+     * 옮긴 주문은 테이블에서 사라지므로, 항상 앞에서부터 limit개만 가져오면 된다. (offset, 체크포인트 X)
+     */
+    public List<Object[]> findArchivableIds(LocalDateTime orderCutoff, LocalDateTime cancelCutoff, int limit) {
+        List<Object[]> rows = new ArrayList<>(em.createQuery(
+                        "select o.id, o.delivery.id from Order o" +
+                                " where o.orderDate < :orderCutoff" +
+                                " order by o.orderDate", Object[].class)
+                .setParameter("orderCutoff", orderCutoff)
+                .setMaxResults(limit)
+                .getResultList());
+        if (rows.size() == limit || !cancelCutoff.isAfter(orderCutoff)) {
+            return rows;
+        }
+
+        rows.addAll(em.createQuery(
+                        "select o.id, o.delivery.id from Order o" +
+                                " where o.orderDate >= :orderCutoff and o.orderDate < :cancelCutoff" +
+                                " and o.status = :cancel" +
+                                " order by o.orderDate", Object[].class)
+                .setParameter("orderCutoff", orderCutoff)
+                .setParameter("cancelCutoff", cancelCutoff)
+                .setParameter("cancel", OrderStatus.CANCEL)
+                .setMaxResults(limit - rows.size())
+                .getResultList());
+        return rows;
+    }
+
+    /**
+     * 주문, 주문상품, 배송을 보관 테이블로 옮긴다.
+     * => 같은 트랜잭션에서 복사 후 삭제하므로, 중간에 실패하면 원래 테이블에 그대로 남는다.
+     *
+     * @return 옮긴 주문 수
+     */
+    public int archive(List<Long> orderIds, List<Long> deliveryIds, LocalDateTime archivedAt) {
+        int orders = em.createNativeQuery(
+                        "insert into orders_archive (order_id, member_id, order_date, status, total_price," +
+                                " delivery_id, city, street, zipcode, delivery_status, archived_at)" +
+                                " select o.order_id, o.member_id, o.order_date, o.status, o.total_price," +
+                                " d.delivery_id, d.city, d.street, d.zipcode, d.status, :archivedAt" +
+                                " from orders o left join delivery d on d.delivery_id = o.delivery_id" +
+                                " where o.order_id in (:orderIds)")
+                .setParameter("archivedAt", archivedAt)
+                .setParameter("orderIds", orderIds)
+                .executeUpdate();
+
+        em.createNativeQuery(
+                        "insert into order_item_archive (order_item_id, order_id, item_id, order_price, count)" +
+                                " select oi.order_item_id, oi.order_id, oi.item_id, oi.order_price, oi.count" +
+                                " from order_item oi where oi.order_id in (:orderIds)")
+                .setParameter("orderIds", orderIds)
+                .executeUpdate();
+
+        em.createNativeQuery("delete from order_item where order_id in (:orderIds)")
+                .setParameter("orderIds", orderIds)
+                .executeUpdate();
+        em.createNativeQuery("delete from orders where order_id in (:orderIds)")
+                .setParameter("orderIds", orderIds)
+                .executeUpdate();
+        if (!deliveryIds.isEmpty()) {
+            em.createNativeQuery("delete from delivery where delivery_id in (:deliveryIds)")
+                    .setParameter("deliveryIds", deliveryIds)
+                    .executeUpdate();
+        }
+        return orders;
+    }
+
+    /**
+     * 주문 목록 쿼리(V4, V5의 루트 쿼리)를 그대로 실행해서 끝까지 읽는 시간
+     * => 보관 전후의 조회 비용을 비교하는 용도
+     * => count(*)는 인덱스만 훑고 끝나서 행을 읽고 보내는 비용이 드러나지 않는다. => 실제 목록 쿼리를 실행한다.
+     * => 결과를 List로 모으지 않고 fetchSize 행씩 읽으면서 행 수만 센다.
+     * => 트랜잭션 안에서 호출해야 한다.
+     *
+     * @return 읽은 행 수
+     */
+    public long scanHotOrders(int fetchSize) {
+        long rows = 0;
+        try (ScrollableResults results = em.createQuery(
+                        "select new com.garit.study.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
+                                " from Order o" +
+                                " join o.member m" +
+                                " join o.delivery d")
+                .unwrap(org.hibernate.query.Query.class)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+}
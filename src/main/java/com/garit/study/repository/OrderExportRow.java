@@ -0,0 +1,38 @@
+package com.garit.study.repository;
+
+import com.garit.study.domain.DeliveryStatus;
+import com.garit.study.domain.OrderStatus;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 주문 검색 결과 CSV 내보내기 한 행
+ * => 엔티티가 아니므로 영속성 컨텍스트에 쌓이지 않는다.
+ */
+@Getter
+public class OrderExportRow {
+
+    private final Long orderId;
+    private final String memberName;
+    private final int totalPrice;
+    private final OrderStatus status;
+    private final LocalDateTime orderDate;
+    private final DeliveryStatus deliveryStatus;
+    private final String city;
+    private final String street;
+    private final String zipcode;
+
+    public OrderExportRow(Long orderId, String memberName, int totalPrice, OrderStatus status, LocalDateTime orderDate,
+                          DeliveryStatus deliveryStatus, String city, String street, String zipcode) {
+        this.orderId = orderId;
+        this.memberName = memberName;
+        this.totalPrice = totalPrice;
+        this.status = status;
+        this.orderDate = orderDate;
+        this.deliveryStatus = deliveryStatus;
+        this.city = city;
+        this.street = street;
+        this.zipcode = zipcode;
+    }
+}
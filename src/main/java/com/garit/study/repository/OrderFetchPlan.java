@@ -0,0 +1,63 @@
+package com.garit.study.repository;
+
+import com.garit.study.domain.Order;
+import com.garit.study.domain.OrderItem;
+import org.hibernate.Hibernate;
+
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * 주문 조회 시 객체 그래프를 어디까지 가져올지 정의한 fetch plan 목록
+ * => 화면(API)마다 JPQL 페치 조인 쿼리를 복사하지 않고, 조회 메서드에 plan을 파라미터로 넘긴다.
+ *
+ * 1) ToOne 관계(Member, Delivery)는 엔티티 그래프로 한번에 조회한다. => 페이징 가능
+ * 2) 컬렉션(orderItems)과 그 하위의 Item은 @BatchSize IN 쿼리로 초기화한다. => 1 + 1 + 1
+ */
+public enum OrderFetchPlan {
+
+    /**
+     * Order + Member + Delivery
+     */
+    SUMMARY(Order.GRAPH_MEMBER_DELIVERY, false),
+
+    /**
+     * SUMMARY + orderItems + orderItems.item (batch)
+     */
+    FULL(Order.GRAPH_MEMBER_DELIVERY, true);
+
+    /**
+     * fetchgraph : 그래프에 명시한 속성만 EAGER, 나머지는 LAZY로 조회한다.
+     */
+    public static final String FETCH_GRAPH_HINT = "javax.persistence.fetchgraph";
+
+    private final String graphName;
+    private final boolean loadOrderItems;
+
+    OrderFetchPlan(String graphName, boolean loadOrderItems) {
+        this.graphName = graphName;
+        this.loadOrderItems = loadOrderItems;
+    }
+
+    public EntityGraph<?> entityGraph(EntityManager em) {
+        return em.getEntityGraph(graphName);
+    }
+
+    /**
+     * 조회가 끝난 뒤, 컬렉션을 batch fetch로 초기화한다.
+     * => 첫번째 컬렉션을 초기화할 때 영속성 컨텍스트에 있는 나머지 orderItems도 IN 쿼리로 함께 조회된다.
+     */
+    public List<Order> initialize(List<Order> orders) {
+        if (!loadOrderItems) {
+            return orders;
+        }
+        for (Order order : orders) {
+            Hibernate.initialize(order.getOrderItems());
+            for (OrderItem orderItem : order.getOrderItems()) {
+                Hibernate.initialize(orderItem.getItem());
+            }
+        }
+        return orders;
+    }
+}
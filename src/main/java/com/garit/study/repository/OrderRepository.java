@@ -4,16 +4,25 @@ import com.garit.study.domain.Order;
 import com.garit.study.domain.OrderStatus;
 import com.garit.study.domain.QMember;
 import com.garit.study.domain.QOrder;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Projections;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
+import static com.garit.study.domain.QDelivery.delivery;
 import static com.garit.study.domain.QMember.member;
 import static com.garit.study.domain.QOrder.order;
 
@@ -35,6 +44,10 @@ public class OrderRepository {
         em.persist(order);
     }
 
+    public void flush() {
+        em.flush();
+    }
+
     public Order findOne(Long id) {
         return em.find(Order.class, id);
     }
@@ -103,11 +116,104 @@ public class OrderRepository {
         return query.select(order)
                 .from(order)
                 .join(order.member, member)
-                .where(statusEq(orderSearch.getOrderStatus()), nameLike(orderSearch.getMemberName()))
+                .where(searchCondition(orderSearch))
+                .orderBy(sortBy(orderSearch.getSort()))
                 .limit(1000)
                 .fetch();
     }
 
+    /**
+     * fetch plan을 파라미터로 받아서, 호출하는 쪽에서 객체 그래프를 어디까지 가져올지 결정한다.
+     */
+    public List<Order> findAllByQueryDsl(OrderSearch orderSearch, OrderFetchPlan fetchPlan){
+
+        List<Order> orders = query.select(order)
+                .from(order)
+                .join(order.member, member)
+                .where(searchCondition(orderSearch))
+                .orderBy(sortBy(orderSearch.getSort()))
+                .setHint(OrderFetchPlan.FETCH_GRAPH_HINT, fetchPlan.entityGraph(em))
+                .limit(1000)
+                .fetch();
+        return fetchPlan.initialize(orders);
+    }
+
+    /**
+     * [검색 결과 캐시] id 목록으로 주문을 한번에 읽는다. (IN 쿼리 1번 + fetch plan)
+     * => IN 쿼리 결과는 순서가 없으므로 orderIds 순서로 다시 정렬한다. 그 사이 지워진 주문은 빠진다.
+     */
+    public List<Order> findAllByIds(List<Long> orderIds, OrderFetchPlan fetchPlan){
+        if (orderIds.isEmpty()) {
+            return new ArrayList<>();   // 빈 in () 절은 MySQL에서 문법 오류
+        }
+
+        List<Order> orders = query.selectFrom(order)
+                .where(order.id.in(orderIds))
+                .setHint(OrderFetchPlan.FETCH_GRAPH_HINT, fetchPlan.entityGraph(em))
+                .fetch();
+
+        Map<Long, Order> byId = new HashMap<>();
+        for (Order found : orders) {
+            byId.put(found.getId(), found);
+        }
+        List<Order> result = new ArrayList<>(orders.size());
+        for (Long orderId : orderIds) {
+            Order found = byId.get(orderId);
+            if (found != null) {
+                result.add(found);
+            }
+        }
+        return fetchPlan.initialize(result);
+    }
+
+    /**
+     * [CSV 내보내기] findAllByQueryDsl과 같은 검색 조건, 정렬로 모든 행을 한 행씩 넘긴다. (limit X)
+     * => 엔티티 대신 컬럼만 select 한다. => 영속성 컨텍스트에 엔티티가 쌓이지 않는다.
+     * => ScrollMode.FORWARD_ONLY : 결과를 앞으로만 읽는 커서. fetchSize 행씩 나눠서 가져오므로 메모리가 늘지 않는다.
+     * => MySQL은 useCursorFetch=true 일 때만 fetch size가 적용된다. (application-dev.yml)
+     * => 트랜잭션 안에서 호출해야 한다. (커서가 열려있는 동안 커넥션을 잡고 있는다)
+     *
+     * @return 넘긴 행 수
+     */
+    public long scrollForExport(OrderSearch orderSearch, int fetchSize, Consumer<OrderExportRow> consumer){
+
+        javax.persistence.Query jpaQuery = query.select(Projections.constructor(OrderExportRow.class,
+                        order.id, member.name, order.totalPrice, order.status, order.orderDate,
+                        delivery.status, delivery.address.city, delivery.address.street, delivery.address.zipcode))
+                .from(order)
+                .join(order.member, member)
+                .join(order.delivery, delivery)
+                .where(searchCondition(orderSearch))
+                .orderBy(sortBy(orderSearch.getSort()))
+                .createQuery();
+
+        long count = 0;
+        try (ScrollableResults rows = jpaQuery.unwrap(org.hibernate.query.Query.class)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (rows.next()) {
+                // QueryDSL이 등록한 ResultTransformer가 행마다 OrderExportRow를 만든다.
+                consumer.accept((OrderExportRow) rows.get(0));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 주문 검색 조건 => 검색(findAllByQueryDsl), 검색 결과 캐시, CSV 내보내기가 모두 같은 조건을 쓴다.
+     * => null 조건은 where에서 빠진다. (member 조인이 필요하다)
+     */
+    private BooleanExpression[] searchCondition(OrderSearch orderSearch){
+        return new BooleanExpression[]{
+                statusEq(orderSearch.getOrderStatus()),
+                nameLike(orderSearch.getMemberName()),
+                totalPriceGoe(orderSearch.getMinTotalPrice()),
+                totalPriceLoe(orderSearch.getMaxTotalPrice())
+        };
+    }
+
     private BooleanExpression statusEq(OrderStatus statusCond){
         if (statusCond == null){
             return null;
@@ -122,6 +228,54 @@ public class OrderRepository {
         return member.name.like(memberName);
     }
 
+    /**
+     * 금액 조건, 정렬은 orders.total_price 컬럼으로 처리한다.
+     * => 주문상품을 메모리에 올려서 getTotalPrice()로 거르지 않는다.
+     */
+    private BooleanExpression totalPriceGoe(Integer minTotalPrice){
+        return minTotalPrice == null ? null : order.totalPrice.goe(minTotalPrice);
+    }
+
+    private BooleanExpression totalPriceLoe(Integer maxTotalPrice){
+        return maxTotalPrice == null ? null : order.totalPrice.loe(maxTotalPrice);
+    }
+
+    // 같은 금액끼리는 최신 주문 순 => 페이지마다 순서가 바뀌지 않도록
+    private OrderSpecifier<?>[] sortBy(OrderSortType sort){
+        if (sort == null){
+            return new OrderSpecifier<?>[0];
+        }
+        switch (sort){
+            case TOTAL_PRICE_ASC:
+                return new OrderSpecifier<?>[]{order.totalPrice.asc(), order.id.desc()};
+            case TOTAL_PRICE_DESC:
+            default:
+                return new OrderSpecifier<?>[]{order.totalPrice.desc(), order.id.desc()};
+        }
+    }
+
+    /**
+     * [total_price backfill] order_id가 (fromId, toId] 범위인 주문의 전체 주문 가격을 주문상품에서 다시 계산한다.
+     * => 엔티티를 로딩하지 않고 update 쿼리 한번으로 처리한다.
+     *
+     * @return 갱신된 주문 수
+     */
+    public int backfillTotalPrice(long fromId, long toId) {
+        return em.createNativeQuery(
+                        "update orders o set total_price = (" +
+                                " select coalesce(sum(oi.order_price * oi.count), 0)" +
+                                " from order_item oi where oi.order_id = o.order_id)" +
+                                " where o.order_id > :fromId and o.order_id <= :toId")
+                .setParameter("fromId", fromId)
+                .setParameter("toId", toId)
+                .executeUpdate();
+    }
+
+    public Long findMaxId() {
+        return em.createQuery("select max(o.id) from Order o", Long.class)
+                .getSingleResult();
+    }
+
     /**
      * [fetch join]
      * 한방쿼리로 Order, Member, Delivery를 join해서,
@@ -151,6 +305,20 @@ public class OrderRepository {
     }
 
 
+    /**
+     * 엔티티 그래프를 사용하면, 페치 조인 JPQL을 화면마다 따로 만들 필요가 없다.
+     * => ToOne 관계만 그래프에 있으므로 페이징이 정상적으로 된다.
+     */
+    public List<Order> findAll(OrderFetchPlan fetchPlan, int offset, int limit) {
+        List<Order> orders = em.createQuery("select o from Order o", Order.class)
+                .setHint(OrderFetchPlan.FETCH_GRAPH_HINT, fetchPlan.entityGraph(em))
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+        return fetchPlan.initialize(orders);
+    }
+
+
     public List<Order> findAllWithItem() {
         /**
          * 1:N 연관관계에서 페치 조인을 하면, 데이터가 N만큼 증가된다.
@@ -10,4 +10,7 @@ public class OrderSearch {
 
     private String memberName;          // 회원 이름
     private OrderStatus orderStatus;    // 주문 상태 [ORDER, CANCEL]
+    private Integer minTotalPrice;      // 전체 주문 가격 최소 (포함)
+    private Integer maxTotalPrice;      // 전체 주문 가격 최대 (포함)
+    private OrderSortType sort;         // 정렬 [TOTAL_PRICE_DESC, TOTAL_PRICE_ASC]
 }
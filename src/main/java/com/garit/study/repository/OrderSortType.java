@@ -0,0 +1,10 @@
+package com.garit.study.repository;
+
+/**
+ * 주문 검색 정렬 조건
+ * => 금액 정렬은 orders.total_price 인덱스를 타므로, 주문상품을 로딩하지 않고 DB에서 정렬한다.
+ */
+public enum OrderSortType {
+    TOTAL_PRICE_DESC,   // 금액 높은 순
+    TOTAL_PRICE_ASC     // 금액 낮은 순
+}
@@ -0,0 +1,70 @@
+package com.garit.study.repository;
+
+import com.garit.study.domain.ReservationStatus;
+import com.garit.study.domain.StockReservation;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * 확정(OrderService)과 만료(ReservationExpiryEngine)가 같은 예약을 동시에 처리하지 않도록 select ... for update로 읽는다.
+ * => 둘 다 예약 => 상품 순서로 락을 잡는다. (교착 상태 X)
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockReservationRepository {
+
+    private final EntityManager em;
+
+    public void save(StockReservation reservation) {
+        em.persist(reservation);
+    }
+
+    public StockReservation findOne(Long id) {
+        return em.find(StockReservation.class, id);
+    }
+
+    public StockReservation findForUpdate(Long id) {
+        return em.find(StockReservation.class, id, LockModeType.PESSIMISTIC_WRITE);
+    }
+
+    /**
+     * 아직 HELD인 예약만 => 그 사이 확정된 예약은 빠진다.
+     */
+    public List<StockReservation> findHeldForUpdate(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();   // 빈 in () 절은 MySQL에서 문법 오류
+        }
+        return em.createQuery("select r from StockReservation r where r.id in :ids and r.status = :status",
+                        StockReservation.class)
+                .setParameter("ids", ids)
+                .setParameter("status", ReservationStatus.HELD)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+
+    /**
+     * HELD 예약의 (id, 만료 시간)을 한 행씩 넘긴다. => 예약이 많아도 List로 만들지 않는다.
+     * => 트랜잭션 안에서 호출해야 한다.
+     */
+    public void forEachHeld(int fetchSize, BiConsumer<Long, LocalDateTime> consumer) {
+        try (ScrollableResults rows = em.createQuery("select r.id, r.expiresAt from StockReservation r where r.status = :status")
+                .setParameter("status", ReservationStatus.HELD)
+                .unwrap(org.hibernate.query.Query.class)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (rows.next()) {
+                consumer.accept((Long) rows.get(0), (LocalDateTime) rows.get(1));
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.garit.study.repository.order.query;
+
+import com.garit.study.domain.Address;
+import com.garit.study.domain.OrderStatus;
+import com.garit.study.monitoring.jfr.OrderQueryEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 쿼리 방식 선택 권장 순서 4번 => JDBC로 SQL을 직접 사용한다.
+ * => V7 : /api/v7/orders
+ *
+ * [V5, V6와 차이]
+ * 1. 쿼리 1번 : 주문 ~ 주문상품 ~ 상품을 한번에 조인하고 order_id 순서로 정렬해서 가져온다.
+ * 2. 결과를 한번만 읽으면서 DTO를 조립한다.
+ * => order_id가 바뀔 때마다 새 OrderQueryDto를 만들고, 그 사이의 행은 orderItems에 붙인다.
+ * => V6처럼 OrderFlatDto를 만들고 groupingBy로 다시 묶는 과정이 없다.
+ * 3. 영속성 컨텍스트를 거치지 않는다. => 1차 캐시, 스냅샷, flush 검사 비용이 없다.
+ * => 같은 트랜잭션에서 수정 중인 엔티티는 flush 전이면 보이지 않는다. (조회 전용 API에서만 사용)
+ *
+ * [fetch size] order-query.jdbc.fetch-size (기본 500)
+ * => 드라이버가 DB에서 한번에 가져오는 행 수. 행 전체를 한번에 메모리에 올리지 않고 나눠서 읽는다.
+ * => MySQL은 useCursorFetch=true 일 때만 적용된다. (application-dev.yml)
+ *
+ * [prepared statement 재사용]
+ * => SQL 문자열이 상수이므로 드라이버 statement 캐시(cachePrepStmts, useServerPrepStmts)에서 파싱 결과를 재사용한다.
+ *
+ * 주문상품이 없는 주문도 V5와 같이 포함한다. (left join, orderItems는 빈 리스트)
+ */
+@Repository
+public class OrderQueryJdbcRepository {
+
+    private static final String FIND_ORDERS =
+            "select o.order_id, m.name as member_name, o.order_date, o.status," +
+                    " d.city, d.street, d.zipcode," +
+                    " oi.order_item_id, i.name as item_name, oi.order_price, oi.count" +
+                    " from orders o" +
+                    " join member m on m.member_id = o.member_id" +
+                    " join delivery d on d.delivery_id = o.delivery_id" +
+                    " left join order_item oi on oi.order_id = o.order_id" +
+                    " left join item i on i.item_id = oi.item_id" +
+                    " order by o.order_id, oi.order_item_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderQueryJdbcRepository(DataSource dataSource,
+                                    @Value("${order-query.jdbc.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    public List<OrderQueryDto> findAllByJdbc() {
+        OrderQueryEvent event = OrderQueryEvent.begin("findAllByJdbc", "orders");
+        OrderAssembler assembler = new OrderAssembler();
+        jdbcTemplate.query(FIND_ORDERS, assembler);
+        event.end(assembler.result.size());
+        return assembler.result;
+    }
+
+    /**
+     * order_id 순서로 정렬된 행을 한번만 읽으면서 조립한다.
+     * => 이전 행과 order_id가 같으면 현재 주문의 orderItems에 추가한다.
+     */
+    private static class OrderAssembler implements RowCallbackHandler {
+
+        private final List<OrderQueryDto> result = new ArrayList<>();
+        private OrderQueryDto current;
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long orderId = rs.getLong("order_id");
+            if (current == null || current.getOrderId() != orderId) {
+                current = new OrderQueryDto(
+                        orderId,
+                        rs.getString("member_name"),
+                        rs.getObject("order_date", LocalDateTime.class),
+                        OrderStatus.valueOf(rs.getString("status")),
+                        new Address(rs.getString("city"), rs.getString("street"), rs.getString("zipcode")),
+                        new ArrayList<>());
+                result.add(current);
+            }
+
+            rs.getLong("order_item_id");
+            if (!rs.wasNull()) {
+                current.getOrderItems().add(new OrderItemQueryDto(orderId, rs.getString("item_name"), rs.getInt("order_price"), rs.getInt("count")));
+            }
+        }
+    }
+}
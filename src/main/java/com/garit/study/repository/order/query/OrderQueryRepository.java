@@ -1,30 +1,46 @@
 package com.garit.study.repository.order.query;
 
-import lombok.RequiredArgsConstructor;
+import com.garit.study.monitoring.jfr.OrderQueryEvent;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import static com.garit.study.domain.QDelivery.delivery;
+import static com.garit.study.domain.QMember.member;
+import static com.garit.study.domain.QOrder.order;
+import static com.garit.study.domain.QOrderArchive.orderArchive;
+
 /**
  * 화면이나 API에 의존하는 쿼리는 해당 클래스에서 생성한다.
  * => 핵심 비즈니스 로직(순수 엔티티 조회 = OrderRepository)의 라이프 사이클과,
  * => 화면에 의존적인 로직의 라이프 사이클은 많이 다르다.
+ *
+ * 쿼리 / DTO 조립 단계마다 OrderQueryEvent(JFR)를 남긴다. => 메서드 이름, 단계, 행 수
  */
 @Repository
-@RequiredArgsConstructor
 public class OrderQueryRepository {
 
     private final EntityManager em;
+    private final JPAQueryFactory query;
+
+    public OrderQueryRepository(EntityManager em) {
+        this.em = em;
+        this.query = new JPAQueryFactory(em);
+    }
 
     public List<OrderQueryDto> findOrderQueryDtos() {
         /**
          * Order 조회 => 2개 조회됨
          */
-        List<OrderQueryDto> result = findOrders();  // query 1번 실행 => 결과 N개
+        List<OrderQueryDto> result = findOrders("findOrderQueryDtos");  // query 1번 실행 => 결과 N개
 
         /**
          * 루프를 돌면서, 컬랙션 부분(orderItems) 채우기
@@ -41,19 +57,67 @@ public class OrderQueryRepository {
      * in 쿼리를 사용해서 OrderItem 리스트를 한번에 DB에서 가져온다.
      */
     public List<OrderQueryDto> findAllByDto_optimization() {
-        List<OrderQueryDto> result = findOrders();  // query 1번
+        String method = "findAllByDto_optimization";
+        List<OrderQueryDto> result = findOrders(method);  // query 1번
 
-        Map<Long, List<OrderItemQueryDto>> orderItemMap = findOrderItemMap(toOrderIds(result));      // query 1번
+        List<OrderItemQueryDto> orderItems = findOrderItemsIn(method, toOrderIds(result));      // query 1번
 
         /**
          * 메모리에서 order 별로 orderItem을 매칭해준다.
          * 즉, 컬랙션 채우기
          */
+        OrderQueryEvent event = OrderQueryEvent.begin(method, "mapping");
+        Map<Long, List<OrderItemQueryDto>> orderItemMap = groupByOrderId(orderItems);
         result.forEach(o -> o.setOrderItems(orderItemMap.get(o.getOrderId())));
+        event.end(result.size());
         return result;
     }
 
-    private Map<Long, List<OrderItemQueryDto>> findOrderItemMap(List<Long> orderIds) {
+    /**
+     * findAllByDto_optimization()과 같은 1+1 조회를 회원, 주문일 [from, to) 범위로 좁혀서 한다.
+     * => 보관 주문 조회(findArchivedByDto_optimization)와 같은 조건을 운영 테이블에도 건다.
+     * => 조건이 선택이라서 QueryDsl로 만든다. (null 조건은 where에서 빠진다)
+     * => 주문일 범위는 idx_orders_order_date를 탄다.
+     */
+    public List<OrderQueryDto> findAllByDto_optimization(Long memberId, LocalDateTime from, LocalDateTime to) {
+        String method = "findAllByDto_optimization";
+        OrderQueryEvent event = OrderQueryEvent.begin(method, "orders");
+        List<OrderQueryDto> result = query
+                .select(Projections.constructor(OrderQueryDto.class,
+                        order.id, member.name, order.orderDate, order.status, delivery.address))
+                .from(order)
+                .join(order.member, member)
+                .join(order.delivery, delivery)
+                .where(memberIdEq(memberId), orderDateGoe(from), orderDateLt(to))
+                .fetch();
+        event.end(result.size());
+        if (result.isEmpty()) {
+            return result;  // 빈 in () 절은 MySQL에서 문법 오류
+        }
+
+        List<OrderItemQueryDto> orderItems = findOrderItemsIn(method, toOrderIds(result));
+
+        event = OrderQueryEvent.begin(method, "mapping");
+        Map<Long, List<OrderItemQueryDto>> orderItemMap = groupByOrderId(orderItems);
+        result.forEach(o -> o.setOrderItems(orderItemMap.get(o.getOrderId())));
+        event.end(result.size());
+        return result;
+    }
+
+    private BooleanExpression memberIdEq(Long memberId) {
+        return memberId == null ? null : order.member.id.eq(memberId);
+    }
+
+    private BooleanExpression orderDateGoe(LocalDateTime from) {
+        return from == null ? null : order.orderDate.goe(from);
+    }
+
+    private BooleanExpression orderDateLt(LocalDateTime to) {
+        return to == null ? null : order.orderDate.lt(to);
+    }
+
+    private List<OrderItemQueryDto> findOrderItemsIn(String method, List<Long> orderIds) {
+        OrderQueryEvent event = OrderQueryEvent.begin(method, "items");
         // 쿼리를 한번만 날려서 OrderItemQueryDto 리스트를 한방에 가져온다.
         List<OrderItemQueryDto> orderItems = em.createQuery(
                         "select new com.garit.study.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
@@ -62,14 +126,17 @@ public class OrderQueryRepository {
                                 " where oi.order.id in :orderIds", OrderItemQueryDto.class)
                 .setParameter("orderIds", orderIds)
                 .getResultList();
+        event.end(orderItems.size());
+        return orderItems;
+    }
 
-        /**
-         * orderId를 기준으로 map으로 바꾸기
-         * key : orderId    ,    value : List<OrderItemQueryDto>>
-         */
-        Map<Long, List<OrderItemQueryDto>> orderItemMap = orderItems.stream()
+    /**
+     * orderId를 기준으로 map으로 바꾸기
+     * key : orderId    ,    value : List<OrderItemQueryDto>>
+     */
+    private Map<Long, List<OrderItemQueryDto>> groupByOrderId(List<OrderItemQueryDto> orderItems) {
+        return orderItems.stream()
                 .collect(Collectors.groupingBy(orderItemQueryDto -> orderItemQueryDto.getOrderId()));
-        return orderItemMap;
     }
 
     @NotNull
@@ -81,32 +148,96 @@ public class OrderQueryRepository {
     }
 
     private List<OrderItemQueryDto> findOrderItems(Long orderId) {
-        return em.createQuery(
+        OrderQueryEvent event = OrderQueryEvent.begin("findOrderQueryDtos", "items");
+        List<OrderItemQueryDto> orderItems = em.createQuery(
                         "select new com.garit.study.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
                                 " from OrderItem oi" +
                                 " join oi.item i" +
                                 " where oi.order.id = :orderId", OrderItemQueryDto.class)
                 .setParameter("orderId", orderId)
                 .getResultList();
-
+        event.end(orderItems.size());
+        return orderItems;
     }
 
     /**
      * new 오퍼레이션을 사용할 때, 데이터를 플랫하게 한줄밖에 못 넣는다.
      * 따라서 컬랙션을 파라미터로 바로 넣을 수 없다.
      */
-    private List<OrderQueryDto> findOrders() {
-        return em.createQuery(
+    private List<OrderQueryDto> findOrders(String method) {
+        OrderQueryEvent event = OrderQueryEvent.begin(method, "orders");
+        List<OrderQueryDto> result = em.createQuery(
                         "select new com.garit.study.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
                                 " from Order o" +
                                 " join o.member m" +
                                 " join o.delivery d", OrderQueryDto.class)
                 .getResultList();
+        event.end(result.size());
+        return result;
     }
 
 
+    /**
+     * 보관 테이블(orders_archive, order_item_archive)의 주문을 V5와 같은 모양으로 조회한다.
+     * => 보관 테이블에는 연관관계가 없으므로 id로 엔티티 조인(join ... on)한다.
+     * => 조건이 선택이라서 QueryDsl로 만든다. (null 조건은 where에서 빠진다)
+     * => 보관 테이블은 계속 쌓이기만 하므로 항상 offset, limit으로 잘라서 읽는다.
+     * => 회원(idx_orders_archive_member), 주문일 [from, to) 범위(idx_orders_archive_order_date)로 좁혀서 읽을 수 있다.
+     */
+    public List<OrderQueryDto> findArchivedByDto_optimization(Long memberId, LocalDateTime from, LocalDateTime to,
+                                                              int offset, int limit) {
+        String method = "findArchivedByDto_optimization";
+        OrderQueryEvent event = OrderQueryEvent.begin(method, "orders");
+        List<OrderQueryDto> result = query
+                .select(Projections.constructor(OrderQueryDto.class,
+                        orderArchive.id, member.name, orderArchive.orderDate, orderArchive.status, orderArchive.address))
+                .from(orderArchive)
+                .join(member).on(member.id.eq(orderArchive.memberId))
+                .where(archivedMemberIdEq(memberId), archivedOrderDateGoe(from), archivedOrderDateLt(to))
+                .orderBy(orderArchive.id.asc())
+                .offset(offset)
+                .limit(limit)
+                .fetch();
+        event.end(result.size());
+        if (result.isEmpty()) {
+            return result;  // 빈 in () 절은 MySQL에서 문법 오류
+        }
+
+        event = OrderQueryEvent.begin(method, "items");
+        List<OrderItemQueryDto> orderItems = em.createQuery(
+                        "select new com.garit.study.repository.order.query.OrderItemQueryDto(ai.orderId, i.name, ai.orderPrice, ai.count)" +
+                                " from OrderItemArchive ai" +
+                                " join Item i on i.id = ai.itemId" +
+                                " where ai.orderId in :orderIds", OrderItemQueryDto.class)
+                .setParameter("orderIds", toOrderIds(result))
+                .getResultList();
+        event.end(orderItems.size());
+
+        event = OrderQueryEvent.begin(method, "mapping");
+        Map<Long, List<OrderItemQueryDto>> orderItemMap = groupByOrderId(orderItems);
+        result.forEach(o -> o.setOrderItems(orderItemMap.get(o.getOrderId())));
+        event.end(result.size());
+        return result;
+    }
+
+    private BooleanExpression archivedMemberIdEq(Long memberId) {
+        return memberId == null ? null : orderArchive.memberId.eq(memberId);
+    }
+
+    private BooleanExpression archivedOrderDateGoe(LocalDateTime from) {
+        return from == null ? null : orderArchive.orderDate.goe(from);
+    }
+
+    private BooleanExpression archivedOrderDateLt(LocalDateTime to) {
+        return to == null ? null : orderArchive.orderDate.lt(to);
+    }
+
+    /**
+     * DTO 조립(groupingBy)은 API 스펙에 맞춰서 컨트롤러(V6)에서 한다.
+     */
     public List<OrderFlatDto> findAllByDto_flat() {
-        return em.createQuery(
+        OrderQueryEvent event = OrderQueryEvent.begin("findAllByDto_flat", "orders");
+        List<OrderFlatDto> result = em.createQuery(
                 "select new" +
                         " com.garit.study.repository.order.query.OrderFlatDto(o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count)"+
                         " from Order o"+
@@ -115,6 +246,7 @@ public class OrderQueryRepository {
                         " join o.orderItems oi" +
                         " join oi.item i", OrderFlatDto.class)
                 .getResultList();
-
+        event.end(result.size());
+        return result;
     }
 }
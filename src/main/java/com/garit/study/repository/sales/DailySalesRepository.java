@@ -0,0 +1,158 @@
+package com.garit.study.repository.sales;
+
+import com.garit.study.domain.DailySales;
+import com.garit.study.domain.DailySalesId;
+import com.garit.study.domain.OrderStatus;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.garit.study.domain.QDailySales.dailySales;
+import static com.garit.study.domain.item.QItem.item;
+
+/**
+ * 일별 매출 집계 테이블(daily_sales) 전용 Repository
+ * => 조회는 항상 (sales_date, status) 인덱스 범위만 읽는다.
+ */
+@Repository
+public class DailySalesRepository {
+
+    private final EntityManager em;
+    private final JPAQueryFactory query;
+
+    public DailySalesRepository(EntityManager em) {
+        this.em = em;
+        this.query = new JPAQueryFactory(em);
+    }
+
+    /**
+     * 집계 행에 값을 더한다. (행이 없으면 새로 만든다)
+     * => 엔티티를 조회해서 더하지 않고 update 쿼리 한번으로 끝낸다. (select, dirty checking X)
+     */
+    public void add(DailySalesId id, long revenue, long units) {
+        int updated = em.createQuery(
+                        "update DailySales d set d.revenue = d.revenue + :revenue, d.units = d.units + :units" +
+                                " where d.id.salesDate = :salesDate and d.id.itemId = :itemId and d.id.status = :status")
+                .setParameter("revenue", revenue)
+                .setParameter("units", units)
+                .setParameter("salesDate", id.getSalesDate())
+                .setParameter("itemId", id.getItemId())
+                .setParameter("status", id.getStatus())
+                .executeUpdate();
+
+        if (updated == 0) {
+            em.persist(new DailySales(id, revenue, units));
+        }
+    }
+
+    public void flush() {
+        em.flush();
+    }
+
+    /**
+     * [rebuild] 기간 [from, to) 의 집계를 지우고, 원본 주문에서 SQL로 다시 합친다.
+     * => 주문을 애플리케이션으로 읽어오지 않으므로, 기간이 길어도 메모리를 쓰지 않는다.
+     * => 보관 테이블로 옮긴 주문도 함께 합친다. (기간 조건은 union 안쪽 각 테이블에 건다)
+     *
+     * @return 새로 만든 집계 행 수
+     */
+    public int rebuild(LocalDate from, LocalDate to) {
+        em.createQuery("delete from DailySales d where d.id.salesDate >= :from and d.id.salesDate < :to")
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .executeUpdate();
+
+        return em.createNativeQuery(
+                        "insert into daily_sales (sales_date, item_id, status, revenue, units)" +
+                                " select s.sales_date, s.item_id, s.status, sum(s.revenue), sum(s.units)" +
+                                " from (" +
+                                " select cast(o.order_date as date) sales_date, oi.item_id, o.status," +
+                                " oi.order_price * oi.count revenue, oi.count units" +
+                                " from orders o" +
+                                " join order_item oi on oi.order_id = o.order_id" +
+                                " where o.order_date >= :from and o.order_date < :to" +
+                                " union all" +
+                                " select cast(a.order_date as date), ai.item_id, a.status," +
+                                " ai.order_price * ai.count, ai.count" +
+                                " from orders_archive a" +
+                                " join order_item_archive ai on ai.order_id = a.order_id" +
+                                " where a.order_date >= :from and a.order_date < :to" +
+                                " ) s" +
+                                " group by s.sales_date, s.item_id, s.status")
+                .setParameter("from", from.atStartOfDay())
+                .setParameter("to", to.atStartOfDay())
+                .executeUpdate();
+    }
+
+    /**
+     * 운영 테이블과 보관 테이블 중 가장 오래된 주문일
+     */
+    public LocalDateTime findFirstOrderDate() {
+        LocalDateTime hot = em.createQuery("select min(o.orderDate) from Order o", LocalDateTime.class)
+                .getSingleResult();
+        LocalDateTime archived = em.createQuery("select min(a.orderDate) from OrderArchive a", LocalDateTime.class)
+                .getSingleResult();
+        if (hot == null || archived == null) {
+            return hot == null ? archived : hot;
+        }
+        return archived.isBefore(hot) ? archived : hot;
+    }
+
+    /**
+     * 일별 매출 (itemId가 없으면 전체 상품 합계)
+     */
+    public List<SalesByDateDto> findByDate(LocalDate from, LocalDate to, OrderStatus status, Long itemId) {
+        return query
+                .select(Projections.constructor(SalesByDateDto.class,
+                        dailySales.id.salesDate, dailySales.revenue.sum(), dailySales.units.sum()))
+                .from(dailySales)
+                .where(between(from, to), dailySales.id.status.eq(status), itemIdEq(itemId))
+                .groupBy(dailySales.id.salesDate)
+                .orderBy(dailySales.id.salesDate.asc())
+                .fetch();
+    }
+
+    /**
+     * 상품별 매출 (매출 순)
+     * => 상품 이름은 집계가 끝난 상품 수만큼만 조인한다.
+     */
+    public List<SalesByItemDto> findByItem(LocalDate from, LocalDate to, OrderStatus status) {
+        return query
+                .select(Projections.constructor(SalesByItemDto.class,
+                        dailySales.id.itemId, item.name, dailySales.revenue.sum(), dailySales.units.sum()))
+                .from(dailySales)
+                .join(item).on(item.id.eq(dailySales.id.itemId))
+                .where(between(from, to), dailySales.id.status.eq(status))
+                .groupBy(dailySales.id.itemId, item.name)
+                .orderBy(dailySales.revenue.sum().desc())
+                .fetch();
+    }
+
+    /**
+     * 주문 상태별 매출
+     */
+    public List<SalesByStatusDto> findByStatus(LocalDate from, LocalDate to) {
+        return query
+                .select(Projections.constructor(SalesByStatusDto.class,
+                        dailySales.id.status, dailySales.revenue.sum(), dailySales.units.sum()))
+                .from(dailySales)
+                .where(between(from, to))
+                .groupBy(dailySales.id.status)
+                .fetch();
+    }
+
+    // 기간 조건 [from, to] => 날짜 단위이므로 to도 포함한다.
+    private BooleanExpression between(LocalDate from, LocalDate to) {
+        return dailySales.id.salesDate.between(from, to);
+    }
+
+    private BooleanExpression itemIdEq(Long itemId) {
+        return itemId == null ? null : dailySales.id.itemId.eq(itemId);
+    }
+}
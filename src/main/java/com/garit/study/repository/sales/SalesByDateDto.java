@@ -0,0 +1,19 @@
+package com.garit.study.repository.sales;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class SalesByDateDto {
+
+    private LocalDate salesDate;
+    private long revenue;
+    private long units;
+
+    public SalesByDateDto(LocalDate salesDate, Long revenue, Long units) {
+        this.salesDate = salesDate;
+        this.revenue = revenue == null ? 0 : revenue;
+        this.units = units == null ? 0 : units;
+    }
+}
@@ -0,0 +1,19 @@
+package com.garit.study.repository.sales;
+
+import lombok.Data;
+
+@Data
+public class SalesByItemDto {
+
+    private Long itemId;
+    private String itemName;
+    private long revenue;
+    private long units;
+
+    public SalesByItemDto(Long itemId, String itemName, Long revenue, Long units) {
+        this.itemId = itemId;
+        this.itemName = itemName;
+        this.revenue = revenue == null ? 0 : revenue;
+        this.units = units == null ? 0 : units;
+    }
+}
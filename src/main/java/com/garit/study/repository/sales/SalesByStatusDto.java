@@ -0,0 +1,18 @@
+package com.garit.study.repository.sales;
+
+import com.garit.study.domain.OrderStatus;
+import lombok.Data;
+
+@Data
+public class SalesByStatusDto {
+
+    private OrderStatus status;
+    private long revenue;
+    private long units;
+
+    public SalesByStatusDto(OrderStatus status, Long revenue, Long units) {
+        this.status = status;
+        this.revenue = revenue == null ? 0 : revenue;
+        this.units = units == null ? 0 : units;
+    }
+}
@@ -0,0 +1,123 @@
+package com.garit.study.reservation;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * 해시 타이밍 휠 (Varghese & Lauck) => 예약 id별 만료 타이머
+ * => 시간을 tickMillis 단위 칸(bucket)으로 나누고, 만료 시각이 속한 칸(deadlineTick & mask)에 넣는다.
+ * => 등록 O(1), 한 tick 처리는 그 칸에 든 타이머 수만큼. (전체 타이머를 정렬하거나 훑지 않는다)
+ * => 휠 한 바퀴(wheelSize * tickMillis)보다 먼 만료는 같은 칸에 들어가고, 칸을 돌 때 deadlineTick이 지난 것만 꺼낸다.
+ *
+ * [스레드]
+ * => add()는 아무 스레드에서나 호출한다. (lock-free 큐에 넣기만 한다)
+ * => advance()는 한 스레드에서만 호출한다. (큐를 칸으로 옮기고 칸을 처리한다)
+ *
+ * [취소 X] 확정된 예약의 타이머는 지우지 않는다. => 만료 처리할 때 HELD가 아니면 건너뛴다.
+ * => id => 타이머 map이 필요 없으므로 타이머 1개 = Node 1개(약 32 byte). 예약 100만 개면 약 32MB
+ *
+ * [만료 시각] tick 단위로 올림한다. => 만료 시각보다 일찍 꺼내지 않는다. (최대 tickMillis 늦게 꺼낸다)
+ */
+final class HashedTimingWheel {
+
+    private final long tickMillis;
+    private final Node[] buckets;
+    private final int mask;
+    private final ConcurrentLinkedQueue<Node> added = new ConcurrentLinkedQueue<>();
+    private final AtomicLong size = new AtomicLong();
+
+    private long currentTick;   // 다음에 처리할 tick
+
+    HashedTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("tickMillis > 0, wheelSize는 2의 거듭제곱이어야 합니다.");
+        }
+        this.tickMillis = tickMillis;
+        this.buckets = new Node[wheelSize];
+        this.mask = wheelSize - 1;
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    void add(long id, long deadlineMillis) {
+        long deadlineTick = (deadlineMillis + tickMillis - 1) / tickMillis;    // 올림
+        added.add(new Node(id, deadlineTick));
+        size.incrementAndGet();
+    }
+
+    /**
+     * 등록된 타이머 수 (아직 꺼내지 않은 것)
+     */
+    long size() {
+        return size.get();
+    }
+
+    /**
+     * nowMillis까지 만료된 타이머를 꺼낸다.
+     * => 처리 스레드가 늦어서 여러 tick이 밀렸으면 밀린 칸을 한번에 처리한다. (최대 한 바퀴)
+     *
+     * @return 꺼낸 타이머 수
+     */
+    int advance(long nowMillis, LongConsumer expired) {
+        long nowTick = nowMillis / tickMillis;
+        transferAdded();
+        if (nowTick < currentTick) {
+            return 0;
+        }
+
+        int count = 0;
+        long ticks = Math.min(nowTick - currentTick + 1, buckets.length);
+        for (long i = 0; i < ticks; i++) {
+            count += expireBucket((int) ((currentTick + i) & mask), nowTick, expired);
+        }
+        currentTick = nowTick + 1;
+        size.addAndGet(-count);
+        return count;
+    }
+
+    /**
+     * 이미 지난 만료 시각은 지금 칸에 넣는다. => 이번 advance()에서 바로 꺼낸다.
+     */
+    private void transferAdded() {
+        Node node;
+        while ((node = added.poll()) != null) {
+            int index = (int) (Math.max(node.deadlineTick, currentTick) & mask);
+            node.next = buckets[index];
+            buckets[index] = node;
+        }
+    }
+
+    private int expireBucket(int index, long nowTick, LongConsumer expired) {
+        int count = 0;
+        Node previous = null;
+        Node node = buckets[index];
+        while (node != null) {
+            Node next = node.next;
+            if (node.deadlineTick <= nowTick) {
+                if (previous == null) {
+                    buckets[index] = next;
+                } else {
+                    previous.next = next;
+                }
+                expired.accept(node.id);
+                count++;
+            } else {
+                previous = node;    // 다음 바퀴 이후에 만료
+            }
+            node = next;
+        }
+        return count;
+    }
+
+    private static final class Node {
+
+        private final long id;
+        private final long deadlineTick;
+        private Node next;
+
+        Node(long id, long deadlineTick) {
+            this.id = id;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.garit.study.reservation;
+
+import com.garit.study.domain.StockReservation;
+import com.garit.study.domain.item.Item;
+import com.garit.study.repository.ItemRepository;
+import com.garit.study.repository.StockReservationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 재고 예약 만료 처리
+ * => 예약할 때 HashedTimingWheel에 만료 타이머를 등록하고, 전용 스레드가 tick마다 만료된 예약을 꺼낸다.
+ * => 예약 테이블을 주기적으로 조회(polling)하지 않는다.
+ *
+ * [재고 반환] 꺼낸 예약 id를 reservation.expiry.batch-size개(기본 500)씩 묶어서 트랜잭션 1개로 처리한다.
+ * 1) 아직 HELD인 예약만 select ... for update (IN 쿼리 1번) => 확정된 예약은 여기서 빠진다.
+ * 2) 상품별로 수량을 합쳐서 상품을 IN 쿼리 1번으로 잠그고(select ... for update, id 순서), 상품마다 addStock 1번 => update는 상품 수만큼
+ * => 락 없이 읽으면 그 사이 커밋된 주문, 예약의 재고 차감을 덮어쓴다. (ItemRepository [재고 락])
+ * => 배치가 실패하면(락 대기 시간 초과 등) 그 배치의 id를 1초 뒤로 다시 등록해서 재시도한다.
+ *
+ * [기동] 서버가 내려가면 휠은 사라진다. => 기동할 때 HELD 예약을 모두 읽어서 다시 등록한다. (지난 예약은 첫 tick에 만료)
+ *
+ * [설정] reservation.wheel.tick-millis (기본 100), reservation.wheel.size (기본 512, 2의 거듭제곱)
+ * [메트릭] reservation.pending (휠에 등록된 타이머 수), reservation.expired (재고를 돌려준 예약 수)
+ */
+@Slf4j
+@Component
+public class ReservationExpiryEngine implements DisposableBean {
+
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    private final StockReservationRepository stockReservationRepository;
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final HashedTimingWheel wheel;
+    private final long tickMillis;
+    private final int batchSize;
+    private final ScheduledExecutorService ticker;
+
+    private final Counter expired;
+
+    public ReservationExpiryEngine(StockReservationRepository stockReservationRepository,
+                                   ItemRepository itemRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${reservation.wheel.tick-millis:100}") long tickMillis,
+                                   @Value("${reservation.wheel.size:512}") int wheelSize,
+                                   @Value("${reservation.expiry.batch-size:500}") int batchSize,
+                                   MeterRegistry meterRegistry) {
+        this.stockReservationRepository = stockReservationRepository;
+        this.itemRepository = itemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.wheel = new HashedTimingWheel(tickMillis, wheelSize, System.currentTimeMillis());
+        this.tickMillis = tickMillis;
+        this.batchSize = batchSize;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reservation-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.expired = meterRegistry.counter("reservation.expired");
+        Gauge.builder("reservation.pending", wheel, HashedTimingWheel::size).register(meterRegistry);
+    }
+
+    public void schedule(Long reservationId, LocalDateTime expiresAt) {
+        wheel.add(reservationId, toMillis(expiresAt));
+    }
+
+    /**
+     * HELD 예약을 다시 등록한 뒤 tick을 시작한다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long[] recovered = new long[1];
+        transactionTemplate.executeWithoutResult(status -> stockReservationRepository.forEachHeld(1000, (id, expiresAt) -> {
+            schedule(id, expiresAt);
+            recovered[0]++;
+        }));
+        log.info("reservation expiry started tickMillis={} recovered={}", tickMillis, recovered[0]);
+        ticker.scheduleWithFixedDelay(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void tick() {
+        try {
+            advance(System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            log.warn("reservation expiry tick failed", e);      // 예외가 나가면 스케줄이 멈춘다.
+        }
+    }
+
+    /**
+     * nowMillis까지 만료된 예약의 재고를 돌려준다.
+     *
+     * @return 재고를 돌려준 예약 수
+     */
+    public synchronized int advance(long nowMillis) {
+        List<Long> ids = new ArrayList<>();
+        wheel.advance(nowMillis, ids::add);
+
+        int released = 0;
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            released += releaseBatch(batch, nowMillis);
+        }
+        return released;
+    }
+
+    private int releaseBatch(List<Long> ids, long nowMillis) {
+        LocalDateTime now = LocalDateTime.ofInstant(Instant.ofEpochMilli(nowMillis), ZoneId.systemDefault());
+        try {
+            Integer released = transactionTemplate.execute(status -> {
+                Map<Long, Integer> quantities = new HashMap<>();
+                int count = 0;
+                for (StockReservation reservation : stockReservationRepository.findHeldForUpdate(ids)) {
+                    if (now.isBefore(reservation.getExpiresAt())) {
+                        schedule(reservation.getId(), reservation.getExpiresAt());     // 아직 만료 전 (서버 시계가 바뀐 경우 등)
+                        continue;
+                    }
+                    reservation.expire();
+                    quantities.merge(reservation.getItemId(), reservation.getQuantity(), Integer::sum);
+                    count++;
+                }
+                for (Item item : itemRepository.findAllByIdsForUpdate(new ArrayList<>(quantities.keySet()))) {
+                    item.addStock(quantities.get(item.getId()));
+                }
+                return count;
+            });
+            expired.increment(released);
+            if (released > 0) {
+                log.info("reservation expired count={} candidates={}", released, ids.size());
+            }
+            return released;
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("reservation expiry batch failed size={} => retry after {}ms", ids.size(), RETRY_DELAY_MILLIS, e);
+            for (Long id : ids) {
+                wheel.add(id, nowMillis + RETRY_DELAY_MILLIS);
+            }
+            return 0;
+        }
+    }
+
+    private long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @Override
+    public void destroy() {
+        ticker.shutdownNow();
+    }
+}
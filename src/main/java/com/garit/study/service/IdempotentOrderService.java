@@ -0,0 +1,157 @@
+package com.garit.study.service;
+
+import com.garit.study.domain.IdempotencyKey;
+import com.garit.study.exception.IdempotencyKeyMismatchException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Idempotency-Key 기반 주문
+ *
+ * 1) 최근 키 캐시 (메모리, LRU) => 재시도 요청은 DB까지 가지 않고 바로 주문 id를 돌려준다.
+ *    => 저장한 지 idempotency.ttl-hours(기본 24)가 지난 키는 캐시에 있어도 없는 것으로 본다.
+ *       삭제 배치가 DB에서 지운 키를 이 서버만 기억하면, 같은 재시도가 서버에 따라 다른 결과(기존 주문 / 새 주문)를 받는다.
+ * 2) 처리 중인 키 => 같은 키로 동시에 들어온 요청은 트랜잭션을 또 열지 않고, 먼저 온 요청의 결과를 기다린다.
+ * 3) idempotency_key 테이블 => 서버 재시작, 다른 서버로 들어온 재시도까지 막는다.
+ *
+ * 세 단계 모두 요청 내용의 해시(IdempotencyKey.requestHash)를 같이 비교한다.
+ * => 같은 키로 다른 주문을 보내면 처음 주문 id를 돌려주지 않고 IdempotencyKeyMismatchException(422)
+ *
+ * 키 형식(1~100자, 공백 X)은 컨트롤러에서 검증한다. (400)
+ */
+@Service
+public class IdempotentOrderService {
+
+    private final OrderService orderService;
+    private final Map<String, RecentOrder> recentKeys;
+    private final long ttlNanos;
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotentOrderService(OrderService orderService,
+                                  @Value("${idempotency.recent-keys.max-size:10000}") int maxRecentKeys,
+                                  @Value("${idempotency.ttl-hours:24}") long ttlHours) {
+        this.orderService = orderService;
+        this.ttlNanos = TimeUnit.HOURS.toNanos(ttlHours);
+        this.recentKeys = Collections.synchronizedMap(new LinkedHashMap<String, RecentOrder>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RecentOrder> eldest) {
+                return size() > maxRecentKeys;
+            }
+        });
+    }
+
+    public Long order(String idempotencyKey, Long memberId, Long itemId, int count) {
+        return order(idempotencyKey, memberId, itemId, count, System.nanoTime());
+    }
+
+    /**
+     * now : System.nanoTime() 기준 현재 시각 (테스트에서 ttl 경과를 시간 대기 없이 확인한다)
+     */
+    Long order(String idempotencyKey, Long memberId, Long itemId, int count, long now) {
+        validateKey(idempotencyKey);
+        String requestHash = IdempotencyKey.requestHash(memberId, itemId, count);
+
+        RecentOrder recent = recentKeys.get(idempotencyKey);
+        if (recent != null && now - recent.storedAt >= ttlNanos) {
+            recentKeys.remove(idempotencyKey, recent);      // 만료 => DB에서 다시 확인한다.
+            recent = null;
+        }
+        if (recent != null) {
+            checkSameRequest(idempotencyKey, recent.requestHash, requestHash);
+            return recent.orderId;
+        }
+
+        InFlight mine = new InFlight(requestHash);
+        InFlight running = inFlight.putIfAbsent(idempotencyKey, mine);
+        if (running != null) {
+            checkSameRequest(idempotencyKey, running.requestHash, requestHash);
+            return await(running.result);
+        }
+
+        try {
+            Long orderId = placeOrder(idempotencyKey, requestHash, memberId, itemId, count);
+            recentKeys.put(idempotencyKey, new RecentOrder(orderId, requestHash, now));
+            mine.result.complete(orderId);
+            return orderId;
+        } catch (RuntimeException e) {
+            mine.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(idempotencyKey, mine);
+        }
+    }
+
+    /**
+     * 다른 서버에서 같은 키로 먼저 커밋했으면, PK 제약 조건 위반으로 내 트랜잭션은 롤백된다.
+     * => 재고도 함께 롤백되므로, 먼저 커밋된 주문 id를 조회해서 돌려주면 된다. (요청 내용이 같을 때만)
+     */
+    private Long placeOrder(String idempotencyKey, String requestHash, Long memberId, Long itemId, int count) {
+        try {
+            return orderService.order(idempotencyKey, memberId, itemId, count);
+        } catch (DataIntegrityViolationException e) {
+            Long orderId = orderService.findOrderId(idempotencyKey, requestHash);
+            if (orderId == null) {
+                throw e;
+            }
+            return orderId;
+        }
+    }
+
+    private void checkSameRequest(String idempotencyKey, String expected, String actual) {
+        if (!expected.equals(actual)) {
+            throw new IdempotencyKeyMismatchException(
+                    "Idempotency-Key " + idempotencyKey + "는 다른 주문 요청에 이미 사용되었습니다.");
+        }
+    }
+
+    private Long await(CompletableFuture<Long> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private void validateKey(String idempotencyKey) {
+        if (!StringUtils.hasText(idempotencyKey) || idempotencyKey.length() > IdempotencyKey.MAX_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key는 1~" + IdempotencyKey.MAX_LENGTH + "자여야 합니다.");
+        }
+    }
+
+    private static class RecentOrder {
+
+        private final Long orderId;
+        private final String requestHash;
+        private final long storedAt;
+
+        RecentOrder(Long orderId, String requestHash, long storedAt) {
+            this.orderId = orderId;
+            this.requestHash = requestHash;
+            this.storedAt = storedAt;
+        }
+    }
+
+    private static class InFlight {
+
+        private final String requestHash;
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+
+        InFlight(String requestHash) {
+            this.requestHash = requestHash;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.garit.study.service;
+
+import lombok.Getter;
+
+/**
+ * 상품 등록, 수정(이름, 가격, 재고) 이벤트
+ * => 상품 데이터를 복사해둔 캐시들이 이 이벤트를 받아서 무효화한다. (응답 캐시, 주문 검색 캐시)
+ * => 커밋 이후에 처리해야 하므로, 받는 쪽은 @TransactionalEventListener(AFTER_COMMIT)를 사용한다.
+ * => 상품 대량 등록처럼 여러 상품이 한번에 바뀌면 itemId는 null이다.
+ */
+@Getter
+public class ItemChangedEvent {
+
+    private final Long itemId;
+
+    public ItemChangedEvent(Long itemId) {
+        this.itemId = itemId;
+    }
+}
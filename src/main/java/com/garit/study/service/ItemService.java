@@ -4,6 +4,7 @@ import com.garit.study.domain.item.Book;
 import com.garit.study.domain.item.Item;
 import com.garit.study.repository.ItemRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,10 +16,12 @@ import java.util.List;
 public class ItemService {
 
     private final ItemRepository itemRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public void saveItem(Item item){
         itemRepository.save(item);
+        eventPublisher.publishEvent(new ItemChangedEvent(item.getId()));
     }
 
     /**
@@ -58,6 +61,7 @@ public class ItemService {
         /**
          * itemRepository에서 save, merge, persist 등 아무것도 호출할 필요가 없다!
          */
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId));
         return findItem;
     }
 
@@ -0,0 +1,18 @@
+package com.garit.study.service;
+
+import lombok.Getter;
+
+/**
+ * 회원 가입, 회원 정보(이름) 변경 이벤트
+ * => 회원 데이터를 복사해둔 캐시들이 이 이벤트를 받아서 무효화한다. (MemberSnapshotCache, 응답 캐시)
+ * => 커밋 이후에 처리해야 하므로, 받는 쪽은 @TransactionalEventListener(AFTER_COMMIT)를 사용한다.
+ */
+@Getter
+public class MemberChangedEvent {
+
+    private final Long memberId;
+
+    public MemberChangedEvent(Long memberId) {
+        this.memberId = memberId;
+    }
+}
@@ -1,9 +1,13 @@
 package com.garit.study.service;
 
+import com.garit.study.cache.MemberSnapshot;
+import com.garit.study.cache.MemberSnapshotCache;
 import com.garit.study.domain.Member;
 import com.garit.study.repository.MemberRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -65,6 +69,8 @@ public class MemberService {
      * final을 붙이면 컴파일 시점에 객체를 주입 받는지 확인할 수 있다.
      */
     private final MemberRepository memberRepository;
+    private final MemberSnapshotCache memberSnapshotCache;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     /**
@@ -77,6 +83,7 @@ public class MemberService {
     public Long join(Member member) {
         validateDuplicateMember(member);    // 중복 회원 검증
         memberRepository.save(member);
+        eventPublisher.publishEvent(new MemberChangedEvent(member.getId()));
         return member.getId();
     }
 
@@ -102,6 +109,15 @@ public class MemberService {
         return memberRepository.findById(memberId).get();
     }
 
+    /**
+     * 특정 회원 조회 (이름, 주소 스냅샷)
+     * => 캐시 hit이면 DB에 가지 않으므로 트랜잭션(커넥션)도 열지 않는다. (SUPPORTS)
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public MemberSnapshot findSnapshot(Long memberId) {
+        return memberSnapshotCache.get(memberId);
+    }
+
 
     /**
      * 변경감지를 통한 name 수정
@@ -113,5 +129,6 @@ public class MemberService {
     public void update(Long id, String name) {
         Member member = memberRepository.findById(id).get();
         member.setName(name);
+        eventPublisher.publishEvent(new MemberChangedEvent(id));
     }
 }
@@ -0,0 +1,19 @@
+package com.garit.study.service;
+
+import lombok.Getter;
+
+/**
+ * 주문 생성, 취소 이벤트
+ * => 주문 데이터를 복사해둔 캐시들이 이 이벤트를 받아서 무효화한다.
+ * => 커밋 이후에 처리해야 하므로, 받는 쪽은 @TransactionalEventListener(AFTER_COMMIT)를 사용한다.
+ * => 보관 배치처럼 여러 주문이 한번에 바뀌면 orderId는 null이다.
+ */
+@Getter
+public class OrderChangedEvent {
+
+    private final Long orderId;
+
+    public OrderChangedEvent(Long orderId) {
+        this.orderId = orderId;
+    }
+}
@@ -0,0 +1,134 @@
+package com.garit.study.service;
+
+import com.garit.study.repository.OrderExportRow;
+import com.garit.study.repository.OrderRepository;
+import com.garit.study.repository.OrderSearch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.function.Consumer;
+
+/**
+ * 주문 검색 결과(/orders) CSV 내보내기
+ * => 화면과 같은 OrderSearch 조건, 정렬을 쓰고 1000건 제한은 없다.
+ * => 앞으로만 읽는 커서(OrderRepository.scrollForExport)에서 한 행씩 받아서 바로 쓴다. => 결과 건수와 관계없이 메모리 일정
+ *
+ * [flush] order-export.flush-rows (기본 500) 행마다 Writer를 flush 한다.
+ * => 클라이언트는 쿼리가 끝나기 전부터 받기 시작하고, 서버는 응답 전체를 버퍼에 들고 있지 않는다.
+ * => order-export.fetch-size (기본 500) : 커서에서 한번에 가져오는 행 수
+ *
+ * [엑셀]
+ * => UTF-8 BOM을 먼저 쓴다. (BOM이 없으면 엑셀이 한글을 깨뜨린다)
+ * => =, +, -, @로 시작하는 값은 앞에 '를 붙인다. (수식으로 실행되지 않도록, CSV injection)
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class OrderExportService {
+
+    private static final String HEADER = "주문번호,회원명,주문금액,주문상태,주문일시,배송상태,도시,거리,우편번호";
+
+    private final OrderRepository orderRepository;
+    private final int fetchSize;
+    private final int flushRows;
+    private final Counter exportedRows;
+
+    public OrderExportService(OrderRepository orderRepository,
+                              @Value("${order-export.fetch-size:500}") int fetchSize,
+                              @Value("${order-export.flush-rows:500}") int flushRows,
+                              MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.fetchSize = fetchSize;
+        this.flushRows = flushRows;
+        this.exportedRows = meterRegistry.counter("orders.export.rows");
+    }
+
+    /**
+     * @return 쓴 행 수 (헤더 제외)
+     */
+    public long writeCsv(OrderSearch orderSearch, Writer out) throws IOException {
+        long start = System.nanoTime();
+        out.write('\uFEFF');     // UTF-8 BOM
+        out.write(HEADER);
+        out.write('\n');
+
+        long rows;
+        try {
+            rows = orderRepository.scrollForExport(orderSearch, fetchSize, new RowWriter(out));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();     // 클라이언트가 연결을 끊은 경우 등
+        }
+        out.flush();
+
+        exportedRows.increment(rows);
+        log.info("order export rows={} elapsed={}ms", rows, (System.nanoTime() - start) / 1_000_000);
+        return rows;
+    }
+
+    private class RowWriter implements Consumer<OrderExportRow> {
+
+        private final Writer out;
+        private long rows;
+
+        RowWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void accept(OrderExportRow row) {
+            try {
+                out.write(String.valueOf(row.getOrderId()));
+                out.write(',');
+                writeText(row.getMemberName());
+                out.write(',');
+                out.write(String.valueOf(row.getTotalPrice()));
+                out.write(',');
+                out.write(row.getStatus() == null ? "" : row.getStatus().name());
+                out.write(',');
+                out.write(row.getOrderDate() == null ? "" : row.getOrderDate().toString());
+                out.write(',');
+                out.write(row.getDeliveryStatus() == null ? "" : row.getDeliveryStatus().name());
+                out.write(',');
+                writeText(row.getCity());
+                out.write(',');
+                writeText(row.getStreet());
+                out.write(',');
+                writeText(row.getZipcode());
+                out.write('\n');
+
+                if (++rows % flushRows == 0) {
+                    out.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * RFC 4180 => ", 줄바꿈이 있으면 따옴표로 감싸고, "는 ""로 바꾼다.
+         */
+        private void writeText(String value) throws IOException {
+            if (value == null || value.isEmpty()) {
+                return;
+            }
+            char first = value.charAt(0);
+            if (first == '=' || first == '+' || first == '-' || first == '@') {
+                value = "'" + value;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            out.write(value.replace("\"", "\"\""));
+            out.write('"');
+        }
+    }
+}
@@ -1,13 +1,23 @@
 package com.garit.study.service;
 
+import com.garit.study.cache.MemberSnapshot;
+import com.garit.study.cache.MemberSnapshotCache;
+import com.garit.study.cache.OrderSearchCache;
 import com.garit.study.domain.*;
 import com.garit.study.domain.item.Item;
+import com.garit.study.exception.IdempotencyKeyMismatchException;
+import com.garit.study.monitoring.jfr.OrderPlacementEvent;
 import com.garit.study.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 
 @Service
@@ -24,35 +34,147 @@ public class OrderService {
 
     private final OrderRepository orderRepository;
     private final MemberRepository memberRepository;
+    private final MemberSnapshotCache memberSnapshotCache;
+    private final OrderSearchCache orderSearchCache;
     private final ItemRepository itemRepository;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final StockReservationRepository stockReservationRepository;
+    private final SalesRollupService salesRollupService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * 주문
+     * => 단계마다 OrderPlacementEvent(JFR)를 남긴다. 기록 중이 아니면 비용이 거의 없다.
+     *
+     * 회원은 배송 주소 복사와 FK(member_id)에만 쓰인다.
+     * => 주소는 MemberSnapshotCache에서 가져오고, 회원은 프록시(getReferenceById)로만 연결한다. => 회원 select 없음
      */
     @Transactional
     public Long order(Long memberId, Long itemId, int count){
 
         // 엔티티 조회
-        Member member = memberRepository.findById(memberId).get();
-        Item item = itemRepository.findOne(itemId);
+        OrderPlacementEvent event = OrderPlacementEvent.begin("member.lookup", memberId, itemId);
+        MemberSnapshot memberSnapshot = memberSnapshotCache.get(memberId);
+        Member member = memberRepository.getReferenceById(memberId);
+        event.end(1);
+
+        event = OrderPlacementEvent.begin("item.lookup", memberId, itemId);
+        Item item = itemRepository.findOneForUpdate(itemId);     // 재고 차감 => select ... for update
+        event.end(1);
+
+        // 주문상품 생성 => 재고 차감
+        event = OrderPlacementEvent.begin("stock.decrement", memberId, itemId);
+        OrderItem orderItem = OrderItem.createOrderItem(item, item.getPrice(), count);
+        event.end(count);
+
+        return placeOrder(memberId, itemId, memberSnapshot, member, orderItem);
+    }
+
+    /**
+     * 재고 예약 확정 => 예약한 상품, 수량으로 주문을 만든다.
+     * => 예약할 때 재고를 이미 뺐으므로 다시 빼지 않는다. (OrderItem.createReservedOrderItem)
+     * => 가격은 확정하는 시점의 상품 가격
+     * => 예약을 select ... for update로 읽는다. 같은 예약을 만료 처리 중이면 끝날 때까지 기다린 뒤 EXPIRED를 보고 실패한다.
+     */
+    @Transactional
+    public Long orderReservation(Long reservationId){
+
+        StockReservation reservation = stockReservationRepository.findForUpdate(reservationId);
+        if (reservation == null){
+            throw new NoSuchElementException("존재하지 않는 예약입니다. (" + reservationId + ")");
+        }
+        reservation.confirm(LocalDateTime.now());
+        Long memberId = reservation.getMemberId();
+        Long itemId = reservation.getItemId();
+
+        // 엔티티 조회
+        OrderPlacementEvent event = OrderPlacementEvent.begin("member.lookup", memberId, itemId);
+        MemberSnapshot memberSnapshot = memberSnapshotCache.get(memberId);
+        Member member = memberRepository.getReferenceById(memberId);
+        event.end(1);
+
+        // 재고는 바꾸지 않지만 잠근다. => 같은 상품의 주문, 확정이 한 줄로 서서 일별 매출 행을 동시에 만들지 않는다. (SalesRollupService)
+        event = OrderPlacementEvent.begin("item.lookup", memberId, itemId);
+        Item item = itemRepository.findOneForUpdate(itemId);
+        event.end(1);
+
+        // 주문상품 생성 => 재고 차감 X
+        event = OrderPlacementEvent.begin("stock.reserved", memberId, itemId);
+        OrderItem orderItem = OrderItem.createReservedOrderItem(item, item.getPrice(), reservation.getQuantity());
+        event.end(reservation.getQuantity());
+
+        Long orderId = placeOrder(memberId, itemId, memberSnapshot, member, orderItem);
+        reservation.linkOrder(orderId);
+        return orderId;
+    }
+
+    private Long placeOrder(Long memberId, Long itemId, MemberSnapshot memberSnapshot, Member member, OrderItem orderItem){
 
         // 배송정보 생성
         Delivery delivery = new Delivery();
-        delivery.setAddress(member.getAddress());
+        delivery.setAddress(memberSnapshot.getAddress());
         delivery.setStatus(DeliveryStatus.READY);
 
-        // 주문상품 생성
-        OrderItem orderItem = OrderItem.createOrderItem(item, item.getPrice(), count);
-
         // 주문 생성
         Order order = Order.createOrder(member, delivery, orderItem);
 
         // 주문 저장 => cascade 속성 덕분에 orderItem과 delivery 엔티티도 자동으로 persist 된다.
+        int rows = 2 + order.getOrderItems().size();    // 주문 + 배송 + 주문상품
+        OrderPlacementEvent event = OrderPlacementEvent.begin("persist", memberId, itemId);
         orderRepository.save(order);
+        event.end(rows);
+
+        // 주문 / 배송 / 주문상품 insert, 재고 update
+        event = OrderPlacementEvent.begin("flush", memberId, itemId);
+        orderRepository.flush();
+        event.end(rows);
+
+        // 일별 매출 집계 => 주문과 같은 트랜잭션에서 갱신
+        event = OrderPlacementEvent.begin("rollup", memberId, itemId);
+        salesRollupService.applyOrder(order);
+        event.end(order.getOrderItems().size());
+
+        eventPublisher.publishEvent(new OrderChangedEvent(order.getId()));
         return order.getId();
     }
 
 
+    /**
+     * 주문 (중복 방지 키 사용)
+     * => 키가 이미 저장되어 있으면 처음 주문한 id를 그대로 반환한다.
+     * => 저장된 키의 요청 내용이 다르면 IdempotencyKeyMismatchException
+     * => 주문과 키를 같은 트랜잭션에서 저장하므로, 둘 중 하나만 커밋되는 일은 없다.
+     */
+    @Transactional
+    public Long order(String idempotencyKey, Long memberId, Long itemId, int count){
+        String requestHash = IdempotencyKey.requestHash(memberId, itemId, count);
+        IdempotencyKey findKey = idempotencyKeyRepository.findOne(idempotencyKey);
+        if (findKey != null){
+            return orderIdOf(findKey, requestHash);
+        }
+
+        Long orderId = order(memberId, itemId, count);
+        idempotencyKeyRepository.save(new IdempotencyKey(idempotencyKey, requestHash, orderId));
+        return orderId;
+    }
+
+    /**
+     * @return 키가 없으면 null
+     */
+    public Long findOrderId(String idempotencyKey, String requestHash){
+        IdempotencyKey findKey = idempotencyKeyRepository.findOne(idempotencyKey);
+        return findKey == null ? null : orderIdOf(findKey, requestHash);
+    }
+
+    private Long orderIdOf(IdempotencyKey findKey, String requestHash) {
+        if (!findKey.matches(requestHash)) {
+            throw new IdempotencyKeyMismatchException(
+                    "Idempotency-Key " + findKey.getIdempotencyKey() + "는 다른 주문 요청에 이미 사용되었습니다.");
+        }
+        return findKey.getOrderId();
+    }
+
+
     /**
      * 주문 취소
      */
@@ -62,12 +184,34 @@ public class OrderService {
         // 주문 엔티티 조회
         Order order = orderRepository.findOne(orderId);
 
+        // 재고를 돌려줄 상품을 먼저 잠근다. (id 순서) => 상품은 지연 로딩이라 아직 읽지 않았다.
+        List<Long> itemIds = new ArrayList<>();
+        for (OrderItem orderItem : order.getOrderItems()) {
+            itemIds.add(orderItem.getItem().getId());
+        }
+        itemRepository.findAllByIdsForUpdate(itemIds);
+
         // 주문 취소
         order.cancel();
+        salesRollupService.applyCancel(order);
+        eventPublisher.publishEvent(new OrderChangedEvent(orderId));
     }
 
-    // 검색
+    // 검색 => 주문 목록 화면에서 대표상품(orderItems[0].item)까지 보여주므로 FULL plan 사용
+    // 같은 검색 조건이 다시 오면 검색 쿼리 대신 캐시한 id 목록으로 읽는다. (OrderSearchCache => 쿼리 수는 같고, 검색 쿼리가 PK 조회로 바뀐다)
+    // 쓰기 트랜잭션 안에서 호출되면 캐시를 쓰지 않는다. => 커밋 전(롤백될 수 있는) 데이터로 만든 결과를 저장하지 않도록
     public List<Order> findOrders(OrderSearch orderSearch){
-        return orderRepository.findAllByQueryDsl(orderSearch);
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return orderRepository.findAllByQueryDsl(orderSearch, OrderFetchPlan.FULL);
+        }
+
+        OrderSearchCache.Lookup lookup = orderSearchCache.lookup(orderSearch);
+        if (lookup.isHit()) {
+            return orderRepository.findAllByIds(lookup.getOrderIds(), OrderFetchPlan.FULL);
+        }
+
+        List<Order> orders = orderRepository.findAllByQueryDsl(orderSearch, OrderFetchPlan.FULL);
+        orderSearchCache.put(lookup, orders);
+        return orders;
     }
 }
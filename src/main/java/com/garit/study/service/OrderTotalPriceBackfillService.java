@@ -0,0 +1,84 @@
+package com.garit.study.service;
+
+import com.garit.study.repository.OrderRepository;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * orders.total_price 컬럼 도입 이전 주문의 값을 채운다.
+ *
+ * order_id 범위를 chunk-size씩 나눠서, 범위마다 트랜잭션을 따로 커밋한다.
+ * => 한 트랜잭션이 주문 테이블 전체를 잠그지 않도록
+ * => 중간에 실패해도 다시 실행하면 된다. (주문상품에서 다시 계산하므로 여러번 실행해도 결과가 같다)
+ *
+ * 금액 조건 검색 결과가 달라지므로, 주문이 갱신된 범위마다 OrderChangedEvent를 발행한다.
+ * => 주문 목록 캐시들이 커밋 이후에 무효화한다. (전체 실행이 끝날 때까지 옛 금액으로 검색되지 않도록)
+ */
+@Slf4j
+@Service
+public class OrderTotalPriceBackfillService {
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    public OrderTotalPriceBackfillService(OrderRepository orderRepository,
+                                          PlatformTransactionManager transactionManager,
+                                          ApplicationEventPublisher eventPublisher,
+                                          @Value("${backfill.total-price.chunk-size:1000}") int chunkSize) {
+        this.orderRepository = orderRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    public BackfillResult backfill() {
+        Long maxId = transactionTemplate.execute(status -> orderRepository.findMaxId());
+        if (maxId == null) {
+            return new BackfillResult(0, 0, 0);
+        }
+
+        long start = System.nanoTime();
+        int chunks = 0;
+        int rows = 0;
+        for (long fromId = 0; fromId < maxId; fromId += chunkSize) {
+            long from = fromId;
+            long to = Math.min(fromId + chunkSize, maxId);
+            Integer updated = transactionTemplate.execute(status -> backfillChunk(from, to));
+            rows += updated == null ? 0 : updated;
+            chunks++;
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("total_price backfill maxId={} chunks={} rows={} elapsed={}ms", maxId, chunks, rows, elapsedMillis);
+        return new BackfillResult(chunks, rows, elapsedMillis);
+    }
+
+    private int backfillChunk(long fromId, long toId) {
+        int updated = orderRepository.backfillTotalPrice(fromId, toId);
+        if (updated > 0) {
+            eventPublisher.publishEvent(new OrderChangedEvent(null));
+        }
+        return updated;
+    }
+
+    @Getter
+    public static class BackfillResult {
+
+        private final int chunks;
+        private final int rows;
+        private final long elapsedMillis;
+
+        BackfillResult(int chunks, int rows, long elapsedMillis) {
+            this.chunks = chunks;
+            this.rows = rows;
+            this.elapsedMillis = elapsedMillis;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.garit.study.service;
+
+import com.garit.study.domain.DailySalesId;
+import com.garit.study.domain.Order;
+import com.garit.study.domain.OrderItem;
+import com.garit.study.domain.OrderStatus;
+import com.garit.study.repository.sales.DailySalesRepository;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 일별 매출 집계(daily_sales) 갱신
+ *
+ * 1) 증분 : 주문, 주문 취소 트랜잭션 안에서 집계 행에 값을 더한다. => 주문과 집계가 항상 같이 커밋된다.
+ * 2) rebuild : 원본 주문에서 기간별로 나눠서 SQL로 다시 합친다. => 집계 도입 이전 주문, 직접 수정한 데이터 보정
+ */
+@Slf4j
+@Service
+public class SalesRollupService {
+
+    private final DailySalesRepository dailySalesRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkDays;
+
+    public SalesRollupService(DailySalesRepository dailySalesRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${sales-rollup.rebuild.chunk-days:7}") int chunkDays) {
+        this.dailySalesRepository = dailySalesRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkDays = chunkDays;
+    }
+
+    /**
+     * 주문 => (주문일, 상품, ORDER)에 더한다.
+     */
+    @Transactional
+    public void applyOrder(Order order) {
+        apply(order, OrderStatus.ORDER, 1);
+    }
+
+    /**
+     * 주문 취소 => 주문일 기준으로 ORDER에서 빼서 CANCEL로 옮긴다.
+     */
+    @Transactional
+    public void applyCancel(Order order) {
+        apply(order, OrderStatus.ORDER, -1);
+        apply(order, OrderStatus.CANCEL, 1);
+    }
+
+    /**
+     * 같은 상품이 여러번 담겨 있으면 먼저 합쳐서 상품당 update 한번만 실행한다.
+     *
+     * 집계 행을 고치기 전에 flush해서 상품 재고 update를 먼저 실행한다.
+     * => 주문, 예약 확정, 취소는 상품을 select ... for update로 잠근 뒤에 여기로 온다. (ItemRepository [재고 락])
+     *    같은 상품을 주문하는 트랜잭션은 상품 행 잠금에서 이미 한 줄로 서므로,
+     *    두 트랜잭션이 동시에 같은 집계 행을 insert하다가 PK 충돌이 나는 일이 없다.
+     */
+    private void apply(Order order, OrderStatus status, int sign) {
+        dailySalesRepository.flush();
+
+        LocalDate salesDate = order.getOrderDate().toLocalDate();
+        Map<Long, long[]> byItem = new LinkedHashMap<>();
+        for (OrderItem orderItem : order.getOrderItems()) {
+            long[] sum = byItem.computeIfAbsent(orderItem.getItem().getId(), id -> new long[2]);
+            sum[0] += (long) orderItem.getOrderPrice() * orderItem.getCount();
+            sum[1] += orderItem.getCount();
+        }
+
+        byItem.forEach((itemId, sum) -> dailySalesRepository.add(
+                new DailySalesId(salesDate, itemId, status), sign * sum[0], sign * sum[1]));
+    }
+
+    /**
+     * 기간 [from, to) 를 chunkDays씩 나눠서, chunk마다 트랜잭션을 따로 커밋한다.
+     * => 한 트랜잭션이 몇 년치 집계 행을 잠그거나, undo 로그를 쌓지 않도록
+     *
+     * 기본 기간은 첫 주문일 ~ 어제이다.
+     * => 오늘 주문은 증분 갱신이 계속 일어나므로, 지웠다가 다시 만드는 사이에 끼어들지 않도록 제외한다.
+     */
+    public RebuildResult rebuild(LocalDate from, LocalDate to) {
+        if (from == null) {
+            LocalDateTime firstOrderDate = transactionTemplate.execute(status -> dailySalesRepository.findFirstOrderDate());
+            from = firstOrderDate == null ? LocalDate.now() : firstOrderDate.toLocalDate();
+        }
+        if (to == null) {
+            to = LocalDate.now();
+        }
+
+        long start = System.nanoTime();
+        int chunks = 0;
+        int rows = 0;
+        for (LocalDate chunkFrom = from; chunkFrom.isBefore(to); chunkFrom = chunkFrom.plusDays(chunkDays)) {
+            LocalDate chunkTo = chunkFrom.plusDays(chunkDays).isBefore(to) ? chunkFrom.plusDays(chunkDays) : to;
+            LocalDate begin = chunkFrom;
+            Integer inserted = transactionTemplate.execute(status -> dailySalesRepository.rebuild(begin, chunkTo));
+            rows += inserted == null ? 0 : inserted;
+            chunks++;
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("daily sales rebuild from={} to={} chunks={} rows={} elapsed={}ms", from, to, chunks, rows, elapsedMillis);
+        return new RebuildResult(from, to, chunks, rows, elapsedMillis);
+    }
+
+    @Getter
+    public static class RebuildResult {
+
+        private final LocalDate from;
+        private final LocalDate to;
+        private final int chunks;
+        private final int rows;
+        private final long elapsedMillis;
+
+        RebuildResult(LocalDate from, LocalDate to, int chunks, int rows, long elapsedMillis) {
+            this.from = from;
+            this.to = to;
+            this.chunks = chunks;
+            this.rows = rows;
+            this.elapsedMillis = elapsedMillis;
+        }
+    }
+}
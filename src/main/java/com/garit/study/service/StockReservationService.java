@@ -0,0 +1,88 @@
+package com.garit.study.service;
+
+import com.garit.study.cache.MemberSnapshotCache;
+import com.garit.study.domain.StockReservation;
+import com.garit.study.domain.item.Item;
+import com.garit.study.repository.ItemRepository;
+import com.garit.study.repository.StockReservationRepository;
+import com.garit.study.reservation.ReservationExpiryEngine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.NoSuchElementException;
+
+/**
+ * 재고 예약 (장바구니, 결제 대기)
+ * => 예약하면 재고를 바로 빼두고, ttl 안에 OrderService.orderReservation으로 확정하지 않으면 ReservationExpiryEngine이 돌려준다.
+ * => ttl은 1초 ~ reservation.max-ttl-seconds (기본 900, 최대 MAX_TTL_SECONDS)
+ */
+@Service
+@Transactional(readOnly = true)
+public class StockReservationService {
+
+    public static final long MAX_TTL_SECONDS = 3600;
+
+    private final StockReservationRepository stockReservationRepository;
+    private final ItemRepository itemRepository;
+    private final MemberSnapshotCache memberSnapshotCache;
+    private final ReservationExpiryEngine reservationExpiryEngine;
+    private final long maxTtlSeconds;
+
+    public StockReservationService(StockReservationRepository stockReservationRepository,
+                                   ItemRepository itemRepository,
+                                   MemberSnapshotCache memberSnapshotCache,
+                                   ReservationExpiryEngine reservationExpiryEngine,
+                                   @Value("${reservation.max-ttl-seconds:900}") long maxTtlSeconds) {
+        this.stockReservationRepository = stockReservationRepository;
+        this.itemRepository = itemRepository;
+        this.memberSnapshotCache = memberSnapshotCache;
+        this.reservationExpiryEngine = reservationExpiryEngine;
+        this.maxTtlSeconds = Math.min(maxTtlSeconds, MAX_TTL_SECONDS);
+    }
+
+    /**
+     * 재고가 부족하면 NotEnoughStockException, 없는 회원, 상품이면 NoSuchElementException
+     * => 상품을 select ... for update로 읽는다. (만료, 주문의 재고 변경과 lost update X)
+     * => 만료 타이머는 커밋된 뒤에 등록한다.
+     *    커밋 전에 등록하면, 커밋이 늦어지는 동안 만료 tick이 예약을 못 찾고 타이머를 버린다. => 커밋된 예약이 만료되지 않는다.
+     *    롤백되면 등록하지 않는다. (휠에 없는 예약 id가 쌓이지 않는다)
+     */
+    @Transactional
+    public StockReservation reserve(Long memberId, Long itemId, int count, long ttlSeconds) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("예약 수량은 1 이상이어야 합니다.");
+        }
+        if (ttlSeconds <= 0 || ttlSeconds > maxTtlSeconds) {
+            throw new IllegalArgumentException("예약 시간은 1 ~ " + maxTtlSeconds + "초여야 합니다.");
+        }
+        memberSnapshotCache.get(memberId);      // 없는 회원이면 NoSuchElementException
+
+        Item item = itemRepository.findOneForUpdate(itemId);
+        if (item == null) {
+            throw new NoSuchElementException("존재하지 않는 상품입니다. (" + itemId + ")");
+        }
+        item.removeStock(count);
+
+        StockReservation reservation = StockReservation.hold(memberId, itemId, count,
+                LocalDateTime.now().plusSeconds(ttlSeconds));
+        stockReservationRepository.save(reservation);
+
+        Long reservationId = reservation.getId();
+        LocalDateTime expiresAt = reservation.getExpiresAt();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reservationExpiryEngine.schedule(reservationId, expiresAt);
+            }
+        });
+        return reservation;
+    }
+
+    public StockReservation findOne(Long reservationId) {
+        return stockReservationRepository.findOne(reservationId);
+    }
+}
@@ -0,0 +1,93 @@
+package com.garit.study.stock;
+
+import com.garit.study.stock.StockThresholdEvent.Direction;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 재고 임계치 감시 (프로세스 안)
+ * => StockLevelListener가 넘겨준 재고 변경(전, 후)만 보고 임계치를 넘었는지 판단한다. => 상품 테이블을 주기적으로 조회하지 않는다.
+ * => 넘었으면 StockThresholdEvent를 발행하고, 커밋된 뒤에 로그(warn), 메트릭, 최근 알림 목록에 남긴다.
+ *
+ * [임계치] low-stock.threshold (기본 10) => 재고가 이 값 미만이면 재고 부족
+ * [최근 알림] low-stock.recent-alerts (기본 100) => 넘으면 오래된 알림부터 버린다.
+ * [메트릭] stock.threshold.crossings{direction=BELOW|RECOVERED}
+ *
+ * 이 빈은 엔티티 리스너에 주입된다. => JPA 빈(EntityManager, Repository)에 의존하면 안 된다. (EntityManagerFactory 생성 중 순환 참조)
+ */
+@Slf4j
+@Component
+public class LowStockMonitor {
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final int threshold;
+    private final int maxRecentAlerts;
+    private final ArrayDeque<StockThresholdEvent> recentAlerts = new ArrayDeque<>();
+
+    private final Counter below;
+    private final Counter recovered;
+
+    public LowStockMonitor(ApplicationEventPublisher eventPublisher,
+                           @Value("${low-stock.threshold:10}") int threshold,
+                           @Value("${low-stock.recent-alerts:100}") int maxRecentAlerts,
+                           MeterRegistry meterRegistry) {
+        this.eventPublisher = eventPublisher;
+        this.threshold = threshold;
+        this.maxRecentAlerts = maxRecentAlerts;
+        this.below = meterRegistry.counter("stock.threshold.crossings", "direction", Direction.BELOW.name());
+        this.recovered = meterRegistry.counter("stock.threshold.crossings", "direction", Direction.RECOVERED.name());
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * 임계치를 넘은 경우에만 이벤트를 발행한다. (부족한 상태에서 더 줄어드는 건 알림 X)
+     */
+    public void stockChanged(Long itemId, String itemName, int before, int after) {
+        if (before >= threshold && after < threshold) {
+            eventPublisher.publishEvent(new StockThresholdEvent(itemId, itemName, before, after, threshold, Direction.BELOW));
+        } else if (before < threshold && after >= threshold) {
+            eventPublisher.publishEvent(new StockThresholdEvent(itemId, itemName, before, after, threshold, Direction.RECOVERED));
+        }
+    }
+
+    @TransactionalEventListener
+    public void onStockThreshold(StockThresholdEvent event) {
+        if (event.getDirection() == Direction.BELOW) {
+            below.increment();
+            log.warn("low stock itemId={} name={} stock={} -> {} threshold={}",
+                    event.getItemId(), event.getItemName(), event.getBefore(), event.getAfter(), event.getThreshold());
+        } else {
+            recovered.increment();
+            log.info("stock recovered itemId={} name={} stock={} -> {} threshold={}",
+                    event.getItemId(), event.getItemName(), event.getBefore(), event.getAfter(), event.getThreshold());
+        }
+
+        synchronized (recentAlerts) {
+            recentAlerts.addFirst(event);
+            if (recentAlerts.size() > maxRecentAlerts) {
+                recentAlerts.removeLast();
+            }
+        }
+    }
+
+    /**
+     * 최근 알림 (최신 순)
+     */
+    public List<StockThresholdEvent> recentAlerts() {
+        synchronized (recentAlerts) {
+            return new ArrayList<>(recentAlerts);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.garit.study.stock;
+
+import com.garit.study.repository.LowStockItemDto;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 재고 부족 리포트 한 페이지
+ * => totalCount : threshold 미만인 상품 전체 수
+ */
+@Getter
+public class LowStockReport {
+
+    private final int threshold;
+    private final long totalCount;
+    private final int offset;
+    private final int limit;
+    private final List<LowStockItemDto> items;
+
+    LowStockReport(int threshold, long totalCount, int offset, int limit, List<LowStockItemDto> items) {
+        this.threshold = threshold;
+        this.totalCount = totalCount;
+        this.offset = offset;
+        this.limit = limit;
+        this.items = items;
+    }
+}
@@ -0,0 +1,33 @@
+package com.garit.study.stock;
+
+import com.garit.study.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 재고 부족 리포트
+ * => threshold를 넘기지 않으면 LowStockMonitor와 같은 임계치(low-stock.threshold)를 쓴다.
+ * => 한 페이지는 최대 MAX_LIMIT건
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class LowStockService {
+
+    static final int MAX_LIMIT = 1000;
+
+    private final ItemRepository itemRepository;
+    private final LowStockMonitor lowStockMonitor;
+
+    public LowStockReport report(Integer threshold, int offset, int limit) {
+        int effectiveThreshold = threshold == null ? lowStockMonitor.getThreshold() : threshold;
+        int effectiveOffset = Math.max(offset, 0);
+        int effectiveLimit = Math.min(Math.max(limit, 1), MAX_LIMIT);
+        return new LowStockReport(effectiveThreshold,
+                itemRepository.countLowStock(effectiveThreshold),
+                effectiveOffset,
+                effectiveLimit,
+                itemRepository.findLowStock(effectiveThreshold, effectiveOffset, effectiveLimit));
+    }
+}
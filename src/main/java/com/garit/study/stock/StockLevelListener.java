@@ -0,0 +1,38 @@
+package com.garit.study.stock;
+
+import com.garit.study.domain.item.Item;
+
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.PostUpdate;
+
+/**
+ * Item 엔티티 리스너 => 재고가 바뀐 채로 update 되면 LowStockMonitor에 알린다.
+ * => Item.removeStock(주문), addStock(취소), 상품 수정 화면 모두 flush 시점에 한번 검사한다. (테이블 polling X)
+ * => JDBC로 직접 바꾸는 경로(ItemImportJob)는 엔티티를 거치지 않으므로 알림이 없다.
+ *
+ * 스프링 부트가 하이버네이트에 SpringBeanContainer를 등록하므로, 생성자 주입을 받을 수 있다.
+ */
+public class StockLevelListener {
+
+    private final LowStockMonitor lowStockMonitor;
+
+    public StockLevelListener(LowStockMonitor lowStockMonitor) {
+        this.lowStockMonitor = lowStockMonitor;
+    }
+
+    @PostLoad
+    @PostPersist
+    public void synced(Item item) {
+        item.markStockSynced();
+    }
+
+    @PostUpdate
+    public void updated(Item item) {
+        int before = item.syncedStockQuantity();
+        item.markStockSynced();
+        if (before != item.getStockQuantity()) {
+            lowStockMonitor.stockChanged(item.getId(), item.getName(), before, item.getStockQuantity());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.garit.study.stock;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 재고가 임계치를 넘은 이벤트
+ * => BELOW : 임계치 이상 => 미만 (재고 부족), RECOVERED : 미만 => 이상 (입고, 주문 취소)
+ * => 트랜잭션 안(flush)에서 발행하고, 커밋된 뒤에 알림으로 남긴다. (롤백된 주문은 알림 X)
+ */
+@Getter
+public class StockThresholdEvent {
+
+    public enum Direction {
+        BELOW, RECOVERED
+    }
+
+    private final Long itemId;
+    private final String itemName;
+    private final int before;
+    private final int after;
+    private final int threshold;
+    private final Direction direction;
+    private final LocalDateTime occurredAt;
+
+    public StockThresholdEvent(Long itemId, String itemName, int before, int after, int threshold, Direction direction) {
+        this.itemId = itemId;
+        this.itemName = itemName;
+        this.before = before;
+        this.after = after;
+        this.threshold = threshold;
+        this.direction = direction;
+        this.occurredAt = LocalDateTime.now();
+    }
+}
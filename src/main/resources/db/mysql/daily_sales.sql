@@ -0,0 +1,16 @@
+-- 일별 매출 집계 테이블 (DailySales, SalesRollupService, DailySalesRepository)
+-- dev / prod 는 ddl-auto를 쓰지 않으므로 배포 전에 직접 실행한다.
+-- 주문, 취소가 같은 트랜잭션에서 이 테이블을 갱신한다. => 테이블이 없으면 주문이 실패한다.
+-- PK (sales_date, item_id, status) : 주문 시점의 update ... where 주문일, 상품, 상태 => 행 1개
+-- idx_daily_sales_date_status : 매출 조회(기간 + 상태)가 인덱스 범위만 읽는다.
+-- 기존 주문의 집계는 배포 후 관리자 API(POST /api/admin/sales-rollup/rebuild)로 원본 주문에서 다시 계산한다.
+CREATE TABLE daily_sales (
+    sales_date DATE        NOT NULL,
+    item_id    BIGINT      NOT NULL,
+    status     VARCHAR(10) NOT NULL,
+    revenue    BIGINT      NOT NULL,
+    units      BIGINT      NOT NULL,
+    PRIMARY KEY (sales_date, item_id, status)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_daily_sales_date_status ON daily_sales (sales_date, status);
@@ -0,0 +1,15 @@
+-- 배송 완료 배치 (DeliveryCompletionJob) => 체크포인트 테이블, 배송 상태 인덱스
+-- dev / prod 는 ddl-auto를 쓰지 않으므로 배포 전에 직접 실행한다.
+-- batch_checkpoint : 배치별 마지막으로 커밋한 id. 실패하면 다음 실행이 여기서부터 이어서 처리한다.
+-- => 첫 실행에 배치가 행을 만든다. (PK job_name => 서버 여러 대가 동시에 만들어도 한 행만 남는다)
+CREATE TABLE batch_checkpoint (
+    job_name   VARCHAR(100) NOT NULL,
+    last_id    BIGINT       NOT NULL,
+    processed  BIGINT       NOT NULL,
+    updated_at DATETIME(6)  NULL,
+    PRIMARY KEY (job_name)
+) ENGINE = InnoDB;
+
+-- idx_delivery_status : READY 배송만 id 순서로 훑는다. (status = ? and delivery_id > ? order by delivery_id)
+-- => 인덱스가 없으면 청크마다 배송 테이블 전체를 읽는다.
+CREATE INDEX idx_delivery_status ON delivery (status, delivery_id);
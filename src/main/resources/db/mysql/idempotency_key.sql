@@ -0,0 +1,19 @@
+-- 주문 요청 중복 방지 키 테이블 (IdempotencyKey, IdempotentOrderService, IdempotencyKeyCleanupJob)
+-- dev / prod 는 ddl-auto를 쓰지 않으므로 배포 전에 직접 실행한다.
+-- 테이블이 없으면 Idempotency-Key 주문과 매시간 도는 삭제 배치가 모두 실패한다.
+-- PK (idempotency_key) : 서버가 여러 대여도 같은 키로 주문이 두번 커밋되지 않는다.
+-- idx_idempotency_key_created_at : 삭제 배치가 보관 기간(idempotency.ttl-hours)이 지난 키를 오래된 순서로 읽는다.
+CREATE TABLE idempotency_key (
+    idempotency_key VARCHAR(100) NOT NULL,
+    order_id        BIGINT       NULL,
+    request_hash    VARCHAR(44)  NULL,
+    created_at      DATETIME(6)  NULL,
+    PRIMARY KEY (idempotency_key)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_idempotency_key_created_at ON idempotency_key (created_at);
+
+-- request_hash 컬럼이 없는 예전 테이블을 직접 만들어 둔 경우에는 CREATE TABLE 대신 아래만 실행한다.
+-- => 기존 키는 request_hash가 null => 같은 요청으로 보고, 보관 기간이 지나면 삭제 배치가 지운다.
+-- ALTER TABLE idempotency_key ADD COLUMN request_hash VARCHAR(44) NULL;
+-- CREATE INDEX idx_idempotency_key_created_at ON idempotency_key (created_at);
@@ -0,0 +1,5 @@
+-- 재고 부족 리포트용 인덱스 (Item, ItemRepository.findLowStock)
+-- dev / prod 는 ddl-auto를 쓰지 않으므로 배포 전에 직접 실행한다.
+-- 인덱스가 없으면 리포트가 상품 테이블 전체를 읽고 정렬한다. => stock_quantity < ? order by stock_quantity, item_id
+-- InnoDB는 인덱스를 온라인으로 만든다. (만드는 동안 주문의 재고 update를 막지 않는다)
+CREATE INDEX idx_item_stock_quantity ON item (stock_quantity, item_id);
@@ -0,0 +1,36 @@
+-- 주문 보관 테이블 (OrderArchive, OrderItemArchive, OrderArchiveJob, GET /api/v5/orders?includeArchived=true)
+-- dev / prod 는 ddl-auto를 쓰지 않으므로 배포 전에 직접 실행한다.
+-- 보관 테이블에는 FK를 두지 않는다. => 보관 뒤에 회원, 상품이 지워져도 보관 주문은 남는다.
+CREATE TABLE orders_archive (
+    order_id        BIGINT       NOT NULL,
+    member_id       BIGINT       NULL,
+    order_date      DATETIME(6)  NULL,
+    status          VARCHAR(255) NULL,
+    total_price     INT          NOT NULL,
+    delivery_id     BIGINT       NULL,
+    delivery_status VARCHAR(255) NULL,
+    city            VARCHAR(255) NULL,
+    street          VARCHAR(255) NULL,
+    zipcode         VARCHAR(255) NULL,
+    archived_at     DATETIME(6)  NULL,
+    PRIMARY KEY (order_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE order_item_archive (
+    order_item_id BIGINT NOT NULL,
+    order_id      BIGINT NULL,
+    item_id       BIGINT NULL,
+    order_price   INT    NOT NULL,
+    count         INT    NOT NULL,
+    PRIMARY KEY (order_item_id)
+) ENGINE = InnoDB;
+
+-- 보관 주문의 주문상품을 order_id IN (...)으로 한번에 읽는다.
+CREATE INDEX idx_order_item_archive_order ON order_item_archive (order_id);
+
+-- V5 조회의 memberId, 주문일 from ~ to 조건 (보관 테이블)
+CREATE INDEX idx_orders_archive_member ON orders_archive (member_id);
+CREATE INDEX idx_orders_archive_order_date ON orders_archive (order_date);
+
+-- 운영 테이블 : 보관 배치가 order_date로 오래된 주문을 고르고, V5 조회도 같은 주문일 범위로 좁힌다.
+CREATE INDEX idx_orders_order_date ON orders (order_date);
@@ -0,0 +1,8 @@
+-- 전체 주문 가격 컬럼, 금액 검색 / 정렬용 인덱스 (Order.totalPrice)
+-- dev / prod 는 ddl-auto를 쓰지 않으므로 배포 전에 직접 실행한다.
+-- 엔티티 필드가 int라서 null이 들어있으면 주문 로딩이 실패한다. => NOT NULL DEFAULT 0으로 추가한다.
+-- 기존 주문은 0으로 채워지므로, 배포 후 관리자 API(POST /api/admin/orders/total-price/backfill)로 다시 계산한다.
+ALTER TABLE orders
+    ADD COLUMN total_price INT NOT NULL DEFAULT 0;
+
+CREATE INDEX idx_orders_total_price ON orders (total_price);
@@ -0,0 +1,17 @@
+-- 재고 예약 테이블 (StockReservation, StockReservationService, ReservationExpiryEngine)
+-- dev / prod 는 ddl-auto를 쓰지 않으므로 배포 전에 직접 실행한다.
+-- status : HELD(재고를 잡아둔 상태), CONFIRMED(주문으로 확정), EXPIRED(만료 => 재고 반환)
+-- idx_stock_reservation_status : 기동할 때마다 HELD 예약만 id 순서로 읽어서 만료 타이머에 다시 등록한다.
+-- => 인덱스가 없으면 기동할 때마다 예약 테이블 전체를 읽는다. (확정, 만료된 예약은 계속 쌓인다)
+CREATE TABLE stock_reservation (
+    reservation_id BIGINT       NOT NULL,
+    member_id      BIGINT       NULL,
+    item_id        BIGINT       NULL,
+    quantity       INT          NOT NULL,
+    status         VARCHAR(255) NULL,
+    expires_at     DATETIME(6)  NULL,
+    order_id       BIGINT       NULL,
+    PRIMARY KEY (reservation_id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_stock_reservation_status ON stock_reservation (status, reservation_id);
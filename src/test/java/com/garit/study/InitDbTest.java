@@ -0,0 +1,74 @@
+package com.garit.study;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 샘플 데이터를 넣는 중에도 readiness는 이미 ACCEPTING_TRAFFIC이어야 한다.
+ * => 데이터 넣기(InitService)를 막아두고 기동이 끝나는지 확인한다. (동기로 넣으면 컨텍스트 기동이 release를 기다리다가 늦게 끝난다)
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:init-db", "test.seed.await=false"})
+class InitDbTest {
+
+    static final CountDownLatch release = new CountDownLatch(1);
+
+    /**
+     * 첫번째 샘플 데이터를 넣기 전에 release를 기다린다.
+     */
+    @TestConfiguration
+    static class BlockingSeedConfig {
+
+        @Bean
+        @Primary
+        InitDb.InitService blockingInitService(EntityManager em) {
+            return new InitDb.InitService(em) {
+                @Override
+                public void dbInit1() {
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    super.dbInit1();
+                }
+            };
+        }
+    }
+
+    @Autowired
+    InitDb initDb;
+
+    @Autowired
+    ApplicationAvailability availability;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+    }
+
+    @Test
+    public void readiness를_먼저_알리고_샘플_데이터는_별도_스레드에서_넣는다() throws Exception {
+        assertThat(availability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+        assertThat(initDb.seeded()).as("샘플 데이터는 아직 넣는 중").isNotDone();
+
+        //when
+        release.countDown();
+
+        //then
+        initDb.seeded().get(10, TimeUnit.SECONDS);
+    }
+}
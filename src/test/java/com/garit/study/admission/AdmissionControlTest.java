@@ -0,0 +1,78 @@
+package com.garit.study.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    public void 추적하는_회원_수는_최대치를_넘지_않는다() throws Exception {
+        //given
+        AdmissionControl admissionControl = new AdmissionControl(1, 1, 1_000_000, 1_000_000, 64,
+                new SimpleMeterRegistry());
+
+        long now = System.nanoTime();
+
+        //when
+        for (long memberId = 1; memberId <= 10_000; memberId++) {
+            admissionControl.tryAdmit(memberId, now);
+        }
+        long recent = admissionControl.tryAdmit(10_000L, now);
+
+        //then
+        assertThat(admissionControl.trackedMembers()).isLessThanOrEqualTo(64);
+        assertThat(recent)
+                .as("가장 최근에 요청한 회원의 버킷은 남아있어서 한도가 그대로 적용된다.")
+                .isEqualTo(SECOND);
+    }
+
+    @Test
+    public void 최대치를_넘으면_가득_찬_버킷부터_지운다() throws Exception {
+        //given
+        // 회원 : 초당 1개, 버스트 1 => 1초가 지나면 다시 가득 찬다.
+        AdmissionControl admissionControl = new AdmissionControl(1, 1, 1_000_000, 1_000_000, 4,
+                new SimpleMeterRegistry());
+        long now = System.nanoTime();
+        for (long memberId = 1; memberId <= 4; memberId++) {
+            admissionControl.tryAdmit(memberId, now);
+        }
+        long later = now + 2 * SECOND;
+        assertThat(admissionControl.tryAdmit(4L, later)).isZero();
+
+        //when
+        admissionControl.tryAdmit(5L, later);
+
+        //then
+        assertThat(admissionControl.trackedMembers())
+                .as("가득 찬 1 ~ 3번 회원의 버킷만 지운다.")
+                .isEqualTo(2);
+        assertThat(admissionControl.tryAdmit(4L, later))
+                .as("토큰을 쓴 4번 회원의 버킷은 남아있어서 한도가 그대로 적용된다.")
+                .isEqualTo(SECOND);
+    }
+
+    @Test
+    public void 전체_한도에_걸리면_회원_토큰을_돌려준다() throws Exception {
+        //given
+        // 회원 : 100초에 1개, 버스트 2 => 테스트 중에는 다시 채워지지 않는다.
+        // 전체 : 초당 1개, 버스트 1
+        AdmissionControl admissionControl = new AdmissionControl(0.01, 2, 1, 1, 100,
+                new SimpleMeterRegistry());
+        long now = System.nanoTime();
+        assertThat(admissionControl.tryAdmit(1L, now)).isZero();
+
+        //when
+        long rejectedByGlobal = admissionControl.tryAdmit(1L, now);
+        long afterGlobalRefill = admissionControl.tryAdmit(1L, now + SECOND);
+
+        //then
+        assertThat(rejectedByGlobal).isPositive();
+        assertThat(afterGlobalRefill)
+                .as("전체 한도에 걸린 요청이 회원 토큰을 쓰지 않았으므로, 회원 버킷에 토큰 1개가 남아있다.")
+                .isZero();
+    }
+}
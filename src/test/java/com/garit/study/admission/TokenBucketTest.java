@@ -0,0 +1,47 @@
+package com.garit.study.admission;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    public void 버스트_만큼_허용후_거절() throws Exception {
+        //given
+        long now = 0;
+        TokenBucket bucket = new TokenBucket(1, 3, now);
+
+        //when
+        long first = bucket.tryAcquire(now);
+        long second = bucket.tryAcquire(now);
+        long third = bucket.tryAcquire(now);
+        long fourth = bucket.tryAcquire(now);
+
+        //then
+        assertThat(first).isZero();
+        assertThat(second).isZero();
+        assertThat(third).isZero();
+        assertThat(fourth)
+                .isEqualTo(SECOND)
+                .as("토큰 1개가 다시 생길 때까지 1초 기다려야 한다.");
+    }
+
+    @Test
+    public void 시간이_지나면_토큰이_다시_생긴다() throws Exception {
+        //given
+        TokenBucket bucket = new TokenBucket(2, 1, 0);
+        bucket.tryAcquire(0);
+
+        //when
+        long tooEarly = bucket.tryAcquire(SECOND / 4);
+        long onTime = bucket.tryAcquire(SECOND / 2);
+
+        //then
+        assertThat(tooEarly).isEqualTo(SECOND / 4);
+        assertThat(onTime).isZero();
+        assertThat(bucket.isFull(SECOND)).isTrue();
+    }
+}
@@ -0,0 +1,96 @@
+package com.garit.study.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.garit.study.domain.Address;
+import com.garit.study.domain.Member;
+import com.garit.study.domain.item.Book;
+import com.garit.study.service.ItemService;
+import com.garit.study.service.MemberService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ReservationApiControllerTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    ItemService itemService;
+
+    @Test
+    public void 수량이나_예약_시간이_범위_밖이면_400() throws Exception {
+        String[] bodies = {
+                "{\"memberId\":1,\"itemId\":1,\"count\":0}",
+                "{\"memberId\":1,\"itemId\":1,\"count\":-3}",
+                "{\"memberId\":1,\"itemId\":1,\"ttlSeconds\":0}",
+                "{\"memberId\":1,\"itemId\":1,\"ttlSeconds\":86400}",
+                "{\"memberId\":1,\"itemId\":1,\"ttlSeconds\":1000}"     // reservation.max-ttl-seconds(900) 초과 => 서비스에서 거절
+        };
+        for (String body : bodies) {
+            mvc.perform(post("/api/reservations")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Test
+    public void 예약_확정_응답_코드() throws Exception {
+        //given
+        Member member = new Member();
+        member.setName("API 예약회원");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        Long memberId = memberService.join(member);
+
+        Book book = new Book();
+        book.setName("API 예약 책");
+        book.setPrice(10000);
+        book.setStockQuantity(5);
+        itemService.saveItem(book);
+
+        //when, then
+        String body = mvc.perform(reserve(memberId, book.getId(), 2))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("HELD"))
+                .andReturn().getResponse().getContentAsString();
+        long reservationId = objectMapper.readTree(body).get("reservationId").asLong();
+
+        mvc.perform(post("/api/reservations/{id}/confirm", reservationId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CONFIRMED"));
+        mvc.perform(post("/api/reservations/{id}/confirm", reservationId))
+                .andExpect(status().isConflict());     // 이미 확정한 예약
+        mvc.perform(post("/api/reservations/{id}/confirm", 999_999))
+                .andExpect(status().isNotFound());
+
+        mvc.perform(reserve(memberId, book.getId(), 4))
+                .andExpect(status().isConflict());     // 재고 부족 (남은 재고 3)
+        mvc.perform(reserve(999_999L, book.getId(), 1))
+                .andExpect(status().isNotFound());
+        mvc.perform(reserve(memberId, 999_999L, 1))
+                .andExpect(status().isNotFound());
+    }
+
+    private MockHttpServletRequestBuilder reserve(Long memberId, Long itemId, int count) {
+        return post("/api/reservations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"memberId\":" + memberId + ",\"itemId\":" + itemId + ",\"count\":" + count + "}");
+    }
+}
@@ -0,0 +1,63 @@
+package com.garit.study.api.json;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.hibernate5.Hibernate5Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.garit.study.domain.Address;
+import com.garit.study.domain.OrderStatus;
+import com.garit.study.repository.order.query.OrderItemQueryDto;
+import com.garit.study.repository.order.query.OrderQueryDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * OrderQueryJsonModule을 등록해도 응답 바이트가 기본 databind 방식과 같아야 한다.
+ * => 두 mapper 모두 스프링 부트와 같은 구성으로 만든다. (JavaTimeModule, Hibernate5Module, WRITE_DATES_AS_TIMESTAMPS 끔)
+ */
+class OrderQueryJsonModuleTest {
+
+    @Test
+    public void 기본_databind와_같은_바이트를_쓴다() throws Exception {
+        //given
+        ObjectMapper databind = mapper(new JavaTimeModule(), new Hibernate5Module());
+        ObjectMapper streaming = mapper(new JavaTimeModule(), new Hibernate5Module(), new OrderQueryJsonModule());
+
+        List<OrderItemQueryDto> orderItems = List.of(
+                new OrderItemQueryDto(1L, "JPA1 BOOK", 10000, 1),
+                new OrderItemQueryDto(1L, "\"따옴표\" \\ 이스케이프\n", 20000, 2),
+                new OrderItemQueryDto(1L, null, 0, 0));
+
+        List<OrderQueryDto> payload = new ArrayList<>();
+        payload.add(new OrderQueryDto(1L, "userA", LocalDateTime.of(2024, 1, 2, 3, 4, 5),
+                OrderStatus.ORDER, new Address("서울", "1", "1111"), orderItems));
+        payload.add(new OrderQueryDto(2L, "userB", LocalDateTime.of(2024, 12, 31, 23, 59, 59, 120_000_000),
+                OrderStatus.CANCEL, new Address("진주", null, "2222"), new ArrayList<>()));
+        payload.add(new OrderQueryDto(3L, "userC", LocalDateTime.of(999, 1, 1, 0, 0, 0, 1),
+                OrderStatus.ORDER, null));     // orderItems == null
+        payload.add(new OrderQueryDto(null, null, null, null, null, null));
+
+        //when
+        byte[] expected = databind.writeValueAsBytes(payload);
+        byte[] actual = streaming.writeValueAsBytes(payload);
+
+        //then
+        assertThat(new String(actual, StandardCharsets.UTF_8)).isEqualTo(new String(expected, StandardCharsets.UTF_8));
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    private ObjectMapper mapper(Module... modules) {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .modulesToInstall(modules)
+                .build();
+    }
+}
@@ -0,0 +1,80 @@
+package com.garit.study.api.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Accept 헤더로 JSON / Smile 응답을 고른다.
+ * => 시간대를 서버 기본값과 다르게 줘서, epoch millis가 설정한 시간대로 변환되는지 확인한다.
+ */
+@SpringBootTest(properties = "order-query.smile.time-zone=America/New_York")
+@AutoConfigureMockMvc
+class OrderQuerySmileNegotiationTest {
+
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    @Autowired
+    MockMvc mvc;
+
+    @Test
+    public void Accept_헤더에_따라_JSON_또는_Smile로_응답() throws Exception {
+        //when
+        MvcResult json = perform("/api/v5/orders", MediaType.APPLICATION_JSON_VALUE);
+        MvcResult browser = perform("/api/v5/orders", "text/html,application/xml;q=0.9,*/*;q=0.8");
+        MvcResult smile = perform("/api/v5/orders", SMILE.toString());
+
+        //then
+        assertThat(MediaType.valueOf(json.getResponse().getContentType()).isCompatibleWith(MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(MediaType.valueOf(browser.getResponse().getContentType()).isCompatibleWith(MediaType.APPLICATION_JSON))
+                .as("모든 타입을 허용하면 지금처럼 JSON")
+                .isTrue();
+        assertThat(MediaType.valueOf(smile.getResponse().getContentType()).isCompatibleWith(SMILE)).isTrue();
+
+        JsonNode jsonTree = new ObjectMapper().readTree(json.getResponse().getContentAsByteArray());
+        JsonNode smileTree = new ObjectMapper(new SmileFactory()).readTree(smile.getResponse().getContentAsByteArray());
+        assertThat(jsonTree.size()).as("InitDb 샘플 주문").isPositive();
+        assertThat(smileTree.size()).isEqualTo(jsonTree.size());
+        for (int i = 0; i < jsonTree.size(); i++) {
+            JsonNode expected = jsonTree.get(i);
+            JsonNode actual = smileTree.get(i);
+            long epochMillis = LocalDateTime.parse(expected.get("orderDate").asText())
+                    .atZone(ZoneId.of("America/New_York")).toInstant().toEpochMilli();
+            assertThat(actual.get("orderDate").asLong()).isEqualTo(epochMillis);
+            assertThat(actual.get("orderId")).isEqualTo(expected.get("orderId"));
+            assertThat(actual.get("orderItems")).isEqualTo(expected.get("orderItems"));
+        }
+    }
+
+    @Test
+    public void 엔티티를_반환하는_API는_Smile로_응답하지_않는다() throws Exception {
+        //when
+        MvcResult result = perform("/api/v2/orders", SMILE.toString());
+
+        //then
+        assertThat(result.getResponse().getStatus()).isEqualTo(406);
+    }
+
+    private MvcResult perform(String url, String accept) throws Exception {
+        MvcResult result = mvc.perform(get(url).header(HttpHeaders.ACCEPT, accept)).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mvc.perform(asyncDispatch(result)).andReturn();
+        }
+        return result;
+    }
+}
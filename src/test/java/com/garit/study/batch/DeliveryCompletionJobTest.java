@@ -0,0 +1,214 @@
+package com.garit.study.batch;
+
+import com.garit.study.domain.DeliveryStatus;
+import com.garit.study.domain.Member;
+import com.garit.study.domain.Order;
+import com.garit.study.domain.item.Book;
+import com.garit.study.fixture.TestFixture;
+import com.garit.study.repository.BatchCheckpointRepository;
+import com.garit.study.repository.DeliveryRepository;
+import com.garit.study.repository.OrderRepository;
+import com.garit.study.service.OrderService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @Transactional 없이 실행한다. => 청크마다 실제로 커밋되고, 실패하면 커밋된 체크포인트에서 다시 시작하는지 확인
+ * => 별도 DB를 쓰고, 테스트마다 만든 주문과 체크포인트를 지운다.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:delivery-completion")
+class DeliveryCompletionJobTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TestFixture fixture;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    DeliveryRepository deliveryRepository;
+
+    @Autowired
+    BatchCheckpointRepository checkpointRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate transactionTemplate;
+    Member member;
+    Book book;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        member = fixture.createMember();
+        book = fixture.createBook("시골 JPA", 10000, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixture.deleteOrders(member, book);
+        transactionTemplate.executeWithoutResult(status ->
+                em.createQuery("delete from BatchCheckpoint").executeUpdate());
+    }
+
+    @Test
+    public void 청크_단위로_배송완료_처리() throws Exception {
+        //given
+        Long first = createOldOrder();
+        Long second = createOldOrder();
+        Long canceled = createOldOrder();
+        orderService.cancelOrder(canceled);
+        Long recent = orderService.order(member.getId(), book.getId(), 1);
+
+        // 청크 크기 1 => 청크가 여러번 실행된다.
+        DeliveryCompletionJob job = createJob(deliveryRepository);
+
+        //when
+        DeliveryCompletionJob.JobReport report = job.run();
+
+        //then
+        assertThat(report.getProcessed()).isEqualTo(2);
+        assertThat(deliveryStatus(first)).isEqualTo(DeliveryStatus.COMP);
+        assertThat(deliveryStatus(second)).isEqualTo(DeliveryStatus.COMP);
+        assertThat(deliveryStatus(canceled))
+                .isEqualTo(DeliveryStatus.READY)
+                .as("취소된 주문은 배송 완료하지 않는다.");
+        assertThat(deliveryStatus(recent))
+                .isEqualTo(DeliveryStatus.READY)
+                .as("주문한지 ship-after-minutes가 지나지 않은 배송은 다음 실행에서 처리한다.");
+        assertThat(checkpointRepository.findOne(DeliveryCompletionJob.JOB_NAME).getLastId())
+                .isZero()
+                .as("끝까지 처리하면 체크포인트를 처음으로 되돌린다.");
+    }
+
+    @Test
+    public void 중간에_실패하면_커밋된_청크_다음부터_이어서_처리() throws Exception {
+        //given
+        Long first = createOldOrder();
+        Long second = createOldOrder();
+        Long third = createOldOrder();
+
+        // 두번째 청크에서 실패한다.
+        DeliveryCompletionJob failing = createJob(new DeliveryRepository(em) {
+            int calls;
+
+            @Override
+            public int complete(List<Long> ids) {
+                if (++calls == 2) {
+                    throw new IllegalStateException("장애");
+                }
+                return super.complete(ids);
+            }
+        });
+
+        //when
+        assertThatThrownBy(failing::run).isInstanceOf(IllegalStateException.class);
+
+        //then
+        assertThat(deliveryStatus(first)).as("첫 청크는 커밋되었다.").isEqualTo(DeliveryStatus.COMP);
+        assertThat(deliveryStatus(second)).as("실패한 청크는 롤백되었다.").isEqualTo(DeliveryStatus.READY);
+        assertThat(checkpointRepository.findOne(DeliveryCompletionJob.JOB_NAME).getLastId())
+                .isEqualTo(deliveryId(first));
+
+        //when
+        DeliveryCompletionJob.JobReport report = createJob(deliveryRepository).run();
+
+        //then
+        assertThat(report.getProcessed())
+                .as("다시 실행하면 체크포인트 다음(두번째, 세번째)만 처리한다.")
+                .isEqualTo(2);
+        assertThat(deliveryStatus(second)).isEqualTo(DeliveryStatus.COMP);
+        assertThat(deliveryStatus(third)).isEqualTo(DeliveryStatus.COMP);
+    }
+
+    @Test
+    public void 첫_실행에_동시에_시작해도_체크포인트를_하나만_만든다() throws Exception {
+        //given
+        for (int i = 0; i < 4; i++) {
+            createOldOrder();
+        }
+        assertThat(checkpointRepository.findOne(DeliveryCompletionJob.JOB_NAME)).isNull();
+
+        // 서버 두 대 => 인스턴스마다 running 플래그가 따로 있다.
+        DeliveryCompletionJob server1 = createJob(deliveryRepository);
+        DeliveryCompletionJob server2 = createJob(deliveryRepository);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+
+        //when
+        try {
+            CompletableFuture<DeliveryCompletionJob.JobReport> run1 = CompletableFuture.supplyAsync(() -> {
+                await(start);
+                return server1.run();
+            }, executor);
+            CompletableFuture<DeliveryCompletionJob.JobReport> run2 = CompletableFuture.supplyAsync(() -> {
+                await(start);
+                return server2.run();
+            }, executor);
+            start.countDown();
+
+            //then
+            long processed = run1.get(10, TimeUnit.SECONDS).getProcessed() + run2.get(10, TimeUnit.SECONDS).getProcessed();
+            assertThat(processed)
+                    .as("두 서버 모두 실패하지 않고, 같은 배송을 두번 처리하지 않는다.")
+                    .isEqualTo(4);
+            assertThat(checkpointRepository.findOne(DeliveryCompletionJob.JOB_NAME)).isNotNull();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private DeliveryCompletionJob createJob(DeliveryRepository repository) {
+        return new DeliveryCompletionJob(repository, checkpointRepository, transactionManager, 1, 60, new SimpleMeterRegistry());
+    }
+
+    private Long createOldOrder() {
+        Long orderId = orderService.order(member.getId(), book.getId(), 1);
+        transactionTemplate.executeWithoutResult(status -> {
+            Order order = orderRepository.findOne(orderId);
+            order.setOrderDate(order.getOrderDate().minusDays(1));
+        });
+        return orderId;
+    }
+
+    private DeliveryStatus deliveryStatus(Long orderId) {
+        return transactionTemplate.execute(status -> orderRepository.findOne(orderId).getDelivery().getStatus());
+    }
+
+    private Long deliveryId(Long orderId) {
+        return transactionTemplate.execute(status -> orderRepository.findOne(orderId).getDelivery().getId());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
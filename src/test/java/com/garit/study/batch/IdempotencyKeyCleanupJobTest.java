@@ -0,0 +1,55 @@
+package com.garit.study.batch;
+
+import com.garit.study.domain.IdempotencyKey;
+import com.garit.study.repository.IdempotencyKeyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class IdempotencyKeyCleanupJobTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    public void 보관_기간이_지난_키만_삭제() throws Exception {
+        //given
+        for (int i = 0; i < 5; i++) {
+            idempotencyKeyRepository.save(new IdempotencyKey("expired-" + i, "hash", (long) i));
+        }
+        idempotencyKeyRepository.save(new IdempotencyKey("fresh", "hash", 99L));
+        em.flush();
+        em.createQuery("update IdempotencyKey k set k.createdAt = :old where k.idempotencyKey like 'expired-%'")
+                .setParameter("old", LocalDateTime.now().minusHours(25))
+                .executeUpdate();
+        em.clear();
+
+        // 청크 크기 2 => 청크 3번 (2, 2, 1)
+        IdempotencyKeyCleanupJob job = new IdempotencyKeyCleanupJob(idempotencyKeyRepository, transactionManager,
+                2, 24, new SimpleMeterRegistry());
+
+        //when
+        long deleted = job.run();
+
+        //then
+        assertThat(deleted).isEqualTo(5);
+        assertThat(idempotencyKeyRepository.findOne("expired-0")).isNull();
+        assertThat(idempotencyKeyRepository.findOne("fresh")).isNotNull();
+    }
+}
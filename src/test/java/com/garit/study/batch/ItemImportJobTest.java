@@ -0,0 +1,87 @@
+package com.garit.study.batch;
+
+import com.garit.study.domain.item.Book;
+import com.garit.study.domain.item.Item;
+import com.garit.study.domain.item.Movie;
+import com.garit.study.service.ItemService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:item-import", "import.items.chunk-size=2"})
+class ItemImportJobTest {
+
+    @Autowired
+    ItemImportJob itemImportJob;
+
+    @Autowired
+    ItemService itemService;
+
+    @Test
+    public void CSV_등록_후_NDJSON으로_수정한다() throws Exception {
+        //given
+        String csv = "dtype,name,price,stockQuantity,author,isbn,director,actor\n" +
+                "B,\"JPA, 프로그래밍\",30000,10,김영한,978-89,,\n" +
+                "M,\"영화 \"\"인셉션\"\"\",15000,5,무시,,놀란,디카프리오\r\n" +
+                "B,가격오류,abc,1,,,,\n" +
+                "\n" +
+                "X,타입오류,1000,1,,,,\n";
+
+        //when
+        ImportReport created = itemImportJob.run(stream(csv), ImportFormat.CSV);
+
+        //then
+        assertThat(created.getRows()).isEqualTo(4);
+        assertThat(created.getInserted()).isEqualTo(2);
+        assertThat(created.getFailed()).isEqualTo(2);
+        assertThat(created.getErrors().stream().map(ImportReport.RowError::getLine).collect(Collectors.toList()))
+                .as("오류 행의 줄 번호 (빈 줄 포함)")
+                .containsExactly(4L, 6L);
+
+        Book book = (Book) findByName("JPA, 프로그래밍");
+        assertThat(book.getAuthor()).isEqualTo("김영한");
+        Movie movie = (Movie) findByName("영화 \"인셉션\"");
+        assertThat(movie.getDirector()).isEqualTo("놀란");
+
+        //when
+        String ndjson = "{\"id\":" + book.getId() + ",\"dtype\":\"B\",\"name\":\"JPA 2판\",\"price\":35000,\"stockQuantity\":7}\n" +
+                "{\"id\":" + movie.getId() + ",\"dtype\":\"B\",\"name\":\"타입변경\",\"price\":1,\"stockQuantity\":1}\n" +
+                "{\"id\":999999,\"dtype\":\"A\",\"name\":\"없는상품\",\"price\":1,\"stockQuantity\":1}\n" +
+                "{깨진 JSON\n" +
+                "{\"dtype\":\"A\",\"name\":\"새 앨범\",\"price\":20000,\"stockQuantity\":3,\"artist\":\"아이유\"}\n";
+        ImportReport updated = itemImportJob.run(stream(ndjson), ImportFormat.NDJSON);
+
+        //then
+        assertThat(updated.getUpdated()).isEqualTo(1);
+        assertThat(updated.getInserted()).isEqualTo(1);
+        assertThat(updated.getFailed()).isEqualTo(3);
+
+        Book changed = (Book) itemService.findOne(book.getId());
+        assertThat(changed.getName()).isEqualTo("JPA 2판");
+        assertThat(changed.getPrice()).isEqualTo(35000);
+        assertThat(changed.getAuthor())
+                .as("파일에 없는 하위 타입 필드는 null로 바뀐다.")
+                .isNull();
+        assertThat(itemService.findOne(movie.getId()).getName()).isEqualTo("영화 \"인셉션\"");
+        assertThat(findByName("새 앨범").getStockQuantity()).isEqualTo(3);
+    }
+
+    private Item findByName(String name) {
+        List<Item> items = itemService.findItems().stream()
+                .filter(item -> name.equals(item.getName()))
+                .collect(Collectors.toList());
+        assertThat(items).hasSize(1);
+        return items.get(0);
+    }
+
+    private ByteArrayInputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,60 @@
+package com.garit.study.batch;
+
+import com.garit.study.domain.Member;
+import com.garit.study.repository.MemberRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:member-import", "import.members.chunk-size=2"})
+class MemberImportJobTest {
+
+    @Autowired
+    MemberImportJob memberImportJob;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Test
+    public void 기존_이름과_파일_안의_중복_이름은_건너뛴다() throws Exception {
+        //given
+        String csv = "name,city,street,zipcode\n" +
+                "파트너1,서울,강가,11111\n" +
+                "userA,부산,바다,22222\n" +
+                " 파트너1 ,대구,,\n" +
+                ",서울,이름없음,33333\n" +
+                "파트너2,,,\n" +
+                "파트너3,인천,항구,44444\n";
+
+        //when
+        MemberImportReport report = memberImportJob.run(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV);
+
+        //then
+        assertThat(report.getRows()).isEqualTo(6);
+        assertThat(report.getInserted()).isEqualTo(3);
+        assertThat(report.getDuplicatesExisting()).isEqualTo(1);
+        assertThat(report.getDuplicatesInFile()).isEqualTo(1);
+        assertThat(report.getFailed()).isEqualTo(1);
+        assertThat(report.getErrors().get(0).getLine()).isEqualTo(5);
+        assertThat(report.getExistingNames())
+                .as("seed 프로필의 userA, userB")
+                .isEqualTo(2);
+
+        List<Member> members = memberRepository.findAll();
+        assertThat(members.stream().map(Member::getName).collect(Collectors.toList()))
+                .containsExactlyInAnyOrder("userA", "userB", "파트너1", "파트너2", "파트너3");
+        Member partner = memberRepository.findByName("파트너1").get(0);
+        assertThat(partner.getAddress().getCity()).isEqualTo("서울");
+        assertThat(memberRepository.findByName("파트너2").get(0).getAddress())
+                .as("주소 필드가 모두 없으면 address는 null")
+                .isNull();
+    }
+}
@@ -0,0 +1,61 @@
+package com.garit.study.batch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NameHashSetTest {
+
+    @Test
+    public void DB_이름과_파일_이름을_구분한다() throws Exception {
+        //given
+        NameHashSet names = new NameHashSet(0);
+        names.addExisting("회원1");
+
+        //when
+        int existing = names.addFromFile("회원1");
+        int added = names.addFromFile("회원2");
+        int inFile = names.addFromFile("회원2");
+
+        //then
+        assertThat(existing).isEqualTo(NameHashSet.EXISTING);
+        assertThat(added).isEqualTo(NameHashSet.ABSENT);
+        assertThat(inFile).isEqualTo(NameHashSet.IN_FILE);
+        assertThat(names.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void 늘어나도_이름을_잃지_않는다() throws Exception {
+        //given
+        NameHashSet names = new NameHashSet(0);
+
+        //when
+        for (int i = 0; i < 10_000; i++) {
+            names.addExisting("회원" + i);
+        }
+
+        //then
+        assertThat(names.size()).isEqualTo(10_000);
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(names.addFromFile("회원" + i)).isEqualTo(NameHashSet.EXISTING);
+        }
+    }
+
+    @Test
+    public void 최대_크기에서는_늘리지_않고_오류() throws Exception {
+        //given
+        NameHashSet names = new NameHashSet(0, 16);
+        for (int i = 0; i < 8; i++) {
+            names.addFromFile("회원" + i);
+        }
+
+        //when, then
+        assertThatThrownBy(() -> names.addFromFile("회원8"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("최대 8개");
+        assertThat(names.addFromFile("회원0"))
+                .as("이미 있는 이름은 계속 확인할 수 있다.")
+                .isEqualTo(NameHashSet.IN_FILE);
+    }
+}
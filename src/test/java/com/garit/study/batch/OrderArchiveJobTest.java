@@ -0,0 +1,197 @@
+package com.garit.study.batch;
+
+import com.garit.study.domain.Address;
+import com.garit.study.domain.Member;
+import com.garit.study.domain.Order;
+import com.garit.study.domain.OrderArchive;
+import com.garit.study.domain.item.Book;
+import com.garit.study.fixture.TestFixture;
+import com.garit.study.repository.OrderArchiveRepository;
+import com.garit.study.repository.OrderRepository;
+import com.garit.study.repository.order.query.OrderQueryDto;
+import com.garit.study.repository.order.query.OrderQueryRepository;
+import com.garit.study.service.OrderService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @Transactional 없이 실행한다. => 청크마다 실제로 커밋되는 보관 배치를 확인
+ * => 별도 DB를 쓰고, 테스트마다 만든 주문(보관 주문 포함)을 지운다.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:order-archive")
+class OrderArchiveJobTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TestFixture fixture;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    OrderArchiveRepository orderArchiveRepository;
+
+    @Autowired
+    OrderQueryRepository orderQueryRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    TransactionTemplate transactionTemplate;
+    Member member;
+    Book book;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        member = createMember();
+        book = createBook("시골 JPA", 10000, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixture.deleteOrders(member, book);
+    }
+
+    @Test
+    public void 오래된_주문과_취소_주문_보관() throws Exception {
+        //given
+        Long old = createOrder(400);
+        Long canceled = createOrder(10);
+        orderService.cancelOrder(canceled);
+        Long recentCanceled = createOrder(1);
+        orderService.cancelOrder(recentCanceled);
+        Long recent = createOrder(10);
+
+        //when
+        OrderArchiveJob.ArchiveReport report = createJob().run();
+
+        //then
+        assertThat(report.getArchived()).isEqualTo(2);
+        assertThat(report.getHotOrdersAfter()).isEqualTo(report.getHotOrdersBefore() - report.getArchived());
+        assertThat(findOrder(old)).as("보관된 주문은 운영 테이블에서 지운다.").isNull();
+        assertThat(findOrder(canceled)).isNull();
+        assertThat(findOrder(recentCanceled))
+                .as("cancel-retention-days가 지나지 않은 취소 주문은 남긴다.").isNotNull();
+        assertThat(findOrder(recent)).isNotNull();
+
+        OrderArchive archive = transactionTemplate.execute(status -> em.find(OrderArchive.class, old));
+        assertThat(archive.getTotalPrice()).isEqualTo(10000);
+        assertThat(archive.getAddress().getCity()).isEqualTo("서울");
+
+        Map<Long, OrderQueryDto> archived = findArchived(null, null, 0, 10);
+        assertThat(archived).containsOnlyKeys(old, canceled);
+        assertThat(archived.get(old).getOrderItems()).hasSize(1);
+        assertThat(archived.get(old).getOrderItems().get(0).getItemName()).isEqualTo("시골 JPA");
+        assertThat(archived.get(canceled).getOrderItems()).hasSize(1);
+    }
+
+    @Test
+    public void 보관_주문은_주문일_범위와_offset_limit으로_잘라서_조회() throws Exception {
+        //given
+        Long first = createOrder(500);
+        Long second = createOrder(450);
+        Long third = createOrder(400);
+        createJob().run();
+        LocalDateTime now = LocalDateTime.now();
+
+        //when
+        Map<Long, OrderQueryDto> range = findArchived(now.minusDays(460), now.minusDays(420), 0, 10);
+        Map<Long, OrderQueryDto> page = findArchived(null, null, 1, 1);
+
+        //then
+        assertThat(range).as("주문일 [from, to) 범위만 조회한다.").containsOnlyKeys(second);
+        assertThat(page).as("order_id 순서로 offset 1, limit 1").containsOnlyKeys(second);
+        assertThat(findArchived(null, null, 0, 10)).containsOnlyKeys(first, second, third);
+    }
+
+    @Test
+    public void 운영_주문도_회원과_주문일_범위로_좁혀서_조회() throws Exception {
+        //given
+        Long older = createOrder(30);
+        Long recent = createOrder(10);
+        LocalDateTime now = LocalDateTime.now();
+
+        //when
+        Map<Long, OrderQueryDto> all = findHot(null, null);
+        Map<Long, OrderQueryDto> range = findHot(now.minusDays(20), null);
+
+        //then
+        assertThat(all).as("회원 조건만 걸면 그 회원의 운영 주문 전체").containsOnlyKeys(older, recent);
+        assertThat(range).as("주문일 [from, to) 범위만 조회한다.").containsOnlyKeys(recent);
+        assertThat(range.get(recent).getOrderItems()).hasSize(1);
+        assertThat(findHot(now.minusDays(20), now.minusDays(15))).isEmpty();
+    }
+
+    private OrderArchiveJob createJob() {
+        // 청크 크기 1 => 청크가 여러번 실행된다.
+        return new OrderArchiveJob(orderArchiveRepository, transactionManager, eventPublisher,
+                1, 365, 7, new SimpleMeterRegistry());
+    }
+
+    private Map<Long, OrderQueryDto> findArchived(LocalDateTime from, LocalDateTime to, int offset, int limit) {
+        List<OrderQueryDto> result = transactionTemplate.execute(status ->
+                orderQueryRepository.findArchivedByDto_optimization(member.getId(), from, to, offset, limit));
+        return result.stream().collect(Collectors.toMap(OrderQueryDto::getOrderId, Function.identity()));
+    }
+
+    private Map<Long, OrderQueryDto> findHot(LocalDateTime from, LocalDateTime to) {
+        List<OrderQueryDto> result = transactionTemplate.execute(status ->
+                orderQueryRepository.findAllByDto_optimization(member.getId(), from, to));
+        return result.stream().collect(Collectors.toMap(OrderQueryDto::getOrderId, Function.identity()));
+    }
+
+    private Long createOrder(int daysAgo) {
+        Long orderId = orderService.order(member.getId(), book.getId(), 1);
+        transactionTemplate.executeWithoutResult(status -> {
+            Order order = orderRepository.findOne(orderId);
+            order.setOrderDate(order.getOrderDate().minusDays(daysAgo));
+        });
+        return orderId;
+    }
+
+    private Order findOrder(Long orderId) {
+        return transactionTemplate.execute(status -> orderRepository.findOne(orderId));
+    }
+
+    private Book createBook(String name, int price, int stockQuantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(price);
+        book.setStockQuantity(stockQuantity);
+        transactionTemplate.executeWithoutResult(status -> em.persist(book));
+        return book;
+    }
+
+    private Member createMember() {
+        Member member = new Member();
+        member.setName("회원1");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        transactionTemplate.executeWithoutResult(status -> em.persist(member));
+        return member;
+    }
+}
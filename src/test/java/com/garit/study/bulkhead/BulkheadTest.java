@@ -0,0 +1,90 @@
+package com.garit.study.bulkhead;
+
+import com.garit.study.exception.BulkheadFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class BulkheadTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private Bulkhead bulkhead;
+
+    @BeforeEach
+    void setUp() {
+        // 쓰기 구획 : 동시 실행 1개 + 대기열 1개
+        MockEnvironment env = new MockEnvironment()
+                .withProperty("bulkhead.write.max-concurrency", "1")
+                .withProperty("bulkhead.write.queue-capacity", "1");
+        meterRegistry = new SimpleMeterRegistry();
+        bulkhead = new Bulkhead(env, mock(PlatformTransactionManager.class), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkhead.destroy();
+    }
+
+    @Test
+    public void 구획이_꽉_차면_바로_거절() throws Exception {
+        //given
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> running = bulkhead.submit(Compartment.WRITE, () -> await(release));
+        CompletableFuture<String> queued = bulkhead.submit(Compartment.WRITE, () -> "queued");
+
+        //when, then
+        assertThatThrownBy(() -> bulkhead.submit(Compartment.WRITE, () -> "rejected"))
+                .isInstanceOf(BulkheadFullException.class);
+        assertThat(bulkhead.submit(Compartment.READ, () -> "read").get(5, TimeUnit.SECONDS))
+                .as("다른 구획은 쓰기 구획이 꽉 차도 영향을 받지 않는다.")
+                .isEqualTo("read");
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("queued");
+        assertThat(meterRegistry.counter("bulkhead.rejected", "compartment", "write").count()).isEqualTo(1);
+    }
+
+    @Test
+    public void 작업이_끝나면_실패해도_자리가_반납된다() throws Exception {
+        //given
+        CompletableFuture<String> failed = bulkhead.submit(Compartment.WRITE, () -> {
+            throw new IllegalStateException("boom");
+        });
+        assertThatThrownBy(() -> failed.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+
+        //when
+        // 스레드가 반납되지 않았다면 대기열에 들어간 작업이 영원히 실행되지 않는다.
+        String first = bulkhead.submit(Compartment.WRITE, () -> "first").get(5, TimeUnit.SECONDS);
+        String second = bulkhead.submit(Compartment.WRITE, () -> "second").get(5, TimeUnit.SECONDS);
+
+        //then
+        assertThat(first).isEqualTo("first");
+        assertThat(second).isEqualTo("second");
+        assertThat(meterRegistry.timer("bulkhead.execution", "compartment", "write").count())
+                .as("실패한 작업도 실행 시간을 기록한다.")
+                .isEqualTo(3);
+        assertThat(meterRegistry.timer("bulkhead.wait", "compartment", "write").count()).isEqualTo(3);
+    }
+
+    private String await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "done";
+    }
+}
@@ -0,0 +1,110 @@
+package com.garit.study.cache;
+
+import com.garit.study.domain.Address;
+import com.garit.study.domain.Member;
+import com.garit.study.repository.MemberRepository;
+import com.garit.study.service.MemberService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+class MemberSnapshotCacheTest {
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    MemberSnapshotCache memberSnapshotCache;
+
+    @Test
+    public void 회원_수정이_커밋되면_스냅샷을_다시_읽는다() throws Exception {
+        //given
+        Member member = new Member();
+        member.setName("스냅샷회원");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        Long memberId = memberService.join(member);
+        MemberSnapshot before = memberSnapshotCache.get(memberId);
+        assertThat(memberSnapshotCache.get(memberId))
+                .as("캐시 hit이면 같은 스냅샷을 돌려준다.")
+                .isSameAs(before);
+
+        //when
+        memberService.update(memberId, "스냅샷회원2");
+
+        //then
+        assertThat(memberSnapshotCache.get(memberId))
+                .as("수정이 커밋되면 캐시에서 지워진다.")
+                .isNotSameAs(before);
+        assertThat(memberService.findSnapshot(memberId).getName()).isEqualTo("스냅샷회원2");
+        assertThat(memberService.findSnapshot(memberId).getAddress().getCity()).isEqualTo("서울");
+    }
+
+    @Test
+    public void ttl이_지나면_DB에서_다시_읽는다() throws Exception {
+        //given
+        MemberRepository memberRepository = memberRepository();
+        MemberSnapshotCache cache = new MemberSnapshotCache(memberRepository, 10, 60, new SimpleMeterRegistry());
+        long now = System.nanoTime();
+        MemberSnapshot loaded = cache.get(1L, now);
+
+        //when
+        MemberSnapshot beforeTtl = cache.get(1L, now + TimeUnit.SECONDS.toNanos(59));
+        MemberSnapshot afterTtl = cache.get(1L, now + TimeUnit.SECONDS.toNanos(60));
+
+        //then
+        assertThat(beforeTtl).as("ttl 안이면 hit").isSameAs(loaded);
+        assertThat(afterTtl).as("ttl이 지나면 다시 읽는다.").isNotSameAs(loaded);
+        verify(memberRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    public void max_size를_넘으면_가장_오래_안_쓴_회원부터_내보낸다() throws Exception {
+        //given
+        MemberRepository memberRepository = memberRepository();
+        MemberSnapshotCache cache = new MemberSnapshotCache(memberRepository, 2, 60, new SimpleMeterRegistry());
+        long now = System.nanoTime();
+        cache.get(1L, now);
+        cache.get(2L, now);
+        cache.get(1L, now);     // 1을 다시 써서 2가 가장 오래 안 쓴 회원이 된다.
+
+        //when
+        cache.get(3L, now);
+
+        //then
+        assertThat(cache.size()).isEqualTo(2);
+        cache.get(1L, now);
+        cache.get(3L, now);
+        verify(memberRepository, times(1)).findById(1L);
+        verify(memberRepository, times(1)).findById(3L);
+
+        cache.get(2L, now);
+        verify(memberRepository, times(2)).findById(2L);
+    }
+
+    /**
+     * 호출할 때마다 새 회원을 돌려준다. => 스냅샷 인스턴스로 hit / miss를 구분한다.
+     */
+    private MemberRepository memberRepository() {
+        MemberRepository memberRepository = mock(MemberRepository.class);
+        when(memberRepository.findById(anyLong())).thenAnswer(invocation -> {
+            Member member = new Member();
+            member.setId(invocation.getArgument(0));
+            member.setName("회원" + member.getId());
+            member.setAddress(new Address("서울", "강가", "123-123"));
+            return Optional.of(member);
+        });
+        return memberRepository;
+    }
+}
@@ -0,0 +1,106 @@
+package com.garit.study.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OffHeapResponseCacheTest {
+
+    private static final int BLOCK_SIZE = 16;
+
+    // 블록 4개 = 64 byte
+    private final OffHeapResponseCache cache = new OffHeapResponseCache(4 * BLOCK_SIZE, BLOCK_SIZE, 64, 60,
+            new SimpleMeterRegistry());
+
+    @Test
+    public void 예산을_넘으면_오래_안쓴_응답부터_내보낸다() throws Exception {
+        //given
+        put("a", body('a', 30));    // 블록 2개
+        put("b", body('b', 30));    // 블록 2개
+        read("a");                  // a를 최근에 사용
+
+        //when
+        put("c", body('c', 20));    // 블록 2개 => b를 내보내야 한다.
+
+        //then
+        assertThat(read("a")).isEqualTo(body('a', 30));
+        assertThat(read("b")).as("가장 오래 안 쓴 b가 밀려난다.").isNull();
+        assertThat(read("c")).isEqualTo(body('c', 20));
+    }
+
+    @Test
+    public void 응답을_만드는_동안_주문이_바뀌면_저장하지_않는다() throws Exception {
+        //given
+        long generation = cache.generation();
+
+        //when
+        cache.invalidateAll();
+        cache.put("a", generation, "application/json", new ByteArrayInputStream(body('a', 10)), 10);
+
+        //then
+        assertThat(read("a")).isNull();
+        assertThat(cache.report().getUsedBytes()).isZero().as("버린 응답의 블록은 반납된다.");
+    }
+
+    @Test
+    public void 쓰는_중인_응답_때문에_자리가_안나면_캐시를_비우지_않는다() throws Exception {
+        //given
+        put("a", body('a', 30));    // 블록 2개
+        put("b", body('b', 10));    // 블록 1개
+        OffHeapResponseCache.Entry writing = cache.acquire("a");    // a를 소켓에 쓰는 중
+
+        //when
+        put("c", body('c', 60));    // 블록 4개 => b를 내보내도 3개뿐이다.
+
+        //then
+        assertThat(read("c")).isNull();
+        assertThat(read("b")).as("자리를 만들 수 없으면 아무것도 내보내지 않는다.").isEqualTo(body('b', 10));
+        writing.release();
+        assertThat(read("a")).isEqualTo(body('a', 30));
+    }
+
+    @Test
+    public void 쓰는_중인_응답은_건너뛰고_다음_응답을_내보낸다() throws Exception {
+        //given
+        put("a", body('a', 30));    // 블록 2개
+        put("b", body('b', 30));    // 블록 2개
+        OffHeapResponseCache.Entry writing = cache.acquire("a");    // a를 소켓에 쓰는 중
+        read("b");                  // b를 가장 최근에 사용 => LRU 순서 a, b
+
+        //when
+        put("c", body('c', 20));    // 블록 2개
+
+        //then
+        assertThat(read("c")).isEqualTo(body('c', 20));
+        assertThat(read("b")).as("쓰는 중인 a 대신 b를 내보낸다.").isNull();
+        writing.release();
+        assertThat(read("a")).isEqualTo(body('a', 30));
+    }
+
+    private void put(String key, byte[] body) throws Exception {
+        cache.put(key, cache.generation(), "application/json", new ByteArrayInputStream(body), body.length);
+    }
+
+    private byte[] read(String key) throws Exception {
+        OffHeapResponseCache.Entry entry = cache.acquire(key);
+        if (entry == null) {
+            return null;
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            entry.writeTo(out);
+            return out.toByteArray();
+        } finally {
+            entry.release();
+        }
+    }
+
+    private byte[] body(char c, int length) {
+        return String.valueOf(c).repeat(length).getBytes(StandardCharsets.UTF_8);
+    }
+}
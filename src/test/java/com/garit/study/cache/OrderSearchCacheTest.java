@@ -0,0 +1,117 @@
+package com.garit.study.cache;
+
+import com.garit.study.batch.ImportFormat;
+import com.garit.study.batch.ItemImportJob;
+import com.garit.study.domain.Order;
+import com.garit.study.domain.OrderStatus;
+import com.garit.study.repository.OrderSearch;
+import com.garit.study.repository.OrderSortType;
+import com.garit.study.service.OrderService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 데이터는 InitDb(seed) 그대로 => 주문 2개 (userA 50000원, userB 220000원)
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:order-search-cache")
+class OrderSearchCacheTest {
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    OrderSearchCache orderSearchCache;
+
+    @Autowired
+    ItemImportJob itemImportJob;
+
+    @Test
+    public void 주문이_취소되면_캐시한_검색_결과를_버린다() throws Exception {
+        //given
+        OrderSearch search = new OrderSearch();
+        search.setOrderStatus(OrderStatus.ORDER);
+        search.setSort(OrderSortType.TOTAL_PRICE_ASC);
+        List<Long> before = orderIds(search);
+
+        OrderSearch sameSearch = new OrderSearch();
+        sameSearch.setMemberName("");
+        sameSearch.setOrderStatus(OrderStatus.ORDER);
+        sameSearch.setSort(OrderSortType.TOTAL_PRICE_ASC);
+        assertThat(orderSearchCache.lookup(sameSearch).isHit())
+                .as("빈 회원 이름은 조건 없음과 같은 key")
+                .isTrue();
+        assertThat(orderIds(sameSearch))
+                .as("캐시한 id 순서(금액 낮은 순) 그대로 읽는다.")
+                .containsExactlyElementsOf(before)
+                .hasSize(2);
+
+        //when
+        orderService.cancelOrder(before.get(0));
+
+        //then
+        assertThat(orderSearchCache.lookup(search).isHit())
+                .as("취소가 커밋되면 버전이 바뀐다.")
+                .isFalse();
+        assertThat(orderIds(search)).containsExactly(before.get(1));
+    }
+
+    @Test
+    public void 상품_대량_등록이_커밋되면_캐시한_검색_결과를_버린다() throws Exception {
+        //given
+        OrderSearch search = new OrderSearch();
+        orderIds(search);
+        assertThat(orderSearchCache.lookup(search).isHit()).isTrue();
+        long version = orderSearchCache.getVersion();
+
+        //when
+        String csv = "dtype,name,price,stockQuantity\n" +
+                "B,새 책,10000,5\n";
+        itemImportJob.run(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV);
+
+        //then
+        assertThat(orderSearchCache.getVersion()).as("저장한 청크가 커밋되면 버전을 올린다.").isGreaterThan(version);
+        assertThat(orderSearchCache.lookup(search).isHit()).isFalse();
+    }
+
+    @Test
+    public void ttl이_지나면_캐시한_검색_결과를_버린다() throws Exception {
+        //given
+        OrderSearchCache cache = new OrderSearchCache(10, 60, new SimpleMeterRegistry());
+        OrderSearch search = new OrderSearch();
+        long now = System.nanoTime();
+        OrderSearchCache.Lookup miss = cache.lookup(search, now);
+        Order order = mock(Order.class);
+        when(order.getId()).thenReturn(1L);
+        cache.put(miss, List.of(order));
+
+        //when
+        OrderSearchCache.Lookup beforeTtl = cache.lookup(search, now + TimeUnit.SECONDS.toNanos(59));
+        OrderSearchCache.Lookup afterTtl = cache.lookup(search, now + TimeUnit.SECONDS.toNanos(60));
+
+        //then
+        assertThat(beforeTtl.isHit()).isTrue();
+        assertThat(beforeTtl.getOrderIds()).containsExactly(1L);
+        assertThat(afterTtl.isHit())
+                .as("다른 서버의 주문 변경은 버전을 올리지 못하므로 검색 시작 시각부터 ttl까지만 쓴다.")
+                .isFalse();
+        assertThat(cache.size()).isZero();
+    }
+
+    private List<Long> orderIds(OrderSearch search) {
+        return orderService.findOrders(search).stream()
+                .map(Order::getId)
+                .collect(Collectors.toList());
+    }
+}
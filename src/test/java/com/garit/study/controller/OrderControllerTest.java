@@ -0,0 +1,34 @@
+package com.garit.study.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderControllerTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Test
+    public void Idempotency_Key_형식이_틀리면_400() throws Exception {
+        String tooLong = "k".repeat(101);
+
+        for (String key : new String[]{tooLong, "", "   "}) {
+            mvc.perform(post("/order")
+                            .header("Idempotency-Key", key)
+                            .param("memberId", "1")
+                            .param("itemId", "1")
+                            .param("count", "1"))
+                    .andExpect(request().asyncNotStarted())
+                    .andExpect(status().isBadRequest());
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.garit.study.controller;
+
+import com.garit.study.domain.OrderStatus;
+import com.garit.study.repository.OrderExportRow;
+import com.garit.study.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * 데이터는 InitDb(seed) 그대로 => 주문 2개 (userA 50000원, userB 220000원)
+ * => flush-rows=1 : 행마다 flush => 첫 행을 쓰면 응답이 커밋된다. (중간 실패 확인)
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:order-export", "order-export.flush-rows=1"})
+@AutoConfigureMockMvc
+class OrderExportTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @SpyBean
+    OrderRepository orderRepository;
+
+    @Test
+    public void 검색_조건으로_gzip_CSV를_내보낸다() throws Exception {
+        //when
+        MvcResult result = mvc.perform(get("/orders/export")
+                        .param("memberName", "userA")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andReturn();
+        result = mvc.perform(asyncDispatch(result)).andReturn();
+
+        //then
+        assertThat(result.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        String csv;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        String[] lines = csv.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).isEqualTo("\uFEFF주문번호,회원명,주문금액,주문상태,주문일시,배송상태,도시,거리,우편번호");
+        assertThat(lines[1]).contains(",userA,50000,ORDER,").endsWith(",서울,1,1111");
+    }
+
+    @Test
+    public void gzip을_받지_않으면_압축하지_않는다() throws Exception {
+        //when
+        MvcResult result = mvc.perform(get("/orders/export").param("sort", "TOTAL_PRICE_DESC")).andReturn();
+        result = mvc.perform(asyncDispatch(result)).andReturn();
+
+        //then
+        assertThat(result.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING))
+                .as("Accept-Encoding 헤더 없음")
+                .isNull();
+        String[] lines = result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(3);
+        assertThat(lines[1]).contains(",userB,220000,");
+        assertThat(lines[2]).contains(",userA,50000,");
+    }
+
+    @Test
+    public void 보내는_중에_DB가_실패하면_gzip을_끝맺지_않는다() throws Exception {
+        //given
+        failAfterFirstRow();
+
+        //when
+        MvcResult result = mvc.perform(get("/orders/export")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andReturn();
+        assertThatThrownBy(() -> mvc.perform(asyncDispatch(result)))
+                .hasRootCauseInstanceOf(DataAccessResourceFailureException.class);
+
+        //then
+        assertThat(result.getResponse().isCommitted()).as("첫 행은 이미 보냈다.").isTrue();
+        assertThatThrownBy(() -> {
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+                in.readAllBytes();
+            }
+        }).as("gzip trailer가 없다. => 클라이언트는 잘린 파일을 완성된 CSV로 저장하지 않는다.")
+                .isInstanceOf(EOFException.class);
+    }
+
+    @Test
+    public void 보내기_전에_DB가_실패하면_응답을_비운다() throws Exception {
+        //given
+        doAnswer(invocation -> {
+            throw new DataAccessResourceFailureException("DB 장애");
+        }).when(orderRepository).scrollForExport(any(), anyInt(), any());
+
+        //when
+        MvcResult result = mvc.perform(get("/orders/export")).andReturn();
+        assertThatThrownBy(() -> mvc.perform(asyncDispatch(result)))
+                .hasRootCauseInstanceOf(DataAccessResourceFailureException.class);
+
+        //then
+        assertThat(result.getResponse().isCommitted()).isFalse();
+        assertThat(result.getResponse().getHeader(HttpHeaders.CONTENT_DISPOSITION))
+                .as("CSV 헤더, 본문을 지운다. => 예외가 오류 응답(500)이 된다.")
+                .isNull();
+        assertThat(result.getResponse().getContentAsByteArray()).isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void failAfterFirstRow() {
+        doAnswer(invocation -> {
+            Consumer<OrderExportRow> consumer = invocation.getArgument(2);
+            consumer.accept(new OrderExportRow(1L, "userA", 50000, OrderStatus.ORDER, LocalDateTime.now(),
+                    null, "서울", "1", "1111"));
+            throw new DataAccessResourceFailureException("DB 장애");
+        }).when(orderRepository).scrollForExport(any(), anyInt(), any());
+    }
+}
@@ -0,0 +1,69 @@
+package com.garit.study.datagen;
+
+import com.garit.study.service.SalesRollupService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 생성한 데이터가 커밋되므로, 다른 테스트와 겹치지 않게 별도 메모리 DB를 사용한다.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:datagen")
+class DataGeneratorTest {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    SalesRollupService salesRollupService;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Test
+    public void 병렬_청크로_대량_데이터_생성() throws Exception {
+        //given
+        MockEnvironment env = new MockEnvironment()
+                .withProperty("datagen.members", "30")
+                .withProperty("datagen.items", "20")
+                .withProperty("datagen.categories", "6")
+                .withProperty("datagen.orders", "500")
+                .withProperty("datagen.chunk-size", "64")
+                .withProperty("datagen.threads", "3")
+                .withProperty("datagen.id-offset", "1000");
+        DataGenerator generator = new DataGenerator(jdbcTemplate, transactionManager, salesRollupService, eventPublisher, env);
+
+        //when
+        DataGenerator.GenerationReport report = generator.generate();
+
+        //then
+        long base = report.getBaseId();
+        assertThat(count("select count(*) from orders where order_id >= ?", base)).isEqualTo(500);
+        assertThat(count("select count(*) from order_item where order_id >= ?", base)).isEqualTo(report.getOrderItems());
+        assertThat(count("select count(*) from item where item_id >= ?", base)).isEqualTo(20);
+        assertThat(count("select count(*) from category_item where item_id >= ?", base)).isEqualTo(20);
+        assertThat(count("select count(*) from orders o" +
+                " where o.order_id >= ? and o.total_price <>" +
+                " (select sum(oi.order_price * oi.count) from order_item oi where oi.order_id = o.order_id)", base))
+                .isZero()
+                .as("주문금액은 주문상품 합계와 같다.");
+        assertThat(count("select coalesce(sum(revenue), 0) - (select sum(order_price * count) from order_item) from daily_sales", 0))
+                .isZero()
+                .as("일별 매출 집계를 다시 만든다.");
+    }
+
+    private long count(String sql, long param) {
+        return sql.contains("?")
+                ? jdbcTemplate.queryForObject(sql, Long.class, param)
+                : jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
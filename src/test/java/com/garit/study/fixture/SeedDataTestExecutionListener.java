@@ -0,0 +1,29 @@
+package com.garit.study.fixture;
+
+import com.garit.study.InitDb;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.TestContext;
+import org.springframework.test.context.support.AbstractTestExecutionListener;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * InitDb는 readiness 이후 별도 스레드에서 샘플 데이터를 넣는다.
+ * => 테스트 클래스를 시작하기 전에 다 들어갈 때까지 기다린다. (샘플 주문 수, 쿼리 수를 세는 테스트가 흔들리지 않도록)
+ * => 기다리지 않아야 하는 테스트(InitDbTest)는 test.seed.await=false
+ *
+ * META-INF/spring.factories 로 등록한다.
+ */
+public class SeedDataTestExecutionListener extends AbstractTestExecutionListener {
+
+    @Override
+    public void beforeTestClass(TestContext testContext) throws Exception {
+        ApplicationContext context = testContext.getApplicationContext();
+        if (!context.getEnvironment().getProperty("test.seed.await", Boolean.class, true)) {
+            return;
+        }
+        for (InitDb initDb : context.getBeansOfType(InitDb.class).values()) {
+            initDb.seeded().get(30, TimeUnit.SECONDS);
+        }
+    }
+}
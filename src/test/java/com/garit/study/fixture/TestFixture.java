@@ -0,0 +1,78 @@
+package com.garit.study.fixture;
+
+import com.garit.study.domain.Address;
+import com.garit.study.domain.Member;
+import com.garit.study.domain.item.Book;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+/**
+ * 테스트 공용 회원 / 상품 / 정리
+ *
+ * 메서드마다 트랜잭션이 걸려있다.
+ * => @Transactional 테스트에서는 테스트 트랜잭션에 참여해서 같이 롤백된다.
+ * => @Transactional이 없는 테스트(배치 청크 커밋 확인 등)에서는 바로 커밋되므로, 끝나면 deleteOrders()로 직접 지운다.
+ */
+@Component
+@Transactional
+public class TestFixture {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    public Book createBook(String name, int price, int stockQuantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(price);
+        book.setStockQuantity(stockQuantity);
+        em.persist(book);
+        return book;
+    }
+
+    public Member createMember() {
+        Member member = new Member();
+        member.setName("회원1");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+        return member;
+    }
+
+    /**
+     * 회원의 주문(보관된 주문 포함), 주문상품, 배송, 일별 매출을 지우고 회원과 상품도 지운다.
+     * => 주문 FK 순서대로 native 쿼리로 지운다.
+     */
+    public void deleteOrders(Member member, Book book) {
+        Long memberId = member.getId();
+        List<?> deliveryIds = em.createNativeQuery("select delivery_id from orders where member_id = :memberId")
+                .setParameter("memberId", memberId)
+                .getResultList();
+        deleteWhere("delete from order_item where order_id in (select order_id from orders where member_id = :memberId)", memberId);
+        deleteWhere("delete from idempotency_key where order_id in (select order_id from orders where member_id = :memberId)", memberId);
+        deleteWhere("delete from orders where member_id = :memberId", memberId);
+        if (!deliveryIds.isEmpty()) {
+            em.createNativeQuery("delete from delivery where delivery_id in (:deliveryIds)")
+                    .setParameter("deliveryIds", deliveryIds)
+                    .executeUpdate();
+        }
+        deleteWhere("delete from order_item_archive where order_id in (select order_id from orders_archive where member_id = :memberId)", memberId);
+        deleteWhere("delete from orders_archive where member_id = :memberId", memberId);
+        deleteWhere("delete from member where member_id = :memberId", memberId);
+
+        em.createNativeQuery("delete from daily_sales where item_id = :itemId")
+                .setParameter("itemId", book.getId())
+                .executeUpdate();
+        em.createNativeQuery("delete from item where item_id = :itemId")
+                .setParameter("itemId", book.getId())
+                .executeUpdate();
+    }
+
+    private void deleteWhere(String sql, Long memberId) {
+        em.createNativeQuery(sql)
+                .setParameter("memberId", memberId)
+                .executeUpdate();
+    }
+}
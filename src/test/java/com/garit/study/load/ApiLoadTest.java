@@ -0,0 +1,205 @@
+package com.garit.study.load;
+
+import com.garit.study.datagen.DataGenerator;
+import com.garit.study.service.SalesRollupService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 주문 / 회원 조회 API 부하 테스트 => ./gradlew loadTest
+ * => 일반 test 태스크에서는 제외된다. (@Tag("load"))
+ *
+ * [설정] -Dload.xxx
+ * mode             : open(기본, 초당 rate개) / closed(concurrency개 스레드)
+ * rate             : open 모델 초당 요청 수 (기본 50)
+ * max-in-flight    : open 모델 동시 진행 요청 상한 (기본 64)
+ * concurrency      : closed 모델 스레드 수 (기본 8)
+ * duration-seconds : 엔드포인트마다 측정 시간 (기본 10)
+ * warmup-seconds   : 측정 전 워밍업 (기본 3, JIT / 커넥션 풀 / 캐시 준비)
+ * endpoints        : 콤마로 구분한 경로 (기본 전체)
+ * members, items, orders : 생성할 데이터 양 (DataGenerator)
+ * baseline         : 이전 리포트(csv) 경로 => p99 변화율을 함께 출력한다.
+ *
+ * [리포트] load.report-dir (기본 build/reports/load)
+ * => load-yyyyMMdd-HHmmss.csv, latest.csv : 엔드포인트별 처리량, p50 / p90 / p99 / p999 / max (ms)
+ * => *.hgrm : HdrHistogram 백분위 분포 (HdrHistogram plotter로 릴리즈끼리 겹쳐서 볼 수 있다)
+ *
+ * 응답 캐시는 끈다. => 캐시 hit이 아니라 조회 경로(V1 ~ V7) 자체를 비교하기 위함
+ * SQL 로그도 끈다. => 로그 출력이 지연시간을 지배하지 않도록
+ */
+@Tag("load")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:load",
+        "response-cache.max-bytes=0",
+        "logging.level.org.hibernate.SQL=info",
+        "logging.level.org.hibernate.type=info",
+        "decorator.datasource.p6spy.enable-logging=false"
+})
+class ApiLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ApiLoadTest.class);
+
+    private static final List<String> ENDPOINTS = Arrays.asList(
+            "/api/v1/orders", "/api/v2/orders", "/api/v3/orders", "/api/v3.1/orders", "/api/v3.2/orders",
+            "/api/v4/orders", "/api/v5/orders", "/api/v6/orders", "/api/v7/orders",
+            "/api/v1/simple-orders", "/api/v2/simple-orders", "/api/v3/simple-orders", "/api/v4/simple-orders",
+            "/api/v1/members", "/api/v2/members");
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    SalesRollupService salesRollupService;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @BeforeAll
+    void seed() {
+        MockEnvironment env = new MockEnvironment()
+                .withProperty("datagen.members", System.getProperty("load.members", "500"))
+                .withProperty("datagen.items", System.getProperty("load.items", "200"))
+                .withProperty("datagen.orders", System.getProperty("load.orders", "2000"))
+                .withProperty("datagen.id-offset", "1000");
+        new DataGenerator(jdbcTemplate, transactionManager, salesRollupService, eventPublisher, env).generate();
+    }
+
+    @Test
+    public void 조회_API_지연시간_측정() throws Exception {
+        //given
+        String mode = System.getProperty("load.mode", "open");
+        int rate = Integer.getInteger("load.rate", 50);
+        int maxInFlight = Integer.getInteger("load.max-in-flight", 64);
+        int concurrency = Integer.getInteger("load.concurrency", 8);
+        Duration duration = Duration.ofSeconds(Integer.getInteger("load.duration-seconds", 10));
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("load.warmup-seconds", 3));
+        List<String> endpoints = endpoints();
+        LoadRunner runner = new LoadRunner("http://localhost:" + port);
+
+        //when
+        List<LoadRunner.Result> results = new ArrayList<>();
+        for (String endpoint : endpoints) {
+            if ("closed".equals(mode)) {
+                runner.closed(endpoint, concurrency, warmup);
+                results.add(runner.closed(endpoint, concurrency, duration));
+            } else {
+                runner.open(endpoint, rate, maxInFlight, warmup);
+                results.add(runner.open(endpoint, rate, maxInFlight, duration));
+            }
+        }
+
+        //then
+        writeReport(results);
+        for (LoadRunner.Result result : results) {
+            assertThat(result.getErrors().get())
+                    .isZero()
+                    .as(result.getPath() + " 응답 오류");
+            assertThat(result.getRequests()).isPositive();
+        }
+    }
+
+    private List<String> endpoints() {
+        String selected = System.getProperty("load.endpoints");
+        if (selected == null || selected.isBlank()) {
+            return ENDPOINTS;
+        }
+        return Arrays.stream(selected.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    private void writeReport(List<LoadRunner.Result> results) throws IOException {
+        Path dir = Paths.get(System.getProperty("load.report-dir", "build/reports/load"));
+        Files.createDirectories(dir);
+        Map<String, Double> baseline = readBaseline(System.getProperty("load.baseline"));
+
+        List<String> lines = new ArrayList<>();
+        lines.add("endpoint,mode,load,requests,rejected,errors,throughput,p50_ms,p90_ms,p99_ms,p999_ms,max_ms");
+        for (LoadRunner.Result result : results) {
+            lines.add(String.format(Locale.ROOT, "%s,%s,%d,%d,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f,%.3f",
+                    result.getPath(), result.getMode(), result.getLoad(), result.getRequests(),
+                    result.getRejected().get(), result.getErrors().get(), result.getThroughput(),
+                    result.percentile(50), result.percentile(90), result.percentile(99), result.percentile(99.9),
+                    result.getHistogram().getMaxValue() / 1_000.0));
+
+            try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve(fileName(result.getPath()) + ".hgrm")),
+                    false, StandardCharsets.UTF_8.name())) {
+                // 마이크로초로 기록했으므로 1000으로 나눠서 ms로 출력
+                result.getHistogram().outputPercentileDistribution(out, 1_000.0);
+            }
+        }
+
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Files.write(dir.resolve("load-" + timestamp + ".csv"), lines, StandardCharsets.UTF_8);
+        Files.write(dir.resolve("latest.csv"), lines, StandardCharsets.UTF_8);
+
+        // 자세한 분포는 리포트 파일로 본다. => 로그에는 요약과 baseline 대비 p99 변화만 남긴다.
+        log.info("load report => {}", dir.toAbsolutePath());
+        for (LoadRunner.Result result : results) {
+            Double before = baseline.get(result.getPath());
+            String diff = before == null || before == 0 ? ""
+                    : String.format(Locale.ROOT, " (baseline %.3f ms, %+.1f%%)", before, (result.percentile(99) - before) * 100 / before);
+            log.info(String.format(Locale.ROOT, "%-22s %8.1f req/s  p50 %8.3f  p99 %8.3f  p999 %8.3f ms  rejected %d%s",
+                    result.getPath(), result.getThroughput(), result.percentile(50), result.percentile(99),
+                    result.percentile(99.9), result.getRejected().get(), diff));
+        }
+    }
+
+    /**
+     * 이전 리포트의 엔드포인트별 p99 (ms)
+     */
+    private Map<String, Double> readBaseline(String path) throws IOException {
+        Map<String, Double> p99 = new HashMap<>();
+        if (path == null || !Files.exists(Paths.get(path))) {
+            return p99;
+        }
+        List<String> lines = Files.readAllLines(Paths.get(path), StandardCharsets.UTF_8);
+        for (String line : lines.subList(1, lines.size())) {
+            String[] columns = line.split(",");
+            p99.put(columns[0], Double.parseDouble(columns[9]));
+        }
+        return p99;
+    }
+
+    private String fileName(String path) {
+        return path.replaceAll("^/", "").replaceAll("[^A-Za-z0-9.-]", "_");
+    }
+}
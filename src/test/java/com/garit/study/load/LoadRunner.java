@@ -0,0 +1,201 @@
+package com.garit.study.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * HTTP 부하 발생기
+ *
+ * [open 모델] rate 요청/초
+ * => 응답을 기다리지 않고 정해진 시각마다 요청을 보낸다. (실제 사용자 트래픽과 같은 모양)
+ * => 지연시간은 "보내려고 했던 시각"부터 잰다. 서버가 밀려서 늦게 보낸 시간까지 포함된다. (coordinated omission 보정)
+ * => 동시에 진행 중인 요청은 max-in-flight개로 제한한다. (클라이언트가 먼저 무너지지 않도록)
+ *
+ * [closed 모델] concurrency개 스레드
+ * => 스레드마다 응답을 받으면 바로 다음 요청을 보낸다. => 최대 처리량 측정용
+ *
+ * 지연시간은 마이크로초 단위로 HdrHistogram에 기록한다.
+ * 429(admission control), 503(bulkhead)은 서버가 일부러 거절한 것이므로 오류와 따로 센다.
+ */
+class LoadRunner {
+
+    private static final long MAX_LATENCY_MICROS = Duration.ofMinutes(1).toNanos() / 1_000;
+
+    private final HttpClient client;
+    private final String baseUrl;
+
+    LoadRunner(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    Result open(String path, int rate, int maxInFlight, Duration duration) {
+        Result result = new Result(path, "open", rate);
+        HttpRequest request = request(path);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+
+        long intervalNanos = 1_000_000_000L / rate;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        for (long intended = start; intended < end; intended += intervalNanos) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            inFlight.acquireUninterruptibly();
+
+            long scheduledAt = intended;
+            pending.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, e) -> {
+                        result.record(response == null ? -1 : response.statusCode(), System.nanoTime() - scheduledAt);
+                        inFlight.release();
+                        return null;
+                    }));
+
+            // 끝난 요청은 목록에서 뺀다. (오래 돌려도 목록이 커지지 않도록)
+            if (pending.size() > maxInFlight * 4) {
+                pending.removeIf(CompletableFuture::isDone);
+            }
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).join();
+        result.finish(System.nanoTime() - start);
+        return result;
+    }
+
+    Result closed(String path, int concurrency, Duration duration) {
+        Result result = new Result(path, "closed", concurrency);
+        HttpRequest request = request(path);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        List<Thread> workers = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Thread worker = new Thread(() -> {
+                while (System.nanoTime() < end) {
+                    long sentAt = System.nanoTime();
+                    int status;
+                    try {
+                        status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } catch (IOException e) {
+                        status = -1;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    result.record(status, System.nanoTime() - sentAt);
+                }
+            }, "load-" + i);
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        result.finish(System.nanoTime() - start);
+        return result;
+    }
+
+    private HttpRequest request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+    }
+
+    /**
+     * 엔드포인트 하나의 측정 결과
+     * => load 값 : open 모델은 초당 요청 수, closed 모델은 동시 스레드 수
+     */
+    static class Result {
+
+        private final String path;
+        private final String mode;
+        private final int load;
+        private final Histogram histogram = new Histogram(MAX_LATENCY_MICROS, 3);
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private long elapsedNanos;
+
+        Result(String path, String mode, int load) {
+            this.path = path;
+            this.mode = mode;
+            this.load = load;
+        }
+
+        void record(int status, long latencyNanos) {
+            if (status == 429 || status == 503) {
+                rejected.incrementAndGet();
+                return;
+            }
+            if (status < 200 || status >= 400) {
+                errors.incrementAndGet();
+                return;
+            }
+            synchronized (histogram) {
+                histogram.recordValue(Math.min(MAX_LATENCY_MICROS, latencyNanos / 1_000));
+            }
+        }
+
+        void finish(long elapsedNanos) {
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        String getPath() {
+            return path;
+        }
+
+        String getMode() {
+            return mode;
+        }
+
+        int getLoad() {
+            return load;
+        }
+
+        Histogram getHistogram() {
+            return histogram;
+        }
+
+        AtomicLong getErrors() {
+            return errors;
+        }
+
+        AtomicLong getRejected() {
+            return rejected;
+        }
+
+        long getRequests() {
+            return histogram.getTotalCount();
+        }
+
+        double getThroughput() {
+            return elapsedNanos == 0 ? 0 : histogram.getTotalCount() * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        // 단위 : ms
+        double percentile(double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1_000.0;
+        }
+    }
+}
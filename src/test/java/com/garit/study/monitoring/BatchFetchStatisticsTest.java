@@ -0,0 +1,86 @@
+package com.garit.study.monitoring;
+
+import com.garit.study.domain.Address;
+import com.garit.study.domain.Member;
+import com.garit.study.domain.Order;
+import com.garit.study.domain.item.Book;
+import com.garit.study.monitoring.BatchFetchStatistics.BatchFetchReport;
+import com.garit.study.repository.order.query.OrderQueryRepository;
+import com.garit.study.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class BatchFetchStatisticsTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    OrderQueryRepository orderQueryRepository;
+
+    @Autowired
+    BatchFetchStatistics batchFetchStatistics;
+
+    @BeforeEach
+    void setUp() {
+        Member member = new Member();
+        member.setName("회원1");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+
+        Book book = new Book();
+        book.setName("시골 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(100);
+        em.persist(book);
+
+        for (int i = 0; i < 3; i++) {
+            orderService.order(member.getId(), book.getId(), 1);
+        }
+        em.flush();
+        em.clear();
+        batchFetchStatistics.reset();
+    }
+
+    @Test
+    public void 지연_로딩_batch_fetch만_집계() throws Exception {
+        //given
+        List<Order> orders = em.createQuery("select o from Order o", Order.class).getResultList();
+
+        //when
+        orders.forEach(order -> order.getOrderItems().size());
+
+        //then
+        List<BatchFetchReport> report = batchFetchStatistics.report();
+        assertThat(report).extracting(BatchFetchReport::getAssociation).containsExactly("order_item.order_id");
+        assertThat(report.get(0).getQueries()).isEqualTo(1);
+        assertThat(report.get(0).getMaxIds()).isGreaterThanOrEqualTo(3);
+    }
+
+    @Test
+    public void 직접_작성한_IN_쿼리는_집계하지_않음() throws Exception {
+        //when
+        orderQueryRepository.findAllByDto_optimization();
+        em.createQuery("select m from Member m where m.id in :ids", Member.class)
+                .setParameter("ids", List.of(1L, 2L, 3L))
+                .getResultList();
+
+        //then
+        assertThat(batchFetchStatistics.report())
+                .as("v5의 oi.order.id in :orderIds 같은 JPQL IN 쿼리는 batch fetch가 아니다.")
+                .isEmpty();
+    }
+}
@@ -0,0 +1,118 @@
+package com.garit.study.monitoring.jfr;
+
+import com.garit.study.domain.Address;
+import com.garit.study.domain.Member;
+import com.garit.study.domain.item.Book;
+import com.garit.study.service.ItemService;
+import com.garit.study.service.MemberService;
+import com.garit.study.service.OrderService;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * 주문 생성 / 조회 / 직렬화 경로가 JFR 이벤트를 남기는지 확인한다.
+ * => 녹화(Recording)를 켜고 실행한 뒤 파일로 떨궈서 다시 읽는다.
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:jfr", "response-cache.max-bytes=0"})
+@AutoConfigureMockMvc
+class JfrEventsTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    ItemService itemService;
+
+    @Autowired
+    OrderService orderService;
+
+    @Test
+    public void 주문_생성_조회_직렬화_이벤트() throws Exception {
+        //given
+        Member member = new Member();
+        member.setName("jfr");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        Long memberId = memberService.join(member);
+
+        Book book = new Book();
+        book.setName("JFR 책");
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        itemService.saveItem(book);
+
+        Path file = Files.createTempFile("order-events", ".jfr");
+        List<RecordedEvent> events;
+
+        //when
+        try (Recording recording = new Recording()) {
+            recording.enable(OrderPlacementEvent.class);
+            recording.enable(OrderQueryEvent.class);
+            recording.enable(JsonSerializationEvent.class);
+            recording.start();
+
+            orderService.order(memberId, book.getId(), 2);
+            request("/api/v5/orders");
+
+            recording.stop();
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        //then
+        List<String> placement = phases(events, "com.garit.study.OrderPlacement");
+        assertThat(placement)
+                .as("주문 생성 단계")
+                .containsExactly("member.lookup", "item.lookup", "stock.decrement", "persist", "flush", "rollup");
+
+        List<String> query = events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.garit.study.OrderQuery"))
+                .filter(e -> e.getString("method").equals("findAllByDto_optimization"))
+                .map(e -> e.getString("phase"))
+                .collect(Collectors.toList());
+        assertThat(query)
+                .as("V5 조회 단계")
+                .containsExactly("orders", "items", "mapping");
+
+        RecordedEvent serialization = events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.garit.study.JsonSerialization"))
+                .findFirst()
+                .orElseThrow();
+        assertThat(serialization.getString("format")).isEqualTo("json");
+        assertThat(serialization.getLong("bytes")).isPositive();
+    }
+
+    private List<String> phases(List<RecordedEvent> events, String type) {
+        return events.stream()
+                .filter(e -> e.getEventType().getName().equals(type))
+                .map(e -> e.getString("phase"))
+                .collect(Collectors.toList());
+    }
+
+    private void request(String url) throws Exception {
+        MvcResult result = mvc.perform(get(url)).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            mvc.perform(asyncDispatch(result)).andReturn();
+        }
+    }
+}
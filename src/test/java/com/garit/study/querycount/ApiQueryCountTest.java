@@ -0,0 +1,126 @@
+package com.garit.study.querycount;
+
+import com.garit.study.cache.OffHeapResponseCache;
+import com.garit.study.cache.OrderSearchCache;
+import com.garit.study.repository.OrderSearch;
+import com.garit.study.service.MemberService;
+import com.garit.study.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * 조회 API / 서비스가 실행하는 쿼리 수 기준선
+ * => OrderDto 변경, @BatchSize 삭제 같은 변경으로 N+1이 다시 생기면 여기서 실패한다.
+ * => 의도해서 쿼리 수를 바꿨다면 기준선도 함께 고친다.
+ *
+ * 데이터는 InitDb(seed) 그대로 고정하기 위해 별도 메모리 DB를 사용한다.
+ * => 주문 2개, 회원 2명, 주문마다 주문상품 2개 (상품 4개)
+ * => V1, V2처럼 N+1이 남아있는 API의 기준선은 이 데이터 기준이다.
+ *
+ * 응답 캐시(V4 ~ V7)와 주문 검색 캐시는 매번 비운다. => 캐시 hit이면 쿼리가 0개이거나 달라서 비교할 수 없다.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:querycount")
+@AutoConfigureMockMvc
+@ExtendWith(QueryCountExtension.class)
+class ApiQueryCountTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    OffHeapResponseCache responseCache;
+
+    @Autowired
+    OrderSearchCache orderSearchCache;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    MemberService memberService;
+
+    @BeforeEach
+    void clearResponseCache() {
+        responseCache.invalidateAll();
+        orderSearchCache.invalidateAll();
+    }
+
+    @Test
+    public void 주문_API_쿼리_수(QueryCounter counter) throws Exception {
+        // 지연 로딩 : 주문 1 + 회원 N + 배송 N + 주문상품(batch) 1 + 상품(batch) 1
+        assertThat(counter.measure(() -> request("/api/v1/orders"))).isEqualTo(QueryCount.of(7, 14, 1));
+        assertThat(counter.measure(() -> request("/api/v2/orders"))).isEqualTo(QueryCount.of(7, 14, 1));
+
+        // 컬렉션 페치 조인 한방 쿼리
+        assertThat(counter.measure(() -> request("/api/v3/orders"))).isEqualTo(QueryCount.of(1, 14, 0));
+
+        // ToOne 페치 조인 1 + 주문상품(batch) 1 + 상품(batch) 1
+        assertThat(counter.measure(() -> request("/api/v3.1/orders"))).isEqualTo(QueryCount.of(3, 14, 1));
+        assertThat(counter.measure(() -> request("/api/v3.2/orders"))).isEqualTo(QueryCount.of(3, 14, 1));
+
+        // DTO 직접 조회 : 루트 1 + 주문상품 N
+        assertThat(counter.measure(() -> request("/api/v4/orders"))).isEqualTo(QueryCount.of(3, 0, 0));
+
+        // DTO 직접 조회 : 루트 1 + 주문상품(IN) 1
+        assertThat(counter.measure(() -> request("/api/v5/orders"))).isEqualTo(QueryCount.of(2, 0, 0));
+
+        // 플랫 DTO 한방 쿼리
+        assertThat(counter.measure(() -> request("/api/v6/orders"))).isEqualTo(QueryCount.of(1, 0, 0));
+
+        // JDBC 한방 쿼리 => Hibernate를 거치지 않으므로 0
+        assertThat(counter.measure(() -> request("/api/v7/orders"))).isEqualTo(QueryCount.of(0, 0, 0));
+    }
+
+    @Test
+    public void 단순주문_API_쿼리_수(QueryCounter counter) throws Exception {
+        // 지연 로딩 : 주문 1 + 회원 N + 배송 N
+        assertThat(counter.measure(() -> request("/api/v1/simple-orders"))).isEqualTo(QueryCount.of(5, 6, 0));
+        assertThat(counter.measure(() -> request("/api/v2/simple-orders"))).isEqualTo(QueryCount.of(5, 6, 0));
+
+        // ToOne 페치 조인
+        assertThat(counter.measure(() -> request("/api/v3/simple-orders"))).isEqualTo(QueryCount.of(1, 6, 0));
+
+        // DTO 직접 조회
+        assertThat(counter.measure(() -> request("/api/v4/simple-orders"))).isEqualTo(QueryCount.of(1, 0, 0));
+    }
+
+    @Test
+    public void 회원_API_쿼리_수(QueryCounter counter) throws Exception {
+        assertThat(counter.measure(() -> request("/api/v1/members"))).isEqualTo(QueryCount.of(1, 2, 0));
+        assertThat(counter.measure(() -> request("/api/v2/members"))).isEqualTo(QueryCount.of(1, 2, 0));
+    }
+
+    @Test
+    public void 조회_서비스_쿼리_수(QueryCounter counter) throws Exception {
+        assertThat(counter.measure(() -> memberService.findMembers())).isEqualTo(QueryCount.of(1, 2, 0));
+
+        // FULL plan : ToOne 페치 1 + 주문상품(batch) 1 + 상품(batch) 1
+        assertThat(counter.measure(() -> orderService.findOrders(new OrderSearch()))).isEqualTo(QueryCount.of(3, 14, 1));
+
+        // 검색 결과 캐시 hit : id IN 페치 1 + 주문상품(batch) 1 + 상품(batch) 1 => 검색 쿼리 대신 PK 조회
+        assertThat(counter.measure(() -> orderService.findOrders(new OrderSearch()))).isEqualTo(QueryCount.of(3, 14, 1));
+    }
+
+    /**
+     * 비동기 API(Bulkhead)는 작업 스레드가 끝날 때까지 기다린다. => 작업 스레드의 쿼리까지 센다.
+     */
+    private void request(String url) throws Exception {
+        MvcResult result = mvc.perform(get(url)).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mvc.perform(asyncDispatch(result)).andReturn();
+        }
+        assertThat(result.getResponse().getStatus())
+                .isEqualTo(200)
+                .as(url);
+    }
+}
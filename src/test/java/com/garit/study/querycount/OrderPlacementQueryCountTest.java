@@ -0,0 +1,60 @@
+package com.garit.study.querycount;
+
+import com.garit.study.domain.Address;
+import com.garit.study.domain.Member;
+import com.garit.study.domain.item.Book;
+import com.garit.study.service.ItemService;
+import com.garit.study.service.MemberService;
+import com.garit.study.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 주문 생성 쿼리 수 기준선
+ * => 회원은 스냅샷 캐시 + 프록시로만 연결하므로, 캐시가 채워진 뒤에는 회원 select가 없어야 한다.
+ *
+ * 주문을 만들면 주문 목록 기준선(ApiQueryCountTest)이 바뀌므로 별도 메모리 DB를 사용한다.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:querycount-order")
+@ExtendWith(QueryCountExtension.class)
+class OrderPlacementQueryCountTest {
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    ItemService itemService;
+
+    @Autowired
+    OrderService orderService;
+
+    @Test
+    public void 주문_생성_쿼리_수(QueryCounter counter) throws Exception {
+        //given
+        Member member = new Member();
+        member.setName("주문회원");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        Long memberId = memberService.join(member);
+
+        Book book = new Book();
+        book.setName("시골 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        itemService.saveItem(book);
+
+        //when
+        QueryCount cold = counter.measure(() -> orderService.order(memberId, book.getId(), 1));
+        QueryCount warm = counter.measure(() -> orderService.order(memberId, book.getId(), 1));
+
+        //then
+        // 첫 주문 : 회원 select(캐시 miss) + 상품 select + 시퀀스 + insert(주문, 배송, 주문상품) + 재고 update + 일별 매출 행 생성
+        assertThat(cold).isEqualTo(QueryCount.of(11, 2, 0));
+
+        // 두번째 주문 : 회원 select 없음, 엔티티 로딩은 상품 1개, 일별 매출은 기존 행 update
+        assertThat(warm).isEqualTo(QueryCount.of(9, 1, 0));
+    }
+}
@@ -0,0 +1,71 @@
+package com.garit.study.querycount;
+
+import org.hibernate.stat.Statistics;
+
+import java.util.Objects;
+
+/**
+ * 한 번의 호출(서비스 메서드, MockMvc 요청)에서 하이버네이트가 실행한 일의 양
+ *
+ * statements        : DB로 나간 SQL 수 (select, insert, update, delete 전부)
+ * entityLoads       : 영속성 컨텍스트에 올라온 엔티티 수
+ * collectionFetches : 지연 로딩 컬렉션을 초기화한 횟수 (batch fetch는 IN 쿼리 1번에 여러 컬렉션)
+ */
+public final class QueryCount {
+
+    private final long statements;
+    private final long entityLoads;
+    private final long collectionFetches;
+
+    private QueryCount(long statements, long entityLoads, long collectionFetches) {
+        this.statements = statements;
+        this.entityLoads = entityLoads;
+        this.collectionFetches = collectionFetches;
+    }
+
+    public static QueryCount of(long statements, long entityLoads, long collectionFetches) {
+        return new QueryCount(statements, entityLoads, collectionFetches);
+    }
+
+    static QueryCount from(Statistics statistics) {
+        return new QueryCount(statistics.getPrepareStatementCount(), statistics.getEntityLoadCount(),
+                statistics.getCollectionFetchCount());
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getEntityLoads() {
+        return entityLoads;
+    }
+
+    public long getCollectionFetches() {
+        return collectionFetches;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof QueryCount)) {
+            return false;
+        }
+        QueryCount that = (QueryCount) o;
+        return statements == that.statements
+                && entityLoads == that.entityLoads
+                && collectionFetches == that.collectionFetches;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(statements, entityLoads, collectionFetches);
+    }
+
+    @Override
+    public String toString() {
+        return "QueryCount(statements=" + statements + ", entityLoads=" + entityLoads
+                + ", collectionFetches=" + collectionFetches + ")";
+    }
+}
@@ -0,0 +1,51 @@
+package com.garit.study.querycount;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * 테스트 메서드 파라미터로 QueryCounter를 넣어준다.
+ * => @SpringBootTest 와 함께 사용한다. (스프링 컨텍스트의 EntityManagerFactory에서 Statistics를 꺼낸다)
+ *
+ * hibernate.generate_statistics 설정 없이 테스트 중에만 통계를 켠다.
+ * => 설정으로 켜면 세션마다 통계 로그가 찍히고, 다른 테스트에도 수집 비용이 붙는다.
+ */
+public class QueryCountExtension implements BeforeEachCallback, AfterEachCallback, ParameterResolver {
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        Statistics statistics = statistics(context);
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        statistics(context).setStatisticsEnabled(false);
+    }
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return parameterContext.getParameter().getType() == QueryCounter.class;
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return new QueryCounter(statistics(extensionContext));
+    }
+
+    private Statistics statistics(ExtensionContext context) {
+        return SpringExtension.getApplicationContext(context)
+                .getBean(EntityManagerFactory.class)
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+    }
+}
@@ -0,0 +1,28 @@
+package com.garit.study.querycount;
+
+import org.hibernate.stat.Statistics;
+
+/**
+ * 하이버네이트 Statistics로 호출 하나의 쿼리 수를 잰다.
+ * => Statistics는 SessionFactory 전체에서 하나이므로, 측정하는 동안 다른 스레드가 쿼리를 날리면 같이 세진다.
+ * => 비동기 요청(Bulkhead)은 작업 스레드가 끝날 때까지 기다린 뒤에 읽어야 한다.
+ */
+public class QueryCounter {
+
+    private final Statistics statistics;
+
+    QueryCounter(Statistics statistics) {
+        this.statistics = statistics;
+    }
+
+    public QueryCount measure(Action action) throws Exception {
+        statistics.clear();
+        action.run();
+        return QueryCount.from(statistics);
+    }
+
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,34 @@
+package com.garit.study.repository.order.query;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class OrderQueryJdbcRepositoryTest {
+
+    @Autowired
+    OrderQueryRepository orderQueryRepository;
+
+    @Autowired
+    OrderQueryJdbcRepository orderQueryJdbcRepository;
+
+    @Test
+    public void JDBC_조회_결과는_V5와_같다() throws Exception {
+        //given
+        List<OrderQueryDto> expected = orderQueryRepository.findAllByDto_optimization();
+
+        //when
+        List<OrderQueryDto> result = orderQueryJdbcRepository.findAllByJdbc();
+
+        //then
+        assertThat(result)
+                .as("주문, 주문상품 순서와 값이 모두 같아야 한다.")
+                .usingRecursiveFieldByFieldElementComparator()
+                .isEqualTo(expected);
+    }
+}
@@ -0,0 +1,57 @@
+package com.garit.study.reservation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashedTimingWheelTest {
+
+    @Test
+    public void 만료_시각이_지난_타이머만_꺼낸다() throws Exception {
+        //given : tick 100ms, 칸 8개 => 한 바퀴 800ms
+        HashedTimingWheel wheel = new HashedTimingWheel(100, 8, 0);
+        wheel.add(1, 250);      // 3번째 tick (올림)
+        wheel.add(2, 250 + 800);    // 한 바퀴 뒤 같은 칸
+        wheel.add(3, 100);
+
+        //when
+        List<Long> first = advance(wheel, 299);
+        List<Long> second = advance(wheel, 300);
+
+        //then
+        assertThat(first).containsExactly(3L);
+        assertThat(second)
+                .as("만료 시각보다 일찍 꺼내지 않는다.")
+                .containsExactly(1L);
+        assertThat(wheel.size()).isEqualTo(1);
+
+        //when
+        List<Long> late = advance(wheel, 5000);
+
+        //then
+        assertThat(late)
+                .as("처리가 밀려도 한번에 꺼낸다.")
+                .containsExactly(2L);
+        assertThat(wheel.size()).isZero();
+
+        //when
+        wheel.add(4, 10);   // 이미 지난 시각
+
+        //then
+        assertThat(advance(wheel, 5001))
+                .as("이미 처리한 tick(50)에는 다시 꺼내지 않는다.")
+                .isEmpty();
+        assertThat(advance(wheel, 5100))
+                .as("지난 시각은 다음 tick에 꺼낸다.")
+                .containsExactly(4L);
+    }
+
+    private List<Long> advance(HashedTimingWheel wheel, long nowMillis) {
+        List<Long> expired = new ArrayList<>();
+        wheel.advance(nowMillis, expired::add);
+        return expired;
+    }
+}
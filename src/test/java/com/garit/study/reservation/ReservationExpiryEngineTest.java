@@ -0,0 +1,221 @@
+package com.garit.study.reservation;
+
+import com.garit.study.domain.Address;
+import com.garit.study.domain.Member;
+import com.garit.study.domain.Order;
+import com.garit.study.domain.ReservationStatus;
+import com.garit.study.domain.StockReservation;
+import com.garit.study.domain.item.Book;
+import com.garit.study.repository.ItemRepository;
+import com.garit.study.repository.OrderRepository;
+import com.garit.study.service.ItemService;
+import com.garit.study.service.MemberService;
+import com.garit.study.service.OrderService;
+import com.garit.study.service.StockReservationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:reservation")
+class ReservationExpiryEngineTest {
+
+    @Autowired
+    StockReservationService stockReservationService;
+
+    @Autowired
+    ReservationExpiryEngine reservationExpiryEngine;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    ItemService itemService;
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    EntityManager em;
+
+    @Test
+    public void 확정하지_않은_예약은_만료되면서_재고를_돌려준다() throws Exception {
+        //given
+        Long memberId = createMember("예약회원");
+        Book book = createBook(10);
+
+        //when
+        StockReservation confirmed = stockReservationService.reserve(memberId, book.getId(), 3, 60);
+        StockReservation abandoned = stockReservationService.reserve(memberId, book.getId(), 4, 60);
+        Long orderId = orderService.orderReservation(confirmed.getId());
+
+        //then
+        assertThat(itemService.findOne(book.getId()).getStockQuantity())
+                .as("확정은 재고를 다시 빼지 않는다.")
+                .isEqualTo(3);
+        Order order = orderRepository.findOne(orderId);
+        assertThat(order.getTotalPrice()).isEqualTo(30000);
+
+        //when
+        int released = reservationExpiryEngine.advance(System.currentTimeMillis() + 61_000);
+
+        //then
+        assertThat(released)
+                .as("확정된 예약은 건너뛴다.")
+                .isEqualTo(1);
+        assertThat(itemService.findOne(book.getId()).getStockQuantity()).isEqualTo(7);
+        assertThat(stockReservationService.findOne(abandoned.getId()).getStatus()).isEqualTo(ReservationStatus.EXPIRED);
+        assertThat(stockReservationService.findOne(confirmed.getId()).getOrderId()).isEqualTo(orderId);
+        assertThatThrownBy(() -> orderService.orderReservation(abandoned.getId()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void 만료가_재고를_돌려주는_동안_커밋된_주문의_재고_차감을_덮어쓰지_않는다() throws Exception {
+        //given
+        Long memberId = createMember("만료 락 회원");
+        Book book = createBook(10);
+        stockReservationService.reserve(memberId, book.getId(), 4, 60);     // 재고 6
+
+        // 다른 트랜잭션이 상품을 잠그고 재고를 1 뺀 상태로 커밋을 미룬다. (주문 중)
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CompletableFuture<Void> order = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            itemRepository.findOneForUpdate(book.getId()).removeStock(1);
+            locked.countDown();
+            await(commit);
+        }));
+        assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+
+        //when
+        CompletableFuture<Integer> expiry = CompletableFuture.supplyAsync(() ->
+                reservationExpiryEngine.advance(System.currentTimeMillis() + 61_000));
+        Thread.sleep(300);
+        assertThat(expiry).as("만료는 상품 락을 기다린다.").isNotDone();
+        commit.countDown();
+        order.get(5, TimeUnit.SECONDS);
+
+        //then
+        assertThat(expiry.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(itemService.findOne(book.getId()).getStockQuantity())
+                .as("6 - 주문 1 + 만료 4 => 주문의 차감이 사라지지 않는다.")
+                .isEqualTo(9);
+    }
+
+    @Test
+    public void 같은_상품의_예약을_동시에_확정해도_일별_매출_행을_하나만_만든다() throws Exception {
+        //given
+        Long memberId = createMember("동시 확정 회원");
+        Book book = createBook(10);
+        StockReservation first = stockReservationService.reserve(memberId, book.getId(), 1, 60);
+        StockReservation second = stockReservationService.reserve(memberId, book.getId(), 2, 60);
+
+        // 상품을 잠가두고 두 확정을 동시에 출발시킨다. => 오늘, 이 상품의 일별 매출 행은 아직 없다.
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            itemRepository.findOneForUpdate(book.getId());
+            locked.countDown();
+            await(release);
+        }));
+        assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+
+        //when
+        CompletableFuture<Long> confirm1 = CompletableFuture.supplyAsync(() -> orderService.orderReservation(first.getId()));
+        CompletableFuture<Long> confirm2 = CompletableFuture.supplyAsync(() -> orderService.orderReservation(second.getId()));
+        Thread.sleep(300);
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+
+        //then
+        assertThat(confirm1.get(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(confirm2.get(5, TimeUnit.SECONDS))
+                .as("두 확정 모두 update 0건 => insert 하다가 PK 충돌이 나지 않는다.")
+                .isNotNull();
+        Number units = transactionTemplate.execute(status -> (Number) em.createNativeQuery(
+                        "select units from daily_sales where item_id = :itemId and status = 'ORDER'")
+                .setParameter("itemId", book.getId())
+                .getSingleResult());
+        assertThat(units.longValue()).isEqualTo(3);
+    }
+
+    @Test
+    public void 만료_타이머는_커밋된_뒤에_등록한다() throws Exception {
+        //given
+        Long memberId = createMember("만료 타이머 회원");
+        Book book = createBook(10);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        double before = pending();
+
+        //when
+        transactionTemplate.executeWithoutResult(status -> {
+            stockReservationService.reserve(memberId, book.getId(), 1, 60);
+            assertThat(pending()).as("커밋 전").isEqualTo(before);
+            status.setRollbackOnly();
+        });
+
+        //then
+        assertThat(pending()).as("롤백된 예약은 등록하지 않는다.").isEqualTo(before);
+        assertThat(itemService.findOne(book.getId()).getStockQuantity()).isEqualTo(10);
+
+        //when
+        stockReservationService.reserve(memberId, book.getId(), 1, 60);
+
+        //then
+        assertThat(pending()).isEqualTo(before + 1);
+    }
+
+    private double pending() {
+        return meterRegistry.get("reservation.pending").gauge().value();
+    }
+
+    private Long createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        return memberService.join(member);
+    }
+
+    private Book createBook(int stockQuantity) {
+        Book book = new Book();
+        book.setName("예약 책");
+        book.setPrice(10000);
+        book.setStockQuantity(stockQuantity);
+        itemService.saveItem(book);
+        return book;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
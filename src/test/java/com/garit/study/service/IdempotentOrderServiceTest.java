@@ -0,0 +1,234 @@
+package com.garit.study.service;
+
+import com.garit.study.domain.Address;
+import com.garit.study.domain.IdempotencyKey;
+import com.garit.study.domain.Member;
+import com.garit.study.domain.item.Book;
+import com.garit.study.domain.item.Item;
+import com.garit.study.exception.IdempotencyKeyMismatchException;
+import com.garit.study.repository.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@Transactional
+class IdempotentOrderServiceTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    IdempotentOrderService idempotentOrderService;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    OrderService orderService;
+
+    @Test
+    public void 같은_키로_재시도하면_주문은_한번만_생성() throws Exception {
+        //given
+        Member member = createMember();
+        Book book = createBook("시골 JPA", 10000, 10);
+
+        //when
+        Long firstOrderId = idempotentOrderService.order("retry-key-1", member.getId(), book.getId(), 2);
+        Long retryOrderId = idempotentOrderService.order("retry-key-1", member.getId(), book.getId(), 2);
+
+        //then
+        assertThat(retryOrderId)
+                .isEqualTo(firstOrderId)
+                .as("재시도하면 처음 주문한 id를 돌려준다.");
+
+        Item item = itemRepository.findOne(book.getId());
+        assertThat(item.getStockQuantity())
+                .isEqualTo(8)
+                .as("재고는 한번만 줄어야 한다.");
+    }
+
+    @Test
+    public void 다른_키는_새로운_주문() throws Exception {
+        //given
+        Member member = createMember();
+        Book book = createBook("시골 JPA", 10000, 10);
+
+        //when
+        Long firstOrderId = idempotentOrderService.order("key-a", member.getId(), book.getId(), 1);
+        Long secondOrderId = idempotentOrderService.order("key-b", member.getId(), book.getId(), 1);
+
+        //then
+        assertThat(secondOrderId).isNotEqualTo(firstOrderId);
+    }
+
+    @Test
+    public void 같은_키로_다른_주문을_보내면_거절() throws Exception {
+        //given
+        Member member = createMember();
+        Book book = createBook("시골 JPA", 10000, 10);
+        Long firstOrderId = idempotentOrderService.order("reused-key", member.getId(), book.getId(), 2);
+
+        //when, then
+        assertThatThrownBy(() -> idempotentOrderService.order("reused-key", member.getId(), book.getId(), 3))
+                .as("최근 키 캐시에 남아있는 키")
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+
+        IdempotentOrderService restarted = new IdempotentOrderService(orderService, 10, 24);
+        em.flush();
+        em.clear();
+        assertThatThrownBy(() -> restarted.order("reused-key", member.getId(), book.getId(), 3))
+                .as("재시작 후에는 DB에 저장된 해시로 비교한다.")
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+        assertThat(restarted.order("reused-key", member.getId(), book.getId(), 2)).isEqualTo(firstOrderId);
+        assertThat(itemRepository.findOne(book.getId()).getStockQuantity()).isEqualTo(8);
+    }
+
+    @Test
+    public void 최근_키_캐시에서_밀려나면_DB로_중복_방지() throws Exception {
+        //given
+        Member member = createMember();
+        Book book = createBook("시골 JPA", 10000, 10);
+        IdempotentOrderService service = new IdempotentOrderService(orderService, 1, 24);
+        Long firstOrderId = service.order("evicted-key", member.getId(), book.getId(), 1);
+        service.order("other-key", member.getId(), book.getId(), 1);     // 캐시 크기 1 => evicted-key가 밀려난다.
+        em.flush();
+        em.clear();
+
+        //when
+        Long retryOrderId = service.order("evicted-key", member.getId(), book.getId(), 1);
+
+        //then
+        assertThat(retryOrderId).isEqualTo(firstOrderId);
+        assertThat(itemRepository.findOne(book.getId()).getStockQuantity())
+                .as("두 키로 한번씩만 주문된다.")
+                .isEqualTo(8);
+    }
+
+    @Test
+    public void 같은_키로_동시에_요청하면_먼저_온_요청의_결과를_기다린다() throws Exception {
+        //given
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        OrderService slowOrderService = mock(OrderService.class);
+        when(slowOrderService.order(anyString(), anyLong(), anyLong(), anyInt())).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return 42L;
+        });
+        IdempotentOrderService service = new IdempotentOrderService(slowOrderService, 10, 24);
+
+        CompletableFuture<Long> first = CompletableFuture.supplyAsync(() -> service.order("concurrent-key", 1L, 2L, 3));
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        //when
+        AtomicReference<Thread> secondThread = new AtomicReference<>();
+        CompletableFuture<Long> second = CompletableFuture.supplyAsync(() -> {
+            secondThread.set(Thread.currentThread());
+            return service.order("concurrent-key", 1L, 2L, 3);
+        });
+        awaitWaiting(secondThread);
+        release.countDown();
+
+        //then
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(42L);
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(42L);
+        verify(slowOrderService, times(1)).order(anyString(), anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    public void 다른_서버가_같은_키로_먼저_커밋하면_그_주문_id를_돌려준다() throws Exception {
+        //given
+        String requestHash = IdempotencyKey.requestHash(1L, 2L, 3);
+        OrderService orderService = mock(OrderService.class);
+        when(orderService.order(anyString(), anyLong(), anyLong(), anyInt()))
+                .thenThrow(new DataIntegrityViolationException("PK 충돌 (idempotency_key)"));
+        when(orderService.findOrderId("other-server-key", requestHash)).thenReturn(42L);
+        when(orderService.findOrderId(eq("lost-key"), anyString())).thenReturn(null);
+        IdempotentOrderService service = new IdempotentOrderService(orderService, 10, 24);
+
+        //when, then
+        assertThat(service.order("other-server-key", 1L, 2L, 3))
+                .as("내 트랜잭션은 롤백되고, 먼저 커밋된 주문 id를 돌려준다.")
+                .isEqualTo(42L);
+        assertThat(service.order("other-server-key", 1L, 2L, 3)).isEqualTo(42L);
+        verify(orderService, times(1)).order(anyString(), anyLong(), anyLong(), anyInt());
+
+        when(orderService.findOrderId("other-server-key", IdempotencyKey.requestHash(1L, 2L, 4)))
+                .thenThrow(new IdempotencyKeyMismatchException("다른 요청"));
+        assertThatThrownBy(() -> new IdempotentOrderService(orderService, 10, 24).order("other-server-key", 1L, 2L, 4))
+                .as("먼저 커밋된 주문과 요청 내용이 다르면 거절")
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+        assertThatThrownBy(() -> service.order("lost-key", 1L, 2L, 3))
+                .as("키 행을 찾지 못하면 키 충돌이 아니므로 원래 예외를 던진다.")
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    public void 최근_키는_ttl이_지나면_DB에서_다시_확인한다() throws Exception {
+        //given
+        OrderService orderService = mock(OrderService.class);
+        when(orderService.order(anyString(), anyLong(), anyLong(), anyInt())).thenReturn(7L);
+        IdempotentOrderService service = new IdempotentOrderService(orderService, 10, 24);
+        long now = System.nanoTime();
+        service.order("ttl-key", 1L, 2L, 3, now);
+
+        //when
+        service.order("ttl-key", 1L, 2L, 3, now + TimeUnit.HOURS.toNanos(23));
+        verify(orderService, times(1)).order(anyString(), anyLong(), anyLong(), anyInt());
+        service.order("ttl-key", 1L, 2L, 3, now + TimeUnit.HOURS.toNanos(24));
+
+        //then
+        verify(orderService, times(2).description("ttl(24시간)이 지난 키는 OrderService(DB 확인)로 다시 보낸다."))
+                .order(anyString(), anyLong(), anyLong(), anyInt());
+    }
+
+    /**
+     * 두번째 요청이 처리 중인 키의 결과(CompletableFuture.join)를 기다리기 시작할 때까지 대기
+     */
+    private void awaitWaiting(AtomicReference<Thread> thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.get() == null || thread.get().getState() != Thread.State.WAITING) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("두번째 요청이 기다리지 않습니다.");
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    private Book createBook(String name, int price, int stockQuantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(price);
+        book.setStockQuantity(stockQuantity);
+        em.persist(book);
+        return book;
+    }
+
+    private Member createMember() {
+        Member member = new Member();
+        member.setName("회원1");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+        return member;
+    }
+}
@@ -8,6 +8,8 @@ import com.garit.study.domain.item.Book;
 import com.garit.study.domain.item.Item;
 import com.garit.study.exception.NotEnoughStockException;
 import com.garit.study.repository.OrderRepository;
+import com.garit.study.repository.OrderSearch;
+import com.garit.study.repository.OrderSortType;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,6 +17,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
@@ -102,6 +106,36 @@ class OrderServiceTest {
                 .as("주문이 취소된 상품은 그만큼 재고가 증가해야 한다.");
     }
 
+    @Test
+    public void 주문금액_검색_정렬() throws Exception {
+        //given
+        Member member = createMember();
+        Book book = createBook("시골 JPA", 10000, 100);
+
+        Long small = orderService.order(member.getId(), book.getId(), 1);
+        Long medium = orderService.order(member.getId(), book.getId(), 3);
+        Long large = orderService.order(member.getId(), book.getId(), 5);
+        em.flush();
+        em.clear();
+
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName("회원1");
+        orderSearch.setMinTotalPrice(20000);
+        orderSearch.setMaxTotalPrice(50000);
+        orderSearch.setSort(OrderSortType.TOTAL_PRICE_DESC);
+
+        //when
+        List<Long> orderIds = orderService.findOrders(orderSearch).stream()
+                .map(Order::getId)
+                .collect(Collectors.toList());
+
+        //then
+        assertThat(orderIds)
+                .containsExactly(large, medium)
+                .as("금액 범위 안의 주문만 금액 높은 순으로 조회된다.");
+        assertThat(orderIds).doesNotContain(small);
+    }
+
 
     private Book createBook(String name, int price, int stockQuantity) {
         Book book = new Book();
@@ -0,0 +1,103 @@
+package com.garit.study.service;
+
+import com.garit.study.domain.Address;
+import com.garit.study.domain.Member;
+import com.garit.study.domain.OrderStatus;
+import com.garit.study.domain.item.Book;
+import com.garit.study.repository.sales.DailySalesRepository;
+import com.garit.study.repository.sales.SalesByItemDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class SalesRollupServiceTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    SalesRollupService salesRollupService;
+
+    @Autowired
+    DailySalesRepository dailySalesRepository;
+
+    @Test
+    public void 주문과_취소가_집계에_반영된다() throws Exception {
+        //given
+        Member member = createMember();
+        Book book = createBook("시골 JPA", 10000, 10);
+        LocalDate today = LocalDate.now();
+
+        //when
+        orderService.order(member.getId(), book.getId(), 2);
+        Long canceledId = orderService.order(member.getId(), book.getId(), 3);
+        orderService.cancelOrder(canceledId);
+
+        //then
+        assertThat(sales(today, OrderStatus.ORDER, book.getId()).getRevenue())
+                .isEqualTo(20000)
+                .as("취소된 주문은 ORDER 매출에서 빠진다.");
+        assertThat(sales(today, OrderStatus.CANCEL, book.getId()).getUnits())
+                .isEqualTo(3)
+                .as("취소된 수량은 CANCEL로 옮겨진다.");
+    }
+
+    @Test
+    public void rebuild_결과는_증분_집계와_같다() throws Exception {
+        //given
+        Member member = createMember();
+        Book book = createBook("시골 JPA", 10000, 10);
+        LocalDate today = LocalDate.now();
+
+        orderService.order(member.getId(), book.getId(), 2);
+        orderService.cancelOrder(orderService.order(member.getId(), book.getId(), 3));
+        em.flush();
+        em.clear();
+        SalesByItemDto ordered = sales(today, OrderStatus.ORDER, book.getId());
+        SalesByItemDto canceled = sales(today, OrderStatus.CANCEL, book.getId());
+
+        //when
+        salesRollupService.rebuild(today, today.plusDays(1));
+
+        //then
+        assertThat(sales(today, OrderStatus.ORDER, book.getId())).isEqualTo(ordered);
+        assertThat(sales(today, OrderStatus.CANCEL, book.getId())).isEqualTo(canceled);
+    }
+
+    private SalesByItemDto sales(LocalDate date, OrderStatus status, Long itemId) {
+        List<SalesByItemDto> result = dailySalesRepository.findByItem(date, date, status);
+        return result.stream()
+                .filter(dto -> dto.getItemId().equals(itemId))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private Book createBook(String name, int price, int stockQuantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(price);
+        book.setStockQuantity(stockQuantity);
+        em.persist(book);
+        return book;
+    }
+
+    private Member createMember() {
+        Member member = new Member();
+        member.setName("회원1");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+        return member;
+    }
+}
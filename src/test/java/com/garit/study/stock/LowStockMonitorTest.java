@@ -0,0 +1,80 @@
+package com.garit.study.stock;
+
+import com.garit.study.domain.Address;
+import com.garit.study.domain.Member;
+import com.garit.study.domain.item.Book;
+import com.garit.study.repository.LowStockItemDto;
+import com.garit.study.service.ItemService;
+import com.garit.study.service.MemberService;
+import com.garit.study.service.OrderService;
+import com.garit.study.stock.StockThresholdEvent.Direction;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * seed 상품의 재고는 모두 100 이상 => 임계치(10) 미만 상품은 테스트에서 만든 상품뿐
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:low-stock", "low-stock.threshold=10"})
+class LowStockMonitorTest {
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    ItemService itemService;
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    LowStockService lowStockService;
+
+    @Autowired
+    LowStockMonitor lowStockMonitor;
+
+    @Test
+    public void 주문으로_임계치_아래로_내려가면_알림을_남긴다() throws Exception {
+        //given
+        Member member = new Member();
+        member.setName("재고회원");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        Long memberId = memberService.join(member);
+
+        Book book = new Book();
+        book.setName("재고 부족 책");
+        book.setPrice(10000);
+        book.setStockQuantity(11);
+        itemService.saveItem(book);
+
+        //when
+        orderService.order(memberId, book.getId(), 1);
+        Long orderId = orderService.order(memberId, book.getId(), 2);
+
+        //then
+        assertThat(lowStockMonitor.recentAlerts()).hasSize(1);
+        StockThresholdEvent alert = lowStockMonitor.recentAlerts().get(0);
+        assertThat(alert.getItemId()).isEqualTo(book.getId());
+        assertThat(alert.getDirection()).isEqualTo(Direction.BELOW);
+        assertThat(alert.getBefore()).isEqualTo(10);
+        assertThat(alert.getAfter()).isEqualTo(8);
+
+        LowStockReport report = lowStockService.report(null, 0, 100);
+        assertThat(report.getTotalCount()).isEqualTo(1);
+        assertThat(report.getItems().stream().map(LowStockItemDto::getItemId).collect(Collectors.toList()))
+                .containsExactly(book.getId());
+
+        //when
+        orderService.cancelOrder(orderId);
+
+        //then
+        assertThat(lowStockMonitor.recentAlerts().get(0).getDirection())
+                .as("취소로 재고가 돌아오면 회복 알림")
+                .isEqualTo(Direction.RECOVERED);
+        assertThat(lowStockService.report(null, 0, 100).getTotalCount()).isZero();
+    }
+}